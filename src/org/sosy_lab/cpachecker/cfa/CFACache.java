@@ -0,0 +1,310 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CParser.FileContentToParse;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+
+/**
+ * Cache for CFAs across several runs of CPAchecker, such that parsing and post-processing can be
+ * skipped if the same program is analyzed repeatedly.
+ *
+ * <p>Each entry is keyed by a hash of the CPAchecker version, of the content of all program files
+ * (after preprocessing, if the preprocessor is used), and of all options that influence the CFA
+ * creation. Entries consist of a header with the format and CPAchecker version (entries with a
+ * different version are ignored and removed) and the gzipped serialized CFA. Entries are written
+ * atomically, so several processes may use the same cache directory concurrently, and the
+ * least-recently used entries are removed if the number of entries exceeds the limit.
+ */
+@Options(prefix = "cfa.cache")
+class CFACache {
+
+  @Option(
+      secure = true,
+      description =
+          "directory for caching CFAs across several runs, which are then loaded"
+              + " instead of parsing the same program again"
+              + " (the cache is disabled if no directory is given)")
+  @FileOption(FileOption.Type.OUTPUT_DIRECTORY)
+  private @Nullable Path directory = null;
+
+  @Option(
+      secure = true,
+      description =
+          "maximum number of CFAs in the cache, "
+              + "least-recently used entries are removed if the limit is exceeded")
+  @IntegerOption(min = 1)
+  private int maxEntries = 50;
+
+  /** Increase whenever the layout of the cache entries changes. */
+  private static final int FORMAT_VERSION = 1;
+
+  private static final String MAGIC = "CPAchecker-CFA";
+  private static final String FILE_SUFFIX = ".cfa";
+
+  /** Prefixes of all options that influence the CFA creation and are thus part of the key. */
+  private static final ImmutableList<String> RELEVANT_OPTION_PREFIXES =
+      ImmutableList.of(
+          "analysis.entryFunction",
+          "analysis.functionPointer",
+          "analysis.interprocedural",
+          "analysis.machineModel",
+          "analysis.matchAssignedFunctionPointers",
+          "analysis.replace",
+          "analysis.summaryEdges",
+          "analysis.threadOperationsTransform",
+          "analysis.useGlobalVars",
+          "analysis.useLoopStructure",
+          "cfa.",
+          "java.",
+          "language",
+          "liveVar.",
+          "parser.");
+
+  private static final Splitter LINE_SPLITTER = Splitter.on('\n').omitEmptyStrings();
+
+  private final Configuration config;
+  private final LogManager logger;
+
+  final Timer loadTime = new Timer();
+  final Timer storeTime = new Timer();
+  int hits = 0;
+  int misses = 0;
+
+  CFACache(Configuration pConfig, LogManager pLogger) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    config = pConfig;
+    logger = pLogger;
+
+    if (directory != null) {
+      try {
+        Files.createDirectories(directory);
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not access CFA cache, disabling it");
+        directory = null;
+      }
+    }
+  }
+
+  boolean isEnabled() {
+    return directory != null;
+  }
+
+  /**
+   * Compute the cache key for the given program files.
+   *
+   * @param pPreprocessedFiles the result of the preprocessor for all program files, or null if the
+   *     preprocessor is not used and the files should be read as they are
+   */
+  String computeKey(
+      List<String> pSourceFiles, @Nullable List<FileContentToParse> pPreprocessedFiles)
+      throws IOException {
+    Hasher hasher =
+        Hashing.sha256()
+            .newHasher()
+            .putInt(FORMAT_VERSION)
+            .putString(CPAchecker.getPlainVersion(), UTF_8)
+            .putChar('\0');
+
+    for (String line : LINE_SPLITTER.split(config.asPropertiesString())) {
+      if (RELEVANT_OPTION_PREFIXES.stream().anyMatch(line::startsWith)) {
+        hasher.putString(line, UTF_8).putChar('\0');
+      }
+    }
+
+    if (pPreprocessedFiles != null) {
+      for (FileContentToParse file : pPreprocessedFiles) {
+        hasher.putString(file.getFileName(), UTF_8).putChar('\0');
+        hasher.putString(file.getFileContent(), UTF_8).putChar('\0');
+      }
+    } else {
+      for (String sourceFile : pSourceFiles) {
+        hasher.putString(sourceFile, UTF_8).putChar('\0');
+        hasher.putBytes(Files.readAllBytes(Paths.get(sourceFile))).putChar('\0');
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  private Path getFile(String pKey) {
+    return directory.resolve(pKey + FILE_SUFFIX);
+  }
+
+  /** Load the CFA with the given key, or return null if there is no valid entry. */
+  @Nullable CFA load(String pKey) {
+    if (directory == null) {
+      return null;
+    }
+    loadTime.start();
+    Path file = getFile(pKey);
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+      DataInputStream header = new DataInputStream(in);
+      if (!header.readUTF().equals(MAGIC)
+          || header.readInt() != FORMAT_VERSION
+          || !header.readUTF().equals(CPAchecker.getPlainVersion())) {
+        logger.log(Level.FINE, "Ignoring outdated CFA cache entry", file);
+        Files.deleteIfExists(file);
+        misses++;
+        return null;
+      }
+
+      CFA cfa;
+      try (ObjectInputStream ois =
+          new ObjectInputStream(new BufferedInputStream(new GZIPInputStream(in)))) {
+        cfa = (CFA) ois.readObject();
+      }
+
+      // Nodes created from now on must not get the numbers of the loaded nodes.
+      int maxNodeNumber = 0;
+      for (CFANode node : cfa.getAllNodes()) {
+        maxNodeNumber = Math.max(maxNodeNumber, node.getNodeNumber());
+      }
+      CFANode.reserveNodeNumbers(maxNodeNumber);
+
+      // mark entry as recently used for LRU eviction
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      hits++;
+      return cfa;
+
+    } catch (NoSuchFileException e) {
+      misses++;
+      return null;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      // e.g., incompatible classes in an entry of a development version
+      logger.logDebugException(e, "Could not read CFA cache entry " + file);
+      misses++;
+      return null;
+    } finally {
+      loadTime.stop();
+    }
+  }
+
+  /** Store the given CFA, errors are only logged. */
+  void store(String pKey, CFA pCfa) {
+    if (directory == null) {
+      return;
+    }
+    storeTime.start();
+    try {
+      Path file = getFile(pKey);
+      // write to a temporary file first such that other processes never see partial entries
+      Path tmpFile = Files.createTempFile(directory, pKey, ".tmp");
+      try {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+          DataOutputStream header = new DataOutputStream(out);
+          header.writeUTF(MAGIC);
+          header.writeInt(FORMAT_VERSION);
+          header.writeUTF(CPAchecker.getPlainVersion());
+          header.flush();
+          try (ObjectOutputStream oos =
+              new ObjectOutputStream(new BufferedOutputStream(new GZIPOutputStream(out)))) {
+            oos.writeObject(pCfa);
+          }
+        }
+        try {
+          Files.move(
+              tmpFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tmpFile);
+      }
+      evict();
+
+    } catch (IOException | UncheckedIOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write CFA to cache");
+    } finally {
+      storeTime.stop();
+    }
+  }
+
+  /** Remove the least-recently used entries if there are more than allowed. */
+  private void evict() throws IOException {
+    List<Path> entries;
+    try (Stream<Path> files = Files.list(directory)) {
+      entries =
+          files
+              .filter(f -> f.getFileName().toString().endsWith(FILE_SUFFIX))
+              .collect(Collectors.toCollection(ArrayList::new));
+    }
+    int toRemove = entries.size() - maxEntries;
+    if (toRemove > 0) {
+      entries.sort(Comparator.comparing(CFACache::getLastModifiedTime));
+      for (Path entry : entries.subList(0, toRemove)) {
+        Files.deleteIfExists(entry);
+      }
+    }
+  }
+
+  private static FileTime getLastModifiedTime(Path pFile) {
+    try {
+      return Files.getLastModifiedTime(pFile);
+    } catch (IOException e) {
+      // file was removed concurrently, treat it as oldest entry
+      return FileTime.fromMillis(0);
+    }
+  }
+}
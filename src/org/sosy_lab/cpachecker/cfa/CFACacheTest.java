@@ -0,0 +1,133 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.converters.FileTypeConverter;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CFACacheTest {
+
+  private static final String[] PROGRAM = {
+    "int main() {", "  int x = 0;", "  if (x > 0) {", "    x--;", "  }", "  return x;", "}"
+  };
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final LogManager logger = LogManager.createTestLogManager();
+
+  private Path program;
+
+  @Before
+  public void setUp() throws IOException {
+    program = tempFolder.newFile("program.c").toPath();
+    Files.write(program, String.join("\n", PROGRAM).getBytes(UTF_8));
+  }
+
+  private ConfigurationBuilder configBuilder() throws InvalidConfigurationException {
+    FileTypeConverter fileTypeConverter =
+        FileTypeConverter.create(
+            Configuration.builder()
+                .setOption("output.path", tempFolder.getRoot().toString())
+                .build());
+    return Configuration.builder()
+        .addConverter(FileOption.class, fileTypeConverter)
+        .setOption("cfa.cache.directory", "cache");
+  }
+
+  private String computeKey(Configuration pConfig) throws Exception {
+    return new CFACache(pConfig, logger).computeKey(ImmutableList.of(program.toString()), null);
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    CFACache cache = new CFACache(configBuilder().build(), logger);
+    assertThat(cache.isEnabled()).isTrue();
+    String key = cache.computeKey(ImmutableList.of(program.toString()), null);
+    assertThat(cache.load(key)).isNull();
+
+    CFA cfa = TestDataTools.makeCFA(PROGRAM);
+    cache.store(key, cfa);
+    CFA loaded = cache.load(key);
+
+    assertThat(loaded).isNotNull();
+    assertThat(loaded.getMainFunction().getFunctionName()).isEqualTo("main");
+    assertThat(loaded.getAllNodes()).hasSize(cfa.getAllNodes().size());
+    assertThat(cache.hits).isEqualTo(1);
+    assertThat(cache.misses).isEqualTo(1);
+
+    // the entry is found by another instance, e.g., in a later run of CPAchecker
+    CFACache otherCache = new CFACache(configBuilder().build(), logger);
+    assertThat(otherCache.load(otherCache.computeKey(ImmutableList.of(program.toString()), null)))
+        .isNotNull();
+  }
+
+  @Test
+  public void testKeyInvalidation() throws Exception {
+    String key = computeKey(configBuilder().build());
+    assertThat(computeKey(configBuilder().build())).isEqualTo(key);
+
+    // options that do not influence the CFA are not part of the key
+    assertThat(computeKey(configBuilder().setOption("analysis.traversal.order", "BFS").build()))
+        .isEqualTo(key);
+
+    assertThat(computeKey(configBuilder().setOption("cfa.simplifyCfa", "false").build()))
+        .isNotEqualTo(key);
+    assertThat(
+            computeKey(configBuilder().setOption("liveVar.evaluationStrategy", "GLOBAL").build()))
+        .isNotEqualTo(key);
+    assertThat(computeKey(configBuilder().setOption("analysis.machineModel", "LINUX64").build()))
+        .isNotEqualTo(key);
+
+    Files.write(program, "int main() { return 1; }".getBytes(UTF_8));
+    assertThat(computeKey(configBuilder().build())).isNotEqualTo(key);
+  }
+
+  @Test
+  public void testInvalidEntryIsIgnored() throws Exception {
+    CFACache cache = new CFACache(configBuilder().build(), logger);
+    String key = cache.computeKey(ImmutableList.of(program.toString()), null);
+    Files.write(
+        tempFolder.getRoot().toPath().resolve("cache").resolve(key + ".cfa"),
+        "no CFA".getBytes(UTF_8));
+
+    assertThat(cache.load(key)).isNull();
+    assertThat(cache.misses).isEqualTo(1);
+  }
+}
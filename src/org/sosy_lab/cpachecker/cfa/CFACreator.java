@@ -45,6 +45,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.zip.GZIPOutputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.Concurrency;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -55,6 +56,7 @@ import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CParser.FileContentToParse;
 import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.AExpression;
 import org.sosy_lab.cpachecker.cfa.ast.AFunctionCall;
@@ -306,9 +308,11 @@ public class CFACreator {
     private final Timer exportTime = new Timer();
     private final List<Statistics> statisticsCollection;
     private final LogManager logger;
+    private final CFACache cache;
 
-    private CFACreatorStatistics(LogManager pLogger) {
+    private CFACreatorStatistics(LogManager pLogger, CFACache pCache) {
       logger = pLogger;
+      cache = pCache;
       statisticsCollection = new ArrayList<>();
     }
 
@@ -325,6 +329,11 @@ public class CFACreator {
       out.println("    Time for AST to CFA:      " + conversionTime);
       out.println("    Time for CFA sanity check:" + checkTime);
       out.println("    Time for post-processing: " + processingTime);
+      if (cache.isEnabled()) {
+        out.println("    Time for cache lookup:    " + cache.loadTime);
+        out.println("    Time for cache store:     " + cache.storeTime);
+        out.println("    Cache hits / misses:      " + cache.hits + " / " + cache.misses);
+      }
 
       if (exportTime.getNumberOfIntervals() > 0) {
         out.println("    Time for CFA export:      " + exportTime);
@@ -345,6 +354,7 @@ public class CFACreator {
 
   private final CFACreatorStatistics stats;
   private final Configuration config;
+  private final CFACache cache;
 
   public CFACreator(Configuration config, LogManager logger, ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
@@ -354,7 +364,8 @@ public class CFACreator {
     this.config = config;
     this.logger = logger;
     this.shutdownNotifier = pShutdownNotifier;
-    this.stats = new CFACreatorStatistics(logger);
+    this.cache = new CFACache(config, logger);
+    this.stats = new CFACreatorStatistics(logger, cache);
 
     stats.parserInstantiationTime.start();
 
@@ -435,10 +446,28 @@ public class CFACreator {
 
     stats.totalTime.start();
     try {
+      String cacheKey = null;
+      List<FileContentToParse> preprocessedFiles = null;
+      if (cache.isEnabled() && language == Language.C) {
+        // Java programs are given as class names and cannot be hashed easily
+        checkIfValidFiles(sourceFiles);
+        if (parser instanceof CParserWithPreprocessor) {
+          // the preprocessed program is part of the key and is parsed directly on a cache miss
+          preprocessedFiles = ((CParserWithPreprocessor) parser).preprocess(sourceFiles);
+        }
+        cacheKey = cache.computeKey(sourceFiles, preprocessedFiles);
+        CFA cachedCfa = cache.load(cacheKey);
+        if (cachedCfa != null) {
+          logger.log(Level.INFO, "Loaded CFA from cache, skipping parsing");
+          exportCFAAsyncIfRequested(cachedCfa);
+          return cachedCfa;
+        }
+      }
+
       // FIRST, parse file(s) and create CFAs for each function
       logger.log(Level.FINE, "Starting parsing of file(s)");
 
-      final ParseResult c = parseToCFAs(sourceFiles);
+      final ParseResult c = parseToCFAs(sourceFiles, preprocessedFiles);
 
       logger.log(Level.FINE, "Parser Finished");
 
@@ -455,7 +484,11 @@ public class CFACreator {
         throw new AssertionError();
       }
 
-      return createCFA(c, mainFunction);
+      CFA cfa = createCFA(c, mainFunction);
+      if (cacheKey != null) {
+        cache.store(cacheKey, cfa);
+      }
+      return cfa;
 
     } finally {
       stats.totalTime.stop();
@@ -585,14 +618,7 @@ public class CFACreator {
     assert CFACheck.check(mainFunction, null, machineModel);
     stats.checkTime.stop();
 
-    if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
-        || ((exportFunctionCallsFile != null) && exportFunctionCalls)
-        || ((exportFunctionCallsUsedFile != null) && exportFunctionCalls)
-        || ((serializeCfaFile != null) && serializeCfa)
-        || (exportCfaPixelFile != null)
-        || (exportCfaToCFile != null && exportCfaToC)) {
-      exportCFAAsync(immutableCFA);
-    }
+    exportCFAAsyncIfRequested(immutableCFA);
 
     logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
 
@@ -640,7 +666,14 @@ public class CFACreator {
 
   /** This method parses the sourceFiles and builds a CFA for each function.
    * The ParseResult is only a Wrapper for the CFAs of the functions and global declarations. */
-  private ParseResult parseToCFAs(final List<String> sourceFiles)
+  /**
+   * Parse the given files.
+   *
+   * @param preprocessedFiles the already preprocessed files if the CFA cache is used together with
+   *     the preprocessor, or null
+   */
+  private ParseResult parseToCFAs(
+      final List<String> sourceFiles, final @Nullable List<FileContentToParse> preprocessedFiles)
           throws InvalidConfigurationException, IOException, ParserException, InterruptedException {
     final ParseResult parseResult;
 
@@ -648,7 +681,9 @@ public class CFACreator {
       checkIfValidFiles(sourceFiles);
     }
 
-    if (sourceFiles.size() == 1) {
+    if (preprocessedFiles != null) {
+      parseResult = ((CParserWithPreprocessor) parser).parsePreprocessed(preprocessedFiles);
+    } else if (sourceFiles.size() == 1) {
       parseResult = parser.parseFile(sourceFiles.get(0));
     } else {
       // when there is more than one file which should be evaluated, the
@@ -996,6 +1031,17 @@ v.addInitializer(initializer);
     }
   }
 
+  private void exportCFAAsyncIfRequested(final CFA cfa) {
+    if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
+        || ((exportFunctionCallsFile != null) && exportFunctionCalls)
+        || ((exportFunctionCallsUsedFile != null) && exportFunctionCalls)
+        || ((serializeCfaFile != null) && serializeCfa)
+        || (exportCfaPixelFile != null)
+        || (exportCfaToCFile != null && exportCfaToC)) {
+      exportCFAAsync(cfa);
+    }
+  }
+
   private void exportCFAAsync(final CFA cfa) {
     // Execute asynchronously, this may take several seconds for large programs on slow disks.
     // This is safe because we don't modify the CFA from this point on.
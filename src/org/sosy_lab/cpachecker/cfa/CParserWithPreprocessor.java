@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.cfa;
 
+import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.List;
 import org.sosy_lab.common.time.Timer;
@@ -47,11 +48,7 @@ class CParserWithPreprocessor implements CParser {
 
   @Override
   public ParseResult parseFile(String pFilename) throws ParserException, InterruptedException {
-    String programCode = preprocessor.preprocess(pFilename);
-    if (programCode.isEmpty()) {
-      throw new CParserException("Preprocessor returned empty program");
-    }
-    return realParser.parseString(pFilename, programCode);
+    return parsePreprocessed(preprocess(ImmutableList.of(pFilename)));
   }
 
   @Override
@@ -74,7 +71,12 @@ class CParserWithPreprocessor implements CParser {
   @Override
   public ParseResult parseFile(List<String> pFilenames)
       throws CParserException, InterruptedException {
+    return parsePreprocessed(preprocess(pFilenames));
+  }
 
+  /** Run the preprocessor on the given files without parsing them. */
+  List<FileContentToParse> preprocess(List<String> pFilenames)
+      throws CParserException, InterruptedException {
     List<FileContentToParse> programs = new ArrayList<>(pFilenames.size());
     for (String f : pFilenames) {
       String programCode = preprocessor.preprocess(f);
@@ -83,7 +85,20 @@ class CParserWithPreprocessor implements CParser {
       }
       programs.add(new FileContentToParse(f, programCode));
     }
-    return realParser.parseString(programs, new CSourceOriginMapping());
+    return programs;
+  }
+
+  /**
+   * Parse files that were already preprocessed by {@link #preprocess(List)}, like {@link
+   * #parseFile(List)} or (for a single file) {@link #parseFile(String)} would do.
+   */
+  ParseResult parsePreprocessed(List<FileContentToParse> pPrograms)
+      throws CParserException, InterruptedException {
+    if (pPrograms.size() == 1) {
+      FileContentToParse program = pPrograms.get(0);
+      return realParser.parseString(program.getFileName(), program.getFileContent());
+    }
+    return realParser.parseString(pPrograms, new CSourceOriginMapping());
   }
 
   @Override
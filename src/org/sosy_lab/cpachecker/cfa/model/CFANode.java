@@ -89,6 +89,17 @@ public class CFANode implements Comparable<CFANode>, Serializable {
     nodeNumber = idGenerator.getFreshId();
   }
 
+  /**
+   * Make sure that nodes created from now on get numbers larger than the given one. This is
+   * necessary after loading nodes that were created in another JVM, e.g., from a cache.
+   */
+  public static void reserveNodeNumbers(int pMaxNodeNumber) {
+    int id;
+    do {
+      id = idGenerator.getFreshId();
+    } while (id < pMaxNodeNumber);
+  }
+
   public int getNodeNumber() {
     return nodeNumber;
   }
@@ -34,6 +34,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.io.Resources;
+import java.io.BufferedInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -334,6 +335,7 @@ public class CPAchecker {
     logger.logf(Level.INFO, "%s (%s) started", getVersion(config), getJavaInformation());
 
     MainCPAStatistics stats = null;
+    LiveMetricsServer metricsServer = null;
     Algorithm algorithm = null;
     ReachedSet reached = null;
     CFA cfa = null;
@@ -346,6 +348,7 @@ public class CPAchecker {
 
     try {
       stats = new MainCPAStatistics(config, logger, shutdownNotifier);
+      metricsServer = new LiveMetricsServer(config, logger, stats);
 
       // create reached set, cpa, algorithm
       stats.creationTime.start();
@@ -411,7 +414,7 @@ public class CPAchecker {
 
       result = Result.UNKNOWN; // set to unknown so that the result is correct in case of exception
 
-      AlgorithmStatus status = runAlgorithm(algorithm, reached, stats);
+      AlgorithmStatus status = runAlgorithm(algorithm, reached, stats, metricsServer);
 
       if (status.wasPropertyChecked()) {
         stats.resultAnalysisTime.start();
@@ -504,7 +507,7 @@ public class CPAchecker {
       // load CFA from serialization file
       logger.logf(Level.INFO, "Reading CFA from file \"%s\"", serializedCfaFile);
       try (InputStream inputStream = Files.newInputStream(serializedCfaFile);
-          InputStream gzipInputStream = new GZIPInputStream(inputStream);
+          InputStream gzipInputStream = new BufferedInputStream(new GZIPInputStream(inputStream));
           ObjectInputStream ois = new ObjectInputStream(gzipInputStream)) {
         cfa = (CFA) ois.readObject();
       }
@@ -531,7 +534,8 @@ public class CPAchecker {
 
   private AlgorithmStatus runAlgorithm(final Algorithm algorithm,
       final ReachedSet reached,
-      final MainCPAStatistics stats) throws CPAException, InterruptedException {
+      final MainCPAStatistics stats,
+      final LiveMetricsServer metricsServer) throws CPAException, InterruptedException {
 
     logger.log(Level.INFO, "Starting analysis ...");
 
@@ -541,6 +545,9 @@ public class CPAchecker {
     CPAcheckerBean mxbean = new CPAcheckerBean(reached, logger, shutdownManager);
     mxbean.register();
 
+    // export live metrics of the running analysis, if enabled
+    metricsServer.start(reached);
+
     stats.startAnalysisTimer();
     try {
       int counterExampleCount = 0;
@@ -569,6 +576,8 @@ public class CPAchecker {
 
       // unregister management interface for CPAchecker
       mxbean.unregister();
+
+      metricsServer.close();
     }
   }
 
@@ -0,0 +1,207 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.OptionalDouble;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.MetricsCollector;
+
+/**
+ * Serves metrics of the running analysis via HTTP in the OpenMetrics text format, such that they
+ * can be polled (e.g., by Prometheus) while the analysis is running. The metrics are taken from
+ * the reached set, the JVM, and {@link Statistics#collectMetrics(MetricsCollector)} of all
+ * registered statistics.
+ */
+@Options(prefix = "statistics.live")
+class LiveMetricsServer implements AutoCloseable {
+
+  private static final String CONTENT_TYPE =
+      "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+  @Option(
+      secure = true,
+      name = "export",
+      description =
+          "Export metrics of the running analysis (reached-set size, waitlist size, iterations,"
+              + " refinements, solver time, heap usage, etc.) via HTTP in the OpenMetrics text"
+              + " format, such that they can be polled while the analysis is running.")
+  private boolean export = false;
+
+  @Option(description = "Address on which the live metrics are served (only localhost by default).")
+  private String address = "127.0.0.1";
+
+  @Option(description = "TCP port on which the live metrics are served.")
+  @IntegerOption(min = 0, max = 65535)
+  private int port = 9464;
+
+  @Option(secure = true, description = "HTTP path under which the live metrics are served.")
+  private String path = "/metrics";
+
+  private final LogManager logger;
+  private final Statistics stats;
+
+  private @Nullable HttpServer server = null;
+  private @Nullable ExecutorService executor = null;
+  private volatile @Nullable UnmodifiableReachedSet reached = null;
+
+  // state for computing the iterations per second between two requests
+  private long lastRequestTime = 0;
+  private double lastIterations = 0;
+
+  LiveMetricsServer(Configuration pConfig, LogManager pLogger, Statistics pStats)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    stats = pStats;
+  }
+
+  /**
+   * Start serving metrics for the given reached set, if enabled. Failing to start the server is
+   * not fatal for the analysis.
+   */
+  void start(UnmodifiableReachedSet pReached) {
+    if (!export) {
+      return;
+    }
+    reached = pReached;
+    try {
+      server = HttpServer.create(new InetSocketAddress(address, port), 0);
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not start server for live metrics");
+      return;
+    }
+    // important to use daemon threads here, the analysis must not be kept alive by requests
+    executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("CPAchecker live metrics")
+                .setDaemon(true)
+                .build());
+    server.setExecutor(executor);
+    server.createContext(path, this::handle);
+    server.start();
+    logger.log(
+        Level.INFO,
+        "Serving live metrics on http://" + address + ":" + server.getAddress().getPort() + path);
+  }
+
+  private void handle(HttpExchange pExchange) throws IOException {
+    try {
+      if (!"GET".equals(pExchange.getRequestMethod())) {
+        pExchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      byte[] body;
+      try {
+        body = collectMetrics().getBytes(StandardCharsets.UTF_8);
+      } catch (RuntimeException e) {
+        // values are read concurrently to the analysis, which may fail occasionally
+        logger.logDebugException(e, "Collecting live metrics failed");
+        pExchange.sendResponseHeaders(503, -1);
+        return;
+      }
+      pExchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      pExchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = pExchange.getResponseBody()) {
+        out.write(body);
+      }
+    } finally {
+      pExchange.close();
+    }
+  }
+
+  private synchronized String collectMetrics() throws IOException {
+    MetricsCollector metrics = new MetricsCollector();
+
+    UnmodifiableReachedSet currentReached = reached;
+    if (currentReached != null) {
+      metrics
+          .gauge("reached_set_size", "Size of the reached set", currentReached.size())
+          .gauge("waitlist_size", "Size of the waitlist", currentReached.getWaitlist().size());
+    }
+
+    stats.collectMetrics(metrics);
+
+    long now = System.nanoTime();
+    OptionalDouble iterations = metrics.getValue("cpa_algorithm_iterations");
+    if (iterations.isPresent()) {
+      if (lastRequestTime != 0 && now > lastRequestTime) {
+        double seconds = (now - lastRequestTime) / (double) TimeUnit.SECONDS.toNanos(1);
+        metrics.gauge(
+            "cpa_algorithm_iterations_per_second",
+            "Iterations of the CPA algorithm per second since the previous request",
+            (iterations.getAsDouble() - lastIterations) / seconds);
+      }
+      lastIterations = iterations.getAsDouble();
+    }
+    lastRequestTime = now;
+
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    metrics
+        .gauge("heap_used_bytes", "Used heap memory", heap.getUsed())
+        .gauge("heap_committed_bytes", "Committed heap memory", heap.getCommitted());
+    if (heap.getMax() >= 0) {
+      metrics.gauge("heap_max_bytes", "Maximum heap memory", heap.getMax());
+    }
+
+    StringBuilder sb = new StringBuilder();
+    metrics.appendTo(sb);
+    return sb.toString();
+  }
+
+  /** Stop serving metrics. */
+  @Override
+  public void close() {
+    if (server != null) {
+      server.stop(0);
+      server = null;
+    }
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    reached = null;
+  }
+}
@@ -87,6 +87,7 @@ import org.sosy_lab.cpachecker.util.coverage.CoverageReportStdoutSummary;
 import org.sosy_lab.cpachecker.util.cwriter.CExpressionInvariantExporter;
 import org.sosy_lab.cpachecker.util.resources.MemoryStatistics;
 import org.sosy_lab.cpachecker.util.resources.ProcessCpuTime;
+import org.sosy_lab.cpachecker.util.statistics.MetricsCollector;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatKind;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
@@ -410,6 +411,14 @@ class MainCPAStatistics implements Statistics {
     DOTBuilder.generateDOT(sb, cfa, nodeLabelFormatter);
   }
 
+  @Override
+  public void collectMetrics(MetricsCollector pMetrics) {
+    pMetrics.time("analysis_seconds", "Time for analysis", analysisTime);
+    for (Statistics s : subStats) {
+      s.collectMetrics(pMetrics);
+    }
+  }
+
   private void printSubStatistics(PrintStream out, Result result, UnmodifiableReachedSet reached) {
     assert reached != null : "ReachedSet may be null only if analysis not yet started";
 
@@ -58,6 +58,7 @@ import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.value.refiner.UnsoundRefiner;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException;
+import org.sosy_lab.cpachecker.util.statistics.MetricsCollector;
 
 public class CEGARAlgorithm implements Algorithm, StatisticsProvider, ReachedSetUpdater {
 
@@ -101,6 +102,13 @@ public class CEGARAlgorithm implements Algorithm, StatisticsProvider, ReachedSet
         out.println("Max time for refinement:          " + refinementTimer.getMaxTime().formatAs(TimeUnit.SECONDS));
       }
     }
+
+    @Override
+    public void collectMetrics(MetricsCollector pMetrics) {
+      pMetrics
+          .counter("cegar_refinements", "Number of CEGAR refinements", countRefinements)
+          .time("cegar_refinement_seconds", "Time for refinements", refinementTimer);
+    }
   }
 
   private final CEGARStatistics stats = new CEGARStatistics();
@@ -24,6 +24,10 @@
 package org.sosy_lab.cpachecker.core.algorithm;
 
 import com.google.common.base.Functions;
+import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,9 +37,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.ClassOption;
 import org.sosy_lab.common.configuration.Configuration;
@@ -57,14 +66,20 @@ import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeTransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGMergeJoinCPAEnabledAnalysis;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.arg.ARGTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+import org.sosy_lab.cpachecker.util.statistics.MetricsCollector;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatHist;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
@@ -91,6 +106,9 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     private int   countMerge        = 0;
     private int   countStop         = 0;
     private int   countBreak        = 0;
+    private int   countBatches      = 0;
+    private int   maxBatchSize      = 0;
+    private int   countRemovedInBatch = 0;
 
     private Map<String, AbstractStatValue> reachedSetStatistics = new HashMap<>();
 
@@ -157,6 +175,11 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       out.println("Number of times merged:          " + countMerge);
       out.println("Number of times stopped:         " + countStop);
       out.println("Number of times breaked:         " + countBreak);
+      if (countBatches > 0) {
+        out.println("Number of parallel batches:      " + countBatches);
+        out.println("Max size of parallel batch:      " + maxBatchSize);
+        out.println("Number of merged batch states:   " + countRemovedInBatch);
+      }
       out.println();
       out.println("Total time for CPA algorithm:     " + totalTimer + " (Max: " + totalTimer.getMaxTime().formatAs(TimeUnit.SECONDS) + ")");
       out.println("  Time for choose from waitlist:  " + chooseTimer);
@@ -172,6 +195,21 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       out.println("  Time for adding to reached set: " + addTimer);
 
     }
+
+    @Override
+    public void collectMetrics(MetricsCollector pMetrics) {
+      pMetrics
+          .counter(
+              "cpa_algorithm_iterations",
+              "Number of iterations of the CPA algorithm",
+              countIterations)
+          .counter("cpa_algorithm_successors", "Number of computed successors", countSuccessors)
+          .maxGauge("cpa_algorithm_max_waitlist_size", "Max size of waitlist", maxWaitlistSize)
+          .time("cpa_algorithm_seconds", "Total time for CPA algorithm", totalTimer)
+          .time("cpa_algorithm_transfer_seconds", "Time for transfer relation", transferTimer)
+          .time("cpa_algorithm_merge_seconds", "Time for merge operator", mergeTimer)
+          .time("cpa_algorithm_stop_seconds", "Time for stop operator", stopTimer);
+    }
   }
 
   @Options(prefix = "cpa")
@@ -188,6 +226,18 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         + " Useful for incomplete analysis with no counterexample checking.")
     private boolean reportFalseAsUnknown = false;
 
+    @Option(
+        secure = true,
+        description =
+            "Number of threads used for computing successors of states from the waitlist. "
+                + "With a value larger than 1, several states are taken from the waitlist at once "
+                + "and their successors are computed in parallel, "
+                + "while merge, stop, and adding to the reached set stay sequential "
+                + "(in the order in which the states were taken from the waitlist). "
+                + "This requires all transfer relations to be thread-safe. "
+                + "With -1 we use the number of available cores of the machine.")
+    private int parallelTransferThreads = 1;
+
     private final ForcedCovering forcedCovering;
 
     private final ConfigurableProgramAnalysis cpa;
@@ -208,11 +258,43 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         forcedCovering = null;
       }
 
+      if (parallelTransferThreads == -1) {
+        parallelTransferThreads = Runtime.getRuntime().availableProcessors();
+      } else if (parallelTransferThreads < 1) {
+        throw new InvalidConfigurationException(
+            "Option cpa.parallelTransferThreads must be a positive number or -1.");
+      }
+      if (parallelTransferThreads > 1) {
+        if (forcedCovering != null) {
+          throw new InvalidConfigurationException(
+              "Parallel successor computation cannot be combined with forced covering.");
+        }
+        List<String> unsafeCPAs = new ArrayList<>();
+        for (ConfigurableProgramAnalysis component : CPAs.asIterable(cpa)) {
+          if (!(component.getTransferRelation() instanceof ThreadSafeTransferRelation)) {
+            unsafeCPAs.add(component.getClass().getSimpleName());
+          }
+        }
+        if (!unsafeCPAs.isEmpty()
+            || !ThreadSafeTransferRelation.isThreadSafe(cpa.getTransferRelation())) {
+          throw new InvalidConfigurationException(
+              "Parallel successor computation requires that the transfer relations of all "
+                  + "CPAs are thread-safe, but the following CPAs do not declare this "
+                  + "by implementing ThreadSafeTransferRelation: "
+                  + Joiner.on(", ").join(unsafeCPAs));
+        }
+      }
     }
 
     @Override
     public CPAAlgorithm newInstance() {
-      return new CPAAlgorithm(cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown);
+      return new CPAAlgorithm(
+          cpa,
+          logger,
+          shutdownNotifier,
+          forcedCovering,
+          reportFalseAsUnknown,
+          parallelTransferThreads);
     }
   }
 
@@ -238,10 +320,19 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
   private final AlgorithmStatus status;
 
+  private final int parallelTransferThreads;
+
+  /**
+   * The transfer relation of the ARG, if present. In parallel mode only the successors of the
+   * wrapped states are computed concurrently, the ARG itself is modified only by the main thread.
+   */
+  private final @Nullable ARGTransferRelation argTransferRelation;
+
   private CPAAlgorithm(ConfigurableProgramAnalysis cpa, LogManager logger,
       ShutdownNotifier pShutdownNotifier,
       ForcedCovering pForcedCovering,
-      boolean pIsImprecise) {
+      boolean pIsImprecise,
+      int pParallelTransferThreads) {
 
     transferRelation = cpa.getTransferRelation();
     mergeOperator = cpa.getMergeOperator();
@@ -251,12 +342,20 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     this.shutdownNotifier = pShutdownNotifier;
     this.forcedCovering = pForcedCovering;
     status = AlgorithmStatus.SOUND_AND_PRECISE.withPrecise(!pIsImprecise);
+    parallelTransferThreads = pParallelTransferThreads;
+    argTransferRelation =
+        transferRelation instanceof ARGTransferRelation
+            ? (ARGTransferRelation) transferRelation
+            : null;
   }
 
   @Override
   public AlgorithmStatus run(final ReachedSet reachedSet) throws CPAException, InterruptedException {
     stats.totalTimer.start();
     try {
+      if (parallelTransferThreads > 1) {
+        return runParallel(reachedSet);
+      }
       return run0(reachedSet);
     } finally {
       stats.stopAllTimers();
@@ -301,6 +400,168 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     return status;
   }
 
+  /**
+   * Variant of {@link #run0(ReachedSet)} that takes up to {@link #parallelTransferThreads} states
+   * from the waitlist at once and computes their successors in parallel. The successors are then
+   * handled (creation of ARG states, precision adjustment, merge, stop) sequentially and in the
+   * order in which the states were taken from the waitlist, such that the reached set and the ARG
+   * are only modified by the calling thread and the result does not depend on the scheduling of
+   * the worker threads.
+   */
+  private AlgorithmStatus runParallel(final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    final ExecutorService pool =
+        Executors.newFixedThreadPool(
+            parallelTransferThreads,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("CPAAlgorithm-transfer-thread-%d")
+                .build());
+    try {
+      while (reachedSet.hasWaitingState()) {
+        shutdownNotifier.shutdownIfNecessary();
+
+        int size = reachedSet.getWaitlist().size();
+        if (size >= stats.maxWaitlistSize) {
+          stats.maxWaitlistSize = size;
+        }
+
+        stats.chooseTimer.start();
+        final List<Pair<AbstractState, Precision>> batch = new ArrayList<>();
+        while (batch.size() < parallelTransferThreads && reachedSet.hasWaitingState()) {
+          AbstractState state = reachedSet.popFromWaitlist();
+          batch.add(Pair.of(state, reachedSet.getPrecision(state)));
+          stats.countWaitlistSize += size--;
+        }
+        stats.chooseTimer.stop();
+
+        stats.countIterations += batch.size();
+        stats.countBatches++;
+        stats.maxBatchSize = Math.max(batch.size(), stats.maxBatchSize);
+        logger.log(Level.FINER, "Retrieved", batch.size(), "states from waitlist");
+
+        if (handleBatch(batch, reachedSet, pool)) {
+          // Prec operator requested break
+          return status;
+        }
+      }
+      return status;
+
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Compute the successors of all given states in parallel and handle them afterwards.
+   *
+   * @return true if analysis should terminate, false if analysis should continue with next batch
+   */
+  private boolean handleBatch(
+      final List<Pair<AbstractState, Precision>> batch,
+      final ReachedSet reachedSet,
+      final ExecutorService pool)
+      throws CPAException, InterruptedException {
+    final List<Future<Collection<? extends AbstractState>>> futures =
+        new ArrayList<>(batch.size());
+    for (Pair<AbstractState, Precision> entry : batch) {
+      futures.add(pool.submit(() -> computeSuccessors(entry.getFirst(), entry.getSecond())));
+    }
+
+    int current = 0;
+    try {
+      for (; current < batch.size(); current++) {
+        final AbstractState state = batch.get(current).getFirst();
+        final Precision precision = batch.get(current).getSecond();
+
+        if (!reachedSet.contains(state)) {
+          // The state was removed by a merge with a successor of an earlier state of this batch.
+          // The sequential algorithm would have removed it from the waitlist, so ignore it.
+          logger.log(Level.FINER, "State was removed from reached set, not expanding it");
+          stats.countRemovedInBatch++;
+          continue;
+        }
+        logger.log(Level.ALL, "Current state is", state, "with precision", precision);
+
+        stats.transferTimer.start();
+        Collection<? extends AbstractState> successors;
+        try {
+          successors = getSuccessors(futures.get(current));
+          if (argTransferRelation != null) {
+            ARGState argState = (ARGState) state;
+            // covered elements may be in the reached set, but should always be ignored
+            successors =
+                argState.isCovered()
+                    ? ImmutableSet.of()
+                    : argTransferRelation.wrapSuccessors(argState, successors);
+          }
+        } finally {
+          stats.transferTimer.stop();
+        }
+
+        if (handleSuccessors(state, precision, successors, reachedSet)) {
+          // re-add the remaining states to the waitlist, their successors are not yet handled
+          reAddToWaitlist(batch, current + 1, reachedSet);
+          return true;
+        }
+      }
+    } catch (Exception e) {
+      // re-add the current and all remaining states to the waitlist,
+      // there might be unhandled successors left that otherwise would be forgotten
+      reAddToWaitlist(batch, current, reachedSet);
+      throw e;
+    } finally {
+      // The worker threads do not modify shared data, so pending computations
+      // whose results are no longer needed can simply be abandoned.
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Re-add the states of the batch starting at the given index to the waitlist. States that were
+   * removed from the reached set by a merge in the meantime are skipped, the sequential algorithm
+   * would not have expanded them either.
+   */
+  private static void reAddToWaitlist(
+      final List<Pair<AbstractState, Precision>> batch,
+      final int start,
+      final ReachedSet reachedSet) {
+    for (int i = start; i < batch.size(); i++) {
+      AbstractState state = batch.get(i).getFirst();
+      if (reachedSet.contains(state)) {
+        reachedSet.reAddToWaitlist(state);
+      }
+    }
+  }
+
+  /**
+   * Compute the successors of a state in a worker thread. For the ARG, only the successors of the
+   * wrapped state are computed, they are inserted into the ARG later by the main thread.
+   */
+  private Collection<? extends AbstractState> computeSuccessors(
+      AbstractState pState, Precision pPrecision)
+      throws CPATransferException, InterruptedException {
+    if (argTransferRelation != null) {
+      return argTransferRelation.getWrappedSuccessors((ARGState) pState, pPrecision);
+    }
+    return transferRelation.getAbstractSuccessors(pState, pPrecision);
+  }
+
+  private static Collection<? extends AbstractState> getSuccessors(
+      Future<Collection<? extends AbstractState>> future)
+      throws CPAException, InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.propagateIfPossible(cause, CPAException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel successor computation", cause);
+    }
+  }
+
   /**
    * Handle one state from the waitlist, i.e., produce successors etc.
    * @param state The abstract state that was taken out of the waitlist
@@ -337,6 +598,25 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     // TODO When we have a nice way to mark the analysis result as incomplete,
     // we could continue analysis on a CPATransferException with the next state from waitlist.
 
+    return handleSuccessors(state, precision, successors, reachedSet);
+  }
+
+  /**
+   * Handle the successors of one state from the waitlist, i.e., apply precision adjustment, merge,
+   * and stop, and add them to the reached set.
+   *
+   * @param state The abstract state that was taken out of the waitlist
+   * @param precision The precision for this abstract state.
+   * @param successors The successors of this abstract state.
+   * @param reachedSet The reached set.
+   * @return true if analysis should terminate, false if analysis should continue with next state
+   */
+  private boolean handleSuccessors(
+      final AbstractState state,
+      final Precision precision,
+      final Collection<? extends AbstractState> successors,
+      final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
     int numSuccessors = successors.size();
     logger.log(Level.FINER, "Current state has", numSuccessors, "successors");
     stats.countSuccessors += numSuccessors;
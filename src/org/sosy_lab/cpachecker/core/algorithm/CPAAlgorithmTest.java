@@ -0,0 +1,243 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultiset;
+import java.util.Collection;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.core.CPABuilder;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.defaults.StaticPrecisionAdjustment;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeTransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CPAAlgorithmTest {
+
+  private static final String[] PROGRAM = {
+    "int main() {",
+    "  int x = 0;",
+    "  int y = 0;",
+    "  while (x < 10) {",
+    "    if (x == 5) {",
+    "      y = y + 2;",
+    "    } else if (y > 3) {",
+    "      y--;",
+    "    } else {",
+    "      y++;",
+    "    }",
+    "    x++;",
+    "  }",
+    "  if (y > x) {",
+    "    return 1;",
+    "  }",
+    "  return 0;",
+    "}"
+  };
+
+  private final LogManager logger = LogManager.createTestLogManager();
+  private final ShutdownNotifier shutdownNotifier = ShutdownNotifier.createDummy();
+
+  private CFA cfa;
+
+  @Before
+  public void setUp() throws Exception {
+    cfa = TestDataTools.makeCFA(PROGRAM);
+  }
+
+  private Configuration createConfig(String pTraversal, String pCPAs, int pThreads)
+      throws InvalidConfigurationException {
+    return TestDataTools.configurationForTest()
+        .setOption("analysis.traversal.order", pTraversal)
+        .setOption("cpa", "cpa.arg.ARGCPA")
+        .setOption("ARGCPA.cpa", "cpa.composite.CompositeCPA")
+        .setOption("CompositeCPA.cpas", pCPAs)
+        .setOption("cpa.parallelTransferThreads", Integer.toString(pThreads))
+        .build();
+  }
+
+  private ReachedSet analyze(Configuration pConfig) throws Exception {
+    ReachedSetFactory reachedSetFactory = new ReachedSetFactory(pConfig, logger);
+    ConfigurableProgramAnalysis cpa =
+        new CPABuilder(pConfig, logger, shutdownNotifier, reachedSetFactory)
+            .buildCPAs(cfa, Specification.alwaysSatisfied(), new AggregatedReachedSets());
+
+    FunctionEntryNode main = cfa.getMainFunction();
+    StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+    ReachedSet reached = reachedSetFactory.create();
+    reached.add(cpa.getInitialState(main, partition), cpa.getInitialPrecision(main, partition));
+
+    CPAAlgorithm.create(cpa, logger, pConfig, shutdownNotifier).run(reached);
+    assertThat(reached.hasWaitingState()).isFalse();
+    return reached;
+  }
+
+  private static ImmutableMultiset<CFANode> locations(ReachedSet pReached) {
+    return AbstractStates.extractLocations(pReached).toMultiset();
+  }
+
+  private void checkSameAsSequential(String pTraversal, int pThreads) throws Exception {
+    String cpas = "cpa.location.LocationCPA";
+    ReachedSet sequential = analyze(createConfig(pTraversal, cpas, 1));
+    ReachedSet parallel = analyze(createConfig(pTraversal, cpas, pThreads));
+
+    assertThat(locations(parallel)).isEqualTo(locations(sequential));
+
+    // the ARG needs to be consistent, i.e., no state may refer to a removed state
+    for (AbstractState state : parallel) {
+      ARGState argState = (ARGState) state;
+      assertThat(argState.isDestroyed()).isFalse();
+      for (ARGState parent : argState.getParents()) {
+        assertThat(parallel.contains(parent)).isTrue();
+        assertThat(parent.getChildren()).contains(argState);
+      }
+    }
+  }
+
+  @Test
+  public void testParallelBFS() throws Exception {
+    checkSameAsSequential("BFS", 4);
+  }
+
+  @Test
+  public void testParallelDFS() throws Exception {
+    checkSameAsSequential("DFS", 4);
+  }
+
+  @Test
+  public void testParallelTwoThreads() throws Exception {
+    checkSameAsSequential("BFS", 2);
+  }
+
+  @Test
+  public void testRejectNonThreadSafeCPA() throws Exception {
+    Configuration config =
+        createConfig("BFS", "cpa.location.LocationCPA, cpa.value.ValueAnalysisCPA", 2);
+    ReachedSetFactory reachedSetFactory = new ReachedSetFactory(config, logger);
+    ConfigurableProgramAnalysis cpa =
+        new CPABuilder(config, logger, shutdownNotifier, reachedSetFactory)
+            .buildCPAs(cfa, Specification.alwaysSatisfied(), new AggregatedReachedSets());
+
+    assertThrows(
+        InvalidConfigurationException.class,
+        () -> CPAAlgorithm.create(cpa, logger, config, shutdownNotifier));
+  }
+
+  @Test
+  public void testMergeRemovesStateOfBatch() throws Exception {
+    // The successors a, b, and c of the initial state form the second batch.
+    // The successor of a is merged into c, which removes c from the reached set
+    // before the failing successor computation of b re-adds the rest of the batch.
+    AbstractState init = new NamedState("init");
+    AbstractState a = new NamedState("a");
+    AbstractState b = new NamedState("b");
+    AbstractState c = new NamedState("c");
+    AbstractState successorOfA = new NamedState("successor of a");
+    AbstractState merged = new NamedState("merged");
+    ImmutableMap<AbstractState, ImmutableList<AbstractState>> successors =
+        ImmutableMap.of(
+            init, ImmutableList.of(a, b, c),
+            a, ImmutableList.of(successorOfA),
+            c, ImmutableList.of());
+
+    ConfigurableProgramAnalysis cpa = mock(ConfigurableProgramAnalysis.class);
+    when(cpa.getTransferRelation())
+        .thenReturn(
+            new ThreadSafeTransferRelation() {
+              @Override
+              public Collection<? extends AbstractState> getAbstractSuccessors(
+                  AbstractState pState, Precision pPrecision) throws CPATransferException {
+                if (pState == b) {
+                  throw new CPATransferException("no successors for " + pState);
+                }
+                return successors.get(pState);
+              }
+
+              @Override
+              public Collection<? extends AbstractState> getAbstractSuccessorsForEdge(
+                  AbstractState pState, Precision pPrecision, CFAEdge pCfaEdge) {
+                throw new UnsupportedOperationException();
+              }
+            });
+    when(cpa.getMergeOperator())
+        .thenReturn(
+            (state1, state2, precision) ->
+                state1 == successorOfA && state2 == c ? merged : state2);
+    when(cpa.getStopOperator()).thenReturn((state, reached, precision) -> state == successorOfA);
+    when(cpa.getPrecisionAdjustment()).thenReturn(StaticPrecisionAdjustment.getInstance());
+
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("analysis.traversal.order", "BFS")
+            .setOption("cpa.parallelTransferThreads", "3")
+            .build();
+    ReachedSet reached = new ReachedSetFactory(config, logger).create();
+    reached.add(init, SingletonPrecision.getInstance());
+    CPAAlgorithm algorithm = CPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+
+    assertThrows(CPATransferException.class, () -> algorithm.run(reached));
+    assertThat(reached.contains(c)).isFalse();
+    assertThat(reached.getWaitlist()).containsExactly(b, merged);
+  }
+
+  private static final class NamedState implements AbstractState {
+
+    private final String name;
+
+    private NamedState(String pName) {
+      name = pName;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
@@ -26,6 +26,7 @@ package org.sosy_lab.cpachecker.core.algorithm.parallel_bam;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
@@ -44,6 +45,9 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -51,6 +55,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.Classes.UnexpectedCheckedException;
@@ -63,6 +68,7 @@ import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.algorithm.Algorithm;
 import org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm.CPAAlgorithmFactory;
@@ -95,6 +101,15 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
   )
   private int numberOfThreads = -1;
 
+  @Option(
+    description =
+        "schedule the reached-set executors on a work-stealing pool, "
+            + "where each thread has its own task queue and idle threads take tasks "
+            + "from busy ones. Otherwise a fixed thread pool with a single shared queue is used.",
+    secure = true
+  )
+  private boolean useWorkStealing = false;
+
   @Option(description = "export number of running RSE instances as CSV", secure = true)
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path runningRSESeriesFile = Paths.get("RSESeries.csv");
@@ -139,12 +154,7 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
     final int numberOfCores = getNumberOfCores();
     oneTimeLogger.logfOnce(Level.INFO, "creating pool for %d threads", numberOfCores);
 
-    ThreadFactory threadFactory =
-        new ThreadFactoryBuilder()
-            .setDaemon(true) // for killing hanging threads at program exit
-            .setNameFormat("ParallelBAM-thread-%d")
-            .build();
-    final ExecutorService pool = Executors.newFixedThreadPool(numberOfCores, threadFactory);
+    final ExecutorService pool = createPool(numberOfCores);
     final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
     final AtomicBoolean terminateAnalysis = new AtomicBoolean(false);
     final AtomicInteger scheduledJobs = new AtomicInteger(0);
@@ -210,6 +220,11 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
       }
     }
 
+    if (pool instanceof ForkJoinPool) {
+      // the steal count is complete only after all worker threads are terminated
+      stats.numStolenTasks.add(((ForkJoinPool) pool).getStealCount());
+    }
+
     collectExceptions(reachedSetMapping, errors, mainReachedSet);
 
     //    assert targetStateFound
@@ -230,6 +245,28 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
     return AlgorithmStatus.SOUND_AND_PRECISE.withSound(isSound);
   }
 
+  private ExecutorService createPool(int numberOfCores) {
+    if (useWorkStealing) {
+      // worker threads of a ForkJoinPool are daemon threads by default
+      ForkJoinWorkerThreadFactory threadFactory =
+          p -> {
+            ForkJoinWorkerThread thread =
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("ParallelBAM-thread-" + thread.getPoolIndex());
+            return thread;
+          };
+      // Tasks are chained via CompletableFutures and never joined,
+      // thus the async mode (FIFO order of local queues) is the better choice here.
+      return new ForkJoinPool(numberOfCores, threadFactory, null, true);
+    }
+    ThreadFactory threadFactory =
+        new ThreadFactoryBuilder()
+            .setDaemon(true) // for killing hanging threads at program exit
+            .setNameFormat("ParallelBAM-thread-%d")
+            .build();
+    return Executors.newFixedThreadPool(numberOfCores, threadFactory);
+  }
+
   private int getNumberOfCores() {
     if (numberOfThreads > 0) {
       return numberOfThreads;
@@ -342,6 +379,16 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
     final StatHist histActiveThreads = new StatHist("Active threads");
     final StatHist executionCounter = new StatHist("RSE execution counter");
     private final StatCounter unfinishedRSEcounter = new StatCounter("unfinished reached-sets");
+    final LongAdder numStolenTasks = new LongAdder();
+
+    /** busy time (in nanoseconds) and number of RSE executions for each worker thread. */
+    private final ConcurrentMap<String, LongAdder> busyTimePerThread = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> executionsPerThread = new ConcurrentHashMap<>();
+
+    void recordThreadUsage(String pThreadName, long pBusyNanos) {
+      busyTimePerThread.computeIfAbsent(pThreadName, k -> new LongAdder()).add(pBusyNanos);
+      executionsPerThread.computeIfAbsent(pThreadName, k -> new LongAdder()).increment();
+    }
 
     final StatisticsSeries<Integer> runningRSESeries =
         (runningRSESeriesFile == null) ? new NoopStatisticsSeries<>() : new StatisticsSeries<>();
@@ -356,6 +403,27 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
       StatisticsUtils.write(pOut, 0, 50, threadTime);
       StatisticsUtils.write(pOut, 1, 50, addingStatesTime);
       StatisticsUtils.write(pOut, 1, 50, terminationCheckTime);
+      StatisticsUtils.write(
+          pOut, 0, 50, "Scheduler", useWorkStealing ? "work-stealing" : "fixed thread pool");
+      if (useWorkStealing) {
+        StatisticsUtils.write(pOut, 1, 50, "Number of stolen tasks", numStolenTasks);
+      }
+      StatisticsUtils.write(pOut, 1, 50, "Utilization of threads", "");
+      long wallNanos = wallTime.getConsumedTime().asNanos();
+      for (Map.Entry<String, LongAdder> entry :
+          ImmutableSortedMap.copyOf(busyTimePerThread).entrySet()) {
+        long busyNanos = entry.getValue().sum();
+        StatisticsUtils.write(
+            pOut,
+            2,
+            50,
+            entry.getKey(),
+            String.format(
+                "%s (%s, %d executions)",
+                TimeSpan.ofNanos(busyNanos).formatAs(TimeUnit.SECONDS),
+                StatisticsUtils.toPercent(busyNanos, Math.max(wallNanos, 1)),
+                executionsPerThread.get(entry.getKey()).sum()));
+      }
 
       if (runningRSESeriesFile != null) {
         try {
@@ -0,0 +1,84 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.parallel_bam;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+/** Runs parallel BAM with both schedulers for the reached-set executors. */
+public class ParallelBAMAlgorithmTest {
+
+  private static Map<String, String> options(boolean pUseWorkStealing) {
+    return ImmutableMap.<String, String>builder()
+        .put("analysis.algorithm.useParallelBAM", "true")
+        .put("analysis.algorithm.CEGAR", "false")
+        .put("cpa", "cpa.bam.BAMCPAWithBreakOnMissingBlock")
+        .put("BAMCPAWithBreakOnMissingBlock.cpa", "cpa.arg.ARGCPA")
+        .put("ARGCPA.cpa", "cpa.composite.CompositeCPA")
+        .put(
+            "CompositeCPA.cpas",
+            "cpa.location.LocationCPA, cpa.callstack.CallstackCPA, cpa.value.ValueAnalysisCPA")
+        .put("specification", "config/specification/default.spc")
+        .put("algorithm.parallelBam.numberOfThreads", "2")
+        .put("algorithm.parallelBam.useWorkStealing", Boolean.toString(pUseWorkStealing))
+        .build();
+  }
+
+  private static String getStatistics(TestResults pResults) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+      pResults.getCheckerResult().printStatistics(out);
+    }
+    return output.toString(StandardCharsets.UTF_8);
+  }
+
+  private static void check(String pProgram, Result pExpected) throws Exception {
+    TestResults fixedPool = CPATestRunner.run(options(false), pProgram);
+    fixedPool.assertIs(pExpected);
+    assertThat(getStatistics(fixedPool)).containsMatch("Scheduler:\\s+fixed thread pool");
+
+    TestResults workStealing = CPATestRunner.run(options(true), pProgram);
+    workStealing.assertIs(pExpected);
+    assertThat(getStatistics(workStealing)).containsMatch("Scheduler:\\s+work-stealing");
+  }
+
+  @Test
+  public void testSafeProgram() throws Exception {
+    check("test/programs/simple/functionCall.c", Result.TRUE);
+  }
+
+  @Test
+  public void testUnsafeProgram() throws Exception {
+    check("test/programs/simple/functionCall2.c", Result.FALSE);
+  }
+}
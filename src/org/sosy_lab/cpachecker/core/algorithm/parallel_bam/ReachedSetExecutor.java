@@ -207,6 +207,7 @@ class ReachedSetExecutor {
   }
 
   private void apply0(Collection<AbstractState> pStatesToBeAdded) {
+    final long startTime = System.nanoTime();
     threadTimer.start();
     int running = stats.numActiveThreads.incrementAndGet();
     stats.histActiveThreads.insertValue(running);
@@ -229,6 +230,7 @@ class ReachedSetExecutor {
     } finally {
       stats.numActiveThreads.decrementAndGet();
       threadTimer.stop();
+      stats.recordThreadUsage(Thread.currentThread().getName(), System.nanoTime() - startTime);
     }
   }
 
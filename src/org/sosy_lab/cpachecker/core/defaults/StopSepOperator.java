@@ -27,6 +27,7 @@ import java.util.Collection;
 
 import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithCoverageSignature;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -51,10 +52,22 @@ public class StopSepOperator implements StopOperator {
     throws CPAException, InterruptedException {
 
     for (AbstractState reachedState : reached) {
-      if (domain.isLessOrEqual(el, reachedState)) {
+      if (mayStop(el, reachedState) && domain.isLessOrEqual(el, reachedState)) {
         return true;
       }
     }
     return false;
   }
+
+  /**
+   * Cheap pre-check whether the given state may be covered by the given reached state. If this
+   * method returns false, {@link #stop(AbstractState, Collection, Precision)} would return false
+   * for this pair of states, and the call to the abstract domain can be skipped.
+   *
+   * @see AbstractStateWithCoverageSignature
+   */
+  public boolean mayStop(AbstractState el, AbstractState reachedState) {
+    return !(el instanceof AbstractStateWithCoverageSignature)
+        || ((AbstractStateWithCoverageSignature) el).mayBeLessOrEqual(reachedState);
+  }
 }
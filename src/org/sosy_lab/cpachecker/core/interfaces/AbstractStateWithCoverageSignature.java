@@ -0,0 +1,47 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+/**
+ * Interface for abstract states that can cheaply rule out being covered by another state, e.g.,
+ * based on a signature of the tracked variables, before the (potentially expensive) check of the
+ * abstract domain is done.
+ *
+ * <p>This is used by stop-sep operators to prune the candidates from the reached set before
+ * calling {@link AbstractDomain#isLessOrEqual(AbstractState, AbstractState)}.
+ */
+public interface AbstractStateWithCoverageSignature extends AbstractState {
+
+  /**
+   * Check a necessary condition for this state being less or equal than the given state.
+   *
+   * <p>This method must return true whenever the abstract domain of the analysis would consider
+   * this state to be less or equal than the given state. It may return true in other cases, too.
+   * Implementations should be considerably cheaper than the actual check of the abstract domain.
+   *
+   * @param pOther a state of the same analysis (typically from the reached set)
+   * @return false if this state is definitely not less or equal than the other state
+   */
+  boolean mayBeLessOrEqual(AbstractState pOther);
+}
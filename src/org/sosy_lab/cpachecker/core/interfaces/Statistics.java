@@ -28,6 +28,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+import org.sosy_lab.cpachecker.util.statistics.MetricsCollector;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 
 /**
@@ -82,6 +83,18 @@ public interface Statistics {
    */
   default void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {}
 
+  /**
+   * Report the current values of the most important statistics of this group as metrics while the
+   * analysis is still running (if live metrics are enabled).
+   *
+   * <p>Note that this method is called from another thread than the analysis, so it should only
+   * read values (which may be slightly inconsistent with each other) and must not modify any
+   * state.
+   *
+   * @param pMetrics the collector to report the metrics to
+   */
+  default void collectMetrics(MetricsCollector pMetrics) {}
+
   int DEFAULT_OUTPUT_NAME_COL_WIDTH = 50;
 
   /**
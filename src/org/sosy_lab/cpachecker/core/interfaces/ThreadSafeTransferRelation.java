@@ -0,0 +1,57 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+/**
+ * This is a marker interface for transfer relations that may be called concurrently from several
+ * threads for different abstract states, i.e., that do not keep any mutable state between or
+ * during calls to {@link #getAbstractSuccessors(AbstractState, Precision)}.
+ *
+ * <p>If a class implementing this interface is also a {@link WrapperTransferRelation}, it is only
+ * considered thread-safe if all its wrapped transfer relations are thread-safe, too.
+ *
+ * <p>This is used by the CPA algorithm to decide whether successor computation can be distributed
+ * over several threads.
+ */
+public interface ThreadSafeTransferRelation extends TransferRelation {
+
+  /**
+   * Check whether the given transfer relation and (recursively) all transfer relations wrapped by
+   * it are declared to be thread-safe.
+   */
+  static boolean isThreadSafe(TransferRelation pTransferRelation) {
+    if (!(pTransferRelation instanceof ThreadSafeTransferRelation)) {
+      return false;
+    }
+    if (pTransferRelation instanceof WrapperTransferRelation) {
+      for (TransferRelation wrapped :
+          ((WrapperTransferRelation) pTransferRelation).getWrappedTransferRelations()) {
+        if (!isThreadSafe(wrapped)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+/** JMH benchmarks for adding states to and querying partitions of {@link PartitionedReachedSet}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PartitionedReachedSetBenchmark {
+
+  private static final class KeyedState implements AbstractState, Partitionable {
+
+    private final Integer key;
+
+    private KeyedState(int pKey) {
+      key = pKey;
+    }
+
+    @Override
+    public Object getPartitionKey() {
+      return key;
+    }
+  }
+
+  @Param({"1000", "10000"})
+  public int states;
+
+  @Param({"1", "100"})
+  public int partitions;
+
+  private KeyedState[] input;
+  private PartitionedReachedSet filled;
+
+  @Setup
+  public void setUp() {
+    input = new KeyedState[states];
+    for (int i = 0; i < states; i++) {
+      input[i] = new KeyedState(i % partitions);
+    }
+    filled = fill();
+  }
+
+  private PartitionedReachedSet fill() {
+    PartitionedReachedSet reached = new PartitionedReachedSet(TraversalMethod.DFS);
+    for (KeyedState state : input) {
+      reached.add(state, SingletonPrecision.getInstance());
+    }
+    return reached;
+  }
+
+  @Benchmark
+  public PartitionedReachedSet add() {
+    return fill();
+  }
+
+  @Benchmark
+  public int getReached() {
+    int sum = 0;
+    for (int i = 0; i < partitions; i++) {
+      sum += filled.getReached(input[i]).size();
+    }
+    return sum;
+  }
+}
@@ -25,6 +25,9 @@ package org.sosy_lab.cpachecker.core.reachedset;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -37,6 +40,7 @@ import org.sosy_lab.cpachecker.core.waitlist.BlockConfiguration;
 import org.sosy_lab.cpachecker.core.waitlist.BlockWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.BranchBasedWeightedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.CallstackSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.CompositeSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.DepthBasedWeightedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.ExplicitSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopIterationSortedWaitlist;
@@ -180,6 +184,17 @@ public class ReachedSetFactory {
   )
   private boolean useBlocks = false;
 
+  @Option(
+      secure = true,
+      name = "traversal.flattenSortedWaitlists",
+      description =
+          "Sort states by the combined keys of all configured sorting criteria"
+              + " (e.g., useCallstack, useReversePostorder, useLoopstack) in a single waitlist"
+              + " instead of nesting one sorted waitlist per criterion. This is only possible"
+              + " if the secondary strategy is BFS or DFS and no weighted traversal is used;"
+              + " the traversal order is the same in both cases.")
+  private boolean flattenSortedWaitlists = false;
+
   @Option(
     secure = true,
     name = "reachedSet",
@@ -240,42 +255,57 @@ public class ReachedSetFactory {
           BranchBasedWeightedWaitlist.factory(waitlistFactory, weightedWaitlistOptions);
     }
 
+    // sorted waitlists, in the order in which they are nested (innermost first)
+    List<UnaryOperator<WaitlistFactory>> sortedWaitlists = new ArrayList<>();
     if (useAutomatonInformation) {
-      waitlistFactory = AutomatonMatchesWaitlist.factory(waitlistFactory);
-      waitlistFactory = AutomatonFailedMatchesWaitlist.factory(waitlistFactory);
+      sortedWaitlists.add(AutomatonMatchesWaitlist::factory);
+      sortedWaitlists.add(AutomatonFailedMatchesWaitlist::factory);
     }
     if (useReversePostorder) {
-      waitlistFactory = ReversePostorderSortedWaitlist.factory(waitlistFactory);
+      sortedWaitlists.add(ReversePostorderSortedWaitlist::factory);
     }
     if (usePostorder) {
-      waitlistFactory = PostorderSortedWaitlist.factory(waitlistFactory);
+      sortedWaitlists.add(PostorderSortedWaitlist::factory);
     }
     if (useLoopIterationCount) {
-      waitlistFactory = LoopIterationSortedWaitlist.factory(waitlistFactory);
+      sortedWaitlists.add(LoopIterationSortedWaitlist::factory);
     }
     if (useReverseLoopIterationCount) {
-      waitlistFactory = LoopIterationSortedWaitlist.reversedFactory(waitlistFactory);
+      sortedWaitlists.add(LoopIterationSortedWaitlist::reversedFactory);
     }
     if (useLoopstack) {
-      waitlistFactory = LoopstackSortedWaitlist.factory(waitlistFactory);
+      sortedWaitlists.add(LoopstackSortedWaitlist::factory);
     }
     if (useReverseLoopstack) {
-      waitlistFactory = LoopstackSortedWaitlist.reversedFactory(waitlistFactory);
+      sortedWaitlists.add(LoopstackSortedWaitlist::reversedFactory);
     }
     if (useCallstack) {
-      waitlistFactory = CallstackSortedWaitlist.factory(waitlistFactory);
+      sortedWaitlists.add(CallstackSortedWaitlist::factory);
     }
     if (useExplicitInformation) {
-      waitlistFactory = ExplicitSortedWaitlist.factory(waitlistFactory);
+      sortedWaitlists.add(ExplicitSortedWaitlist::factory);
     }
     if (byAutomatonVariable != null) {
-      waitlistFactory = AutomatonVariableWaitlist.factory(waitlistFactory, byAutomatonVariable);
+      final String variable = byAutomatonVariable;
+      sortedWaitlists.add(f -> AutomatonVariableWaitlist.factory(f, variable));
     }
     if (useNumberOfThreads) {
-      waitlistFactory = ThreadingSortedWaitlist.factory(waitlistFactory);
+      sortedWaitlists.add(ThreadingSortedWaitlist::factory);
     }
     if (useNumberOfHeapObjects) {
-      waitlistFactory = SMGSortedWaitlist.factory(waitlistFactory);
+      sortedWaitlists.add(SMGSortedWaitlist::factory);
+    }
+
+    if (flattenSortedWaitlists
+        && !sortedWaitlists.isEmpty()
+        && waitlistFactory == traversalMethod
+        && (traversalMethod == Waitlist.TraversalMethod.BFS
+            || traversalMethod == Waitlist.TraversalMethod.DFS)) {
+      waitlistFactory = CompositeSortedWaitlist.factory(sortedWaitlists, traversalMethod);
+    } else {
+      for (UnaryOperator<WaitlistFactory> sortedWaitlist : sortedWaitlists) {
+        waitlistFactory = sortedWaitlist.apply(waitlistFactory);
+      }
     }
     if (useBlocks) {
       waitlistFactory = BlockWaitlist.factory(waitlistFactory, blockConfig, logger);
@@ -84,6 +84,14 @@ public abstract class AbstractSortedWaitlist<K extends Comparable<K>> implements
   @ForOverride
   protected abstract K getSortKey(AbstractState pState);
 
+  /**
+   * Returns the sort key of the given state, for {@link CompositeSortedWaitlist} which uses
+   * instances of this class only for computing keys.
+   */
+  final K computeSortKey(AbstractState pState) {
+    return getSortKey(pState);
+  }
+
   @Override
   public void add(AbstractState pState) {
     K key = getSortKey(pState);
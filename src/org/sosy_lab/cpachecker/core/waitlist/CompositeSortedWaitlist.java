@@ -0,0 +1,302 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+/**
+ * Waitlist implementation that has the same behavior as several nested instances of {@link
+ * AbstractSortedWaitlist} with a BFS or DFS strategy as innermost waitlist, but needs only a
+ * single level of buckets instead of nested maps of waitlists.
+ *
+ * <p>The sort keys of all criteria are computed once when a state is added and packed pairwise
+ * into <code>long</code> values, so for up to two criteria the order of two buckets is determined
+ * by a single comparison of primitive values. There is one bucket for each combination of keys
+ * that is currently present, the buckets are kept in a binary heap and can be found by their keys
+ * via a hash map. Inside a bucket, states are handled in BFS or DFS order.
+ *
+ * <p>The iterators created by this class are unmodifiable. They do not iterate in the order in
+ * which the states would be popped.
+ */
+public class CompositeSortedWaitlist implements Waitlist {
+
+  /** The combined sort keys of a state, ordered lexicographically. */
+  private static final class Key {
+    private final long[] keys;
+    private final int hashCode;
+
+    private Key(long[] pKeys) {
+      keys = pKeys;
+      int hash = 1;
+      for (long key : pKeys) {
+        // spread the bits, otherwise packed pairs of small keys would collide very often
+        hash = 31 * hash + Long.hashCode(key * 0x9E3779B97F4A7C15L);
+      }
+      hashCode = hash;
+    }
+
+    /** Returns whether states with this key have to be handled before states with the other. */
+    private boolean isBefore(Key pOther) {
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != pOther.keys[i]) {
+          return keys[i] > pOther.keys[i];
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof Key
+          && hashCode == ((Key) pObj).hashCode
+          && Arrays.equals(keys, ((Key) pObj).keys);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /** All states with the same key, in insertion order. */
+  private static final class Bucket {
+    private final Key key;
+    private final Deque<AbstractState> states = new ArrayDeque<>();
+    private int heapIndex;
+
+    private Bucket(Key pKey) {
+      key = pKey;
+    }
+  }
+
+  /** The sorted waitlists that define the criteria, most significant criterion first. */
+  private final ImmutableList<AbstractSortedWaitlist<?>> criteria;
+
+  private final boolean depthFirst;
+
+  // invariant: all buckets in the heap and the map are non-empty
+  private Bucket[] heap = new Bucket[8];
+  private int heapSize = 0;
+  // linked for a deterministic iteration order, in the order in which the buckets were created
+  private final Map<Key, Bucket> buckets = new LinkedHashMap<>();
+
+  private int size = 0;
+
+  private CompositeSortedWaitlist(
+      ImmutableList<AbstractSortedWaitlist<?>> pCriteria, TraversalMethod pSecondaryStrategy) {
+    criteria = pCriteria;
+    depthFirst = pSecondaryStrategy == TraversalMethod.DFS;
+  }
+
+  /**
+   * Creates a factory for waitlists that behave like the waitlists created by applying all given
+   * factory functions to the given secondary strategy, one after another.
+   *
+   * @param pSortedWaitlists functions like {@link CallstackSortedWaitlist#factory(WaitlistFactory)}
+   *     that create factories for subclasses of {@link AbstractSortedWaitlist} with {@link
+   *     Integer} keys, in the order in which they would be nested (innermost first)
+   * @param pSecondaryStrategy the strategy for states with the same keys, either BFS or DFS
+   */
+  public static WaitlistFactory factory(
+      List<UnaryOperator<WaitlistFactory>> pSortedWaitlists, TraversalMethod pSecondaryStrategy) {
+    checkNotNull(pSortedWaitlists);
+    checkNotNull(pSecondaryStrategy);
+    checkArgument(
+        pSecondaryStrategy == TraversalMethod.BFS || pSecondaryStrategy == TraversalMethod.DFS,
+        "Unsupported secondary strategy %s",
+        pSecondaryStrategy);
+    ImmutableList.Builder<AbstractSortedWaitlist<?>> criteria = ImmutableList.builder();
+    for (UnaryOperator<WaitlistFactory> sortedWaitlist : Lists.reverse(pSortedWaitlists)) {
+      // the instances are only used for computing sort keys, they never contain states
+      Waitlist instance = sortedWaitlist.apply(pSecondaryStrategy).createWaitlistInstance();
+      checkArgument(
+          instance instanceof AbstractSortedWaitlist,
+          "Waitlist %s is not a sorted waitlist",
+          instance.getClass().getSimpleName());
+      criteria.add((AbstractSortedWaitlist<?>) instance);
+    }
+    ImmutableList<AbstractSortedWaitlist<?>> result = criteria.build();
+    return () -> new CompositeSortedWaitlist(result, pSecondaryStrategy);
+  }
+
+  private Key computeKey(AbstractState pState) {
+    long[] keys = new long[(criteria.size() + 1) / 2];
+    for (int i = 0; i < criteria.size(); i++) {
+      int key = (Integer) criteria.get(i).computeSortKey(pState);
+      if (i % 2 == 0) {
+        keys[i / 2] = ((long) key) << 32;
+      } else {
+        // unsigned offset keeps the lexicographic order of the pair in the signed long
+        keys[i / 2] |= ((long) key) - Integer.MIN_VALUE;
+      }
+    }
+    return new Key(keys);
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    Key key = computeKey(pState);
+    Bucket bucket = buckets.get(key);
+    if (bucket == null) {
+      bucket = new Bucket(key);
+      buckets.put(key, bucket);
+      if (heapSize == heap.length) {
+        heap = Arrays.copyOf(heap, heap.length * 2);
+      }
+      heapSize++;
+      siftUp(bucket, heapSize - 1);
+    } else {
+      assert !bucket.states.isEmpty();
+    }
+    bucket.states.addLast(pState);
+    size++;
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    Bucket bucket = buckets.get(computeKey(pState));
+    return bucket != null && bucket.states.contains(pState);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(heap, 0, heapSize, null);
+    heapSize = 0;
+    buckets.clear();
+    size = 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    assert (heapSize == 0) == (size == 0);
+    return size == 0;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return Iterators.unmodifiableIterator(
+        Iterables.concat(Iterables.transform(buckets.values(), b -> b.states)).iterator());
+  }
+
+  @Override
+  public AbstractState pop() {
+    Bucket bucket = heap[0];
+    AbstractState result = depthFirst ? bucket.states.removeLast() : bucket.states.removeFirst();
+    if (bucket.states.isEmpty()) {
+      removeBucket(bucket);
+    }
+    size--;
+    return result;
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    Bucket bucket = buckets.get(computeKey(pState));
+    if (bucket == null || !bucket.states.remove(pState)) {
+      return false;
+    }
+    if (bucket.states.isEmpty()) {
+      removeBucket(bucket);
+    }
+    size--;
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private void removeBucket(Bucket pBucket) {
+    buckets.remove(pBucket.key);
+    int index = pBucket.heapIndex;
+    heapSize--;
+    Bucket last = heap[heapSize];
+    heap[heapSize] = null;
+    if (index < heapSize) {
+      siftDown(last, index);
+      if (heap[index] == last) {
+        siftUp(last, index);
+      }
+    }
+  }
+
+  /** Moves the given bucket from the given position towards the root of the heap. */
+  private void siftUp(Bucket pBucket, int pIndex) {
+    int index = pIndex;
+    while (index > 0) {
+      int parent = (index - 1) / 2;
+      if (!pBucket.key.isBefore(heap[parent].key)) {
+        break;
+      }
+      setHeapEntry(index, heap[parent]);
+      index = parent;
+    }
+    setHeapEntry(index, pBucket);
+  }
+
+  /** Moves the given bucket from the given position towards the leaves of the heap. */
+  private void siftDown(Bucket pBucket, int pIndex) {
+    int index = pIndex;
+    int half = heapSize / 2;
+    while (index < half) {
+      int child = 2 * index + 1;
+      int right = child + 1;
+      if (right < heapSize && heap[right].key.isBefore(heap[child].key)) {
+        child = right;
+      }
+      if (!heap[child].key.isBefore(pBucket.key)) {
+        break;
+      }
+      setHeapEntry(index, heap[child]);
+      index = child;
+    }
+    setHeapEntry(index, pBucket);
+  }
+
+  private void setHeapEntry(int pIndex, Bucket pBucket) {
+    heap[pIndex] = pBucket;
+    pBucket.heapIndex = pIndex;
+  }
+
+  @Override
+  public String toString() {
+    return Iterables.toString(this);
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+
+/**
+ * Tests that {@link CompositeSortedWaitlist} handles states in the same order as the nested sorted
+ * waitlists that it replaces.
+ */
+public class CompositeSortedWaitlistTest {
+
+  private static final int OPERATIONS = 5000;
+
+  private static final class TestState implements AbstractState {
+    private final int id;
+    private final int[] keys;
+
+    private TestState(int pId, int[] pKeys) {
+      id = pId;
+      keys = pKeys;
+    }
+
+    @Override
+    public String toString() {
+      return "State " + id;
+    }
+  }
+
+  /** Sorted waitlist that uses one of the keys of a {@link TestState} as sort key. */
+  private static final class TestSortedWaitlist extends AbstractSortedWaitlist<Integer> {
+
+    private final int criterion;
+
+    private TestSortedWaitlist(WaitlistFactory pSecondaryStrategy, int pCriterion) {
+      super(pSecondaryStrategy);
+      criterion = pCriterion;
+    }
+
+    @Override
+    protected Integer getSortKey(AbstractState pState) {
+      return ((TestState) pState).keys[criterion];
+    }
+
+    private static UnaryOperator<WaitlistFactory> factory(int pCriterion) {
+      return secondary -> () -> new TestSortedWaitlist(secondary, pCriterion);
+    }
+  }
+
+  private static void checkSameOrder(
+      int pCriteria, int pKeyRange, TraversalMethod pSecondaryStrategy) {
+    List<UnaryOperator<WaitlistFactory>> sortedWaitlists = new ArrayList<>(pCriteria);
+    for (int i = 0; i < pCriteria; i++) {
+      sortedWaitlists.add(TestSortedWaitlist.factory(i));
+    }
+    WaitlistFactory nestedFactory = pSecondaryStrategy;
+    for (UnaryOperator<WaitlistFactory> sortedWaitlist : sortedWaitlists) {
+      nestedFactory = sortedWaitlist.apply(nestedFactory);
+    }
+    Waitlist nested = nestedFactory.createWaitlistInstance();
+    Waitlist composite =
+        CompositeSortedWaitlist.factory(ImmutableList.copyOf(sortedWaitlists), pSecondaryStrategy)
+            .createWaitlistInstance();
+
+    Random random = new Random(pCriteria * 31 + pKeyRange);
+    List<TestState> added = new ArrayList<>();
+    for (int i = 0; i < OPERATIONS; i++) {
+      int operation = random.nextInt(10);
+      if (operation < 6 || nested.isEmpty()) {
+        int[] keys = new int[pCriteria];
+        for (int j = 0; j < pCriteria; j++) {
+          // include negative keys, which are packed differently
+          keys[j] = random.nextInt(2 * pKeyRange + 1) - pKeyRange;
+        }
+        TestState state = new TestState(i, keys);
+        added.add(state);
+        nested.add(state);
+        composite.add(state);
+      } else if (operation < 9) {
+        assertThat(composite.pop()).isSameInstanceAs(nested.pop());
+      } else {
+        TestState state = added.get(random.nextInt(added.size()));
+        assertThat(composite.contains(state)).isEqualTo(nested.contains(state));
+        assertThat(composite.remove(state)).isEqualTo(nested.remove(state));
+      }
+      assertThat(composite.size()).isEqualTo(nested.size());
+    }
+
+    assertThat(composite).containsExactlyElementsIn(nested);
+    while (!nested.isEmpty()) {
+      assertThat(composite.pop()).isSameInstanceAs(nested.pop());
+    }
+    assertThat(composite.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testOneCriterionBFS() {
+    checkSameOrder(1, 5, TraversalMethod.BFS);
+  }
+
+  @Test
+  public void testOneCriterionDFS() {
+    checkSameOrder(1, 5, TraversalMethod.DFS);
+  }
+
+  @Test
+  public void testTwoCriteriaBFS() {
+    checkSameOrder(2, 3, TraversalMethod.BFS);
+  }
+
+  @Test
+  public void testTwoCriteriaDFS() {
+    checkSameOrder(2, 3, TraversalMethod.DFS);
+  }
+
+  @Test
+  public void testThreeCriteriaBFS() {
+    checkSameOrder(3, 2, TraversalMethod.BFS);
+  }
+
+  @Test
+  public void testThreeCriteriaDFS() {
+    checkSameOrder(3, 2, TraversalMethod.DFS);
+  }
+
+  @Test
+  public void testExtremeKeysDFS() {
+    checkSameOrder(2, Integer.MAX_VALUE / 2, TraversalMethod.DFS);
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * JMH benchmark for the sorted waitlists based on {@link AbstractSortedWaitlist}. All states are
+ * added to the waitlist and then popped again, as the CPA algorithm would do it. The number of
+ * distinct sort keys and the number of nested sorted waitlists is configurable, and nested
+ * waitlists can be compared with the flattened {@link CompositeSortedWaitlist}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SortedWaitlistBenchmark {
+
+  @Param({"1000", "10000"})
+  public int states;
+
+  @Param({"1", "10", "100"})
+  public int keys;
+
+  @Param({"DFS", "BFS"})
+  public TraversalMethod secondaryStrategy;
+
+  @Param({"1", "3"})
+  public int levels;
+
+  @Param({"false", "true"})
+  public boolean flatten;
+
+  private ValueAnalysisState[] input;
+  private WaitlistFactory factory;
+
+  @Setup
+  public void setUp() {
+    ValueAnalysisState[] prototypes = new ValueAnalysisState[keys];
+    for (int i = 0; i < keys; i++) {
+      prototypes[i] = new ValueAnalysisState(MachineModel.LINUX64);
+      for (int j = 0; j < i; j++) {
+        prototypes[i].assignConstant(
+            MemoryLocation.valueOf("main", "var" + j), new NumericValue(j), CNumericTypes.INT);
+      }
+    }
+    input = new ValueAnalysisState[states];
+    for (int i = 0; i < states; i++) {
+      // distinct objects, because waitlists compare states by identity
+      input[i] = ValueAnalysisState.copyOf(prototypes[(i * 31) % keys]);
+    }
+    List<UnaryOperator<WaitlistFactory>> sortedWaitlists = new ArrayList<>();
+    for (int i = 0; i < levels; i++) {
+      sortedWaitlists.add(ExplicitSortedWaitlist::factory);
+    }
+    if (flatten) {
+      factory = CompositeSortedWaitlist.factory(sortedWaitlists, secondaryStrategy);
+    } else {
+      factory = secondaryStrategy;
+      for (UnaryOperator<WaitlistFactory> sortedWaitlist : sortedWaitlists) {
+        factory = sortedWaitlist.apply(factory);
+      }
+    }
+  }
+
+  @Benchmark
+  public int addAndPop() {
+    Waitlist waitlist = factory.createWaitlistInstance();
+    for (ValueAnalysisState state : input) {
+      waitlist.add(state);
+    }
+    int popped = 0;
+    while (!waitlist.isEmpty()) {
+      waitlist.pop();
+      popped++;
+    }
+    return popped;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import com.google.common.collect.Iterators;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Utility methods for the compact representation of the parents and children of an {@link
+ * ARGState} in a single field. Such a field contains <code>null</code> if there is no adjacent
+ * state, the adjacent state itself if there is exactly one, and an array without duplicates
+ * otherwise. The arrays are never modified after creation, so iterators are never invalidated by
+ * later changes.
+ *
+ * <p>Most states in an ARG have a single parent and at most two children, so this avoids
+ * allocating two collections (i.e., four objects) for each state.
+ */
+final class ARGStateAdjacency {
+
+  private ARGStateAdjacency() {}
+
+  static int size(@Nullable Object pStates) {
+    if (pStates == null) {
+      return 0;
+    } else if (pStates instanceof ARGState) {
+      return 1;
+    } else {
+      return ((ARGState[]) pStates).length;
+    }
+  }
+
+  static boolean contains(@Nullable Object pStates, ARGState pState) {
+    if (pStates == null) {
+      return false;
+    } else if (pStates instanceof ARGState) {
+      return pStates == pState;
+    } else {
+      for (ARGState state : (ARGState[]) pStates) {
+        if (state == pState) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  static Iterator<ARGState> iterator(@Nullable Object pStates) {
+    if (pStates == null) {
+      return Collections.emptyIterator();
+    } else if (pStates instanceof ARGState) {
+      return Iterators.singletonIterator((ARGState) pStates);
+    } else {
+      return Iterators.forArray((ARGState[]) pStates);
+    }
+  }
+
+  /** Returns the representation with the given state appended, which must not be present yet. */
+  static Object add(@Nullable Object pStates, ARGState pState) {
+    assert !contains(pStates, pState);
+    if (pStates == null) {
+      return pState;
+    } else if (pStates instanceof ARGState) {
+      return new ARGState[] {(ARGState) pStates, pState};
+    } else {
+      ARGState[] states = (ARGState[]) pStates;
+      ARGState[] result = Arrays.copyOf(states, states.length + 1);
+      result[states.length] = pState;
+      return result;
+    }
+  }
+
+  /** Returns the representation without the given state, keeping the order of the others. */
+  static @Nullable Object remove(@Nullable Object pStates, ARGState pState) {
+    if (pStates == null) {
+      return null;
+    } else if (pStates instanceof ARGState) {
+      return pStates == pState ? null : pStates;
+    } else {
+      ARGState[] states = (ARGState[]) pStates;
+      int index = 0;
+      while (index < states.length && states[index] != pState) {
+        index++;
+      }
+      if (index == states.length) {
+        return pStates;
+      } else if (states.length == 2) {
+        return states[1 - index];
+      }
+      ARGState[] result = new ARGState[states.length - 1];
+      System.arraycopy(states, 0, result, 0, index);
+      System.arraycopy(states, index + 1, result, index, result.length - index);
+      return result;
+    }
+  }
+}
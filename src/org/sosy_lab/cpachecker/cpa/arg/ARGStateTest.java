@@ -0,0 +1,111 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collection;
+import org.junit.Test;
+
+public class ARGStateTest {
+
+  @Test
+  public void testSingleParentAndChild() {
+    ARGState root = new ARGState(null, null);
+    ARGState child = new ARGState(null, root);
+
+    assertThat(root.getParents()).isEmpty();
+    assertThat(root.getChildren()).containsExactly(child);
+    assertThat(child.getParents()).containsExactly(root);
+    assertThat(child.getChildren()).isEmpty();
+  }
+
+  @Test
+  public void testSetSemanticsAndOrder() {
+    ARGState root = new ARGState(null, null);
+    ARGState child1 = new ARGState(null, root);
+    ARGState child2 = new ARGState(null, root);
+    ARGState child3 = new ARGState(null, root);
+    child2.addParent(root);
+
+    assertThat(root.getChildren()).containsExactly(child1, child2, child3).inOrder();
+    assertThat(child2.getParents()).containsExactly(root);
+  }
+
+  @Test
+  public void testViewsReflectChanges() {
+    ARGState root = new ARGState(null, null);
+    Collection<ARGState> children = root.getChildren();
+    ARGState child1 = new ARGState(null, root);
+    ARGState child2 = new ARGState(null, root);
+    ARGState child3 = new ARGState(null, root);
+
+    assertThat(children).containsExactly(child1, child2, child3).inOrder();
+
+    child2.removeParent(root);
+    assertThat(children).containsExactly(child1, child3).inOrder();
+    assertThat(child2.getParents()).isEmpty();
+
+    child1.removeParent(root);
+    assertThat(children).containsExactly(child3);
+    assertThat(children.contains(child1)).isFalse();
+
+    child3.removeParent(root);
+    assertThat(children).isEmpty();
+  }
+
+  @Test
+  public void testRemoveFromARG() {
+    ARGState root = new ARGState(null, null);
+    ARGState middle = new ARGState(null, root);
+    ARGState sibling = new ARGState(null, root);
+    ARGState leaf1 = new ARGState(null, middle);
+    ARGState leaf2 = new ARGState(null, middle);
+    leaf2.addParent(sibling);
+
+    middle.removeFromARG();
+
+    assertThat(root.getChildren()).containsExactly(sibling);
+    assertThat(leaf1.getParents()).isEmpty();
+    assertThat(leaf2.getParents()).containsExactly(sibling);
+    assertThat(sibling.getChildren()).containsExactly(leaf2);
+  }
+
+  @Test
+  public void testReplaceInARG() {
+    ARGState root = new ARGState(null, null);
+    ARGState old = new ARGState(null, root);
+    ARGState leaf1 = new ARGState(null, old);
+    ARGState leaf2 = new ARGState(null, old);
+    ARGState replacement = new ARGState(null, null);
+
+    old.replaceInARGWith(replacement);
+
+    assertThat(root.getChildren()).containsExactly(replacement);
+    assertThat(replacement.getParents()).containsExactly(root);
+    assertThat(replacement.getChildren()).containsExactly(leaf1, leaf2).inOrder();
+    assertThat(leaf1.getParents()).containsExactly(replacement);
+    assertThat(leaf2.getParents()).containsExactly(replacement);
+  }
+}
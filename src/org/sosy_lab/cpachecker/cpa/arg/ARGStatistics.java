@@ -29,6 +29,8 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.IS_TARGET_STATE;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Predicates;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -132,6 +134,14 @@ public class ARGStatistics implements Statistics {
   )
   private boolean compressWitness = true;
 
+  @Option(
+    secure = true,
+    name = "compressARG",
+    description =
+        "compress the exported ARG dot files (ARG and simplified ARG) using GZIP compression."
+  )
+  private boolean compressArg = false;
+
   @Option(secure=true, name="simplifiedARG.file",
       description="export final ARG as .dot file, showing only loop heads and function entries/exits")
   @FileOption(FileOption.Type.OUTPUT_FILE)
@@ -386,12 +396,17 @@ public class ARGStatistics implements Statistics {
       final ARGState rootState,
       final BiPredicate<ARGState, ARGState> isTargetPathEdge,
       Result pResult) {
-    SetMultimap<ARGState, ARGState> relevantSuccessorRelation =
-        ARGUtils.projectARG(rootState, ARGState::getChildren, ARGUtils.RELEVANT_STATE);
-    Function<ARGState, Collection<ARGState>> relevantSuccessorFunction =
-        Functions.forMap(relevantSuccessorRelation.asMap(), ImmutableSet.of());
-
-    if (EnumSet.of(Result.TRUE, Result.UNKNOWN).contains(pResult)) {
+    // the projection of the ARG is only computed if it is needed, it can be large
+    Supplier<Function<ARGState, Collection<ARGState>>> relevantSuccessorFunction =
+        Suppliers.memoize(
+            () -> {
+              SetMultimap<ARGState, ARGState> relevantSuccessorRelation =
+                  ARGUtils.projectARG(rootState, ARGState::getChildren, ARGUtils.RELEVANT_STATE);
+              return Functions.forMap(relevantSuccessorRelation.asMap(), ImmutableSet.of());
+            });
+
+    if ((proofWitness != null || proofWitnessDot != null)
+        && EnumSet.of(Result.TRUE, Result.UNKNOWN).contains(pResult)) {
       final Witness witness =
           argWitnessExporter.generateProofWitness(
               rootState,
@@ -419,14 +434,11 @@ public class ARGStatistics implements Statistics {
     }
 
     if (argFile != null) {
-      try (Writer w =
-          IO.openOutputFile(
-              adjustPathNameForPartitioning(rootState, argFile), Charset.defaultCharset())) {
-        ARGToDotWriter.write(
-            w, rootState, ARGState::getChildren, Predicates.alwaysTrue(), isTargetPathEdge);
-      } catch (IOException e) {
-        logger.logUserException(Level.WARNING, e, "Could not write ARG to file");
-      }
+      writeDotFile(
+          adjustPathNameForPartitioning(rootState, argFile),
+          w ->
+              ARGToDotWriter.write(
+                  w, rootState, ARGState::getChildren, Predicates.alwaysTrue(), isTargetPathEdge));
     }
 
     if (pixelGraphicFile != null) {
@@ -439,19 +451,15 @@ public class ARGStatistics implements Statistics {
     }
 
     if (simplifiedArgFile != null) {
-      try (Writer w =
-          IO.openOutputFile(
-              adjustPathNameForPartitioning(rootState, simplifiedArgFile),
-              Charset.defaultCharset())) {
-        ARGToDotWriter.write(
-            w,
-            rootState,
-            relevantSuccessorFunction,
-            Predicates.alwaysTrue(),
-            BiPredicates.alwaysFalse());
-      } catch (IOException e) {
-        logger.logUserException(Level.WARNING, e, "Could not write ARG to file");
-      }
+      writeDotFile(
+          adjustPathNameForPartitioning(rootState, simplifiedArgFile),
+          w ->
+              ARGToDotWriter.write(
+                  w,
+                  rootState,
+                  relevantSuccessorFunction.get(),
+                  Predicates.alwaysTrue(),
+                  BiPredicates.alwaysFalse()));
     }
 
     assert (refinementGraphUnderlyingWriter == null) == (refinementGraphWriter == null);
@@ -460,7 +468,7 @@ public class ARGStatistics implements Statistics {
         // TODO: Support for partitioned state spaces
         refinementGraphWriter.writeSubgraph(
             rootState,
-            relevantSuccessorFunction,
+            relevantSuccessorFunction.get(),
             Predicates.alwaysTrue(),
             BiPredicates.alwaysFalse());
         refinementGraphWriter.finish();
@@ -493,6 +501,23 @@ public class ARGStatistics implements Statistics {
     }
   }
 
+  /**
+   * Writes the dot graph directly into the (optionally compressed) file, such that the content is
+   * never kept in memory completely.
+   */
+  private void writeDotFile(Path pPath, Appender pContent) {
+    try {
+      if (compressArg) {
+        IO.writeGZIPFile(
+            pPath.resolveSibling(pPath.getFileName() + ".gz"), Charset.defaultCharset(), pContent);
+      } else {
+        IO.writeFile(pPath, Charset.defaultCharset(), pContent);
+      }
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write ARG to file");
+    }
+  }
+
   private void writeAutomaton(int counterId, Automaton automaton) throws IOException {
     if (automatonSpcFile != null) {
       writeFile(automatonSpcFile.getPath(counterId), automaton);
@@ -147,7 +147,8 @@ public class ARGToDotWriter {
 
   /**
    * Create String with ARG in the DOT format of Graphviz. Only the states and edges are written, no
-   * surrounding graph definition.
+   * surrounding graph definition. Each state and edge is written directly when it is visited, such
+   * that no copy of the graph is kept in memory.
    *
    * @param rootState the root element of the ARG
    * @param successorFunction A function giving all successors of an ARGState. Only states reachable
@@ -165,7 +166,6 @@ public class ARGToDotWriter {
 
     Deque<ARGState> worklist = new ArrayDeque<>();
     Set<ARGState> processed = new HashSet<>();
-    StringBuilder edges = new StringBuilder();
 
     worklist.add(rootState);
 
@@ -183,19 +183,18 @@ public class ARGToDotWriter {
 
       for (ARGState covered : currentElement.getCoveredByThis()) {
         if (displayedElements.apply(covered)) {
-          edges.append(covered.getStateId());
-          edges.append(" -> ");
-          edges.append(currentElement.getStateId());
-          edges.append(" [style=\"dashed\" weight=\"0\" label=\"covered by\"]\n");
+          sb.append(Integer.toString(covered.getStateId()));
+          sb.append(" -> ");
+          sb.append(Integer.toString(currentElement.getStateId()));
+          sb.append(" [style=\"dashed\" weight=\"0\" label=\"covered by\"]\n");
         }
       }
 
       for (ARGState child : successorFunction.apply(currentElement)) {
-        edges.append(determineEdge(highlightEdge, currentElement, child));
+        sb.append(determineEdge(highlightEdge, currentElement, child));
         worklist.add(child);
       }
     }
-    sb.append(edges);
   }
 
   private static String determineEdge(
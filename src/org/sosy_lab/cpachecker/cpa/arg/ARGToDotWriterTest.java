@@ -0,0 +1,112 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Predicates;
+import com.google.common.base.Splitter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.util.BiPredicates;
+
+public class ARGToDotWriterTest {
+
+  /**
+   * The ARG is written while it is traversed, whereas the previous implementation collected all
+   * edges and wrote them after all nodes. Except for this order, the output has to be the same.
+   */
+  @Test
+  public void testSameOutputAsBufferedEdges() throws IOException {
+    ARGState root = new ARGState(null, null);
+    ARGState left = new ARGState(null, root);
+    ARGState right = new ARGState(null, root);
+    ARGState leftChild = new ARGState(null, left);
+    ARGState rightChild = new ARGState(null, right);
+    root.markExpanded();
+    left.markExpanded();
+    right.markExpanded();
+    rightChild.setCovered(leftChild);
+
+    StringBuilder output = new StringBuilder();
+    ARGToDotWriter.write(
+        output,
+        root,
+        ARGState::getChildren,
+        Predicates.alwaysTrue(),
+        BiPredicates.alwaysFalse());
+
+    // states are visited depth first, starting with the last child
+    String expected =
+        Joiner.on("\n")
+            .join(
+                "digraph ARG {",
+                "node [style=\"filled\" shape=\"box\" color=\"white\"]",
+                node(root, null),
+                node(right, null),
+                node(rightChild, "green"),
+                node(left, null),
+                node(leftChild, "orange"),
+                dummyEdge(root, left),
+                dummyEdge(root, right),
+                dummyEdge(right, rightChild),
+                dummyEdge(left, leftChild),
+                rightChild.getStateId()
+                    + " -> "
+                    + leftChild.getStateId()
+                    + " [style=\"dashed\" weight=\"0\" label=\"covered by\"]",
+                "}",
+                "");
+
+    assertThat(moveEdgesToEnd(output.toString())).isEqualTo(expected);
+  }
+
+  private static String node(ARGState pState, String pColor) {
+    int id = pState.getStateId();
+    String color = pColor == null ? "" : "fillcolor=\"" + pColor + "\" ";
+    return id + " [" + color + "label=\"" + id + "\" id=\"" + id + "\"]";
+  }
+
+  private static String dummyEdge(ARGState pParent, ARGState pChild) {
+    String edge = pParent.getStateId() + " -> " + pChild.getStateId();
+    return edge + " [style=\"bold\" color=\"blue\" label=\"dummy edge\" id=\"" + edge + "\"]";
+  }
+
+  /** Reorders the given graph such that all edges follow all nodes, as in the previous output. */
+  private static String moveEdgesToEnd(String pDot) {
+    List<String> lines = Splitter.on('\n').splitToList(pDot);
+    List<String> nodes = new ArrayList<>();
+    List<String> edges = new ArrayList<>();
+    // the last two lines are the closing brace and the empty line after it
+    for (String line : lines.subList(0, lines.size() - 2)) {
+      (line.contains(" -> ") ? edges : nodes).add(line);
+    }
+    nodes.addAll(edges);
+    nodes.addAll(lines.subList(lines.size() - 2, lines.size()));
+    return Joiner.on("\n").join(nodes);
+  }
+}
@@ -31,12 +31,14 @@ import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.core.defaults.AbstractSingleWrapperTransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeTransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.WrapperTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.exceptions.UnrecognizedCodeException;
 
-public class ARGTransferRelation extends AbstractSingleWrapperTransferRelation {
+public class ARGTransferRelation extends AbstractSingleWrapperTransferRelation
+    implements ThreadSafeTransferRelation {
 
   public ARGTransferRelation(TransferRelation tr) {
     super(tr);
@@ -55,23 +57,40 @@ public class ARGTransferRelation extends AbstractSingleWrapperTransferRelation {
 
     element.markExpanded();
 
-    AbstractState wrappedState = element.getWrappedState();
-    Collection<? extends AbstractState> successors;
+    return wrapSuccessors(element, getWrappedSuccessors(element, pPrecision));
+  }
+
+  /**
+   * Compute the successors of the state wrapped by the given ARG state without modifying the ARG.
+   * This may be called concurrently for different states if the wrapped transfer relation is
+   * thread-safe. The result needs to be passed to {@link #wrapSuccessors(ARGState, Collection)}.
+   */
+  public Collection<? extends AbstractState> getWrappedSuccessors(
+      ARGState pElement, Precision pPrecision) throws CPATransferException, InterruptedException {
     try {
-      successors = transferRelation.getAbstractSuccessors(wrappedState, pPrecision);
+      return transferRelation.getAbstractSuccessors(pElement.getWrappedState(), pPrecision);
     } catch (UnrecognizedCodeException e) {
       // setting parent of this unsupported code part
-      e.setParentState(element);
+      e.setParentState(pElement);
       throw e;
     }
+  }
+
+  /**
+   * Insert the successors computed by {@link #getWrappedSuccessors(ARGState, Precision)} into the
+   * ARG as children of the given state. This modifies the ARG and must not be called concurrently.
+   */
+  public Collection<ARGState> wrapSuccessors(
+      ARGState pElement, Collection<? extends AbstractState> pSuccessors) {
+    pElement.markExpanded();
 
-    if (successors.isEmpty()) {
+    if (pSuccessors.isEmpty()) {
       return ImmutableSet.of();
     }
 
     ImmutableList.Builder<ARGState> wrappedSuccessors = ImmutableList.builder();
-    for (AbstractState absElement : successors) {
-      ARGState successorElem = new ARGState(absElement, element);
+    for (AbstractState absElement : pSuccessors) {
+      ARGState successorElem = new ARGState(absElement, pElement);
       wrappedSuccessors.add(successorElem);
     }
 
@@ -22,13 +22,12 @@ package org.sosy_lab.cpachecker.cpa.arg.witnessexport.formatter;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.core.interfaces.Property;
 import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Edge;
@@ -41,8 +40,17 @@ import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
 
 public class WitnessToDotFormatter extends WitnessToOutputFormatter<String> {
 
-  private Map<String, Collection<String>> nodesToLabel;
-  private Map<String, String> nodesToColor;
+  /** number of created nodes, also used as identifier for the next node. */
+  private int nodeCounter = 0;
+
+  /** node labels that are given by the edges entering a node. */
+  private final ListMultimap<String, String> nodeLabelsFromEdges = ArrayListMultimap.create();
+
+  /** The most recently created node, it is written as soon as the next element is created. */
+  private @Nullable String pendingNode = null;
+
+  private final List<String> pendingNodeLabels = new ArrayList<>();
+  private String pendingNodeColor = "";
 
   public WitnessToDotFormatter(Witness pWitness) {
     super(pWitness);
@@ -50,30 +58,35 @@ public class WitnessToDotFormatter extends WitnessToOutputFormatter<String> {
 
   @Override
   protected void initialize(Appendable pTarget) throws IOException {
-    nodesToLabel = new LinkedHashMap<>();
-    nodesToColor = new LinkedHashMap<>();
+    nodeCounter = 0;
     // start dot-graph
     pTarget.append("digraph WITNESS {\n");
   }
 
   @Override
   protected void finish(Appendable pTarget) throws IOException {
+    writePendingNode(pTarget);
+    nodeCounter = 0;
+    nodeLabelsFromEdges.clear();
+
+    // finish dot-graph
+    pTarget.append("\n}");
+  }
 
-    // we delay nodes, because their label is build and extended during the witness traversal.
-    for (Entry<String, Collection<String>> entry : nodesToLabel.entrySet()) {
-      String nodeId = entry.getKey();
-      String color = nodesToColor.getOrDefault(nodeId, "");
+  private void writePendingNode(Appendable pTarget) throws IOException {
+    if (pendingNode != null) {
+      pendingNodeLabels.addAll(nodeLabelsFromEdges.removeAll(pendingNode));
       pTarget
-          .append(nodeId)
+          .append(pendingNode)
           .append(" [label=\"")
-          .append(Joiner.on("\\n").join(entry.getValue()))
+          .append(Joiner.on("\\n").join(pendingNodeLabels))
           .append("\"")
-          .append(color)
+          .append(pendingNodeColor)
           .append("];\n");
+      pendingNode = null;
+      pendingNodeLabels.clear();
+      pendingNodeColor = "";
     }
-
-    // finish dot-graph
-    pTarget.append("\n}");
   }
 
   private static String eq(Object o1, Object o2) {
@@ -87,23 +100,26 @@ public class WitnessToDotFormatter extends WitnessToOutputFormatter<String> {
 
   @Override
   protected String createNewNode(String pNodeId, Appendable pTarget) throws IOException {
-    final String nodeId = Integer.toString(nodesToLabel.size());
-    List<String> labels = new ArrayList<>();
+    final String nodeId = Integer.toString(nodeCounter++);
+    if (collecting) {
+      return nodeId;
+    }
+    writePendingNode(pTarget);
+    pendingNode = nodeId;
     // if (witness.getWitnessOptions().exportNodeLabel()) {
-    labels.add(pNodeId);
+    pendingNodeLabels.add(pNodeId);
     // }
     for (NodeFlag f : witness.getNodeFlags().get(pNodeId)) {
-      labels.add(eq(f.key, "true"));
-      nodesToColor.put(nodeId, nodesToColor.getOrDefault(nodeId, "") + " " + getColorForNode(f));
+      pendingNodeLabels.add(eq(f.key, "true"));
+      pendingNodeColor += " " + getColorForNode(f);
     }
     for (Property violation : witness.getViolatedProperties().get(pNodeId)) {
-      labels.add(eq(KeyDef.VIOLATEDPROPERTY, violation));
+      pendingNodeLabels.add(eq(KeyDef.VIOLATEDPROPERTY, violation));
     }
     if (witness.hasQuasiInvariant(pNodeId)) {
       ExpressionTree<Object> tree = witness.getQuasiInvariant(pNodeId);
-      labels.add(eq(KeyDef.INVARIANT, tree));
+      pendingNodeLabels.add(eq(KeyDef.INVARIANT, tree));
     }
-    nodesToLabel.put(nodeId, labels);
     return nodeId;
   }
 
@@ -137,10 +153,15 @@ public class WitnessToDotFormatter extends WitnessToOutputFormatter<String> {
         if (KeyDef.THREADID.equals(keyDef)) {
           color = "colorscheme=set19 color=" + value; // trick to get different colors
         }
-      } else if (keyDef.keyFor.equals(ElementType.NODE)) {
-        nodesToLabel.get(pTargetNode).add(eq(keyDef, value));
+      } else if (keyDef.keyFor.equals(ElementType.NODE) && collecting) {
+        // the target node might already be written when this edge is written
+        nodeLabelsFromEdges.put(pTargetNode, eq(keyDef, value));
       }
     }
+    if (collecting) {
+      return;
+    }
+    writePendingNode(pTarget);
     pTarget
         .append(pSourceNode)
         .append(" -> ")
@@ -155,9 +176,12 @@ public class WitnessToDotFormatter extends WitnessToOutputFormatter<String> {
   @Override
   protected void addInvariantsData(
       String pNodeId, ExpressionTree<Object> pTree, @Nullable String pScope, Appendable pTarget) {
-    nodesToLabel.get(pNodeId).add(eq(KeyDef.INVARIANT, pTree));
+    if (collecting) {
+      return;
+    }
+    pendingNodeLabels.add(eq(KeyDef.INVARIANT, pTree));
     if (!isNullOrEmpty(pScope) && !pTree.equals(ExpressionTrees.getFalse())) {
-      nodesToLabel.get(pNodeId).add(eq(KeyDef.INVARIANTSCOPE, pScope));
+      pendingNodeLabels.add(eq(KeyDef.INVARIANTSCOPE, pScope));
     }
   }
 }
@@ -21,25 +21,41 @@ package org.sosy_lab.cpachecker.cpa.arg.witnessexport.formatter;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.core.interfaces.Property;
 import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Edge;
 import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Witness;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
-import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlWriter;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
-import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
-import org.w3c.dom.Element;
 
-public class WitnessToGraphMLFormatter extends WitnessToOutputFormatter<Element> {
+public class WitnessToGraphMLFormatter extends WitnessToOutputFormatter<String> {
 
-  private GraphMlBuilder doc;
+  private @Nullable GraphMlWriter writer;
+
+  /** all keys used for nodes and edges, they are defined at the beginning of the document. */
+  private final Set<KeyDef> usedKeys = EnumSet.noneOf(KeyDef.class);
+
+  /** node data that is given by the edges entering a node. */
+  private final ListMultimap<String, Map.Entry<KeyDef, String>> nodeDataFromEdges =
+      ArrayListMultimap.create();
+
+  /** The most recently created node, it is written as soon as the next element is created. */
+  private @Nullable String pendingNode = null;
+
+  private final List<Map.Entry<KeyDef, String>> pendingNodeData = new ArrayList<>();
 
   public WitnessToGraphMLFormatter(Witness pWitness) {
     super(pWitness);
@@ -47,64 +63,96 @@ public class WitnessToGraphMLFormatter extends WitnessToOutputFormatter<Element>
 
   @Override
   protected void initialize(Appendable pTarget) throws IOException {
-    try {
-      doc =
-          new GraphMlBuilder(
-              witness.getWitnessType(),
-              witness.getOriginFile(),
-              witness.getCfa(),
-              witness.getMetaData());
-    } catch (ParserConfigurationException e) {
-      throw new IOException(e);
-    }
+    writer =
+        new GraphMlWriter(
+            pTarget,
+            usedKeys,
+            witness.getWitnessType(),
+            witness.getOriginFile(),
+            witness.getCfa(),
+            witness.getMetaData());
   }
 
   @Override
   protected void finish(Appendable pTarget) throws IOException {
-    doc.appendTo(pTarget);
+    writePendingNode();
+    writer.finish();
+    writer = null;
+    usedKeys.clear();
+    nodeDataFromEdges.clear();
+  }
+
+  private void addNodeData(KeyDef pKey, String pValue) {
+    if (collecting) {
+      usedKeys.add(pKey);
+    } else {
+      pendingNodeData.add(Maps.immutableEntry(pKey, pValue));
+    }
+  }
+
+  private void writePendingNode() throws IOException {
+    if (pendingNode != null) {
+      pendingNodeData.addAll(nodeDataFromEdges.removeAll(pendingNode));
+      writer.writeNode(pendingNode, pendingNodeData);
+      pendingNode = null;
+      pendingNodeData.clear();
+    }
   }
 
   @Override
-  protected Element createNewNode(String pNodeId, Appendable pTarget) {
-    final Element result = doc.createNodeElement(pNodeId, NodeType.ONPATH);
+  protected String createNewNode(String pNodeId, Appendable pTarget) throws IOException {
+    if (!collecting) {
+      writePendingNode();
+      pendingNode = pNodeId;
+    }
     if (witness.getWitnessOptions().exportNodeLabel()) {
       // add a printable label that for example is shown in yEd
-      doc.addDataElementChild(result, KeyDef.LABEL, pNodeId);
+      addNodeData(KeyDef.LABEL, pNodeId);
     }
     for (NodeFlag f : witness.getNodeFlags().get(pNodeId)) {
-      doc.addDataElementChild(result, f.key, "true");
+      addNodeData(f.key, "true");
     }
     for (Property violation : witness.getViolatedProperties().get(pNodeId)) {
-      doc.addDataElementChild(result, KeyDef.VIOLATEDPROPERTY, violation.toString());
+      addNodeData(KeyDef.VIOLATEDPROPERTY, violation.toString());
     }
     if (witness.hasQuasiInvariant(pNodeId)) {
       ExpressionTree<Object> tree = witness.getQuasiInvariant(pNodeId);
-      doc.addDataElementChild(result, KeyDef.INVARIANT, tree.toString());
+      addNodeData(KeyDef.INVARIANT, tree.toString());
     }
-    return result;
+    return pNodeId;
   }
 
   @Override
   protected void createNewEdge(
-      Edge pEdge, Element pSourceNode, Element pTargetNode, Appendable pTarget) {
-    final Element edge = doc.createEdgeElement(pEdge.getSource(), pEdge.getTarget());
+      Edge pEdge, String pSourceNode, String pTargetNode, Appendable pTarget) throws IOException {
+    if (collecting) {
+      for (Map.Entry<KeyDef, String> entry : pEdge.getLabel().getMapping().entrySet()) {
+        KeyDef keyDef = entry.getKey();
+        usedKeys.add(keyDef);
+        if (keyDef.keyFor.equals(ElementType.NODE)) {
+          // the target node might already be written when this edge is written
+          nodeDataFromEdges.put(pTargetNode, Maps.immutableEntry(keyDef, entry.getValue()));
+        }
+      }
+      return;
+    }
+
+    List<Map.Entry<KeyDef, String>> edgeData = new ArrayList<>();
     for (Map.Entry<KeyDef, String> entry : pEdge.getLabel().getMapping().entrySet()) {
-      KeyDef keyDef = entry.getKey();
-      String value = entry.getValue();
-      if (keyDef.keyFor.equals(ElementType.EDGE)) {
-        doc.addDataElementChild(edge, keyDef, value);
-      } else if (keyDef.keyFor.equals(ElementType.NODE)) {
-        doc.addDataElementChild(pTargetNode, keyDef, value);
+      if (entry.getKey().keyFor.equals(ElementType.EDGE)) {
+        edgeData.add(entry);
       }
     }
+    writePendingNode();
+    writer.writeEdge(pEdge.getSource(), pEdge.getTarget(), edgeData);
   }
 
   @Override
   protected void addInvariantsData(
-      Element pNode, ExpressionTree<Object> pTree, @Nullable String pScope, Appendable pTarget) {
-    doc.addDataElementChild(pNode, KeyDef.INVARIANT, pTree.toString());
+      String pNode, ExpressionTree<Object> pTree, @Nullable String pScope, Appendable pTarget) {
+    addNodeData(KeyDef.INVARIANT, pTree.toString());
     if (!isNullOrEmpty(pScope) && !pTree.equals(ExpressionTrees.getFalse())) {
-      doc.addDataElementChild(pNode, KeyDef.INVARIANTSCOPE, pScope);
+      addNodeData(KeyDef.INVARIANTSCOPE, pScope);
     }
   }
 }
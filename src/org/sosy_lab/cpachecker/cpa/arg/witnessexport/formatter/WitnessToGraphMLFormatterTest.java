@@ -0,0 +1,278 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg.witnessexport.formatter;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.core.interfaces.Property;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Edge;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.TransitionCondition;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Witness;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.WitnessOptions;
+import org.sosy_lab.cpachecker.util.Property.CommonPropertyType;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType;
+import org.sosy_lab.cpachecker.util.automaton.VerificationTaskMetaData;
+import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
+import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
+import org.sosy_lab.cpachecker.util.expressions.LeafExpression;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+public class WitnessToGraphMLFormatterTest {
+
+  /**
+   * The streamed output has to be the same document as the output of the previous implementation,
+   * which built the whole document with a {@link GraphMlBuilder} before writing it. The witness
+   * contains node data from edges entering a node that is already written when the edge is
+   * visited.
+   */
+  @Test
+  public void testSameDocumentAsDomBuilder() throws Exception {
+    Witness witness = createWitness();
+
+    StringBuilder streamed = new StringBuilder();
+    new WitnessToGraphMLFormatter(witness).appendTo(streamed);
+    StringBuilder dom = new StringBuilder();
+    new DomWitnessFormatter(witness).appendTo(dom);
+
+    assertWithMessage("streamed witness:%n%s%nDOM witness:%n%s", streamed, dom)
+        .that(parse(streamed.toString()).isEqualNode(parse(dom.toString())))
+        .isTrue();
+  }
+
+  @Test
+  public void testRepeatedOutputIsIdentical() throws Exception {
+    WitnessToGraphMLFormatter formatter = new WitnessToGraphMLFormatter(createWitness());
+
+    StringBuilder first = new StringBuilder();
+    formatter.appendTo(first);
+    StringBuilder second = new StringBuilder();
+    formatter.appendTo(second);
+
+    assertWithMessage("first witness:%n%s%nsecond witness:%n%s", first, second)
+        .that(parse(first.toString()).isEqualNode(parse(second.toString())))
+        .isTrue();
+  }
+
+  private static Witness createWitness() {
+    CFA cfa = mock(CFA.class);
+    when(cfa.getLanguage()).thenReturn(Language.C);
+    when(cfa.getMachineModel()).thenReturn(MachineModel.LINUX32);
+    when(cfa.getFileNames()).thenReturn(ImmutableList.of());
+    VerificationTaskMetaData metaData = mock(VerificationTaskMetaData.class);
+    when(metaData.getProducerString()).thenReturn("CPAchecker");
+
+    TransitionCondition condition =
+        TransitionCondition.empty().putAndCopy(KeyDef.STARTLINE, "3");
+    TransitionCondition toCycleHead = condition.putAndCopy(KeyDef.ISCYCLEHEAD, "true");
+    ImmutableList<Edge> edges =
+        ImmutableList.of(
+            new Edge(
+                "A",
+                "B",
+                condition
+                    .putAndCopy(KeyDef.CONTROLCASE, "condition-true")
+                    .putAndCopy(KeyDef.ASSUMPTION, "x == 1;")),
+            new Edge("A", "C", condition.putAndCopy(KeyDef.CONTROLCASE, "condition-false")),
+            new Edge("B", "D", toCycleHead.putAndCopy(KeyDef.FUNCTIONENTRY, "f")),
+            new Edge("C", "D", toCycleHead),
+            new Edge("D", "E", TransitionCondition.empty().putAndCopy(KeyDef.STARTLINE, "7")));
+    Multimap<String, Edge> leavingEdges = LinkedHashMultimap.create();
+    Multimap<String, Edge> enteringEdges = LinkedHashMultimap.create();
+    for (Edge edge : edges) {
+      leavingEdges.put(edge.getSource(), edge);
+      enteringEdges.put(edge.getTarget(), edge);
+    }
+
+    Multimap<String, Property> violatedProperties = HashMultimap.create();
+    violatedProperties.put("E", CommonPropertyType.REACHABILITY);
+
+    return new Witness(
+        WitnessType.VIOLATION_WITNESS,
+        "test.c",
+        cfa,
+        metaData,
+        "A",
+        leavingEdges,
+        enteringEdges,
+        new WitnessOptions(),
+        ImmutableSetMultimap.of("A", NodeFlag.ISENTRY, "E", NodeFlag.ISVIOLATION),
+        violatedProperties,
+        ImmutableMap.of("D", LeafExpression.<Object>of("x > 0")),
+        ImmutableMap.of("C", LeafExpression.<Object>of("x != 1")),
+        ImmutableMap.of("D", "main"),
+        ImmutableSet.of("D"),
+        ImmutableMultimap.of(),
+        ImmutableMultimap.of());
+  }
+
+  /**
+   * Parses the given GraphML document and removes all parts that may differ between two equal
+   * witnesses: whitespace between elements and the creation time.
+   */
+  private static Document parse(String pGraphMl) throws Exception {
+    Document doc =
+        DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder()
+            .parse(new InputSource(new StringReader(pGraphMl)));
+    removeIgnoredNodes(doc.getDocumentElement());
+    doc.normalizeDocument();
+    return doc;
+  }
+
+  private static void removeIgnoredNodes(Node pNode) {
+    Node child = pNode.getFirstChild();
+    while (child != null) {
+      Node next = child.getNextSibling();
+      if ((child.getNodeType() == Node.TEXT_NODE && child.getTextContent().trim().isEmpty())
+          || (child instanceof Element
+              && ((Element) child).getAttribute("key").equals(KeyDef.CREATIONTIME.id))) {
+        pNode.removeChild(child);
+      } else {
+        removeIgnoredNodes(child);
+      }
+      child = next;
+    }
+  }
+
+  /**
+   * The previous implementation of {@link WitnessToGraphMLFormatter}, which creates the whole
+   * document in memory before writing it.
+   */
+  private static class DomWitnessFormatter extends WitnessToOutputFormatter<Element> {
+
+    /** returned for all nodes while collecting, nothing is added to it. */
+    private final Element placeholder;
+
+    private GraphMlBuilder doc;
+
+    DomWitnessFormatter(Witness pWitness) throws ParserConfigurationException {
+      super(pWitness);
+      placeholder =
+          DocumentBuilderFactory.newInstance()
+              .newDocumentBuilder()
+              .newDocument()
+              .createElement("node");
+    }
+
+    @Override
+    protected void initialize(Appendable pTarget) throws IOException {
+      try {
+        doc =
+            new GraphMlBuilder(
+                witness.getWitnessType(),
+                witness.getOriginFile(),
+                witness.getCfa(),
+                witness.getMetaData());
+      } catch (ParserConfigurationException e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    protected void finish(Appendable pTarget) throws IOException {
+      doc.appendTo(pTarget);
+    }
+
+    @Override
+    protected Element createNewNode(String pNodeId, Appendable pTarget) {
+      if (collecting) {
+        return placeholder;
+      }
+      final Element result = doc.createNodeElement(pNodeId, NodeType.ONPATH);
+      if (witness.getWitnessOptions().exportNodeLabel()) {
+        doc.addDataElementChild(result, KeyDef.LABEL, pNodeId);
+      }
+      for (NodeFlag f : witness.getNodeFlags().get(pNodeId)) {
+        doc.addDataElementChild(result, f.key, "true");
+      }
+      for (Property violation : witness.getViolatedProperties().get(pNodeId)) {
+        doc.addDataElementChild(result, KeyDef.VIOLATEDPROPERTY, violation.toString());
+      }
+      if (witness.hasQuasiInvariant(pNodeId)) {
+        ExpressionTree<Object> tree = witness.getQuasiInvariant(pNodeId);
+        doc.addDataElementChild(result, KeyDef.INVARIANT, tree.toString());
+      }
+      return result;
+    }
+
+    @Override
+    protected void createNewEdge(
+        Edge pEdge, Element pSourceNode, Element pTargetNode, Appendable pTarget) {
+      if (collecting) {
+        return;
+      }
+      final Element edge = doc.createEdgeElement(pEdge.getSource(), pEdge.getTarget());
+      for (Map.Entry<KeyDef, String> entry : pEdge.getLabel().getMapping().entrySet()) {
+        KeyDef keyDef = entry.getKey();
+        String value = entry.getValue();
+        if (keyDef.keyFor.equals(ElementType.EDGE)) {
+          doc.addDataElementChild(edge, keyDef, value);
+        } else if (keyDef.keyFor.equals(ElementType.NODE)) {
+          doc.addDataElementChild(pTargetNode, keyDef, value);
+        }
+      }
+    }
+
+    @Override
+    protected void addInvariantsData(
+        Element pNode, ExpressionTree<Object> pTree, @Nullable String pScope, Appendable pTarget) {
+      if (collecting) {
+        return;
+      }
+      doc.addDataElementChild(pNode, KeyDef.INVARIANT, pTree.toString());
+      if (!isNullOrEmpty(pScope) && !pTree.equals(ExpressionTrees.getFalse())) {
+        doc.addDataElementChild(pNode, KeyDef.INVARIANTSCOPE, pScope);
+      }
+    }
+  }
+}
@@ -34,6 +34,12 @@ public abstract class WitnessToOutputFormatter<T> {
 
   protected final Witness witness;
 
+  /**
+   * Whether the witness graph is currently traversed only for collecting data, e.g., the data that
+   * edges attach to their target nodes. Nothing may be written to the target during this traversal.
+   */
+  protected boolean collecting = false;
+
   protected WitnessToOutputFormatter(Witness pWitness) {
     witness = pWitness;
   }
@@ -41,6 +47,11 @@ public abstract class WitnessToOutputFormatter<T> {
   /**
    * Appends the formatted witness to the supplied {@link Appendable}.
    *
+   * <p>The witness graph is traversed twice: The first traversal (with {@link #collecting} set)
+   * allows to collect data that is known only after visiting later parts of the graph, such that
+   * the second traversal can write each node and edge directly without keeping a copy of the whole
+   * graph in memory.
+   *
    * <p>The runtime of this method mainly depends on the size of the witness graph.
    *
    * <p>Calling this method several times should provide an identical output.
@@ -48,6 +59,12 @@ public abstract class WitnessToOutputFormatter<T> {
    * <p>We do not assume any thread-safety.
    */
   public void appendTo(Appendable pTarget) throws IOException {
+    collecting = true;
+    try {
+      traverseGraph(pTarget);
+    } finally {
+      collecting = false;
+    }
     initialize(pTarget);
     traverseGraph(pTarget);
     finish(pTarget);
@@ -90,7 +107,7 @@ public abstract class WitnessToOutputFormatter<T> {
     return tree;
   }
 
-  /** This method is called BEFORE traversing the witness graph. */
+  /** This method is called AFTER collecting and BEFORE writing the witness graph. */
   protected abstract void initialize(Appendable pTarget) throws IOException;
 
   /** This method is called AFTER traversing the witness graph. */
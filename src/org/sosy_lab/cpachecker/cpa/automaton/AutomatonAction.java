@@ -27,6 +27,7 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.Sets;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractQueryableState;
@@ -58,6 +59,11 @@ abstract class AutomatonAction {
   boolean canExecuteOn(AutomatonExpressionArguments pArgs) throws CPATransferException {
     return true;
   }
+
+  /** Returns the name of the automaton variable whose value this action changes, if any. */
+  Optional<String> getModifiedVariable() {
+    return Optional.empty();
+  }
   //abstract void execute(AutomatonExpressionArguments pArgs);
 
   /**
@@ -165,6 +171,11 @@ abstract class AutomatonAction {
       return defaultResultValue;
     }
 
+    @Override
+    Optional<String> getModifiedVariable() {
+      return Optional.of(varId);
+    }
+
     @Override
     public String toString() {
       return String.format("DO %s=%s", varId, var);
@@ -212,6 +223,11 @@ abstract class AutomatonAction {
       return defaultResultValue;
     }
 
+    @Override
+    Optional<String> getModifiedVariable() {
+      return Optional.of(varId);
+    }
+
     @Override
     public String toString() {
       return String.format("DO %s[%s]=%s", varId, value, action);
@@ -403,6 +403,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       this.functionName = pFunctionName;
     }
 
+    String getFunctionName() {
+      return functionName;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       CFAEdge edge = pArgs.getCfaEdge();
@@ -768,6 +772,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       pattern = pPattern;
     }
 
+    String getPattern() {
+      return pattern;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       if (pArgs.getCfaEdge().getRawStatement().equals(pattern)) {
@@ -834,6 +842,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       matchPositiveCase = pMatchPositiveCase;
     }
 
+    boolean matchesPositiveCase() {
+      return matchPositiveCase;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       CFAEdge edge = pArgs.getCfaEdge();
@@ -1048,6 +1060,14 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
           .anyMatch(matchDescriptor);
     }
 
+    FunctionEntryNode getMainEntry() {
+      return mainEntry;
+    }
+
+    java.util.function.Predicate<FileLocation> getMatchDescriptor() {
+      return matchDescriptor;
+    }
+
     @Override
     public String toString() {
       return "MATCH " + matchDescriptor;
@@ -23,13 +23,12 @@
  */
 package org.sosy_lab.cpachecker.cpa.automaton;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
-import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
 import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Maps;
@@ -50,7 +49,6 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -59,18 +57,16 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
-import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -79,6 +75,7 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.CParser;
 import org.sosy_lab.cpachecker.cfa.CProgramScope;
@@ -94,6 +91,7 @@ import org.sosy_lab.cpachecker.cfa.parser.Scope;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonExpression.StringExpression;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonVariable.AutomatonIntVariable;
 import org.sosy_lab.cpachecker.cpa.automaton.CParserUtils.ParserTools;
+import org.sosy_lab.cpachecker.cpa.automaton.GraphMLStreamReader.GraphMLElement;
 import org.sosy_lab.cpachecker.cpa.automaton.GraphMLTransition.GraphMLThread;
 import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.LineMatcher;
 import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.OffsetMatcher;
@@ -107,7 +105,6 @@ import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.AssumeCase;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
-import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType;
 import org.sosy_lab.cpachecker.util.expressions.And;
 import org.sosy_lab.cpachecker.util.expressions.DefaultExpressionTreeVisitor;
@@ -115,11 +112,6 @@ import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
 import org.sosy_lab.cpachecker.util.expressions.LeafExpression;
 import org.sosy_lab.cpachecker.util.expressions.ToCExpressionVisitor;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -136,9 +128,6 @@ public class AutomatonGraphmlParser {
 
   private static final String THREAD_ID_VAR_NAME = KeyDef.THREADID.toString().toUpperCase();
 
-  private static final String TOO_MANY_GRAPHS_ERROR_MESSAGE =
-      "The witness file must describe exactly one witness automaton.";
-
   private static final String ACCESS_ERROR_MESSAGE = "Error while accessing witness file: %s!";
 
   private static final String INVALID_AUTOMATON_ERROR_MESSAGE =
@@ -239,6 +228,11 @@ public class AutomatonGraphmlParser {
 
   private final Map<GraphMLState, ExpressionTree<AExpression>> stateInvariantsMap;
 
+  private final Timer readTimer = new Timer();
+  private final Timer buildTimer = new Timer();
+  private int readNodes = 0;
+  private int readEdges = 0;
+
   public AutomatonGraphmlParser(
       Configuration pConfig,
       LogManager pLogger,
@@ -307,6 +301,8 @@ public class AutomatonGraphmlParser {
           String.format("Checking for %s is disabled in current configuration", graphType));
     }
 
+    buildTimer.start();
+
     // Parse the transitions
     parseTransitions(cparser, graphMLParserState);
 
@@ -331,6 +327,16 @@ public class AutomatonGraphmlParser {
     // the automaton will be an ISA if specified
     automaton = invariantsSpecAutomaton.build(automaton, config, logger, cfa);
 
+    buildTimer.stop();
+    logger.logf(
+        Level.INFO,
+        "Read witness with %d nodes and %d edges in %s, built automaton with %d states in %s.",
+        readNodes,
+        readEdges,
+        readTimer.getLengthOfLastInterval().formatAs(TimeUnit.SECONDS),
+        automaton.getNumberOfStates(),
+        buildTimer.getLengthOfLastInterval().formatAs(TimeUnit.SECONDS));
+
     if (automatonDumpFile != null) {
       try (Writer w = IO.openOutputFile(automatonDumpFile, Charset.defaultCharset())) {
         automaton.writeDotFile(w);
@@ -1022,8 +1028,8 @@ public class AutomatonGraphmlParser {
   }
 
   /**
-   * Initializes the GraphML-parser state by parsing the XML document from the given input stream
-   * into an intermediate representation.
+   * Initializes the GraphML-parser state by reading the XML document from the given input stream
+   * node by node and edge by edge into an intermediate representation.
    *
    * @param pInputStream the input stream to read from.
    * @param pProperties which are assumed to be witnessed.
@@ -1031,45 +1037,78 @@ public class AutomatonGraphmlParser {
    * @throws IOException if reading from the input stream fails.
    * @throws WitnessParseException if the initial validity checks for conformity with the witness
    *     format fail.
+   * @throws InterruptedException if a shutdown is requested while reading.
    */
-  private AutomatonGraphmlParserState setupGraphMLParser(
+  @VisibleForTesting
+  AutomatonGraphmlParserState setupGraphMLParser(
       InputStream pInputStream, Set<Property> pProperties)
-      throws IOException, WitnessParseException {
-
-    GraphMLDocumentData docDat = parseXML(pInputStream);
-
-    checkFields(docDat.getGraph());
-
-    WitnessType graphType = getWitnessType(docDat.getGraph());
-
-    // Extract the information on the automaton ----
-    Node nameAttribute = docDat.getGraph().getAttributes().getNamedItem("name");
-    String automatonName = WITNESS_AUTOMATON_NAME;
-    if (nameAttribute != null) {
-      automatonName += "_" + nameAttribute.getTextContent();
-    }
+      throws IOException, WitnessParseException, InterruptedException {
 
+    Map<String, GraphMLState> nodeStates = new LinkedHashMap<>();
     Map<String, GraphMLState> states = new LinkedHashMap<>();
     Multimap<GraphMLState, GraphMLTransition> enteringTransitions = LinkedHashMultimap.create();
     Multimap<GraphMLState, GraphMLTransition> leavingTransitions = LinkedHashMultimap.create();
     NumericIdProvider numericIdProvider = NumericIdProvider.create();
     Set<GraphMLState> entryStates = new LinkedHashSet<>();
-    for (Node transition : docDat.getTransitions()) {
-      collectEdgeData(
-          docDat,
-          states,
-          entryStates,
-          leavingTransitions,
-          enteringTransitions,
-          numericIdProvider,
-          transition);
-    }
-    if (states.size() < docDat.idToNodeMap.size()) {
-      for (String stateId : docDat.idToNodeMap.keySet()) {
-        if (!states.containsKey(stateId)) {
-          states.put(stateId, parseState(docDat, states, stateId, Optional.empty()));
+
+    // Convert nodes and edges while reading them. Edges are only deferred if they occur before
+    // their source or target node, which keeps the document order of the transitions.
+    List<GraphMLElement> deferredEdges = new ArrayList<>();
+    GraphMLElement graph;
+    readTimer.start();
+    try (GraphMLStreamReader reader = new GraphMLStreamReader(pInputStream)) {
+      for (GraphMLElement element = reader.next(); element != null; element = reader.next()) {
+        shutdownNotifier.shutdownIfNecessary();
+        if (element.getTag() == GraphMLTag.NODE) {
+          String stateId = element.getAttribute("id", "Every state needs an ID!");
+          checkParsable(
+              !nodeStates.containsKey(stateId),
+              String.format("The state id <%s> is not unique.", stateId));
+          nodeStates.put(stateId, parseState(stateId, element));
+        } else if (deferredEdges.isEmpty()
+            && nodeStates.containsKey(element.getAttribute("source"))
+            && nodeStates.containsKey(element.getAttribute("target"))) {
+          collectEdgeData(
+              nodeStates,
+              states,
+              entryStates,
+              leavingTransitions,
+              enteringTransitions,
+              numericIdProvider,
+              element);
+        } else {
+          deferredEdges.add(element);
         }
       }
+      for (GraphMLElement transition : deferredEdges) {
+        collectEdgeData(
+            nodeStates,
+            states,
+            entryStates,
+            leavingTransitions,
+            enteringTransitions,
+            numericIdProvider,
+            transition);
+      }
+      graph = reader.getGraph();
+      readNodes = reader.getNumberOfNodes();
+      readEdges = reader.getNumberOfEdges();
+    } finally {
+      readTimer.stop();
+    }
+    for (Map.Entry<String, GraphMLState> nodeState : nodeStates.entrySet()) {
+      states.putIfAbsent(nodeState.getKey(), nodeState.getValue());
+    }
+
+    checkFields(graph);
+
+    WitnessType graphType = getWitnessType(graph);
+
+    // Extract the information on the automaton ----
+    String nameAttribute = graph.getAttribute("name");
+    String automatonName = WITNESS_AUTOMATON_NAME;
+    if (nameAttribute != null) {
+      automatonName += "_" + nameAttribute;
     }
 
     AutomatonGraphmlParserState state =
@@ -1108,27 +1147,10 @@ public class AutomatonGraphmlParser {
     return state;
   }
 
-  private GraphMLDocumentData parseXML(InputStream pInputStream)
-      throws WitnessParseException, IOException {
-
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
-    return new GraphMLDocumentData(doc);
-  }
-
-  private void checkFields(Node graphNode) throws IOException, WitnessParseException {
+  private void checkFields(GraphMLElement graphNode) throws IOException, WitnessParseException {
 
-    checkHashSum(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.PROGRAMHASH));
-    checkArchitecture(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.ARCHITECTURE));
+    checkHashSum(graphNode.getData(KeyDef.PROGRAMHASH));
+    checkArchitecture(graphNode.getData(KeyDef.ARCHITECTURE));
 
     if (strictChecking) {
       checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
@@ -1163,9 +1185,9 @@ public class AutomatonGraphmlParser {
     return functionExitMatcher;
   }
 
-  private static boolean entersLoopHead(Node pTransition) throws WitnessParseException {
+  private static boolean entersLoopHead(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> loopHeadFlags =
-        GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENTERLOOPHEAD);
+        pTransition.getData(KeyDef.ENTERLOOPHEAD);
     if (!loopHeadFlags.isEmpty()) {
       Set<Boolean> loopHeadFlagValues =
           loopHeadFlags.stream().map(Boolean::parseBoolean).collect(Collectors.toSet());
@@ -1210,18 +1232,19 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which line numbers to assume.
    * @return a predicate to match file locations based on the line numbers specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(Node pTransition)
+  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(
+      GraphMLElement pTransition)
       throws WitnessParseException {
-    Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
+    Set<String> originFileTags = pTransition.getData(KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
         "At most one origin-file data tag must be provided for an edge.");
 
-    Set<String> startLineTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.STARTLINE);
+    Set<String> startLineTags = pTransition.getData(KeyDef.STARTLINE);
     checkParsable(
         startLineTags.size() < 2,
         "At most one startline data tag must be provided for each edge.");
-    Set<String> endLineTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENDLINE);
+    Set<String> endLineTags = pTransition.getData(KeyDef.ENDLINE);
     checkParsable(
         endLineTags.size() < 2, "At most one endline data tag must be provided for each edge.");
 
@@ -1264,16 +1287,17 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which character offset to assume.
    * @return a predicate to match file locations based on the offsets specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(Node pTransition) throws WitnessParseException {
-    Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
+  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(
+      GraphMLElement pTransition) throws WitnessParseException {
+    Set<String> originFileTags = pTransition.getData(KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
         "At most one origin-file data tag must be provided for an edge.");
 
-    Set<String> offsetTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.OFFSET);
+    Set<String> offsetTags = pTransition.getData(KeyDef.OFFSET);
     checkParsable(
         offsetTags.size() < 2, "At most one offset data tag must be provided for each edge.");
-    Set<String> endoffsetTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENDOFFSET);
+    Set<String> endoffsetTags = pTransition.getData(KeyDef.ENDOFFSET);
     checkParsable(
         endoffsetTags.size() < 2, "At most one endoffset data tag must be provided for each edge.");
 
@@ -1318,8 +1342,9 @@ public class AutomatonGraphmlParser {
    * @return an automaton-transition condition for specific branches of an assumption corresponding
    *     to the control case specified by the given transition.
    */
-  private static AutomatonBoolExpr getAssumeCaseMatcher(Node pTransition) throws WitnessParseException {
-    Set<String> assumeCaseTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.CONTROLCASE);
+  private static AutomatonBoolExpr getAssumeCaseMatcher(GraphMLElement pTransition)
+      throws WitnessParseException {
+    Set<String> assumeCaseTags = pTransition.getData(KeyDef.CONTROLCASE);
 
     if (!assumeCaseTags.isEmpty()) {
       checkParsable(
@@ -1349,7 +1374,8 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> getThread(
-      Node pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider)
+      throws WitnessParseException {
     return parseThreadId(pTransition, pNumericIdProvider, KeyDef.THREADID, "At most one threadId tag must be provided for each transition.");
   }
 
@@ -1365,9 +1391,12 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> parseThreadId(
-      Node pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
+      GraphMLElement pTransition,
+      NumericIdProvider pNumericIdProvider,
+      KeyDef pKey,
+      String pErrorMessage)
       throws WitnessParseException {
-    Set<String> threadIdTags = GraphMLDocumentData.getDataOnNode(pTransition, pKey);
+    Set<String> threadIdTags = pTransition.getData(pKey);
 
     if (!threadIdTags.isEmpty()) {
       checkParsable(
@@ -1393,8 +1422,8 @@ public class AutomatonGraphmlParser {
   /**
    * Reads an automaton edge from the graphml file and inserts it into the automaton.
    *
-   * @param pDocDat the GraphML-document-data helper.
-   * @param pStates the map from state identifiers to parsed states.
+   * @param pNodeStates the map from identifiers of all nodes read so far to their states.
+   * @param pStates the map from state identifiers to referenced states.
    * @param pEntryStates the set of entry states.
    * @param pLeavingEdges the map from predecessor states to transitions leaving these states that
    *     the given transition will be entered into.
@@ -1405,23 +1434,21 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition to be analyzed, represented as a GraphML edge.
    */
   private void collectEdgeData(
-      GraphMLDocumentData pDocDat,
+      Map<String, GraphMLState> pNodeStates,
       Map<String, GraphMLState> pStates,
       Set<GraphMLState> pEntryStates,
       Multimap<GraphMLState, GraphMLTransition> pLeavingEdges,
       Multimap<GraphMLState, GraphMLTransition> pEnteringEdges,
       NumericIdProvider pNumericThreadIdProvider,
-      Node pTransition)
+      GraphMLElement pTransition)
       throws WitnessParseException {
     String sourceStateId =
-        GraphMLDocumentData.getAttributeValue(
-            pTransition, "source", "Every transition needs a source!");
-    GraphMLState source = parseState(pDocDat, pStates, sourceStateId, Optional.of(pTransition));
+        pTransition.getAttribute("source", "Every transition needs a source!");
+    GraphMLState source = getState(pNodeStates, pStates, sourceStateId, pTransition);
 
     String targetStateId =
-        GraphMLDocumentData.getAttributeValue(
-            pTransition, "target", "Every transition needs a target!");
-    GraphMLState target = parseState(pDocDat, pStates, targetStateId, Optional.of(pTransition));
+        pTransition.getAttribute("target", "Every transition needs a target!");
+    GraphMLState target = getState(pNodeStates, pStates, targetStateId, pTransition);
 
     Optional<String> functionEntry = parseSingleDataValue(pTransition, KeyDef.FUNCTIONENTRY,
         "At most one function can be entered by one transition.");
@@ -1451,7 +1478,7 @@ public class AutomatonGraphmlParser {
             getAssumeCaseMatcher(pTransition),
             thread.orElse(DEFAULT_THREAD),
             threadIdAssignment,
-            GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ASSUMPTION),
+            pTransition.getData(KeyDef.ASSUMPTION),
             explicitAssumptionScope,
             assumptionResultFunction,
             entersLoopHead(pTransition));
@@ -1459,27 +1486,12 @@ public class AutomatonGraphmlParser {
     pLeavingEdges.put(source, transition);
     pEnteringEdges.put(target, transition);
 
-    Element sourceStateNode = pDocDat.getNodeWithId(sourceStateId);
-    if (sourceStateNode == null) {
-      throw new WitnessParseException(
-          String.format(
-              "Source %s of transition %s does not exist.",
-              sourceStateId, transitionToString(pTransition)));
-    }
-    Element targetStateNode = pDocDat.getNodeWithId(targetStateId);
-    if (targetStateNode == null) {
-      throw new WitnessParseException(
-          String.format(
-              "Target %s of transition %s does not exist.",
-              targetStateId, transitionToString(pTransition)));
-    }
-
     if (source.isViolationState()) {
       logger.log(
           Level.WARNING,
           String.format(
               "Source %s of transition %s is a violation state. No outgoing edges expected.",
-              sourceStateId, transitionToString(pTransition)));
+              sourceStateId, pTransition));
     }
 
     if (source.isSinkState()) {
@@ -1487,7 +1499,7 @@ public class AutomatonGraphmlParser {
           Level.WARNING,
           String.format(
               "Source %s of transition %s is a sink state. No outgoing edges expected.",
-              sourceStateId, transitionToString(pTransition)));
+              sourceStateId, pTransition));
     }
 
     if (source.isEntryState()) {
@@ -1498,51 +1510,48 @@ public class AutomatonGraphmlParser {
     }
   }
 
-  private GraphMLState parseState(
-      GraphMLDocumentData pDocDat,
+  private static GraphMLState getState(
+      Map<String, GraphMLState> pNodeStates,
       Map<String, GraphMLState> pStates,
       String pStateId,
-      Optional<Node> pReference)
+      GraphMLElement pReference)
       throws WitnessParseException {
     GraphMLState result = pStates.get(pStateId);
     if (result != null) {
       return result;
     }
 
-    Element stateNode = pDocDat.getNodeWithId(pStateId);
-    if (stateNode == null) {
-      final String message;
-      if (pReference.isPresent()) {
-        message =
-            String.format(
-                "The state with id <%s> does not exist, but is referenced in the transition <%s>",
-                pStateId, transitionToString(pReference.orElseThrow()));
-      } else {
-        message = String.format("The state with if <%s> does not exist.", pStateId);
-      }
-      throw new WitnessParseException(message);
+    result = pNodeStates.get(pStateId);
+    if (result == null) {
+      throw new WitnessParseException(
+          String.format(
+              "The state with id <%s> does not exist, but is referenced in the transition <%s>",
+              pStateId, pReference));
     }
 
-    Set<String> candidates = GraphMLDocumentData.getDataOnNode(stateNode, KeyDef.INVARIANT);
-    Optional<String> candidateScope = parseSingleDataValue(stateNode, KeyDef.INVARIANTSCOPE,
+    pStates.put(pStateId, result);
+
+    return result;
+  }
+
+  private static GraphMLState parseState(String pStateId, GraphMLElement pStateNode)
+      throws WitnessParseException {
+    Set<String> candidates = pStateNode.getData(KeyDef.INVARIANT);
+    Optional<String> candidateScope = parseSingleDataValue(pStateNode, KeyDef.INVARIANTSCOPE,
         "At most one explicit invariant scope must be provided for a state.");
 
-    result = new GraphMLState(
+    return new GraphMLState(
         pStateId,
         candidates,
         candidateScope,
-        pDocDat.getNodeFlags(stateNode));
-
-    pStates.put(pStateId, result);
-
-    return result;
+        pStateNode.getNodeFlags());
   }
 
-  private static Optional<String> parseSingleDataValue(Node pEdge,
+  private static Optional<String> parseSingleDataValue(GraphMLElement pEdge,
       KeyDef pKey,
       String pErrorMessage) throws WitnessParseException {
     Set<String> values =
-        GraphMLDocumentData.getDataOnNode(pEdge, pKey);
+        pEdge.getData(pKey);
     checkParsable(values.size() <= 1, pErrorMessage);
     String value = Iterables.getOnlyElement(values, null);
     return Optional.ofNullable(value);
@@ -1554,9 +1563,9 @@ public class AutomatonGraphmlParser {
    * @param pAutomaton the GraphML graph node representing the witness automaton.
    * @return the witness-automaton type of an automaton represented as a GraphML graph.
    */
-  private WitnessType getWitnessType(Node pAutomaton) throws WitnessParseException {
+  private WitnessType getWitnessType(GraphMLElement pAutomaton) throws WitnessParseException {
     Set<String> witnessTypeText =
-        GraphMLDocumentData.getDataOnNode(pAutomaton, KeyDef.WITNESS_TYPE);
+        pAutomaton.getData(KeyDef.WITNESS_TYPE);
     final WitnessType witnessType;
     if (witnessTypeText.isEmpty()) {
       witnessType = WitnessType.VIOLATION_WITNESS;
@@ -1578,28 +1587,15 @@ public class AutomatonGraphmlParser {
     return witnessType;
   }
 
-  private static String transitionToString(Node pTransition) {
-    if (pTransition == null) {
-      return "null";
-    }
-    NamedNodeMap attributes = pTransition.getAttributes();
-    if (attributes != null) {
-      Node id = attributes.getNamedItem("id");
-      if (id != null) {
-        return id.getNodeValue();
-      }
-    }
-    return pTransition.toString();
-  }
-
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey)
+  private static void checkRequiredField(GraphMLElement pGraphNode, KeyDef pKey)
       throws WitnessParseException {
     checkRequiredField(pGraphNode, pKey, false);
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
+  private static void checkRequiredField(
+      GraphMLElement pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
       throws WitnessParseException {
-    Iterable<String> data = GraphMLDocumentData.getDataOnNode(pGraphNode, pKey);
+    Iterable<String> data = pGraphNode.getData(pKey);
     if (Iterables.isEmpty(data)) {
       throw new WitnessParseException(
           String.format("The witness does not contain the required field '%s'", pKey.id));
@@ -1950,117 +1946,6 @@ public class AutomatonGraphmlParser {
 
   }
 
-  private static class GraphMLDocumentData {
-
-    private final Node graph;
-
-    private final ImmutableMap<String, Element> idToNodeMap;
-
-    private final Iterable<Node> transitions;
-
-    public GraphMLDocumentData(Document pDocument) throws WitnessParseException {
-
-      NodeList graphs = pDocument.getElementsByTagName(GraphMLTag.GRAPH.toString());
-      checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-      graph = Objects.requireNonNull(graphs.item(0));
-
-      ImmutableMap.Builder<String, Element> idToNodeMapBuilder = ImmutableMap.builder();
-      NodeList nodes = pDocument.getElementsByTagName(GraphMLTag.NODE.toString());
-      for (Node stateNode : asIterable(nodes)) {
-        String stateId = getAttributeValue(stateNode, "id", "Every state needs an ID!");
-        idToNodeMapBuilder.put(stateId, (Element) stateNode);
-      }
-      idToNodeMap = idToNodeMapBuilder.build();
-
-      transitions = asIterable(pDocument.getElementsByTagName(GraphMLTag.EDGE.toString()));
-    }
-
-    public Node getGraph() {
-      return graph;
-    }
-
-    public Iterable<Node> getTransitions() {
-      return transitions;
-    }
-
-    public EnumSet<NodeFlag> getNodeFlags(Element pStateNode) {
-      EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
-
-      NodeList dataChilds = pStateNode.getElementsByTagName(GraphMLTag.DATA.toString());
-
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String key = attribute.getTextContent();
-        NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
-        if (flag != null) {
-          result.add(flag);
-        }
-      }
-
-      return result;
-    }
-
-    private static String getAttributeValue(Node of, String attributeName, String exceptionMessage)
-        throws WitnessParseException {
-      Node attribute = of.getAttributes().getNamedItem(attributeName);
-      if (attribute == null) {
-        throw new WitnessParseException(exceptionMessage);
-      }
-      return attribute.getTextContent();
-    }
-
-    private @Nullable Element getNodeWithId(String nodeId) {
-      Element result = idToNodeMap.get(nodeId);
-      if (result == null
-          || !result.getTagName().equals(GraphMLTag.NODE.toString())) {
-        return null;
-      }
-      return result;
-    }
-
-    private static Set<String> getDataOnNode(Node node, final KeyDef dataKey) {
-      Preconditions.checkNotNull(node);
-      Preconditions.checkArgument(node.getNodeType() == Node.ELEMENT_NODE);
-
-      Set<Node> dataNodes = findKeyedDataNode((Element) node, dataKey);
-
-      Set<String> result = new LinkedHashSet<>();
-      for (Node n: dataNodes) {
-        result.add(n.getTextContent());
-      }
-      return result;
-    }
-
-    private static Set<Node> findKeyedDataNode(Element of, final KeyDef dataKey) {
-      Set<Node> result = new LinkedHashSet<>();
-      Set<Node> alternative = null;
-      NodeList dataChilds = of.getElementsByTagName(GraphMLTag.DATA.toString());
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String nodeKey = attribute.getTextContent();
-        if (nodeKey.equals(dataKey.id)) {
-          result.add(dataChild);
-          alternative = null;
-        }
-        // Backwards-compatibility: type/graph-type
-        if (alternative == null
-            && result.isEmpty()
-            && dataKey.equals(KeyDef.WITNESS_TYPE)
-            && nodeKey.equals("type")) {
-          alternative = new LinkedHashSet<>();
-          alternative.add(dataChild);
-        }
-      }
-      if (result.isEmpty() && alternative != null) {
-        return alternative;
-      }
-      return result;
-    }
-
-  }
-
   public static boolean isGraphmlAutomatonFromConfiguration(Path pPath)
       throws InvalidConfigurationException {
     try {
@@ -2108,24 +1993,17 @@ public class AutomatonGraphmlParser {
 
   private static AutomatonGraphmlCommon.WitnessType getWitnessType(InputStream pInputStream)
       throws InvalidConfigurationException, IOException {
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
+    GraphMLElement graphNode;
+    try (GraphMLStreamReader reader = new GraphMLStreamReader(pInputStream)) {
+      while (reader.next() != null) {
+        // only the data of the graph itself is relevant
+      }
+      graphNode = reader.getGraph();
     }
 
-    // (The one) root node of the graph ----
-    NodeList graphs = doc.getElementsByTagName(GraphMLTag.GRAPH.toString());
-    checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-    Node graphNode = graphs.item(0);
-
     checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
 
-    Set<String> graphTypeText = GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.WITNESS_TYPE);
+    Set<String> graphTypeText = graphNode.getData(KeyDef.WITNESS_TYPE);
     final WitnessType graphType;
     if (graphTypeText.isEmpty()) {
       graphType = WitnessType.VIOLATION_WITNESS;
@@ -2233,34 +2111,4 @@ public class AutomatonGraphmlParser {
       throw pExceptionHandler.apply(e);
     }
   }
-
-
-  /** return a nice {@link Iterable} wrapping the interface {@link NodeList}. */
-  private static Iterable<Node> asIterable(final NodeList pNodeList) {
-    return new Iterable<>() {
-
-      private Integer length = null;
-
-      @Override
-      public Iterator<Node> iterator() {
-        return new Iterator<>() {
-
-          private int index = 0;
-
-          @Override
-          public boolean hasNext() {
-            if (length == null) {
-              length = pNodeList.getLength();
-            }
-            return index < length;
-          }
-
-          @Override
-          public Node next() {
-            return pNodeList.item(index++);
-          }
-        };
-      }
-    };
-  }
 }
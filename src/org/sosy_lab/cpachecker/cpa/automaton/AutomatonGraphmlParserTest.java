@@ -0,0 +1,221 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.DummyScope;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.exceptions.ParserException;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class AutomatonGraphmlParserTest {
+
+  private static final String ENTRY_NODE = "<node id=\"A\"><data key=\"entry\">true</data></node>";
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private AutomatonGraphmlParser parser;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException, ParserException, InterruptedException {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("witness.strictChecking", "false")
+            .setOption("witness.checkProgramHash", "false")
+            .build();
+    parser =
+        new AutomatonGraphmlParser(
+            config,
+            LogManager.createTestLogManager(),
+            ShutdownNotifier.createDummy(),
+            TestDataTools.makeCFA("void main() {}"),
+            DummyScope.getInstance());
+  }
+
+  private static String witness(String... pGraphContent) {
+    return "<graphml><graph edgedefault=\"directed\">"
+        + Joiner.on('\n').join(pGraphContent)
+        + "</graph></graphml>";
+  }
+
+  private AutomatonGraphmlParserState setup(String pWitness)
+      throws IOException, WitnessParseException, InterruptedException {
+    return parser.setupGraphMLParser(
+        new ByteArrayInputStream(pWitness.getBytes(StandardCharsets.UTF_8)), ImmutableSet.of());
+  }
+
+  private static Iterable<String> leavingTargets(AutomatonGraphmlParserState pState, String pId) {
+    GraphMLState source =
+        FluentIterable.from(pState.getStates()).firstMatch(s -> s.getId().equals(pId)).get();
+    return FluentIterable.from(pState.getLeavingTransitions().get(source))
+        .transform(t -> t.getTarget().getId());
+  }
+
+  private Path writeFile(String pContent) throws IOException {
+    Path file = tempFolder.newFile("witness.graphml").toPath();
+    Files.write(file, pContent.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  @Test
+  public void testEdgesBeforeNodes() throws Exception {
+    AutomatonGraphmlParserState state =
+        setup(
+            witness(
+                "<edge source=\"A\" target=\"B\"/>",
+                "<edge source=\"A\" target=\"C\"/>",
+                ENTRY_NODE,
+                "<node id=\"B\"/>",
+                "<node id=\"C\"/>"));
+
+    assertThat(state.getEntryState().getId()).isEqualTo("A");
+    assertThat(leavingTargets(state, "A")).containsExactly("B", "C").inOrder();
+  }
+
+  @Test
+  public void testDeferredEdgesKeepDocumentOrder() throws Exception {
+    // The second edge has to be deferred until C is read. The third edge could be converted
+    // immediately, but it must not overtake the deferred one.
+    AutomatonGraphmlParserState state =
+        setup(
+            witness(
+                ENTRY_NODE,
+                "<node id=\"B\"/>",
+                "<edge source=\"A\" target=\"B\"/>",
+                "<edge source=\"A\" target=\"C\"/>",
+                "<node id=\"C\"/>",
+                "<edge source=\"A\" target=\"A\"/>"));
+
+    assertThat(leavingTargets(state, "A")).containsExactly("B", "C", "A").inOrder();
+  }
+
+  @Test
+  public void testEdgeToMissingNode() {
+    WitnessParseException e =
+        assertThrows(
+            WitnessParseException.class,
+            () -> setup(witness(ENTRY_NODE, "<edge source=\"A\" target=\"B\"/>")));
+    assertThat(e).hasMessageThat().contains("does not exist");
+  }
+
+  @Test
+  public void testGraphDataAfterNodesAndEdges() throws Exception {
+    AutomatonGraphmlParserState state =
+        setup(
+            witness(
+                ENTRY_NODE,
+                "<node id=\"B\"/>",
+                "<edge source=\"A\" target=\"B\"/>",
+                "<data key=\"witness-type\">correctness_witness</data>"));
+
+    assertThat(state.getWitnessType()).isEqualTo(WitnessType.CORRECTNESS_WITNESS);
+    assertThat(leavingTargets(state, "A")).containsExactly("B");
+  }
+
+  @Test
+  public void testDuplicateNodeIds() {
+    WitnessParseException e =
+        assertThrows(
+            WitnessParseException.class,
+            () -> setup(witness(ENTRY_NODE, "<node id=\"B\"/>", "<node id=\"B\"/>")));
+    assertThat(e).hasMessageThat().contains("<B> is not unique");
+  }
+
+  @Test
+  public void testTwoGraphs() {
+    String twoGraphs =
+        "<graphml><graph>" + ENTRY_NODE + "</graph><graph>" + ENTRY_NODE + "</graph></graphml>";
+    WitnessParseException e =
+        assertThrows(WitnessParseException.class, () -> setup(twoGraphs));
+    assertThat(e)
+        .hasMessageThat()
+        .contains(GraphMLStreamReader.TOO_MANY_GRAPHS_ERROR_MESSAGE);
+  }
+
+  @Test
+  public void testGetWitnessTypeWithGraphDataAfterNodesAndEdges() throws Exception {
+    Path file =
+        writeFile(
+            witness(
+                ENTRY_NODE,
+                "<node id=\"B\"/>",
+                "<edge source=\"A\" target=\"B\"/>",
+                "<data key=\"witness-type\">correctness_witness</data>"));
+
+    assertThat(AutomatonGraphmlParser.getWitnessType(file))
+        .isEqualTo(WitnessType.CORRECTNESS_WITNESS);
+  }
+
+  @Test
+  public void testGetWitnessTypeWithDuplicateNodeIds() throws Exception {
+    // node ids are irrelevant for the witness type
+    Path file =
+        writeFile(
+            witness(
+                ENTRY_NODE,
+                ENTRY_NODE,
+                "<data key=\"witness-type\">violation_witness</data>"));
+
+    assertThat(AutomatonGraphmlParser.getWitnessType(file))
+        .isEqualTo(WitnessType.VIOLATION_WITNESS);
+  }
+
+  @Test
+  public void testGetWitnessTypeWithTwoGraphs() throws Exception {
+    Path file =
+        writeFile(
+            "<graphml>"
+                + "<graph><data key=\"witness-type\">violation_witness</data></graph>"
+                + "<graph><data key=\"witness-type\">correctness_witness</data></graph>"
+                + "</graphml>");
+
+    assertThrows(WitnessParseException.class, () -> AutomatonGraphmlParser.getWitnessType(file));
+  }
+
+  @Test
+  public void testGetWitnessTypeWithoutType() throws Exception {
+    Path file = writeFile(witness(ENTRY_NODE));
+
+    assertThrows(WitnessParseException.class, () -> AutomatonGraphmlParser.getWitnessType(file));
+  }
+}
@@ -81,6 +81,9 @@ public class AutomatonInternalState {
   /** Outgoing transitions of this state. */
   private final ImmutableList<AutomatonTransition> transitions;
 
+  /** Index that narrows down which outgoing transitions can match a given CFA edge. */
+  private final AutomatonTransitionIndex transitionIndex;
+
   private final boolean mIsTarget;
 
   /**
@@ -98,6 +101,7 @@ public class AutomatonInternalState {
       boolean pIsCycleStart) {
     this.name = pName;
     this.transitions = ImmutableList.copyOf(pTransitions);
+    this.transitionIndex = AutomatonTransitionIndex.create(transitions);
     this.mIsTarget = pIsTarget;
     this.mAllTransitions = pAllTransitions;
     this.isCycleStart = pIsCycleStart;
@@ -164,6 +168,14 @@ public class AutomatonInternalState {
     return transitions;
   }
 
+  /**
+   * Returns the positions in {@link #getTransitions()} of the transitions that may match the given
+   * edge, in ascending order. All other transitions certainly do not match it.
+   */
+  int[] getCandidateTransitions(CFAEdge pEdge) {
+    return transitionIndex.getCandidates(pEdge);
+  }
+
   @Override
   public String toString() {
     return this.name;
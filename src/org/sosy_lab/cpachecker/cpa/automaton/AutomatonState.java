@@ -33,6 +33,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -117,7 +118,8 @@ public class AutomatonState implements AbstractQueryableState, Targetable, Seria
   }
 
   private transient Automaton automaton;
-  private final Map<String, AutomatonVariable> vars;
+  // the map and its variables may be shared with other states, so they are copied on write
+  private Map<String, AutomatonVariable> vars;
   private transient AutomatonInternalState internalState;
   private final ImmutableList<AExpression> assumptions;
   private transient final ExpressionTree<AExpression> candidateInvariants;
@@ -406,7 +408,11 @@ public class AutomatonState implements AbstractQueryableState, Targetable, Seria
         if (var instanceof AutomatonIntVariable) {
           try {
             int val = Integer.parseInt(right);
-            ((AutomatonIntVariable) var).setValue(val);
+            AutomatonIntVariable modified = (AutomatonIntVariable) var.clone();
+            modified.setValue(val);
+            Map<String, AutomatonVariable> newVars = new HashMap<>(vars);
+            newVars.put(left, modified);
+            vars = newVars;
           } catch (NumberFormatException e) {
             throw new InvalidQueryException(
                 "The Query \""
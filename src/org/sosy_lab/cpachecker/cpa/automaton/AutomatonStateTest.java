@@ -0,0 +1,70 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonVariable.AutomatonIntVariable;
+import org.sosy_lab.cpachecker.exceptions.InvalidQueryException;
+
+public class AutomatonStateTest {
+
+  private AutomatonInternalState internalState;
+  private Automaton automaton;
+
+  @Before
+  public void setUp() throws InvalidAutomatonException {
+    internalState = new AutomatonInternalState("q", ImmutableList.of());
+    automaton = new Automaton("test", ImmutableMap.of(), ImmutableList.of(internalState), "q");
+  }
+
+  private AutomatonState state(Map<String, AutomatonVariable> pVars) {
+    return AutomatonState.automatonStateFactory(
+        pVars, internalState, automaton, 0, 0, null, false);
+  }
+
+  @Test
+  public void testModifyPropertyDoesNotAffectStatesSharingVariables()
+      throws InvalidQueryException {
+    AutomatonIntVariable x =
+        (AutomatonIntVariable) AutomatonVariable.createAutomatonVariable("int", "x");
+    x.setValue(1);
+    Map<String, AutomatonVariable> vars = ImmutableMap.of("x", x);
+
+    // successors share the variables of their predecessor unless a transition modifies them
+    AutomatonState predecessor = state(vars);
+    AutomatonState successor = state(vars);
+    successor.modifyProperty("x := 5");
+
+    assertThat(successor.checkProperty("x == 5")).isTrue();
+    assertThat(predecessor.checkProperty("x == 1")).isTrue();
+    assertThat(x.getValue()).isEqualTo(1);
+    assertThat(predecessor.getVars()).containsExactly("x", x);
+  }
+}
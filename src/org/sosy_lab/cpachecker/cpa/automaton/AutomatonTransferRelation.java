@@ -33,14 +33,13 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Maps;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.logging.Level;
 import org.sosy_lab.common.log.LogManager;
@@ -191,7 +190,13 @@ public class AutomatonTransferRelation implements TransferRelation {
     List<Pair<AutomatonTransition, Map<Integer, AAstNode>>> transitionsToBeTaken =
         new ArrayList<>(2);
 
-    for (AutomatonTransition t : state.getInternalState().getTransitions()) {
+    // transitions that are not candidates for this edge do not match it and count as failed
+    List<AutomatonTransition> transitions = state.getInternalState().getTransitions();
+    int lastPosition = -1;
+    for (int position : state.getInternalState().getCandidateTransitions(edge)) {
+      failedMatches += position - lastPosition - 1;
+      lastPosition = position;
+      AutomatonTransition t = transitions.get(position);
       exprArgs.clearTransitionVariables();
 
       matchTime.start();
@@ -268,6 +273,10 @@ public class AutomatonTransferRelation implements TransferRelation {
         }
       }
     }
+    if (nonDetState || !edgeMatched) {
+      // all transitions after the last candidate were skipped
+      failedMatches += transitions.size() - lastPosition - 1;
+    }
 
     if (edgeMatched) {
       // execute Transitions
@@ -276,7 +285,8 @@ public class AutomatonTransferRelation implements TransferRelation {
         AutomatonTransition t = pair.getFirst();
         Map<Integer, AAstNode> transitionVariables = pair.getSecond();
         actionTime.start();
-        Map<String, AutomatonVariable> newVars = deepCloneVars(state.getVars());
+        Map<String, AutomatonVariable> newVars =
+            copyModifiedVars(state.getVars(), t.getModifiedVariables());
         exprArgs.setAutomatonVariables(newVars);
         exprArgs.putTransitionVariables(transitionVariables);
         t.executeActions(exprArgs);
@@ -326,10 +336,22 @@ public class AutomatonTransferRelation implements TransferRelation {
     }
   }
 
-  private static Map<String, AutomatonVariable> deepCloneVars(Map<String, AutomatonVariable> pOld) {
-    Map<String, AutomatonVariable> result = Maps.newHashMapWithExpectedSize(pOld.size());
-    for (Entry<String, AutomatonVariable> e : pOld.entrySet()) {
-      result.put(e.getKey(), e.getValue().clone());
+  /**
+   * Copy-on-write for automaton variables: only the variables that a transition changes are
+   * cloned, all other variables (and the whole map, if no variable changes) are shared with the
+   * predecessor state.
+   */
+  private static Map<String, AutomatonVariable> copyModifiedVars(
+      Map<String, AutomatonVariable> pOld, Set<String> pModified) {
+    if (pModified.isEmpty()) {
+      return pOld;
+    }
+    Map<String, AutomatonVariable> result = new HashMap<>(pOld);
+    for (String name : pModified) {
+      AutomatonVariable old = pOld.get(name);
+      if (old != null) {
+        result.put(name, old.clone());
+      }
     }
     return result;
   }
@@ -25,10 +25,12 @@ package org.sosy_lab.cpachecker.cpa.automaton;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -94,6 +96,9 @@ class AutomatonTransition {
   /** The actions are applied after the assertion are checked successfully. */
   private final ImmutableList<AutomatonAction> actions;
 
+  /** The automaton variables that the actions change. */
+  private final ImmutableSet<String> modifiedVariables;
+
   private final StringExpression violatedPropertyDescription;
 
   /**
@@ -205,6 +210,11 @@ class AutomatonTransition {
     this.candidateInvariants = checkNotNull(pCandidateInvariants);
 
     this.actions = ImmutableList.copyOf(pActions);
+    this.modifiedVariables =
+        actions.stream()
+            .map(AutomatonAction::getModifiedVariable)
+            .flatMap(Optional::stream)
+            .collect(toImmutableSet());
     this.followStateName = checkNotNull(pFollowStateName);
     this.followState = pFollowState;
     this.violatedPropertyDescription = pViolatedPropertyDescription;
@@ -323,6 +333,11 @@ class AutomatonTransition {
     return trigger;
   }
 
+  /** Returns the names of the automaton variables that the actions of this transition change. */
+  ImmutableSet<String> getModifiedVariables() {
+    return modifiedVariables;
+  }
+
   public String getViolatedPropertyDescription(AutomatonExpressionArguments pArgs) {
     if (violatedPropertyDescription == null) {
       if (getFollowState().isTarget()) {
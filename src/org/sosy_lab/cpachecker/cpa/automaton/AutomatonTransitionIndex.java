@@ -0,0 +1,312 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.primitives.Ints;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.AssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.LineMatcher;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
+
+/**
+ * Index over the outgoing transitions of an {@link AutomatonInternalState} that determines for a
+ * CFA edge which transitions can match it at all, without evaluating their triggers.
+ *
+ * <p>Each transition is filed under at most one key that is derived from a conjunct of its
+ * trigger: the source lines it matches, the raw statement it matches exactly, the function it
+ * matches a call of, or whether it can only match assume edges. A trigger is a conjunction of
+ * {@link AutomatonBoolExpr.And} nodes, and such a conjunction evaluates to false as soon as one
+ * conjunct does, even if others cannot be evaluated. Thus a transition whose key does not fit an
+ * edge is guaranteed not to match it, and skipping it does not change the result of the transfer
+ * relation. Transitions without a key are candidates for every edge.
+ */
+final class AutomatonTransitionIndex {
+
+  /** States with fewer transitions than this are always scanned linearly. */
+  private static final int MIN_INDEXED_TRANSITIONS = 8;
+
+  private final int[] all;
+
+  private final int[] unindexed;
+
+  private final @Nullable FunctionEntryNode mainEntry;
+
+  private final LineIndex originLines;
+
+  private final LineIndex lines;
+
+  private final ImmutableMap<String, int[]> rawStatements;
+
+  private final ImmutableMap<String, int[]> calledFunctions;
+
+  private final int[] assumeEdges;
+
+  private AutomatonTransitionIndex(
+      int[] pAll,
+      int[] pUnindexed,
+      @Nullable FunctionEntryNode pMainEntry,
+      LineIndex pOriginLines,
+      LineIndex pLines,
+      ImmutableMap<String, int[]> pRawStatements,
+      ImmutableMap<String, int[]> pCalledFunctions,
+      int[] pAssumeEdges) {
+    all = pAll;
+    unindexed = pUnindexed;
+    mainEntry = pMainEntry;
+    originLines = pOriginLines;
+    lines = pLines;
+    rawStatements = pRawStatements;
+    calledFunctions = pCalledFunctions;
+    assumeEdges = pAssumeEdges;
+  }
+
+  static AutomatonTransitionIndex create(List<AutomatonTransition> pTransitions) {
+    int[] all = new int[pTransitions.size()];
+    Arrays.setAll(all, i -> i);
+    if (pTransitions.size() < MIN_INDEXED_TRANSITIONS) {
+      return linear(all);
+    }
+
+    List<Integer> unindexed = new ArrayList<>();
+    FunctionEntryNode mainEntry = null;
+    LineIndex.Builder originLines = new LineIndex.Builder();
+    LineIndex.Builder lines = new LineIndex.Builder();
+    Map<String, List<Integer>> rawStatements = new HashMap<>();
+    Map<String, List<Integer>> calledFunctions = new HashMap<>();
+    List<Integer> assumeEdges = new ArrayList<>();
+
+    for (int i = 0; i < pTransitions.size(); i++) {
+      Key key = new Key();
+      key.collect(pTransitions.get(i).getTrigger());
+
+      if (key.lineMatcher != null
+          && key.lineMatcherMainEntry != null
+          && (mainEntry == null || mainEntry.equals(key.lineMatcherMainEntry))) {
+        mainEntry = key.lineMatcherMainEntry;
+        LineMatcher matcher = key.lineMatcher;
+        (matcher.isOrigin() ? originLines : lines)
+            .add(matcher.getStartLineNumber(), matcher.getEndLineNumber(), i);
+      } else if (key.rawStatement != null) {
+        rawStatements.computeIfAbsent(key.rawStatement, k -> new ArrayList<>()).add(i);
+      } else if (key.calledFunction != null) {
+        calledFunctions.computeIfAbsent(key.calledFunction, k -> new ArrayList<>()).add(i);
+      } else if (key.assumeEdgesOnly) {
+        assumeEdges.add(i);
+      } else {
+        unindexed.add(i);
+      }
+    }
+
+    if (unindexed.size() == pTransitions.size()) {
+      return linear(all);
+    }
+    return new AutomatonTransitionIndex(
+        all,
+        Ints.toArray(unindexed),
+        mainEntry,
+        originLines.build(),
+        lines.build(),
+        toArrays(rawStatements),
+        toArrays(calledFunctions),
+        Ints.toArray(assumeEdges));
+  }
+
+  private static AutomatonTransitionIndex linear(int[] pAll) {
+    return new AutomatonTransitionIndex(
+        pAll, pAll, null, LineIndex.EMPTY, LineIndex.EMPTY, ImmutableMap.of(), ImmutableMap.of(),
+        new int[0]);
+  }
+
+  private static ImmutableMap<String, int[]> toArrays(Map<String, List<Integer>> pPositions) {
+    ImmutableMap.Builder<String, int[]> result =
+        ImmutableMap.builderWithExpectedSize(pPositions.size());
+    pPositions.forEach((key, positions) -> result.put(key, Ints.toArray(positions)));
+    return result.build();
+  }
+
+  /**
+   * Returns the positions of all transitions that may match the given edge, in ascending order.
+   * The positions refer to the list of transitions this index was created for. The returned array
+   * must not be modified.
+   */
+  int[] getCandidates(CFAEdge pEdge) {
+    if (unindexed.length == all.length) {
+      return all;
+    }
+
+    IntBuffer result = new IntBuffer(unindexed);
+    if (!originLines.isEmpty() || !lines.isEmpty()) {
+      for (FileLocation location :
+          AutomatonGraphmlCommon.getFileLocationsFromCfaEdge(pEdge, mainEntry)) {
+        originLines.addOverlapping(
+            location.getStartingLineInOrigin(), location.getEndingLineInOrigin(), result);
+        lines.addOverlapping(
+            location.getStartingLineNumber(), location.getEndingLineNumber(), result);
+      }
+    }
+    result.addAll(rawStatements.get(pEdge.getRawStatement()));
+    result.addAll(calledFunctions.get(pEdge.getSuccessor().getFunctionName()));
+    if (pEdge instanceof AssumeEdge) {
+      result.addAll(assumeEdges);
+    }
+    return result.toSortedDistinctArray();
+  }
+
+  /** The conjunct of a trigger that is used as index key of its transition. */
+  private static class Key {
+
+    private @Nullable LineMatcher lineMatcher = null;
+    private @Nullable FunctionEntryNode lineMatcherMainEntry = null;
+    private @Nullable String rawStatement = null;
+    private @Nullable String calledFunction = null;
+    private boolean assumeEdgesOnly = false;
+
+    private void collect(AutomatonBoolExpr pTrigger) {
+      if (pTrigger instanceof AutomatonBoolExpr.And) {
+        AutomatonBoolExpr.And and = (AutomatonBoolExpr.And) pTrigger;
+        collect(and.a);
+        collect(and.b);
+
+      } else if (pTrigger instanceof AutomatonBoolExpr.MatchLocationDescriptor) {
+        AutomatonBoolExpr.MatchLocationDescriptor descriptor =
+            (AutomatonBoolExpr.MatchLocationDescriptor) pTrigger;
+        if (descriptor.getMatchDescriptor() instanceof LineMatcher && lineMatcher == null) {
+          lineMatcher = (LineMatcher) descriptor.getMatchDescriptor();
+          lineMatcherMainEntry = descriptor.getMainEntry();
+        }
+
+      } else if (pTrigger instanceof AutomatonBoolExpr.MatchCFAEdgeExact) {
+        rawStatement = ((AutomatonBoolExpr.MatchCFAEdgeExact) pTrigger).getPattern();
+
+      } else if (pTrigger instanceof AutomatonBoolExpr.MatchFunctionCall) {
+        calledFunction = ((AutomatonBoolExpr.MatchFunctionCall) pTrigger).getFunctionName();
+
+      } else if (pTrigger == AutomatonBoolExpr.MatchAssumeEdge.INSTANCE) {
+        assumeEdgesOnly = true;
+
+      } else if (pTrigger instanceof AutomatonBoolExpr.MatchAssumeCase) {
+        // the positive case also matches edges that are treated like "while (1)"
+        assumeEdgesOnly |= !((AutomatonBoolExpr.MatchAssumeCase) pTrigger).matchesPositiveCase();
+      }
+    }
+  }
+
+  /** Positions of transitions that match source-line ranges, sorted by their first line. */
+  private static class LineIndex {
+
+    private static final LineIndex EMPTY = new LineIndex(ImmutableSortedMap.of(), 0);
+
+    private final NavigableMap<Integer, int[]> byStartLine;
+
+    private final int maxSpan;
+
+    private LineIndex(NavigableMap<Integer, int[]> pByStartLine, int pMaxSpan) {
+      byStartLine = pByStartLine;
+      maxSpan = pMaxSpan;
+    }
+
+    private boolean isEmpty() {
+      return byStartLine.isEmpty();
+    }
+
+    private void addOverlapping(int pStartLine, int pEndLine, IntBuffer pResult) {
+      if (isEmpty() || pEndLine < pStartLine) {
+        return;
+      }
+      // every range starts at most maxSpan lines before it ends
+      for (int[] positions :
+          byStartLine.subMap(pStartLine - maxSpan, true, pEndLine, true).values()) {
+        pResult.addAll(positions);
+      }
+    }
+
+    private static class Builder {
+
+      private final NavigableMap<Integer, List<Integer>> byStartLine = new TreeMap<>();
+
+      private int maxSpan = 0;
+
+      private void add(int pStartLine, int pEndLine, int pPosition) {
+        byStartLine.computeIfAbsent(pStartLine, k -> new ArrayList<>()).add(pPosition);
+        maxSpan = Math.max(maxSpan, pEndLine - pStartLine);
+      }
+
+      private LineIndex build() {
+        if (byStartLine.isEmpty()) {
+          return EMPTY;
+        }
+        ImmutableSortedMap.Builder<Integer, int[]> result = ImmutableSortedMap.naturalOrder();
+        byStartLine.forEach((line, positions) -> result.put(line, Ints.toArray(positions)));
+        return new LineIndex(result.build(), maxSpan);
+      }
+    }
+  }
+
+  /** Minimal growable array of positions. */
+  private static class IntBuffer {
+
+    private int[] values;
+
+    private int size;
+
+    private IntBuffer(int[] pInitial) {
+      values = Arrays.copyOf(pInitial, Math.max(pInitial.length * 2, 8));
+      size = pInitial.length;
+    }
+
+    private void addAll(int @Nullable [] pValues) {
+      if (pValues == null) {
+        return;
+      }
+      if (size + pValues.length > values.length) {
+        values = Arrays.copyOf(values, Math.max(size + pValues.length, values.length * 2));
+      }
+      System.arraycopy(pValues, 0, values, size, pValues.length);
+      size += pValues.length;
+    }
+
+    private int[] toSortedDistinctArray() {
+      Arrays.sort(values, 0, size);
+      int distinct = 0;
+      for (int i = 0; i < size; i++) {
+        if (distinct == 0 || values[distinct - 1] != values[i]) {
+          values[distinct++] = values[i];
+        }
+      }
+      return Arrays.copyOf(values, distinct);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+public class AutomatonTransitionIndexTest {
+
+  private static AutomatonTransition transition(AutomatonBoolExpr pTrigger) {
+    return new AutomatonTransition.Builder(pTrigger, AutomatonInternalState.BOTTOM).build();
+  }
+
+  private static CFAEdge edge(String pRawStatement, String pFunctionName) {
+    CFANode successor = mock(CFANode.class);
+    when(successor.getFunctionName()).thenReturn(pFunctionName);
+    CFAEdge edge = mock(CFAEdge.class);
+    when(edge.getRawStatement()).thenReturn(pRawStatement);
+    when(edge.getSuccessor()).thenReturn(successor);
+    return edge;
+  }
+
+  private static List<AutomatonTransition> statementTransitions(int pCount) {
+    List<AutomatonTransition> transitions = new ArrayList<>();
+    for (int i = 0; i < pCount; i++) {
+      transitions.add(transition(new AutomatonBoolExpr.MatchCFAEdgeExact("x = " + i + ";")));
+    }
+    return transitions;
+  }
+
+  @Test
+  public void testFewTransitionsAreNotIndexed() {
+    AutomatonTransitionIndex index = AutomatonTransitionIndex.create(statementTransitions(3));
+
+    assertThat(index.getCandidates(edge("y = 0;", "main"))).asList().containsExactly(0, 1, 2);
+  }
+
+  @Test
+  public void testRawStatement() {
+    List<AutomatonTransition> transitions = statementTransitions(10);
+    transitions.add(4, transition(AutomatonBoolExpr.TRUE));
+    AutomatonTransitionIndex index = AutomatonTransitionIndex.create(transitions);
+
+    assertThat(index.getCandidates(edge("x = 7;", "main")))
+        .asList()
+        .containsExactly(4, 8)
+        .inOrder();
+    assertThat(index.getCandidates(edge("y = 0;", "main"))).asList().containsExactly(4);
+  }
+
+  @Test
+  public void testConjunctionIsIndexed() {
+    List<AutomatonTransition> transitions = statementTransitions(10);
+    transitions.add(
+        transition(
+            new AutomatonBoolExpr.And(
+                new AutomatonBoolExpr.ALLCPAQuery("anything"),
+                new AutomatonBoolExpr.MatchFunctionCall("f"))));
+    AutomatonTransitionIndex index = AutomatonTransitionIndex.create(transitions);
+
+    assertThat(index.getCandidates(edge("f();", "f"))).asList().containsExactly(10);
+    assertThat(index.getCandidates(edge("g();", "g"))).isEmpty();
+  }
+
+  @Test
+  public void testDisjunctionIsNotIndexed() {
+    List<AutomatonTransition> transitions = statementTransitions(10);
+    transitions.add(
+        transition(
+            new AutomatonBoolExpr.Or(
+                new AutomatonBoolExpr.MatchCFAEdgeExact("a;"),
+                new AutomatonBoolExpr.MatchCFAEdgeExact("b;"))));
+    AutomatonTransitionIndex index = AutomatonTransitionIndex.create(transitions);
+
+    assertThat(index.getCandidates(edge("b;", "main"))).asList().containsExactly(10);
+    assertThat(index.getCandidates(edge("x = 1;", "main")))
+        .asList()
+        .containsExactly(1, 10)
+        .inOrder();
+  }
+}
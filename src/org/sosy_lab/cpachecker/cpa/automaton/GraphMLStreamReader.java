@@ -0,0 +1,311 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
+
+/**
+ * Reads the nodes and edges of a GraphML witness one at a time from a StAX stream, such that
+ * callers can convert each of them as soon as it has been read and the document never has to be
+ * kept in memory as a whole.
+ *
+ * <p>Of each graph, node, and edge element, only the attributes and the text of the contained
+ * data elements are retained. Everything else, e.g., key definitions, is skipped.
+ */
+final class GraphMLStreamReader implements AutoCloseable {
+
+  static final String TOO_MANY_GRAPHS_ERROR_MESSAGE =
+      "The witness file must describe exactly one witness automaton.";
+
+  private final XMLStreamReader reader;
+
+  private @Nullable GraphMLElementBuilder graph = null;
+
+  private boolean insideGraph = false;
+
+  private int nodes = 0;
+
+  private int edges = 0;
+
+  GraphMLStreamReader(InputStream pInputStream) throws IOException, WitnessParseException {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    // witnesses are untrusted input, so neither process DTDs nor resolve external entities
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    try {
+      reader = factory.createXMLStreamReader(pInputStream);
+    } catch (XMLStreamException e) {
+      throw asParseException(e);
+    }
+  }
+
+  /**
+   * Reads up to and including the next node or edge element of the graph.
+   *
+   * @return the next node or edge, or <code>null</code> if the end of the document was reached.
+   * @throws IOException if reading from the underlying input stream fails.
+   * @throws WitnessParseException if the document is not well-formed or does not contain exactly
+   *     one graph.
+   */
+  @Nullable GraphMLElement next() throws IOException, WitnessParseException {
+    try {
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.END_ELEMENT) {
+          if (reader.getLocalName().equals(GraphMLTag.GRAPH.toString())) {
+            insideGraph = false;
+          }
+          continue;
+        }
+        if (event != XMLStreamConstants.START_ELEMENT) {
+          continue;
+        }
+        String name = reader.getLocalName();
+        if (name.equals(GraphMLTag.GRAPH.toString())) {
+          if (graph != null) {
+            throw new WitnessParseException(TOO_MANY_GRAPHS_ERROR_MESSAGE);
+          }
+          graph = readAttributes(GraphMLTag.GRAPH);
+          insideGraph = true;
+        } else if (name.equals(GraphMLTag.NODE.toString())) {
+          nodes++;
+          return readElement(GraphMLTag.NODE);
+        } else if (name.equals(GraphMLTag.EDGE.toString())) {
+          edges++;
+          return readElement(GraphMLTag.EDGE);
+        } else if (insideGraph && name.equals(GraphMLTag.DATA.toString())) {
+          readData(graph);
+        }
+      }
+    } catch (XMLStreamException e) {
+      throw asParseException(e);
+    }
+    if (graph == null) {
+      throw new WitnessParseException(TOO_MANY_GRAPHS_ERROR_MESSAGE);
+    }
+    return null;
+  }
+
+  /**
+   * Returns the graph element with all its data. May only be called after {@link #next()}
+   * returned <code>null</code>, because data of the graph may appear anywhere in the document.
+   */
+  GraphMLElement getGraph() {
+    if (graph == null || reader.getEventType() != XMLStreamConstants.END_DOCUMENT) {
+      throw new IllegalStateException("Graph is not available before the end of the document");
+    }
+    return graph.build();
+  }
+
+  /** Returns the number of nodes read so far. */
+  int getNumberOfNodes() {
+    return nodes;
+  }
+
+  /** Returns the number of edges read so far. */
+  int getNumberOfEdges() {
+    return edges;
+  }
+
+  @Override
+  public void close() throws IOException, WitnessParseException {
+    try {
+      reader.close();
+    } catch (XMLStreamException e) {
+      throw asParseException(e);
+    }
+  }
+
+  private GraphMLElement readElement(GraphMLTag pTag)
+      throws XMLStreamException, WitnessParseException {
+    GraphMLElementBuilder element = readAttributes(pTag);
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        String name = reader.getLocalName();
+        if (name.equals(GraphMLTag.DATA.toString())) {
+          readData(element);
+        } else if (name.equals(GraphMLTag.GRAPH.toString())) {
+          throw new WitnessParseException(TOO_MANY_GRAPHS_ERROR_MESSAGE);
+        } else {
+          depth++;
+        }
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+    return element.build();
+  }
+
+  private GraphMLElementBuilder readAttributes(GraphMLTag pTag) {
+    Map<String, String> attributes = new LinkedHashMap<>();
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+    }
+    return new GraphMLElementBuilder(pTag, attributes);
+  }
+
+  /** Reads the text of the data element at the current position, including nested elements. */
+  private void readData(GraphMLElementBuilder pOwner)
+      throws XMLStreamException, WitnessParseException {
+    String key = reader.getAttributeValue(null, "key");
+    if (key == null) {
+      throw new WitnessParseException("Every data element must have a key attribute!");
+    }
+    StringBuilder text = new StringBuilder();
+    int depth = 1;
+    while (depth > 0) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          depth++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          depth--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+          break;
+        default:
+          break;
+      }
+    }
+    pOwner.data.put(key, text.toString());
+  }
+
+  private static WitnessParseException asParseException(XMLStreamException pException)
+      throws IOException {
+    if (pException.getNestedException() instanceof IOException) {
+      // keep I/O errors distinguishable, e.g., for falling back from gzipped to plain input
+      throw (IOException) pException.getNestedException();
+    }
+    return new WitnessParseException(pException);
+  }
+
+  private static class GraphMLElementBuilder {
+
+    private final GraphMLTag tag;
+
+    private final Map<String, String> attributes;
+
+    private final ImmutableListMultimap.Builder<String, String> data =
+        ImmutableListMultimap.builder();
+
+    private GraphMLElementBuilder(GraphMLTag pTag, Map<String, String> pAttributes) {
+      tag = pTag;
+      attributes = pAttributes;
+    }
+
+    private GraphMLElement build() {
+      return new GraphMLElement(tag, ImmutableMap.copyOf(attributes), data.build());
+    }
+  }
+
+  /** The attributes and data of a single graph, node, or edge element of a GraphML document. */
+  static final class GraphMLElement {
+
+    private final GraphMLTag tag;
+
+    private final ImmutableMap<String, String> attributes;
+
+    private final ImmutableListMultimap<String, String> data;
+
+    private GraphMLElement(
+        GraphMLTag pTag,
+        ImmutableMap<String, String> pAttributes,
+        ImmutableListMultimap<String, String> pData) {
+      tag = pTag;
+      attributes = pAttributes;
+      data = pData;
+    }
+
+    GraphMLTag getTag() {
+      return tag;
+    }
+
+    @Nullable String getAttribute(String pAttributeName) {
+      return attributes.get(pAttributeName);
+    }
+
+    String getAttribute(String pAttributeName, String pExceptionMessage)
+        throws WitnessParseException {
+      String value = attributes.get(pAttributeName);
+      if (value == null) {
+        throw new WitnessParseException(pExceptionMessage);
+      }
+      return value;
+    }
+
+    /** Returns the distinct values of all data entries with the given key, in document order. */
+    Set<String> getData(KeyDef pKey) {
+      List<String> values = data.get(pKey.id);
+      if (values.isEmpty() && pKey.equals(KeyDef.WITNESS_TYPE)) {
+        // Backwards-compatibility: type/graph-type
+        values = data.get("type");
+        if (!values.isEmpty()) {
+          values = values.subList(0, 1);
+        }
+      }
+      return new LinkedHashSet<>(values);
+    }
+
+    EnumSet<NodeFlag> getNodeFlags() {
+      EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
+      for (String key : data.keySet()) {
+        NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
+        if (flag != null) {
+          result.add(flag);
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      String id = attributes.get("id");
+      return id != null ? id : tag.toString();
+    }
+  }
+}
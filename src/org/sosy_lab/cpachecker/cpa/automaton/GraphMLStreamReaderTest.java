@@ -0,0 +1,170 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.base.Joiner;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.cpa.automaton.GraphMLStreamReader.GraphMLElement;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
+
+public class GraphMLStreamReaderTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static GraphMLStreamReader reader(String... pLines)
+      throws IOException, WitnessParseException {
+    String document = Joiner.on('\n').join(pLines);
+    return new GraphMLStreamReader(
+        new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static List<GraphMLElement> readAll(GraphMLStreamReader pReader)
+      throws IOException, WitnessParseException {
+    List<GraphMLElement> result = new ArrayList<>();
+    for (GraphMLElement element = pReader.next(); element != null; element = pReader.next()) {
+      result.add(element);
+    }
+    return result;
+  }
+
+  @Test
+  public void testElementsInDocumentOrder() throws IOException, WitnessParseException {
+    try (GraphMLStreamReader reader =
+        reader(
+            "<graphml>",
+            "<key id=\"entry\" for=\"node\"><default>false</default></key>",
+            "<graph edgedefault=\"directed\">",
+            "<edge id=\"E1\" source=\"A\" target=\"B\"><data key=\"startline\">3</data></edge>",
+            "<node id=\"A\"><data key=\"entry\">true</data></node>",
+            "<node id=\"B\"/>",
+            "</graph>",
+            "</graphml>")) {
+      List<GraphMLElement> elements = readAll(reader);
+
+      assertThat(elements).hasSize(3);
+      assertThat(elements.get(0).getTag()).isEqualTo(GraphMLTag.EDGE);
+      assertThat(elements.get(0).getAttribute("source")).isEqualTo("A");
+      assertThat(elements.get(0).getAttribute("target")).isEqualTo("B");
+      assertThat(elements.get(0).getData(KeyDef.STARTLINE)).containsExactly("3");
+      assertThat(elements.get(1).getTag()).isEqualTo(GraphMLTag.NODE);
+      assertThat(elements.get(1).getAttribute("id")).isEqualTo("A");
+      assertThat(elements.get(1).getNodeFlags()).containsExactly(NodeFlag.ISENTRY);
+      assertThat(elements.get(2).getAttribute("id")).isEqualTo("B");
+      assertThat(elements.get(2).getNodeFlags()).isEmpty();
+      assertThat(reader.getNumberOfNodes()).isEqualTo(2);
+      assertThat(reader.getNumberOfEdges()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void testGraphDataAfterNodesAndEdges() throws IOException, WitnessParseException {
+    try (GraphMLStreamReader reader =
+        reader(
+            "<graphml>",
+            "<graph edgedefault=\"directed\" name=\"test\">",
+            "<data key=\"producer\">first</data>",
+            "<node id=\"A\"/>",
+            "<edge source=\"A\" target=\"A\"/>",
+            "<data key=\"witness-type\">correctness_witness</data>",
+            "<data key=\"producer\">second</data>",
+            "</graph>",
+            "</graphml>")) {
+      assertThat(readAll(reader)).hasSize(2);
+
+      GraphMLElement graph = reader.getGraph();
+      assertThat(graph.getTag()).isEqualTo(GraphMLTag.GRAPH);
+      assertThat(graph.getAttribute("name")).isEqualTo("test");
+      assertThat(graph.getData(KeyDef.WITNESS_TYPE)).containsExactly("correctness_witness");
+      assertThat(graph.getData(KeyDef.PRODUCER)).containsExactly("first", "second").inOrder();
+    }
+  }
+
+  @Test
+  public void testGraphNotAvailableBeforeEndOfDocument()
+      throws IOException, WitnessParseException {
+    try (GraphMLStreamReader reader =
+        reader("<graphml><graph><node id=\"A\"/><node id=\"B\"/></graph></graphml>")) {
+      assertThat(reader.next()).isNotNull();
+      assertThrows(IllegalStateException.class, () -> reader.getGraph());
+    }
+  }
+
+  @Test
+  public void testTwoGraphs() throws IOException, WitnessParseException {
+    try (GraphMLStreamReader reader =
+        reader(
+            "<graphml>",
+            "<graph><node id=\"A\"/></graph>",
+            "<graph><node id=\"B\"/></graph>",
+            "</graphml>")) {
+      WitnessParseException e = assertThrows(WitnessParseException.class, () -> readAll(reader));
+      assertThat(e)
+          .hasMessageThat()
+          .contains(GraphMLStreamReader.TOO_MANY_GRAPHS_ERROR_MESSAGE);
+    }
+  }
+
+  @Test
+  public void testNestedGraph() throws IOException, WitnessParseException {
+    try (GraphMLStreamReader reader =
+        reader("<graphml><graph><node id=\"A\"><graph/></node></graph></graphml>")) {
+      assertThrows(WitnessParseException.class, () -> readAll(reader));
+    }
+  }
+
+  @Test
+  public void testNoGraph() throws IOException, WitnessParseException {
+    try (GraphMLStreamReader reader = reader("<graphml/>")) {
+      assertThrows(WitnessParseException.class, () -> readAll(reader));
+    }
+  }
+
+  @Test
+  public void testExternalEntitiesAreNotResolved() throws IOException, WitnessParseException {
+    Path secret = tempFolder.newFile("secret.txt").toPath();
+    Files.write(secret, "secret".getBytes(StandardCharsets.UTF_8));
+    try (GraphMLStreamReader reader =
+        reader(
+            "<?xml version=\"1.0\"?>",
+            "<!DOCTYPE graphml [<!ENTITY secret SYSTEM \"" + secret.toUri() + "\">]>",
+            "<graphml><graph><data key=\"producer\">&secret;</data></graph></graphml>")) {
+      assertThrows(WitnessParseException.class, () -> readAll(reader));
+    }
+  }
+}
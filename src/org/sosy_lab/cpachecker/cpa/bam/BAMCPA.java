@@ -47,7 +47,6 @@ import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
-import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheAggressiveImpl;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheImpl;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
@@ -101,12 +100,17 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
       this.wrappedProofChecker = null;
     }
 
-    final BAMCache cache;
+    final BAMCacheImpl cache;
     if (aggressiveCaching) {
       cache = new BAMCacheAggressiveImpl(config, getReducer(), logger);
     } else {
       cache = new BAMCacheImpl(config, getReducer(), logger);
     }
+    if (handleRecursiveProcedures && cache.isBounded()) {
+      // the fixpoint iteration for recursion needs to see all cached reached sets
+      throw new InvalidConfigurationException(
+          "Option cpa.bam.cacheSizeLimit cannot be used with cpa.bam.handleRecursiveProcedures.");
+    }
     data = new BAMDataManagerImpl(cache, pReachedSetFactory, pLogger);
 
     bamPccManager = new BAMPCCManager(
@@ -254,6 +254,12 @@ public class BAMSubgraphComputer {
       }
 
       final ReachedSet reachedSet = data.getReachedSetForInitialState(expandedRoot, reducedTarget);
+      if (reachedSet == null) {
+        logger.log(
+            Level.FINE,
+            "Target state refers to a reached-set that was evicted from the cache. Updating it.");
+        throw new MissingBlockException(expandedRoot, newExpandedTarget.getWrappedState());
+      }
       assert reachedSet.contains(reducedTarget)
           : String.format(
               "reduced state '%s' is not part of reachedset with root '%s' from expanded root '%s'",
@@ -67,6 +67,12 @@ public interface BAMCache extends Statistics {
   /** Check whether a cache entry exists for a given key. */
   boolean containsPreciseKey(AbstractState stateKey, Precision precisionKey, Block context);
 
+  /**
+   * Return the reached-sets that were evicted from the cache since the last call of this method,
+   * such that references to them can be dropped elsewhere. Unbounded caches never evict entries.
+   */
+  Collection<ReachedSet> pollEvictedReachedSets();
+
   /** Return all cached reached-sets. Useful for statistics. */
   Collection<ReachedSet> getAllCachedReachedStates();
 
@@ -80,6 +86,12 @@ public interface BAMCache extends Statistics {
     private Set<AbstractState> exitStates;
     private ARGState rootOfBlock;
 
+    // bookkeeping for bounded caches, see BAMCacheImpl
+    private final long creationTime = System.nanoTime();
+    private long analysisTime = -1;
+    int accessCount = 0;
+    long lastAccess = 0;
+
     protected BAMCacheEntry(ReachedSet pRs) {
       rs = Preconditions.checkNotNull(pRs);
     }
@@ -91,6 +103,17 @@ public interface BAMCache extends Statistics {
     public void setExitStates(Set<AbstractState> pExitStates) {
       exitStates = Preconditions.checkNotNull(pExitStates);
       check();
+      if (analysisTime < 0) {
+        analysisTime = System.nanoTime() - creationTime;
+      }
+    }
+
+    /**
+     * Return the time (in nanoseconds) from the creation of this entry until the exit states were
+     * set for the first time, i.e., an estimate of the time for analyzing the block.
+     */
+    long getAnalysisTime() {
+      return analysisTime;
     }
 
     @Nullable
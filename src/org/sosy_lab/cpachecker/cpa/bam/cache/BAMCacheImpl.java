@@ -27,12 +27,22 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
 import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
 import java.io.PrintStream;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -55,6 +65,46 @@ public class BAMCacheImpl implements BAMCache {
       + "for each cache miss to find the cause of the miss.")
   private boolean gatherCacheMissStatistics = false;
 
+  @Option(
+      secure = true,
+      description =
+          "maximum number of reached sets stored in the BAM cache (0 for unlimited). "
+              + "If the limit is exceeded, entries of completely analyzed blocks are evicted "
+              + "according to the option cacheEvictionPolicy and recomputed when needed again.")
+  @IntegerOption(min = 0)
+  private int cacheSizeLimit = 0;
+
+  @Option(
+      secure = true,
+      description =
+          "which entries to evict from the BAM cache if its size limit is exceeded: "
+              + "least-recently used (LRU), least-frequently used (LFU), "
+              + "or the entries whose blocks were analyzed fastest (ANALYSIS_TIME).")
+  private EvictionPolicy cacheEvictionPolicy = EvictionPolicy.LRU;
+
+  @Option(
+      secure = true,
+      description =
+          "keep entries that were evicted from the BAM cache as soft references, "
+              + "such that they can be reused until the JVM runs low on memory. "
+              + "At most cacheSizeLimit evicted entries are kept this way.")
+  private boolean cacheSoftReferences = true;
+
+  private enum EvictionPolicy {
+    LRU(Comparator.comparingLong(e -> e.lastAccess)),
+    LFU(
+        Comparator.<BAMCacheEntry>comparingInt(e -> e.accessCount)
+            .thenComparingLong(e -> e.lastAccess)),
+    ANALYSIS_TIME(Comparator.comparingLong(BAMCacheEntry::getAnalysisTime));
+
+    /** The order in which entries are evicted, smallest entries first. */
+    private final Comparator<BAMCacheEntry> order;
+
+    EvictionPolicy(Comparator<BAMCacheEntry> pOrder) {
+      order = pOrder;
+    }
+  }
+
   private final Timer hashingTimer = new Timer();
   private final Timer equalsTimer = new Timer();
 
@@ -66,9 +116,41 @@ public class BAMCacheImpl implements BAMCache {
   private int precisionCausedMisses = 0;
   private int noSimilarCausedMisses = 0;
 
+  private int evictions = 0;
+  private int softReferenceHits = 0;
+  private int recomputedAfterEviction = 0;
+
+  /** logical clock for the LRU order of entries */
+  private long accessCounter = 0;
+
   // we use LinkedHashMaps to avoid non-determinism
   protected final Map<AbstractStateHash, BAMCacheEntry> preciseReachedCache = new LinkedHashMap<>();
 
+  /**
+   * Entries evicted from {@link #preciseReachedCache}. If soft references are enabled, the garbage
+   * collector can free the reached sets under memory pressure, otherwise the references are empty
+   * and only remember that the entry was evicted, such that recomputations can be counted. The
+   * keys are detached from the abstract states of the reached sets (see {@link
+   * AbstractStateHash#detach()}), and the map is bounded by {@link #cacheSizeLimit} and drops the
+   * oldest evicted entries.
+   */
+  private final Map<AbstractStateHash, SoftReference<BAMCacheEntry>> evictedEntries =
+      new LinkedHashMap<>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(
+            Entry<AbstractStateHash, SoftReference<BAMCacheEntry>> pEldest) {
+          return size() > cacheSizeLimit;
+        }
+      };
+
+  /**
+   * Reached sets evicted since the last call to {@link #pollEvictedReachedSets()}, such that other
+   * data structures can drop their references to them.
+   */
+  private final List<ReachedSet> evictedReachedSets = new ArrayList<>();
+
   protected BAMCacheEntry lastAnalyzedEntry = null;
   protected final Reducer reducer;
   protected final LogManager logger;
@@ -93,9 +175,61 @@ public class BAMCacheImpl implements BAMCache {
     BAMCacheEntry entry = new BAMCacheEntry(rs);
     // assert !preciseReachedCache.containsKey(hash);
     preciseReachedCache.put(hash, entry);
+    evictedEntries.remove(hash);
+    touch(entry);
+    evictIfNecessary();
     return entry;
   }
 
+  private void touch(BAMCacheEntry entry) {
+    entry.accessCount++;
+    entry.lastAccess = ++accessCounter;
+  }
+
+  /**
+   * Evict entries if the size limit of the cache is exceeded. We evict several entries at once such
+   * that the entries do not need to be sorted for every insertion. Entries without exit states are
+   * not evicted, because their blocks are currently analyzed.
+   */
+  private void evictIfNecessary() {
+    if (cacheSizeLimit == 0 || preciseReachedCache.size() <= cacheSizeLimit) {
+      return;
+    }
+    int toEvict = preciseReachedCache.size() - (int) (cacheSizeLimit * 0.9);
+    List<Entry<AbstractStateHash, BAMCacheEntry>> victims =
+        preciseReachedCache
+            .entrySet()
+            .stream()
+            .filter(e -> e.getValue().getExitStates() != null)
+            .sorted(Entry.comparingByValue(cacheEvictionPolicy.order))
+            .limit(toEvict)
+            .collect(Collectors.toList());
+
+    Set<BAMCacheEntry> evicted = new LinkedHashSet<>();
+    for (Entry<AbstractStateHash, BAMCacheEntry> victim : victims) {
+      preciseReachedCache.remove(victim.getKey());
+      evictedEntries.put(
+          victim.getKey().detach(),
+          new SoftReference<>(cacheSoftReferences ? victim.getValue() : null));
+      evicted.add(victim.getValue());
+      evictedReachedSets.add(victim.getValue().getReachedSet());
+      evictions++;
+    }
+    logger.log(Level.FINEST, "CACHE_EVICTION:", evicted.size(), "entries");
+    handleEvictedEntries(evicted);
+  }
+
+  /**
+   * Return whether entries may be evicted from this cache. Evicted entries are no longer returned
+   * by {@link #getAllCachedReachedStates()}.
+   */
+  public boolean isBounded() {
+    return cacheSizeLimit > 0;
+  }
+
+  /** Hook for subclasses that keep additional references to cache entries. */
+  protected void handleEvictedEntries(@SuppressWarnings("unused") Set<BAMCacheEntry> pEvicted) {}
+
   protected static boolean allStatesContainedInReachedSet(Collection<AbstractState> pElements, ReachedSet reached) {
     return reached.asCollection().containsAll(pElements);
   }
@@ -132,10 +266,29 @@ public class BAMCacheImpl implements BAMCache {
     BAMCacheEntry result = preciseReachedCache.get(hash);
     if (result != null) {
       lastAnalyzedEntry = result;
+      touch(result);
       logger.log(Level.FINEST, "CACHE_ACCESS: precise entry");
       return result;
     }
 
+    SoftReference<BAMCacheEntry> evictedReference = evictedEntries.remove(hash);
+    if (evictedReference != null) {
+      result = evictedReference.get();
+      if (result != null) {
+        // entry was evicted, but not yet garbage-collected, so re-insert it
+        softReferenceHits++;
+        preciseReachedCache.put(hash, result);
+        evictedReachedSets.remove(result.getReachedSet());
+        lastAnalyzedEntry = result;
+        touch(result);
+        evictIfNecessary();
+        logger.log(Level.FINEST, "CACHE_ACCESS: evicted entry");
+        return result;
+      }
+      // the reached set of the entry is gone and the block has to be analyzed again
+      recomputedAfterEviction++;
+    }
+
     return getIfNotExistant(stateKey, precisionKey, context, hash);
   }
 
@@ -185,6 +338,16 @@ public class BAMCacheImpl implements BAMCache {
     return preciseReachedCache.containsKey(hash);
   }
 
+  @Override
+  public Collection<ReachedSet> pollEvictedReachedSets() {
+    if (evictedReachedSets.isEmpty()) {
+      return ImmutableList.of();
+    }
+    List<ReachedSet> result = ImmutableList.copyOf(evictedReachedSets);
+    evictedReachedSets.clear();
+    return result;
+  }
+
   @Override
   public Collection<ReachedSet> getAllCachedReachedStates() {
     return Collections2.transform(preciseReachedCache.values(), BAMCacheEntry::getReachedSet);
@@ -194,6 +357,7 @@ public class BAMCacheImpl implements BAMCache {
 
     private final Object wrappedHash;
     private final Block context;
+    // both are null for detached keys
     final AbstractState stateKey;
     final Precision precisionKey;
 
@@ -204,6 +368,22 @@ public class BAMCacheImpl implements BAMCache {
       precisionKey = pPrecisionKey;
     }
 
+    private AbstractStateHash(Object pWrappedHash, Block pContext) {
+      wrappedHash = pWrappedHash;
+      context = pContext;
+      stateKey = null;
+      precisionKey = null;
+    }
+
+    /**
+     * Return an equal key without references to the abstract state and precision. Such keys do
+     * not keep the ARG of a reached set alive, because the root state of the reached set is the
+     * state key.
+     */
+    AbstractStateHash detach() {
+      return new AbstractStateHash(wrappedHash, context);
+    }
+
     @Override
     public boolean equals(Object pObj) {
       if (!(pObj instanceof AbstractStateHash)) {
@@ -267,6 +447,11 @@ public class BAMCacheImpl implements BAMCache {
       out.println("  Number of precision caused misses:                 " + precisionCausedMisses + " (" + toPercent(precisionCausedMisses, cacheMisses) + " of all misses)");
       out.println("  Number of misses with no similar elements:         " + noSimilarCausedMisses + " (" + toPercent(noSimilarCausedMisses, cacheMisses) + " of all misses)");
     }
+    if (cacheSizeLimit > 0) {
+      out.println("Number of evicted cache entries:                     " + evictions);
+      out.println("  Number of reused evicted entries:                  " + softReferenceHits);
+      out.println("  Number of blocks recomputed after eviction:        " + recomputedAfterEviction);
+    }
     out.println("Time for checking equality of abstract states:       " + equalsTimer + " (Calls: " + equalsTimer.getNumberOfIntervals() + ")");
     out.println("Time for computing the hashCode of abstract states:  " + hashingTimer + " (Calls: " + hashingTimer.getNumberOfIntervals() + ")");
   }
@@ -279,6 +464,8 @@ public class BAMCacheImpl implements BAMCache {
   @Override
   public void clear() {
     preciseReachedCache.clear();
+    evictedEntries.clear();
+    evictedReachedSets.clear();
     lastAnalyzedEntry = null;
   }
 }
@@ -0,0 +1,210 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+
+public class BAMCacheImplTest {
+
+  private static final int LIMIT = 10;
+
+  private final Precision precision = mock(Precision.class);
+  private final Block block = mock(Block.class);
+  private final List<AbstractState> states = new ArrayList<>();
+
+  private Reducer reducer;
+
+  @Before
+  public void setUp() {
+    reducer = mock(Reducer.class);
+    when(reducer.getHashCodeForState(any(), any())).thenAnswer(i -> i.getArgument(0));
+  }
+
+  private BAMCacheImpl createCache(boolean pSoftReferences)
+      throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("cpa.bam.cacheSizeLimit", Integer.toString(LIMIT))
+            .setOption("cpa.bam.cacheSoftReferences", Boolean.toString(pSoftReferences))
+            .build();
+    return new BAMCacheImpl(config, reducer, LogManager.createTestLogManager());
+  }
+
+  /** Add an entry for a completely analyzed block, which can be evicted. */
+  private BAMCacheEntry putFinished(BAMCacheImpl pCache) {
+    AbstractState state = mock(AbstractState.class);
+    states.add(state);
+    ReachedSet reached = mock(ReachedSet.class);
+    when(reached.asCollection()).thenReturn(ImmutableList.of());
+    BAMCacheEntry entry = pCache.put(state, precision, block, reached);
+    entry.setExitStates(ImmutableSet.of());
+    return entry;
+  }
+
+  private void fill(BAMCacheImpl pCache, int pCount) {
+    for (int i = 0; i < pCount; i++) {
+      putFinished(pCache);
+    }
+  }
+
+  @Test
+  public void testEviction() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(true);
+    assertThat(cache.isBounded()).isTrue();
+
+    fill(cache, LIMIT);
+    assertThat(cache.getAllCachedReachedStates()).hasSize(LIMIT);
+
+    // exceeding the limit evicts the least-recently used entries down to 90% of the limit
+    fill(cache, 1);
+    assertThat(cache.getAllCachedReachedStates()).hasSize(LIMIT - 1);
+    assertThat(cache.containsPreciseKey(states.get(0), precision, block)).isFalse();
+    assertThat(cache.containsPreciseKey(states.get(1), precision, block)).isFalse();
+    assertThat(cache.containsPreciseKey(states.get(2), precision, block)).isTrue();
+  }
+
+  @Test
+  public void testLeastRecentlyUsed() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(true);
+    fill(cache, LIMIT);
+
+    // accessing the oldest entry protects it from eviction
+    assertThat(cache.get(states.get(0), precision, block)).isNotNull();
+    fill(cache, 1);
+    assertThat(cache.containsPreciseKey(states.get(0), precision, block)).isTrue();
+    assertThat(cache.containsPreciseKey(states.get(1), precision, block)).isFalse();
+  }
+
+  @Test
+  public void testReinsertionOfEvictedEntry() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(true);
+    fill(cache, LIMIT + 1);
+    AbstractState evicted = states.get(0);
+    assertThat(cache.containsPreciseKey(evicted, precision, block)).isFalse();
+
+    // the entry is still softly reachable and is moved back into the cache
+    BAMCacheEntry entry = cache.get(evicted, precision, block);
+    assertThat(entry).isNotNull();
+    assertThat(entry.getExitStates()).isEmpty();
+    assertThat(cache.containsPreciseKey(evicted, precision, block)).isTrue();
+
+    // re-inserting an entry must also respect the limit
+    assertThat(cache.getAllCachedReachedStates().size()).isAtMost(LIMIT);
+  }
+
+  @Test
+  public void testPutReplacesEvictedEntry() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(true);
+    fill(cache, LIMIT + 1);
+    AbstractState evicted = states.get(0);
+
+    ReachedSet reached = mock(ReachedSet.class);
+    BAMCacheEntry newEntry = cache.put(evicted, precision, block, reached);
+    assertThat(cache.get(evicted, precision, block)).isSameInstanceAs(newEntry);
+  }
+
+  @Test
+  public void testWithoutSoftReferences() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(false);
+    fill(cache, LIMIT + 1);
+    assertThat(cache.get(states.get(0), precision, block)).isNull();
+    assertThat(printStatistics(cache))
+        .contains("Number of blocks recomputed after eviction:        1");
+  }
+
+  @Test
+  public void testPollEvictedReachedSets() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(true);
+    List<BAMCacheEntry> entries = new ArrayList<>();
+    for (int i = 0; i < LIMIT + 1; i++) {
+      entries.add(putFinished(cache));
+    }
+
+    assertThat(cache.pollEvictedReachedSets())
+        .containsExactly(entries.get(0).getReachedSet(), entries.get(1).getReachedSet());
+    assertThat(cache.pollEvictedReachedSets()).isEmpty();
+  }
+
+  @Test
+  public void testReusedEntryIsNotPolled() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(true);
+    fill(cache, LIMIT + 1);
+
+    // the first entry is reused before anyone dropped references to its reached set
+    BAMCacheEntry reused = cache.get(states.get(0), precision, block);
+    assertThat(cache.pollEvictedReachedSets()).doesNotContain(reused.getReachedSet());
+  }
+
+  private static String printStatistics(BAMCacheImpl pCache) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+      pCache.printStatistics(out, Result.UNKNOWN, null);
+    }
+    return output.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testEvictedEntriesAreBounded() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(true);
+    fill(cache, 10 * LIMIT);
+
+    // only the most recently evicted entries are remembered
+    assertThat(cache.get(states.get(0), precision, block)).isNull();
+    int lastEvicted = 10 * LIMIT - cache.getAllCachedReachedStates().size() - 1;
+    assertThat(cache.get(states.get(lastEvicted), precision, block)).isNotNull();
+  }
+
+  @Test
+  public void testUnbounded() throws InvalidConfigurationException {
+    BAMCacheImpl cache =
+        new BAMCacheImpl(
+            Configuration.defaultConfiguration(), reducer, LogManager.createTestLogManager());
+    assertThat(cache.isBounded()).isFalse();
+    fill(cache, 10 * LIMIT);
+    assertThat(cache.getAllCachedReachedStates()).hasSize(10 * LIMIT);
+  }
+}
@@ -122,6 +122,13 @@ public class BAMCacheSynchronized implements BAMCache {
     }
   }
 
+  @Override
+  public Collection<ReachedSet> pollEvictedReachedSets() {
+    synchronized (this) {
+      return cache.pollEvictedReachedSets();
+    }
+  }
+
   @Override
   public Collection<ReachedSet> getAllCachedReachedStates() {
     synchronized (this) {
@@ -93,9 +93,10 @@ public interface BAMDataManager {
 
   /**
    * Receive the reached-set for a non-reduced initial state with a non-expanded exit-state. We
-   * expect that the given abstract state has a matching reached-set.
+   * expect that the given abstract state has a matching reached-set, unless the reached-set was
+   * evicted from a bounded cache, then the result is null.
    */
-  ReachedSet getReachedSetForInitialState(AbstractState state, AbstractState exitState);
+  @Nullable ReachedSet getReachedSetForInitialState(AbstractState state, AbstractState exitState);
 
   /** Check whether the given abstract state is the non-reduced initial state of a reached-set. */
   boolean hasInitialState(AbstractState state);
@@ -31,16 +31,21 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
 import com.google.common.collect.Table.Cell;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.log.LogManager;
@@ -76,6 +81,14 @@ public class BAMDataManagerImpl implements BAMDataManager {
   private final Table<AbstractState, AbstractState, ReachedSet> initialStateToReachedSet =
       HashBasedTable.create();
 
+  /**
+   * Non-reduced initial states whose reached-sets were evicted from the cache and are no longer
+   * contained in {@link #initialStateToReachedSet}. Weak, because there is no reason to keep states
+   * alive that are not part of any ARG anymore.
+   */
+  private final Set<AbstractState> evictedInitialStates =
+      Collections.newSetFromMap(new WeakHashMap<>());
+
   /** Mapping of reduced initial states to non-reduced initial states. */
   private final Multimap<AbstractState, AbstractState> reducedToNonReduced =
       LinkedHashMultimap.create();
@@ -139,7 +152,35 @@ public class BAMDataManagerImpl implements BAMDataManager {
       AbstractState initialState, Precision initialPrecision, Block context) {
     final ReachedSet reached = reachedSetFactory.create();
     reached.add(initialState, initialPrecision);
-    return bamCache.put(initialState, initialPrecision, context, reached);
+    BAMCacheEntry entry = bamCache.put(initialState, initialPrecision, context, reached);
+    dropEvictedReachedSets();
+    return entry;
+  }
+
+  /**
+   * Remove our references to reached-sets that were evicted from the cache, such that the garbage
+   * collector can free them. If a refinement needs such a reached-set later, it will find a missing
+   * block and the block is analyzed again.
+   */
+  private void dropEvictedReachedSets() {
+    Collection<ReachedSet> evicted = bamCache.pollEvictedReachedSets();
+    if (evicted.isEmpty()) {
+      return;
+    }
+    Set<ReachedSet> evictedSet = Sets.newIdentityHashSet();
+    evictedSet.addAll(evicted);
+    Iterator<Cell<AbstractState, AbstractState, ReachedSet>> cells =
+        initialStateToReachedSet.cellSet().iterator();
+    while (cells.hasNext()) {
+      Cell<AbstractState, AbstractState, ReachedSet> cell = cells.next();
+      if (evictedSet.contains(cell.getValue())) {
+        evictedInitialStates.add(cell.getRowKey());
+        cells.remove();
+      }
+    }
+    for (ReachedSet reached : evicted) {
+      reducedToNonReduced.removeAll(reached.getFirstState());
+    }
   }
 
   @Override
@@ -217,6 +258,7 @@ public class BAMDataManagerImpl implements BAMDataManager {
   @Override
   public void registerInitialState(
       AbstractState initialState, AbstractState exitState, ReachedSet reachedSet) {
+    dropEvictedReachedSets();
     ReachedSet oldReachedSet = initialStateToReachedSet.get(initialState, exitState);
     if (oldReachedSet != null && oldReachedSet != reachedSet) {
       // TODO This might be a hint for a memory leak, i.e., the old reachedset
@@ -235,19 +277,19 @@ public class BAMDataManagerImpl implements BAMDataManager {
   }
 
   @Override
-  public ReachedSet getReachedSetForInitialState(
+  public @Nullable ReachedSet getReachedSetForInitialState(
       AbstractState initialState, AbstractState exitState) {
-    assert initialStateToReachedSet.contains(initialState, exitState)
+    ReachedSet reached = initialStateToReachedSet.get(initialState, exitState);
+    assert reached != null || evictedInitialStates.contains(initialState)
         : "no block matching states: " + initialState + " -> " + exitState;
-    ReachedSet reached = checkNotNull(initialStateToReachedSet.get(initialState, exitState));
-    assert reached.contains(exitState)
+    assert reached == null || reached.contains(exitState)
         : "reachedset should contain exit state for block: " + exitState;
     return reached;
   }
 
   @Override
   public boolean hasInitialState(AbstractState state) {
-    return initialStateToReachedSet.containsRow(state);
+    return initialStateToReachedSet.containsRow(state) || evictedInitialStates.contains(state);
   }
 
   @Override
@@ -321,6 +363,7 @@ public class BAMDataManagerImpl implements BAMDataManager {
   @Override
   public void clear() {
     initialStateToReachedSet.clear();
+    evictedInitialStates.clear();
     expandedStateToBlockExit.clear();
     bamCache.clear();
     reducedToNonReduced.clear();
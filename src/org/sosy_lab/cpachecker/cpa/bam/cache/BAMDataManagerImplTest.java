@@ -0,0 +1,149 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+
+public class BAMDataManagerImplTest {
+
+  private static final int LIMIT = 10;
+
+  private final Precision precision = mock(Precision.class);
+  private final Block block = mock(Block.class);
+
+  /** reduced initial states, i.e., the first states of the reached sets */
+  private final List<ARGState> reducedStates = new ArrayList<>();
+
+  /** non-reduced initial states, i.e., the states of the outer ARG */
+  private final List<ARGState> initialStates = new ArrayList<>();
+
+  private BAMCacheImpl cache;
+  private BAMDataManagerImpl data;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    Reducer reducer = mock(Reducer.class);
+    when(reducer.getHashCodeForState(any(), any())).thenAnswer(i -> i.getArgument(0));
+    Configuration config =
+        Configuration.builder()
+            .setOption("cpa.bam.cacheSizeLimit", Integer.toString(LIMIT))
+            .setOption("cpa.bam.cacheSoftReferences", "false")
+            .build();
+    LogManager logger = LogManager.createTestLogManager();
+    cache = new BAMCacheImpl(config, reducer, logger);
+    data =
+        new BAMDataManagerImpl(
+            cache, new ReachedSetFactory(Configuration.defaultConfiguration(), logger), logger);
+  }
+
+  /**
+   * Analyze a block (trivially) and register its reached set like the transfer relation does. Only
+   * a weak reference to the reached set is returned.
+   */
+  private WeakReference<ReachedSet> analyzeBlock() {
+    ARGState reducedState = new ARGState(mock(AbstractState.class), null);
+    ARGState initialState = new ARGState(mock(AbstractState.class), null);
+    reducedStates.add(reducedState);
+    initialStates.add(initialState);
+
+    BAMCacheEntry entry = data.createAndRegisterNewReachedSet(reducedState, precision, block);
+    entry.setExitStates(ImmutableSet.of(reducedState));
+    data.registerInitialState(initialState, reducedState, entry.getReachedSet());
+    return new WeakReference<>(entry.getReachedSet());
+  }
+
+  @Test
+  public void testRegisteredReachedSet() {
+    WeakReference<ReachedSet> reached = analyzeBlock();
+
+    assertThat(data.hasInitialState(initialStates.get(0))).isTrue();
+    assertThat(data.getReachedSetForInitialState(initialStates.get(0), reducedStates.get(0)))
+        .isSameInstanceAs(reached.get());
+    assertThat(data.getNonReducedInitialStates(reducedStates.get(0)))
+        .containsExactly(initialStates.get(0));
+  }
+
+  @Test
+  public void testEvictedReachedSetCanBeCollected() {
+    WeakReference<ReachedSet> first = analyzeBlock();
+    for (int i = 0; i < LIMIT; i++) {
+      analyzeBlock();
+    }
+    assertThat(cache.containsPreciseKey(reducedStates.get(0), precision, block)).isFalse();
+
+    for (int i = 0; i < 10 && first.get() != null; i++) {
+      System.gc();
+    }
+    assertThat(first.get()).isNull();
+
+    // the initial state is still known, such that refinements detect the missing block
+    assertThat(data.hasInitialState(initialStates.get(0))).isTrue();
+    assertThat(data.getReachedSetForInitialState(initialStates.get(0), reducedStates.get(0)))
+        .isNull();
+    assertThat(data.getNonReducedInitialStates(reducedStates.get(0))).isEmpty();
+
+    // entries that were not evicted are unaffected
+    ARGState last = initialStates.get(LIMIT);
+    assertThat(data.getReachedSetForInitialState(last, reducedStates.get(LIMIT))).isNotNull();
+  }
+
+  @Test
+  public void testRecomputedEvictedBlock() {
+    analyzeBlock();
+    for (int i = 0; i < LIMIT; i++) {
+      analyzeBlock();
+    }
+
+    // a new analysis of the evicted block registers its new reached set again
+    ARGState reducedState = reducedStates.get(0);
+    assertThat(cache.get(reducedState, precision, block)).isNull();
+    BAMCacheEntry entry = data.createAndRegisterNewReachedSet(reducedState, precision, block);
+    entry.setExitStates(ImmutableSet.of(reducedState));
+    data.registerInitialState(initialStates.get(0), reducedState, entry.getReachedSet());
+
+    assertThat(data.getReachedSetForInitialState(initialStates.get(0), reducedState))
+        .isSameInstanceAs(entry.getReachedSet());
+  }
+}
@@ -108,7 +108,8 @@ public class BAMDataManagerSynchronized implements BAMDataManager {
   }
 
   @Override
-  public ReachedSet getReachedSetForInitialState(AbstractState pState, AbstractState pExitState) {
+  public @Nullable ReachedSet getReachedSetForInitialState(
+      AbstractState pState, AbstractState pExitState) {
     synchronized (this) {
       return manager.getReachedSetForInitialState(pState, pExitState);
     }
@@ -25,12 +25,18 @@ package org.sosy_lab.cpachecker.cpa.composite;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.FluentIterable.from;
+import static org.sosy_lab.common.collect.Collections3.transformedImmutableListCopy;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -90,6 +96,24 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
               + " be a list."
     )
     private boolean aggregateBasicBlocks = false;
+
+    @Option(
+        secure = true,
+        name = "profiling.enable",
+        description =
+            "Measure time and number of calls of the transfer relation, strengthen, stop and merge"
+                + " operators of each component CPA, separately for each type of CFA edge."
+                + " This adds some overhead to every call of these operators.")
+    private boolean profiling = false;
+
+    @Option(
+        secure = true,
+        name = "profiling.file",
+        description =
+            "export the measured operator times in the folded-stacks format that can be"
+                + " rendered as flame graph (requires cpa.composite.profiling.enable)")
+    @FileOption(FileOption.Type.OUTPUT_FILE)
+    private @Nullable Path profilingFile = Paths.get("CompositeOperators.folded");
   }
 
   private static class CompositeCPAFactory extends AbstractCPAFactory {
@@ -114,7 +138,31 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
             "Merge PLAIN is currently not supported in predicated analysis");
       }
 
-      return new CompositeCPA(cfa, cpas, options);
+      CompositeOperatorProfiler profiler = CompositeOperatorProfiler.disabled();
+      if (options.profiling) {
+        profiler =
+            CompositeOperatorProfiler.create(
+                getComponentNames(cpas), options.profilingFile, getLogger());
+      }
+
+      return new CompositeCPA(cfa, cpas, options, profiler);
+    }
+
+    /**
+     * Returns the class names of the given CPAs, with the index of the CPA appended to all names
+     * that occur several times (e.g., for several specification automata).
+     */
+    private static ImmutableList<String> getComponentNames(
+        List<ConfigurableProgramAnalysis> pCpas) {
+      ImmutableList<String> classNames =
+          transformedImmutableListCopy(pCpas, cpa -> cpa.getClass().getSimpleName());
+      ImmutableMultiset<String> occurrences = ImmutableMultiset.copyOf(classNames);
+      ImmutableList.Builder<String> names = ImmutableList.builderWithExpectedSize(pCpas.size());
+      for (int i = 0; i < classNames.size(); i++) {
+        String name = classNames.get(i);
+        names.add(occurrences.count(name) > 1 ? name + "#" + i : name);
+      }
+      return names.build();
     }
 
     @Override
@@ -149,14 +197,19 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
   private final ImmutableList<ConfigurableProgramAnalysis> cpas;
   private final CFA cfa;
   private final CompositeOptions options;
+  private final CompositeStopOperator.CoverageCheckStatistics stopStats =
+      new CompositeStopOperator.CoverageCheckStatistics();
+  private final CompositeOperatorProfiler profiler;
 
   private CompositeCPA(
       CFA pCfa,
       ImmutableList<ConfigurableProgramAnalysis> cpas,
-      CompositeOptions pOptions) {
+      CompositeOptions pOptions,
+      CompositeOperatorProfiler pProfiler) {
     this.cfa = pCfa;
     this.cpas = cpas;
     this.options = pOptions;
+    this.profiler = pProfiler;
   }
 
   @Override
@@ -175,7 +228,7 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
       transferRelations.add(cpa.getTransferRelation());
     }
     return new CompositeTransferRelation(
-        transferRelations.build(), cfa, options.aggregateBasicBlocks);
+        transferRelations.build(), cfa, options.aggregateBasicBlocks, profiler);
   }
 
   @Override
@@ -207,9 +260,9 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
       } else {
         if (options.merge.equals("AGREE")) {
           return new CompositeMergeAgreeOperator(
-              mergeOperators.build(), getStopOperator().getStopOperators());
+              mergeOperators.build(), getStopOperator().getStopOperators(), profiler);
         } else if (options.merge.equals("PLAIN")) {
-          return new CompositeMergePlainOperator(mergeOperators.build());
+          return new CompositeMergePlainOperator(mergeOperators.build(), profiler);
         } else {
           throw new AssertionError();
         }
@@ -223,7 +276,7 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
     for (ConfigurableProgramAnalysis cpa : cpas) {
       stopOps.add(cpa.getStopOperator());
     }
-    return new CompositeStopOperator(stopOps.build());
+    return new CompositeStopOperator(stopOps.build(), stopStats, profiler);
   }
 
   @Override
@@ -291,6 +344,10 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
         ((StatisticsProvider)cpa).collectStatistics(pStatsCollection);
       }
     }
+    pStatsCollection.add(stopStats);
+    if (profiler.isEnabled()) {
+      pStatsCollection.add(profiler);
+    }
   }
 
   @Override
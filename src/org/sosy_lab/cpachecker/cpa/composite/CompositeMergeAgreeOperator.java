@@ -34,6 +34,7 @@ import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.NonMergeableAbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeOperatorProfiler.Operator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 import java.util.Collections;
@@ -58,11 +59,15 @@ class CompositeMergeAgreeOperator implements MergeOperator {
 
   private final ImmutableList<MergeOperator> mergeOperators;
   private final ImmutableList<StopOperator> stopOperators;
+  private final CompositeOperatorProfiler profiler;
 
   CompositeMergeAgreeOperator(
-      ImmutableList<MergeOperator> mergeOperators, ImmutableList<StopOperator> stopOperators) {
+      ImmutableList<MergeOperator> mergeOperators,
+      ImmutableList<StopOperator> stopOperators,
+      CompositeOperatorProfiler pProfiler) {
     this.mergeOperators = mergeOperators;
     this.stopOperators  = stopOperators;
+    profiler = pProfiler;
   }
 
   @Override
@@ -90,6 +95,7 @@ class CompositeMergeAgreeOperator implements MergeOperator {
     Iterator<Precision> precIter = compPrecision.getWrappedPrecisions().iterator();
 
     boolean identicalStates = true;
+    int index = 0;
     for (MergeOperator mergeOp : mergeOperators) {
       AbstractState absSuccessorState = comp1Iter.next();
       AbstractState absReachedState   = comp2Iter.next();
@@ -97,11 +103,16 @@ class CompositeMergeAgreeOperator implements MergeOperator {
       Precision prec      = precIter.next();
       StopOperator stopOp = stopIter.next();
 
+      long start = profiler.start();
       AbstractState mergedState = mergeOp.merge(absSuccessorState, absReachedState, prec);
+      profiler.stop(index, Operator.MERGE, null, start);
 
       // Check if 'mergedState' also covers 'absSuccessorState', i.e., if 'mergeOp' performed a join.
       // By definition of MergeOperator, we know it covers 'absReachedState'.
-      if (!stopOp.stop(absSuccessorState, Collections.singleton(mergedState), prec)) {
+      start = profiler.start();
+      boolean covered = stopOp.stop(absSuccessorState, Collections.singleton(mergedState), prec);
+      profiler.stop(index, Operator.STOP, null, start);
+      if (!covered) {
         // the result of merge does not cover 'absSuccessorState'
         // (which is the successor state currently considered by the CPAAlgorithm
         // We prevent merging for all CPAs in this case, because the current successor
@@ -114,6 +125,7 @@ class CompositeMergeAgreeOperator implements MergeOperator {
       }
 
       mergedStates.add(mergedState);
+      index++;
     }
 
     if (identicalStates) {
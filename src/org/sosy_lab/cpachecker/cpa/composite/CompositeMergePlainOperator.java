@@ -28,6 +28,7 @@ import com.google.common.collect.ImmutableList;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeOperatorProfiler.Operator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 import java.util.Iterator;
@@ -39,9 +40,12 @@ import java.util.Iterator;
 class CompositeMergePlainOperator implements MergeOperator {
 
   private final ImmutableList<MergeOperator> mergeOperators;
+  private final CompositeOperatorProfiler profiler;
 
-  CompositeMergePlainOperator(ImmutableList<MergeOperator> mergeOperators) {
+  CompositeMergePlainOperator(
+      ImmutableList<MergeOperator> mergeOperators, CompositeOperatorProfiler pProfiler) {
     this.mergeOperators = mergeOperators;
+    profiler = pProfiler;
   }
 
   @Override
@@ -62,10 +66,13 @@ class CompositeMergePlainOperator implements MergeOperator {
     Iterator<Precision> iterPrec = compPrecision.getWrappedPrecisions().iterator();
 
     boolean identicalStates = true;
+    int index = 0;
     for (MergeOperator mergeOp : mergeOperators) {
       AbstractState absSuccessorState = iter1.next();
       AbstractState absReachedState   = iter2.next();
+      long start = profiler.start();
       AbstractState mergedState       = mergeOp.merge(absSuccessorState, absReachedState, iterPrec.next());
+      profiler.stop(index++, Operator.MERGE, null, start);
 
       if (mergedState != absReachedState) {
         identicalStates = false;
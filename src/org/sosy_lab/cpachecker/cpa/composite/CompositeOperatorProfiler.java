@@ -0,0 +1,220 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.composite;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.io.IO;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Measures the time and the number of calls of the operators of each component CPA of a {@link
+ * CompositeCPA}, separately for each type of CFA edge.
+ *
+ * <p>The measurements can be written in the "folded stacks" format (one line per stack with the
+ * frames separated by semicolons, followed by the time in microseconds), which can be rendered as
+ * flame graph by tools like <code>flamegraph.pl</code> or speedscope.
+ *
+ * <p>All methods may be called concurrently. If the profiler is disabled, {@link #start()} and
+ * {@link #stop} do nothing.
+ */
+class CompositeOperatorProfiler implements Statistics {
+
+  enum Operator {
+    TRANSFER("getAbstractSuccessorsForEdge"),
+    STRENGTHEN("strengthen"),
+    STOP("stop"),
+    MERGE("merge"),
+    ;
+
+    private final String methodName;
+
+    Operator(String pMethodName) {
+      methodName = pMethodName;
+    }
+  }
+
+  private static final CFAEdgeType[] EDGE_TYPES = CFAEdgeType.values();
+
+  /** Index used for calls that do not belong to a CFA edge, e.g., for stop and merge. */
+  private static final int NO_EDGE = EDGE_TYPES.length;
+
+  private static final CompositeOperatorProfiler DISABLED =
+      new CompositeOperatorProfiler(ImmutableList.of(), null, null);
+
+  private final boolean enabled;
+  private final ImmutableList<String> componentNames;
+  private final @Nullable Path outputFile;
+  private final @Nullable LogManager logger;
+
+  // indexed by component, operator, and edge type
+  private final LongAdder[][][] times;
+  private final LongAdder[][][] calls;
+
+  private CompositeOperatorProfiler(
+      ImmutableList<String> pComponentNames,
+      @Nullable Path pOutputFile,
+      @Nullable LogManager pLogger) {
+    enabled = !pComponentNames.isEmpty();
+    componentNames = pComponentNames;
+    outputFile = pOutputFile;
+    logger = pLogger;
+
+    int operators = Operator.values().length;
+    times = new LongAdder[pComponentNames.size()][operators][NO_EDGE + 1];
+    calls = new LongAdder[pComponentNames.size()][operators][NO_EDGE + 1];
+    for (int c = 0; c < pComponentNames.size(); c++) {
+      for (int o = 0; o < operators; o++) {
+        for (int e = 0; e <= NO_EDGE; e++) {
+          times[c][o][e] = new LongAdder();
+          calls[c][o][e] = new LongAdder();
+        }
+      }
+    }
+  }
+
+  static CompositeOperatorProfiler create(
+      ImmutableList<String> pComponentNames, @Nullable Path pOutputFile, LogManager pLogger) {
+    return new CompositeOperatorProfiler(pComponentNames, pOutputFile, pLogger);
+  }
+
+  /** Returns a profiler that does not measure anything. */
+  static CompositeOperatorProfiler disabled() {
+    return DISABLED;
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Returns the start time for a call to {@link #stop}. */
+  long start() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Records a call of an operator of a component CPA that was started at the given time.
+   *
+   * @param pComponent the index of the component CPA
+   * @param pOperator the operator that was called
+   * @param pEdge the edge for which the operator was called, if any
+   * @param pStartTime the result of the call to {@link #start()} before the operator was called
+   */
+  void stop(int pComponent, Operator pOperator, @Nullable CFAEdge pEdge, long pStartTime) {
+    if (enabled) {
+      long duration = System.nanoTime() - pStartTime;
+      int edgeIndex = pEdge == null ? NO_EDGE : pEdge.getEdgeType().ordinal();
+      times[pComponent][pOperator.ordinal()][edgeIndex].add(duration);
+      calls[pComponent][pOperator.ordinal()][edgeIndex].increment();
+    }
+  }
+
+  private static String edgeName(int pEdgeIndex) {
+    return pEdgeIndex == NO_EDGE ? "none" : EDGE_TYPES[pEdgeIndex].toString();
+  }
+
+  private static String formatTime(long pNanos) {
+    return TimeSpan.ofNanos(pNanos).formatAs(TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    if (!enabled) {
+      return;
+    }
+    StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
+    for (int c = 0; c < componentNames.size(); c++) {
+      writer.put(componentNames.get(c), "");
+      StatisticsWriter componentWriter = writer.beginLevel();
+      for (Operator operator : Operator.values()) {
+        long totalTime = 0;
+        long totalCalls = 0;
+        for (int e = 0; e <= NO_EDGE; e++) {
+          totalTime += times[c][operator.ordinal()][e].sum();
+          totalCalls += calls[c][operator.ordinal()][e].sum();
+        }
+        if (totalCalls == 0) {
+          continue;
+        }
+        componentWriter.put(
+            "Time for " + operator.methodName,
+            formatTime(totalTime) + " (calls: " + totalCalls + ")");
+        StatisticsWriter edgeWriter = componentWriter.beginLevel();
+        for (int e = 0; e < NO_EDGE; e++) {
+          long edgeCalls = calls[c][operator.ordinal()][e].sum();
+          if (edgeCalls > 0) {
+            edgeWriter.put(
+                edgeName(e),
+                formatTime(times[c][operator.ordinal()][e].sum()) + " (calls: " + edgeCalls + ")");
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
+    if (!enabled || outputFile == null) {
+      return;
+    }
+    try (Writer out = IO.openOutputFile(outputFile, StandardCharsets.UTF_8)) {
+      for (int c = 0; c < componentNames.size(); c++) {
+        for (Operator operator : Operator.values()) {
+          for (int e = 0; e <= NO_EDGE; e++) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(times[c][operator.ordinal()][e].sum());
+            if (micros > 0) {
+              String stack =
+                  String.join(
+                      ";", "CompositeCPA", componentNames.get(c), operator.methodName, edgeName(e));
+              out.write(stack + " " + micros + "\n");
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not write profile of composite operators to file");
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "CompositeCPA operator profile";
+  }
+}
@@ -26,23 +26,60 @@ package org.sosy_lab.cpachecker.cpa.composite;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.collect.ImmutableList;
+import java.io.PrintStream;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.defaults.StopSepOperator;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeOperatorProfiler.Operator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator {
 
+  /**
+   * Statistics about the candidates from the reached set that were pruned by the coverage
+   * signatures of the component states (cf. {@link StopSepOperator#mayStop}).
+   */
+  static class CoverageCheckStatistics implements Statistics {
+
+    private final StatCounter checkedCandidates =
+        new StatCounter("Number of candidates checked for coverage");
+    private final StatCounter prunedCandidates =
+        new StatCounter("Number of candidates pruned by coverage signature");
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsWriter.writingStatisticsTo(pOut).put(checkedCandidates).put(prunedCandidates);
+    }
+
+    @Override
+    public String getName() {
+      return "CompositeCPA stop operator";
+    }
+  }
+
   private final ImmutableList<StopOperator> stopOperators;
+  private final CoverageCheckStatistics stats;
+  private final CompositeOperatorProfiler profiler;
 
-  CompositeStopOperator(ImmutableList<StopOperator> stopOperators) {
+  CompositeStopOperator(
+      ImmutableList<StopOperator> stopOperators,
+      CoverageCheckStatistics pStats,
+      CompositeOperatorProfiler pProfiler) {
     this.stopOperators = stopOperators;
+    stats = pStats;
+    profiler = pProfiler;
   }
 
   @Override
@@ -65,6 +102,20 @@ class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator
 
     List<Precision> compositePrecisions = compositePrecision.getWrappedPrecisions();
 
+    // First do the cheap checks of all components,
+    // such that no expensive check is done if any component rules out coverage.
+    for (int idx = 0; idx < compositeElements.size(); idx++) {
+      StopOperator stopOp = stopOperators.get(idx);
+
+      if (stopOp instanceof StopSepOperator
+          && !((StopSepOperator) stopOp)
+              .mayStop(compositeElements.get(idx), compositeReachedStates.get(idx))) {
+        stats.prunedCandidates.inc();
+        return false;
+      }
+    }
+    stats.checkedCandidates.inc();
+
     for (int idx = 0; idx < compositeElements.size(); idx++) {
       StopOperator stopOp = stopOperators.get(idx);
 
@@ -72,7 +123,10 @@ class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator
       AbstractState absElem2 = compositeReachedStates.get(idx);
       Precision prec = compositePrecisions.get(idx);
 
-      if (!stopOp.stop(absElem1, Collections.singleton(absElem2), prec)) {
+      long start = profiler.start();
+      boolean stop = stopOp.stop(absElem1, Collections.singleton(absElem2), prec);
+      profiler.stop(idx, Operator.STOP, null, start);
+      if (!stop) {
         return false;
       }
     }
@@ -57,29 +57,37 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocations;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.FormulaReportingState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeTransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.WrapperTransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.cpa.assumptions.storage.AssumptionStorageState;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeOperatorProfiler.Operator;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 
-final class CompositeTransferRelation implements WrapperTransferRelation {
+final class CompositeTransferRelation
+    implements WrapperTransferRelation, ThreadSafeTransferRelation {
 
   private final ImmutableList<TransferRelation> transferRelations;
   private final CFA cfa;
   private final int size;
   private final boolean predicatesPresent;
   private final boolean aggregateBasicBlocks;
+  private final CompositeOperatorProfiler profiler;
 
   CompositeTransferRelation(
-      ImmutableList<TransferRelation> pTransferRelations, CFA pCFA, boolean pAggregateBasicBlocks) {
+      ImmutableList<TransferRelation> pTransferRelations,
+      CFA pCFA,
+      boolean pAggregateBasicBlocks,
+      CompositeOperatorProfiler pProfiler) {
     transferRelations = pTransferRelations;
     cfa = pCFA;
     size = pTransferRelations.size();
     aggregateBasicBlocks = pAggregateBasicBlocks;
+    profiler = pProfiler;
 
     // prepare special case handling if both predicates and assumptions are used
     predicatesPresent =
@@ -294,9 +302,11 @@ final class CompositeTransferRelation implements WrapperTransferRelation {
       AbstractState lCurrentElement = componentElements.get(i);
       Precision lCurrentPrecision = compositePrecision.get(i);
 
+      long start = profiler.start();
       Collection<? extends AbstractState> componentSuccessors;
       componentSuccessors = lCurrentTransfer.getAbstractSuccessorsForEdge(
           lCurrentElement, lCurrentPrecision, cfaEdge);
+      profiler.stop(i, Operator.TRANSFER, cfaEdge, start);
       resultCount *= componentSuccessors.size();
 
       if (resultCount == 0) {
@@ -324,7 +334,9 @@ final class CompositeTransferRelation implements WrapperTransferRelation {
       AbstractState lCurrentElement = reachedState.get(i);
       Precision lCurrentPrecision = compositePrecision.get(i);
 
+      long start = profiler.start();
       Collection<? extends AbstractState> lResultsList = lCurrentTransfer.strengthen(lCurrentElement, reachedState, cfaEdge, lCurrentPrecision);
+      profiler.stop(i, Operator.STRENGTHEN, cfaEdge, start);
 
       resultCount *= lResultsList.size();
       if (resultCount == 0) {
@@ -358,8 +370,10 @@ final class CompositeTransferRelation implements WrapperTransferRelation {
         AbstractState predElement = strengthenedState.get(predIndex);
         Precision predPrecision = compositePrecision.get(predIndex);
         TransferRelation predTransfer = transferRelations.get(predIndex);
+        long start = profiler.start();
         Collection<? extends AbstractState> predResult =
             predTransfer.strengthen(predElement, assumptionElements, cfaEdge, predPrecision);
+        profiler.stop(predIndex, Operator.STRENGTHEN, cfaEdge, start);
         if (predResult.isEmpty()) {
           it.remove();
           resultCount--;
@@ -465,8 +479,10 @@ final class CompositeTransferRelation implements WrapperTransferRelation {
       AbstractState lCurrentElement = compositeState.get(i);
       Precision lCurrentPrecision = compositePrecision.get(i);
 
+      long start = profiler.start();
       Collection<? extends AbstractState> lResultsList =
           lCurrentTransfer.strengthen(lCurrentElement, otherElements, cfaEdge, lCurrentPrecision);
+      profiler.stop(i, Operator.STRENGTHEN, cfaEdge, start);
 
       resultCount *= lResultsList.size();
       if (resultCount == 0) {
@@ -229,6 +229,7 @@ public class ConstraintsCPA
 
   @Override
   public void close() {
+    constraintsSolver.close();
     solver.close();
   }
 }
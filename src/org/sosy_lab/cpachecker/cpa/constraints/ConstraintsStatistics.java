@@ -61,6 +61,13 @@ public class ConstraintsStatistics implements Statistics {
   public StatCounter directCacheHits = new StatCounter("Direct cache hits");
   public StatTimer subsetLookupTime = new StatTimer(StatKind.SUM, "Subset cache lookup time");
   public StatCounter subsetCacheHits = new StatCounter("Subset cache hits");
+  public StatCounter supersetCacheHits = new StatCounter("Superset cache hits");
+  public StatCounter cachedConstraintSets =
+      new StatCounter("Constraint sets added to subset cache");
+  public StatInt reusedSolverStackLevels =
+      new StatInt(StatKind.SUM, "Constraints reused from solver stack");
+  public StatInt pushedSolverStackLevels =
+      new StatInt(StatKind.SUM, "Constraints pushed onto solver stack");
 
   public StatInt constraintNumberBeforeAdj =
       new StatInt(StatKind.SUM, "Constraints before refinement in state");
@@ -109,7 +116,12 @@ public class ConstraintsStatistics implements Statistics {
         .putIfUpdatedAtLeastOnce(directCacheLookupTime)
         // Subset constraints solver cache
         .putIf(subsetLookupTime.getUpdateCount() > 0, subsetCacheHits)
+        .putIf(subsetLookupTime.getUpdateCount() > 0, supersetCacheHits)
         .putIf(subsetLookupTime.getUpdateCount() > 0, subsetLookupTime)
+        .putIf(cachedConstraintSets.getUpdateCount() > 0, cachedConstraintSets)
+        // Incremental solving
+        .putIfUpdatedAtLeastOnce(reusedSolverStackLevels)
+        .putIfUpdatedAtLeastOnce(pushedSolverStackLevels)
         .spacer() // Constraints state simplifier
         .putIf(trivialRemovalTime.getUpdateCount() > 0, removedTrivial)
         .putIf(trivialRemovalTime.getUpdateCount() > 0, trivialRemovalTime)
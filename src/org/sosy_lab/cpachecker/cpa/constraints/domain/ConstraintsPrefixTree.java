@@ -0,0 +1,154 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Prefix tree of constraint sequences with known satisfiability, used by the subset cache of
+ * {@link ConstraintsSolver}.
+ *
+ * <p>Sequences are stored along the path of their elements, so sequences that share a prefix share
+ * the nodes for it. A satisfiable extension of a queried sequence is found by following the queried
+ * sequence and taking a satisfiable result stored at or below the reached node. An unsatisfiable
+ * subset is found by only following edges labeled with queried elements into subtrees that are
+ * known to contain an unsatisfiable sequence.
+ *
+ * <p>Note that only those satisfiable supersets are found that have the queried sequence as
+ * prefix. Supersets that contain the queried elements in a different order or interleaved with
+ * other elements are not found. Unsatisfiable subsets are found regardless of the order.
+ *
+ * @param <K> the type of the constraints
+ * @param <S> the type of the results stored for satisfiable sequences
+ */
+final class ConstraintsPrefixTree<K, S> {
+
+  private static final class Node<K, S> {
+
+    private final Map<K, Node<K, S>> children = new HashMap<>(2);
+
+    /** Whether the sequence ending in this node is unsatisfiable. */
+    private boolean isUnsat = false;
+
+    /** Some satisfiable result of a sequence ending in this node or one of its descendants. */
+    private @Nullable S satInSubtree = null;
+
+    /** Whether an unsatisfiable sequence ends in this node or one of its descendants. */
+    private boolean unsatInSubtree = false;
+  }
+
+  private final Node<K, S> root = new Node<>();
+
+  /** Store the given sequence as satisfiable with the given result. */
+  void addSat(Collection<K> pSequence, S pResult) {
+    for (Node<K, S> node : insert(pSequence)) {
+      if (node.satInSubtree == null) {
+        node.satInSubtree = pResult;
+      }
+    }
+  }
+
+  /** Store the given sequence as unsatisfiable. */
+  void addUnsat(Collection<K> pSequence) {
+    List<Node<K, S>> path = insert(pSequence);
+    for (Node<K, S> node : path) {
+      node.unsatInSubtree = true;
+    }
+    path.get(path.size() - 1).isUnsat = true;
+  }
+
+  /** Inserts the given sequence and returns all nodes on its path, starting with the root. */
+  private List<Node<K, S>> insert(Collection<K> pSequence) {
+    List<Node<K, S>> path = new ArrayList<>(pSequence.size() + 1);
+    Node<K, S> current = root;
+    path.add(current);
+    for (K c : pSequence) {
+      current = current.children.computeIfAbsent(c, k -> new Node<>());
+      path.add(current);
+    }
+    return path;
+  }
+
+  /**
+   * Returns the result of a satisfiable sequence that starts with the given sequence (including the
+   * given sequence itself), or null if there is none.
+   */
+  @Nullable S getSatExtension(Collection<K> pSequence) {
+    checkArgument(!pSequence.isEmpty());
+    Node<K, S> current = root;
+    for (K c : pSequence) {
+      current = current.children.get(c);
+      if (current == null) {
+        return null;
+      }
+    }
+    return current.satInSubtree;
+  }
+
+  /**
+   * Returns whether an unsatisfiable sequence is stored that only consists of the given elements.
+   * Only nodes below which an unsatisfiable sequence is stored and that are reachable through the
+   * given elements are visited.
+   */
+  boolean containsUnsatSubset(Collection<K> pElements) {
+    if (!root.unsatInSubtree) {
+      return false;
+    }
+    Set<K> elements = ImmutableSet.copyOf(pElements);
+    Deque<Node<K, S>> waitlist = new ArrayDeque<>();
+    waitlist.push(root);
+    while (!waitlist.isEmpty()) {
+      Node<K, S> node = waitlist.pop();
+      if (node.isUnsat) {
+        return true;
+      }
+      if (node.children.size() <= elements.size()) {
+        for (Map.Entry<K, Node<K, S>> child : node.children.entrySet()) {
+          if (child.getValue().unsatInSubtree && elements.contains(child.getKey())) {
+            waitlist.push(child.getValue());
+          }
+        }
+      } else {
+        for (K c : elements) {
+          Node<K, S> child = node.children.get(c);
+          if (child != null && child.unsatInSubtree) {
+            waitlist.push(child);
+          }
+        }
+      }
+    }
+    return false;
+  }
+}
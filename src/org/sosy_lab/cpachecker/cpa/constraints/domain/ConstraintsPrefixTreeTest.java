@@ -0,0 +1,115 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Unit tests for {@link ConstraintsPrefixTree} */
+public class ConstraintsPrefixTreeTest {
+
+  private ConstraintsPrefixTree<String, String> tree;
+
+  @Before
+  public void setUp() {
+    tree = new ConstraintsPrefixTree<>();
+  }
+
+  @Test
+  public void testSatExactMatch() {
+    tree.addSat(ImmutableList.of("a", "b"), "model");
+
+    assertThat(tree.getSatExtension(ImmutableList.of("a", "b"))).isEqualTo("model");
+  }
+
+  @Test
+  public void testSatSupersetWithPrefix() {
+    tree.addSat(ImmutableList.of("a", "b", "c"), "model");
+
+    assertThat(tree.getSatExtension(ImmutableList.of("a"))).isEqualTo("model");
+    assertThat(tree.getSatExtension(ImmutableList.of("a", "b"))).isEqualTo("model");
+    assertThat(tree.getSatExtension(ImmutableList.of("a", "b", "c", "d"))).isNull();
+  }
+
+  @Test
+  public void testSatSupersetOnlyFoundAsPrefix() {
+    tree.addSat(ImmutableList.of("a", "b", "c"), "model");
+
+    // supersets in a different order or with interleaved elements are not found
+    assertThat(tree.getSatExtension(ImmutableList.of("b"))).isNull();
+    assertThat(tree.getSatExtension(ImmutableList.of("b", "a"))).isNull();
+    assertThat(tree.getSatExtension(ImmutableList.of("a", "c"))).isNull();
+  }
+
+  @Test
+  public void testSatFirstResultIsKept() {
+    tree.addSat(ImmutableList.of("a", "b"), "first");
+    tree.addSat(ImmutableList.of("a", "c"), "second");
+
+    assertThat(tree.getSatExtension(ImmutableList.of("a"))).isEqualTo("first");
+    assertThat(tree.getSatExtension(ImmutableList.of("a", "c"))).isEqualTo("second");
+  }
+
+  @Test
+  public void testUnsatSequenceIsNoSatExtension() {
+    tree.addUnsat(ImmutableList.of("a", "b"));
+
+    assertThat(tree.getSatExtension(ImmutableList.of("a"))).isNull();
+  }
+
+  @Test
+  public void testUnsatSubset() {
+    tree.addUnsat(ImmutableList.of("a", "b"));
+
+    assertThat(tree.containsUnsatSubset(ImmutableList.of("a", "b"))).isTrue();
+    assertThat(tree.containsUnsatSubset(ImmutableList.of("a", "b", "c"))).isTrue();
+    assertThat(tree.containsUnsatSubset(ImmutableList.of("c", "a", "d", "b"))).isTrue();
+  }
+
+  @Test
+  public void testUnsatSubsetRegardlessOfOrder() {
+    tree.addUnsat(ImmutableList.of("a", "b"));
+
+    assertThat(tree.containsUnsatSubset(ImmutableList.of("b", "a"))).isTrue();
+  }
+
+  @Test
+  public void testNoUnsatSubset() {
+    tree.addSat(ImmutableList.of("a"), "model");
+    tree.addUnsat(ImmutableList.of("a", "b"));
+
+    assertThat(tree.containsUnsatSubset(ImmutableList.of("a"))).isFalse();
+    assertThat(tree.containsUnsatSubset(ImmutableList.of("b"))).isFalse();
+    assertThat(tree.containsUnsatSubset(ImmutableList.of("a", "c", "d"))).isFalse();
+  }
+
+  @Test
+  public void testEmptyTree() {
+    assertThat(tree.getSatExtension(ImmutableList.of("a"))).isNull();
+    assertThat(tree.containsUnsatSubset(ImmutableList.of("a"))).isFalse();
+  }
+}
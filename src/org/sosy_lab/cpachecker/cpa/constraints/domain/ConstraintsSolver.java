@@ -23,14 +23,12 @@
  */
 package org.sosy_lab.cpachecker.cpa.constraints.domain;
 
-import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
-import com.google.common.collect.HashMultimap;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -38,6 +36,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -58,6 +57,7 @@ import org.sosy_lab.cpachecker.util.predicates.pathformula.ctoformula.CtoFormula
 import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
@@ -101,9 +101,29 @@ public class ConstraintsSolver {
       name = "useLastModel")
   private boolean useLastModel = true;
 
+  @Option(
+      secure = true,
+      description =
+          "Keep one prover environment alive between satisfiability checks and only pop and"
+              + " push the constraints that differ from the previously checked constraints."
+              + " Constraints are pushed in the order they were added to the constraints state,"
+              + " so states sharing a path prefix share the solver stack for that prefix.",
+      name = "incrementalSolving")
+  private boolean incrementalSolving = false;
+
   private ConstraintsCache cache;
   private Solver solver;
   private ProverEnvironment prover;
+
+  /**
+   * Constraint formulas currently on the stack of {@link #prover}, one per level, if {@link
+   * #incrementalSolving} is enabled. Levels above these are specific to a single check and are
+   * popped after each check.
+   */
+  private final List<BooleanFormula> pushedFormulas = new ArrayList<>();
+
+  /** Number of levels pushed onto {@link #prover} on top of {@link #pushedFormulas}. */
+  private int checkSpecificLevels = 0;
   private FormulaManagerView formulaManager;
   private BooleanFormulaManagerView booleanFormulaManager;
 
@@ -174,7 +194,7 @@ public class ConstraintsSolver {
       Boolean unsat = null; // assign null to fail fast if assignment is missed
       Set<Constraint> relevantConstraints = getRelevantConstraints(pConstraints);
 
-      Collection<BooleanFormula> constraintsAsFormulas =
+      List<BooleanFormula> constraintsAsFormulas =
           getFullFormula(relevantConstraints, pFunctionName);
       CacheResult res = cache.getCachedResult(constraintsAsFormulas);
 
@@ -186,10 +206,16 @@ public class ConstraintsSolver {
         pConstraints.setModel(res.getModelAssignment());
 
       } else {
-        prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
-        BooleanFormula definitesAndConstraints =
-            combineWithDefinites(constraintsAsFormulas, pConstraints);
-        prover.push(definitesAndConstraints);
+        if (incrementalSolving) {
+          pushIncrementally(constraintsAsFormulas);
+          prover.push(getDefAssignmentsFormula(pConstraints));
+          checkSpecificLevels++;
+        } else {
+          prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+          BooleanFormula definitesAndConstraints =
+              combineWithDefinites(constraintsAsFormulas, pConstraints);
+          prover.push(definitesAndConstraints);
+        }
 
         ImmutableList<ValueAssignment> newModelAsAssignment;
         ImmutableList<ValueAssignment> modelAsAssignment = pConstraints.getModel();
@@ -205,6 +231,7 @@ public class ConstraintsSolver {
                     .collect(booleanFormulaManager.toConjunction());
             modelFormula = createLiteralLabel(literalForModel, modelFormula);
             prover.push(modelFormula);
+            checkSpecificLevels++;
             unsat = prover.isUnsatWithAssumptions(
                 ImmutableList.of(literalForModel));
             if (!unsat) {
@@ -252,11 +279,90 @@ public class ConstraintsSolver {
       return unsat;
 
     } finally {
-      closeProver();
+      if (incrementalSolving) {
+        popCheckSpecificLevels();
+      } else {
+        closeProver();
+      }
       stats.timeForSolving.stop();
     }
   }
 
+  /**
+   * Brings the stack of the long-living prover environment into a state where it contains exactly
+   * the given formulas, one per level. Only the levels after the longest common prefix of the
+   * given formulas and the currently pushed formulas are popped and pushed again.
+   */
+  private void pushIncrementally(List<BooleanFormula> pFormulas) throws InterruptedException {
+    if (prover == null) {
+      prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+    }
+
+    int shared = pushIncrementally(prover, pushedFormulas, pFormulas);
+    stats.reusedSolverStackLevels.setNextValue(shared);
+    stats.pushedSolverStackLevels.setNextValue(pFormulas.size() - shared);
+  }
+
+  /**
+   * Pops the levels of the given prover after the longest common prefix of the currently pushed
+   * formulas and the given formulas, and pushes the remaining given formulas, one per level.
+   *
+   * @param pProver the prover whose stack contains exactly the formulas in pPushedFormulas
+   * @param pPushedFormulas the formulas on the stack of the prover, updated by this method
+   * @param pFormulas the formulas that should be on the stack afterwards
+   * @return the length of the common prefix, i.e., the number of levels that were kept
+   */
+  @VisibleForTesting
+  static int pushIncrementally(
+      BasicProverEnvironment<?> pProver,
+      List<BooleanFormula> pPushedFormulas,
+      List<BooleanFormula> pFormulas)
+      throws InterruptedException {
+    int shared = 0;
+    int maxShared = Math.min(pPushedFormulas.size(), pFormulas.size());
+    while (shared < maxShared && pPushedFormulas.get(shared).equals(pFormulas.get(shared))) {
+      shared++;
+    }
+
+    while (pPushedFormulas.size() > shared) {
+      pProver.pop();
+      pPushedFormulas.remove(pPushedFormulas.size() - 1);
+    }
+    for (BooleanFormula f : pFormulas.subList(shared, pFormulas.size())) {
+      pProver.push(f);
+      pPushedFormulas.add(f);
+    }
+    return shared;
+  }
+
+  /**
+   * Removes all levels that were pushed for a single check (definite assignments, models) from the
+   * long-living prover environment, so that only the constraint levels remain.
+   */
+  private void popCheckSpecificLevels() {
+    if (prover == null) {
+      return;
+    }
+    try {
+      while (checkSpecificLevels > 0) {
+        prover.pop();
+        checkSpecificLevels--;
+      }
+    } catch (RuntimeException e) {
+      // the prover is in an unknown state, start with a fresh one for the next check
+      closeProver();
+      throw e;
+    }
+  }
+
+  /**
+   * Releases the prover environment that is kept alive if incremental solving is enabled. Has to
+   * be called before the underlying {@link Solver} is closed.
+   */
+  public void close() {
+    closeProver();
+  }
+
   private BooleanFormula combineWithDefinites(
       Collection<BooleanFormula> pConstraintsAsFormulas,
       ConstraintsState pConstraints) {
@@ -279,6 +385,11 @@ public class ConstraintsSolver {
     return booleanFormulaManager.implication(pLiteral, pFormula);
   }
 
+  /**
+   * Returns the constraints of the given state that are relevant for its satisfiability. The
+   * returned constraints keep the order in which they were added to the state, so that subsequent
+   * checks along a path share a common prefix in the cache and on the solver stack.
+   */
   private Set<Constraint> getRelevantConstraints(ConstraintsState pConstraints) {
     Set<Constraint> relevantConstraints = new HashSet<>();
     if (performMinimalSatCheck && pConstraints.getLastAddedConstraint().isPresent()) {
@@ -307,6 +418,14 @@ public class ConstraintsSolver {
           }
         } while (!newRelevantIdentifiers.equals(relevantIdentifiers));
 
+        Set<Constraint> orderedRelevantConstraints = new LinkedHashSet<>();
+        for (Constraint c : pConstraints) {
+          if (relevantConstraints.contains(c)) {
+            orderedRelevantConstraints.add(c);
+          }
+        }
+        relevantConstraints = orderedRelevantConstraints;
+
       } finally {
         stats.timeForIndependentComputation.stop();
       }
@@ -323,6 +442,8 @@ public class ConstraintsSolver {
       prover.close();
       prover = null;
     }
+    pushedFormulas.clear();
+    checkSpecificLevels = 0;
   }
 
   private ImmutableCollection<ValueAssignment> resolveDefiniteAssignments(
@@ -363,11 +484,12 @@ public class ConstraintsSolver {
 
     prohibitAssignment = createLiteralLabel(literalForSingleAssignment, prohibitAssignment);
     prover.push(prohibitAssignment);
-    boolean isUnsat =
-        prover.isUnsatWithAssumptions(Collections.singleton(literalForSingleAssignment));
-    prover.pop();
-
-    return isUnsat;
+    try {
+      return prover.isUnsatWithAssumptions(Collections.singleton(literalForSingleAssignment));
+    } finally {
+      // the long-living prover of incremental solving has to keep its stack layout
+      prover.pop();
+    }
   }
 
   private FormulaCreator getFormulaCreator(String pFunctionName) {
@@ -375,14 +497,14 @@ public class ConstraintsSolver {
   }
 
   /**
-   * Returns the set of formulas representing all constraints of this state. If no
-   * constraints exist, this method will return an empty set.
+   * Returns the formulas representing all given constraints, in the iteration order of the given
+   * constraints. If no constraints exist, this method will return an empty list.
    *
-   * @return the set of formulas representing all constraints of this state
+   * @return the formulas representing all given constraints
    * @throws UnrecognizedCodeException see {@link FormulaCreator#createFormula(Constraint)}
    * @throws InterruptedException see {@link FormulaCreator#createFormula(Constraint)}
    */
-  private Collection<BooleanFormula> getFullFormula(
+  private List<BooleanFormula> getFullFormula(
       Collection<Constraint> pConstraints, String pFunctionName)
       throws UnrecognizedCodeException, InterruptedException {
 
@@ -454,85 +576,67 @@ public class ConstraintsSolver {
     }
   }
 
+  /**
+   * Cache that, in addition to exact matches, finds cached satisfiable supersets and
+   * unsatisfiable subsets of a queried collection of constraints.
+   *
+   * <p>Cached constraint collections are stored in a {@link ConstraintsPrefixTree} keyed by the
+   * ordered sequence of their formulas. Because constraints are always queried in the order they
+   * were added to a constraints state, collections along a path share the prefix of their sequence.
+   *
+   * <p>Note that satisfiable supersets are only found if they have the queried sequence as prefix,
+   * which is the common case for symbolic execution along a path. Unsatisfiable subsets are found
+   * regardless of the order of the constraints.
+   */
   private class SubsetConstraintsCache implements ConstraintsCache {
 
-    private MatchingConstraintsCache delegate;
+    private final MatchingConstraintsCache delegate = new MatchingConstraintsCache();
 
-    /**
-     * Multimap that maps each constraint to all sets of constraints that it occurred in
-     */
-    private Multimap<BooleanFormula, Set<BooleanFormula>> constraintContainedIn =
-        HashMultimap.create();
-
-    public SubsetConstraintsCache() {
-      delegate = new MatchingConstraintsCache();
-    }
+    private final ConstraintsPrefixTree<BooleanFormula, CacheResult> prefixTree =
+        new ConstraintsPrefixTree<>();
 
     @Override
     public CacheResult getCachedResult(Collection<BooleanFormula> pConstraints) {
       CacheResult res = delegate.getCachedResult(pConstraints);
-        if (!res.isSat() && !res.isUnsat()) {
+      if (!res.isSat() && !res.isUnsat()) {
         try {
           stats.subsetLookupTime.start();
-          res = getCachedResultOfSubset(pConstraints);
-          if (res.isSat() || res.isUnsat()) {
-            stats.subsetCacheHits.inc();
-          }
+          res = getCachedResultOfSupersetOrSubset(pConstraints);
         } finally {
           stats.subsetLookupTime.stop();
-          }
         }
+      }
       return res;
     }
 
     @Override
     public void addSat(
         Collection<BooleanFormula> pConstraints, ImmutableList<ValueAssignment> pModelAssignment) {
-      add(pConstraints);
+      stats.cachedConstraintSets.inc();
+      prefixTree.addSat(pConstraints, CacheResult.getSat(pModelAssignment));
       delegate.addSat(pConstraints, pModelAssignment);
     }
 
     @Override
     public void addUnsat(Collection<BooleanFormula> pConstraints) {
-      add(pConstraints);
+      stats.cachedConstraintSets.inc();
+      prefixTree.addUnsat(pConstraints);
       delegate.addUnsat(pConstraints);
     }
 
-    private void add(Collection<BooleanFormula> pConstraints) {
-      for (BooleanFormula c : pConstraints) {
-        constraintContainedIn.put(c, ImmutableSet.copyOf(pConstraints));
-      }
-    }
-
-    CacheResult getCachedResultOfSubset(Collection<BooleanFormula> pConstraints) {
+    private CacheResult getCachedResultOfSupersetOrSubset(Collection<BooleanFormula> pConstraints) {
       checkState(!pConstraints.isEmpty());
 
-      Set<Set<BooleanFormula>> containAllConstraints = null;
-      for (BooleanFormula c : pConstraints) {
-        Set<Set<BooleanFormula>> containC = ImmutableSet.copyOf(constraintContainedIn.get(c));
-        if (containAllConstraints == null) {
-          containAllConstraints = containC;
-        } else {
-          containAllConstraints = Sets.intersection(containAllConstraints, containC);
-        }
-
-        if (containAllConstraints.isEmpty()) {
-          return CacheResult.getUnknown();
-        }
+      CacheResult supersetResult = prefixTree.getSatExtension(pConstraints);
+      if (supersetResult != null) {
+        // a cached collection starts with the queried sequence
+        stats.supersetCacheHits.inc();
+        return supersetResult;
       }
 
-      checkNotNull(containAllConstraints);
-      int sizeOfQuery = pConstraints.size();
-      for (Set<BooleanFormula> col : containAllConstraints) {
-        CacheResult cachedResult = delegate.getCachedResult(col);
-        if (sizeOfQuery <= col.size() && cachedResult.isSat()) {
-          // currently considered collection is a superset of the queried collection
-          return cachedResult;
-
-        } else if (sizeOfQuery >= col.size() && cachedResult.isUnsat()) {
-          // currently considered collection is a subset of the queried collection
-          return cachedResult;
-        }
+      if (prefixTree.containsUnsatSubset(pConstraints)) {
+        stats.subsetCacheHits.inc();
+        return CacheResult.getUnsat();
       }
       return CacheResult.getUnknown();
     }
@@ -0,0 +1,130 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+
+/** Unit tests for the incremental solver usage of {@link ConstraintsSolver} */
+public class ConstraintsSolverTest {
+
+  private final BooleanFormula a = mock(BooleanFormula.class);
+  private final BooleanFormula b = mock(BooleanFormula.class);
+  private final BooleanFormula c = mock(BooleanFormula.class);
+  private final BooleanFormula d = mock(BooleanFormula.class);
+
+  private ProverEnvironment prover;
+  private List<BooleanFormula> pushed;
+
+  @Before
+  public void setUp() {
+    prover = mock(ProverEnvironment.class);
+    pushed = new ArrayList<>();
+  }
+
+  @Test
+  public void testPushOnEmptyStack() throws InterruptedException {
+    int shared = ConstraintsSolver.pushIncrementally(prover, pushed, ImmutableList.of(a, b));
+
+    assertThat(shared).isEqualTo(0);
+    assertThat(pushed).containsExactly(a, b).inOrder();
+    InOrder order = inOrder(prover);
+    order.verify(prover).push(a);
+    order.verify(prover).push(b);
+    verifyNoMoreInteractions(prover);
+  }
+
+  @Test
+  public void testPushExtension() throws InterruptedException {
+    ConstraintsSolver.pushIncrementally(prover, pushed, ImmutableList.of(a, b));
+    prover = mock(ProverEnvironment.class);
+
+    int shared = ConstraintsSolver.pushIncrementally(prover, pushed, ImmutableList.of(a, b, c));
+
+    assertThat(shared).isEqualTo(2);
+    assertThat(pushed).containsExactly(a, b, c).inOrder();
+    InOrder order = inOrder(prover);
+    order.verify(prover).push(c);
+    verifyNoMoreInteractions(prover);
+  }
+
+  @Test
+  public void testPopAfterSharedPrefix() throws InterruptedException {
+    ConstraintsSolver.pushIncrementally(prover, pushed, ImmutableList.of(a, b, c));
+    prover = mock(ProverEnvironment.class);
+
+    int shared = ConstraintsSolver.pushIncrementally(prover, pushed, ImmutableList.of(a, d));
+
+    assertThat(shared).isEqualTo(1);
+    assertThat(pushed).containsExactly(a, d).inOrder();
+    InOrder order = inOrder(prover);
+    order.verify(prover).pop();
+    order.verify(prover).pop();
+    order.verify(prover).push(d);
+    verifyNoMoreInteractions(prover);
+  }
+
+  @Test
+  public void testPopOnly() throws InterruptedException {
+    ConstraintsSolver.pushIncrementally(prover, pushed, ImmutableList.of(a, b, c));
+    prover = mock(ProverEnvironment.class);
+
+    int shared = ConstraintsSolver.pushIncrementally(prover, pushed, ImmutableList.of(a));
+
+    assertThat(shared).isEqualTo(1);
+    assertThat(pushed).containsExactly(a);
+    InOrder order = inOrder(prover);
+    order.verify(prover).pop();
+    order.verify(prover).pop();
+    verifyNoMoreInteractions(prover);
+  }
+
+  @Test
+  public void testNoSharedPrefix() throws InterruptedException {
+    ConstraintsSolver.pushIncrementally(prover, pushed, ImmutableList.of(a, b));
+    prover = mock(ProverEnvironment.class);
+
+    int shared = ConstraintsSolver.pushIncrementally(prover, pushed, ImmutableList.of(b, a));
+
+    assertThat(shared).isEqualTo(0);
+    assertThat(pushed).containsExactly(b, a).inOrder();
+    InOrder order = inOrder(prover);
+    order.verify(prover).pop();
+    order.verify(prover).pop();
+    order.verify(prover).push(b);
+    order.verify(prover).push(a);
+    verifyNoMoreInteractions(prover);
+  }
+}
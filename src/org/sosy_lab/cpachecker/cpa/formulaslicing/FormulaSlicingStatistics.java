@@ -27,6 +27,7 @@ import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multiset;
 import java.io.PrintStream;
 import java.util.concurrent.TimeUnit;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
@@ -34,6 +35,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.CachingPathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
 
 /**
  * Statistics for formula slicing.
@@ -78,7 +80,7 @@ class FormulaSlicingStatistics implements Statistics {
 
     printTimer(out, solver.solverTime,
         "checking reachability",
-        solver.cachedSatChecks);
+        solver.cachedSatChecks.getValue());
     printTimer(out, reachabilityTargetTimer,
         "checking reachability for target states", "?");
     printTimer(out, reachabilityAbstractionTimer,
@@ -93,13 +95,25 @@ class FormulaSlicingStatistics implements Statistics {
 
   private void printTimer(PrintStream out, Timer t, String name,
                           Object cacheHits) {
+    printTimes(out, name, t.getSumTime(), t.getMaxTime(), t.getAvgTime(),
+        t.getNumberOfIntervals(), cacheHits);
+  }
+
+  private void printTimer(PrintStream out, ThreadSafeTimerContainer t, String name,
+                          Object cacheHits) {
+    printTimes(out, name, t.getSumTime(), t.getMaxTime(), t.getAvgTime(),
+        t.getNumberOfIntervals(), cacheHits);
+  }
+
+  private void printTimes(PrintStream out, String name, TimeSpan sum, TimeSpan max,
+                          TimeSpan avg, int calls, Object cacheHits) {
     out.printf("Time spent in %s: %s (Max: %s), (Avg: %s), (#calls = %s), "
         + "(#cached = %s) %n",
         name,
-        t.getSumTime().formatAs(TimeUnit.SECONDS),
-        t.getMaxTime().formatAs(TimeUnit.SECONDS),
-        t.getAvgTime().formatAs(TimeUnit.SECONDS),
-        t.getNumberOfIntervals(),
+        sum.formatAs(TimeUnit.SECONDS),
+        max.formatAs(TimeUnit.SECONDS),
+        avg.formatAs(TimeUnit.SECONDS),
+        calls,
         cacheHits);
   }
 }
@@ -45,12 +45,23 @@ public class BitVectorInfo implements TypeInfo {
 
   private final BigInteger maxValue;
 
+  /** The minimum value, or {@link Long#MIN_VALUE} if it does not fit into a long. */
+  private final long minLongValue;
+
+  /** The maximum value, or {@link Long#MAX_VALUE} if it does not fit into a long. */
+  private final long maxLongValue;
+
+  private final BitVectorInterval range;
+
   private BitVectorInfo(int pSize, boolean pSigned) {
     Preconditions.checkArgument(pSize >= 0, "bit vector size must not be negative");
     size = pSize;
     signed = pSigned;
     minValue = !signed ? BigInteger.ZERO : BigInteger.valueOf(2).pow(size - 1).negate();
     maxValue = !signed ? BigInteger.valueOf(2).pow(size).subtract(BigInteger.ONE) : BigInteger.valueOf(2).pow(size - 1).subtract(BigInteger.ONE);
+    minLongValue = minValue.bitLength() < Long.SIZE ? minValue.longValue() : Long.MIN_VALUE;
+    maxLongValue = maxValue.bitLength() < Long.SIZE ? maxValue.longValue() : Long.MAX_VALUE;
+    range = BitVectorInterval.of(this, minValue, maxValue);
   }
 
   public int getSize() {
@@ -72,8 +83,24 @@ public class BitVectorInfo implements TypeInfo {
     return maxValue;
   }
 
+  /**
+   * Gets the minimum value clamped to the range of long, i.e., a long value
+   * is at least the minimum value iff it is at least the returned value.
+   */
+  long getMinLongValue() {
+    return minLongValue;
+  }
+
+  /**
+   * Gets the maximum value clamped to the range of long, i.e., a long value
+   * is at most the maximum value iff it is at most the returned value.
+   */
+  long getMaxLongValue() {
+    return maxLongValue;
+  }
+
   public BitVectorInterval getRange() {
-    return BitVectorInterval.of(this, minValue, maxValue);
+    return range;
   }
 
   @Override
@@ -32,6 +32,7 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * This class represents simple convex ranges of BigIntegers.
@@ -39,19 +40,37 @@ import java.util.Objects;
  * concrete value or infinity. In case of a concrete value, the bound is assumed
  * to be included in the range.
  *
+ * If both bounds fit into a long, they are stored as primitive values, which
+ * avoids creating big integers for the common case of bit vectors of size 64
+ * or less. The operations of this class and the bit-vector operators use
+ * the primitive bounds directly whenever possible
+ * (cf. {@link #hasLongBounds()}).
+ *
  * All instances of this class are immutable.
  */
 public class BitVectorInterval implements BitVectorType {
 
   /**
-   * The lower bound of the interval.
+   * The lower bound of the interval, if {@link #bigLowerBound} is <code>null</code>.
+   */
+  private final long lowerBound;
+
+  /**
+   * The upper bound of the interval, if {@link #bigUpperBound} is <code>null</code>.
+   */
+  private final long upperBound;
+
+  /**
+   * The lower bound of the interval if one of the bounds does not fit into a
+   * long, <code>null</code> otherwise.
    */
-  private final BigInteger lowerBound;
+  private final @Nullable BigInteger bigLowerBound;
 
   /**
-   * The upper bound of the interval.
+   * The upper bound of the interval if one of the bounds does not fit into a
+   * long, <code>null</code> otherwise.
    */
-  private final BigInteger upperBound;
+  private final @Nullable BigInteger bigUpperBound;
 
   /**
    * Size and signedness.
@@ -75,9 +94,43 @@ public class BitVectorInterval implements BitVectorType {
     checkArgument(pLowerBound.compareTo(pInfo.getMinValue()) >= 0, "lower bound must fit the bit vector");
     checkArgument(pUpperBound.compareTo(pInfo.getMaxValue()) <= 0, "upper bound must fit the bit vector");
 
+    info = pInfo;
+    if (fitsInLong(pLowerBound) && fitsInLong(pUpperBound)) {
+      lowerBound = pLowerBound.longValue();
+      upperBound = pUpperBound.longValue();
+      bigLowerBound = null;
+      bigUpperBound = null;
+    } else {
+      lowerBound = 0;
+      upperBound = 0;
+      bigLowerBound = pLowerBound;
+      bigUpperBound = pUpperBound;
+    }
+  }
+
+  /**
+   * Creates a new interval from the given lower bound to the given upper bound.
+   *
+   * The lower bound must be a value less than or equal to the upper bound.
+   *
+   * @param pLowerBound the lower bound of the interval.
+   * @param pUpperBound the upper bound of the interval.
+   */
+  private BitVectorInterval(BitVectorInfo pInfo, long pLowerBound, long pUpperBound) {
+    checkNotNull(pInfo);
+    checkArgument(pLowerBound <= pUpperBound, "lower endpoint greater than upper end point");
+    checkArgument(pLowerBound >= pInfo.getMinLongValue(), "lower bound must fit the bit vector");
+    checkArgument(pUpperBound <= pInfo.getMaxLongValue(), "upper bound must fit the bit vector");
+
     info = pInfo;
     lowerBound = pLowerBound;
     upperBound = pUpperBound;
+    bigLowerBound = null;
+    bigUpperBound = null;
+  }
+
+  private static boolean fitsInLong(BigInteger pValue) {
+    return pValue.bitLength() < Long.SIZE;
   }
 
   /**
@@ -94,16 +147,115 @@ public class BitVectorInterval implements BitVectorType {
    * Return lower bound (may only be called if {@link #hasLowerBound()} returns true.
    */
   public BigInteger getLowerBound() {
-    return lowerBound;
+    return bigLowerBound == null ? BigInteger.valueOf(lowerBound) : bigLowerBound;
   }
 
   /**
    * Return upper bound (may only be called if {@link #hasUpperBound()} returns true.
    */
   public BigInteger getUpperBound() {
+    return bigUpperBound == null ? BigInteger.valueOf(upperBound) : bigUpperBound;
+  }
+
+  /**
+   * Checks if both bounds of this interval fit into a long, so that
+   * {@link #getLowerBoundAsLong()} and {@link #getUpperBoundAsLong()} may be
+   * used instead of the methods that return big integers.
+   *
+   * @return <code>true</code> if both bounds fit into a long,
+   * <code>false</code> otherwise.
+   */
+  public boolean hasLongBounds() {
+    return bigLowerBound == null;
+  }
+
+  /**
+   * Return lower bound (may only be called if {@link #hasLongBounds()} returns true.
+   */
+  public long getLowerBoundAsLong() {
+    checkState(hasLongBounds(), "lower bound does not fit into a long");
+    return lowerBound;
+  }
+
+  /**
+   * Return upper bound (may only be called if {@link #hasLongBounds()} returns true.
+   */
+  public long getUpperBoundAsLong() {
+    checkState(hasLongBounds(), "upper bound does not fit into a long");
     return upperBound;
   }
 
+  /**
+   * Compares the lower bounds of the two given intervals.
+   */
+  static int compareLowerBounds(BitVectorInterval pA, BitVectorInterval pB) {
+    if (pA.hasLongBounds() && pB.hasLongBounds()) {
+      return Long.compare(pA.lowerBound, pB.lowerBound);
+    }
+    return pA.getLowerBound().compareTo(pB.getLowerBound());
+  }
+
+  /**
+   * Compares the upper bounds of the two given intervals.
+   */
+  static int compareUpperBounds(BitVectorInterval pA, BitVectorInterval pB) {
+    if (pA.hasLongBounds() && pB.hasLongBounds()) {
+      return Long.compare(pA.upperBound, pB.upperBound);
+    }
+    return pA.getUpperBound().compareTo(pB.getUpperBound());
+  }
+
+  /**
+   * Compares the lower bound of the first interval to the upper bound of the
+   * second interval.
+   */
+  static int compareLowerToUpperBound(BitVectorInterval pA, BitVectorInterval pB) {
+    if (pA.hasLongBounds() && pB.hasLongBounds()) {
+      return Long.compare(pA.lowerBound, pB.upperBound);
+    }
+    return pA.getLowerBound().compareTo(pB.getUpperBound());
+  }
+
+  /**
+   * Compares the lower bound of this interval to the given value.
+   */
+  int compareLowerBoundTo(BigInteger pValue) {
+    return bigLowerBound == null ? compare(lowerBound, pValue) : bigLowerBound.compareTo(pValue);
+  }
+
+  /**
+   * Compares the upper bound of this interval to the given value.
+   */
+  int compareUpperBoundTo(BigInteger pValue) {
+    return bigUpperBound == null ? compare(upperBound, pValue) : bigUpperBound.compareTo(pValue);
+  }
+
+  /**
+   * Compares the lower bound of this interval to the given value.
+   */
+  int compareLowerBoundTo(long pValue) {
+    return bigLowerBound == null
+        ? Long.compare(lowerBound, pValue)
+        : -compare(pValue, bigLowerBound);
+  }
+
+  /**
+   * Compares the upper bound of this interval to the given value.
+   */
+  int compareUpperBoundTo(long pValue) {
+    return bigUpperBound == null
+        ? Long.compare(upperBound, pValue)
+        : -compare(pValue, bigUpperBound);
+  }
+
+  private static int compare(long pFirst, BigInteger pSecond) {
+    if (fitsInLong(pSecond)) {
+      return Long.compare(pFirst, pSecond.longValue());
+    }
+    // pSecond is beyond the range of long
+    return -pSecond.signum();
+  }
+
   /**
    * Checks if the interval includes every value.
    * @return <code>true</code> if the interval has neither a lower nor an upper bound, <code>false</code> otherwise.
@@ -138,24 +290,35 @@ public class BitVectorInterval implements BitVectorType {
     // The lower bound of this interval is a candidate for the new lower bound
     // The lower bound of the other interval is a candidate as well
     // The new lower bound is the maximum of both lower bounds.
-    BigInteger newLowerBound = this.lowerBound.max(pOther.getLowerBound());
-
     // The upper bound of this interval is a candidate for the new lower bound
     // The upper bound of the other interval is a candidate as well
     // The new upper bound is the minimum of both upper bounds.
-    BigInteger newUpperBound = this.upperBound.min(pOther.getUpperBound());
+    if (hasLongBounds() && pOther.hasLongBounds()) {
+      return new BitVectorInterval(
+          info,
+          Math.max(lowerBound, pOther.lowerBound),
+          Math.min(upperBound, pOther.upperBound));
+    }
+    BigInteger newLowerBound = getLowerBound().max(pOther.getLowerBound());
+    BigInteger newUpperBound = getUpperBound().min(pOther.getUpperBound());
 
     return new BitVectorInterval(info, newLowerBound, newUpperBound);
   }
 
   public BitVectorInterval getNegativePart() {
     Preconditions.checkArgument(containsNegative(), "This interval has no negative part.");
-    return BitVectorInterval.of(info, lowerBound, BigInteger.valueOf(-1).min(upperBound));
+    if (hasLongBounds()) {
+      return new BitVectorInterval(info, lowerBound, Math.min(-1, upperBound));
+    }
+    return BitVectorInterval.of(info, getLowerBound(), BigInteger.valueOf(-1).min(getUpperBound()));
   }
 
   public BitVectorInterval getPositivePart() {
     Preconditions.checkArgument(containsPositive(), "This interval has no positive part.");
-    return BitVectorInterval.of(info, BigInteger.ONE.max(lowerBound), upperBound);
+    if (hasLongBounds()) {
+      return new BitVectorInterval(info, Math.max(1, lowerBound), upperBound);
+    }
+    return BitVectorInterval.of(info, BigInteger.ONE.max(getLowerBound()), getUpperBound());
   }
 
   /**
@@ -180,7 +343,7 @@ public class BitVectorInterval implements BitVectorType {
    * positive value, <code>false</code> otherwise.
    */
   public boolean containsPositive() {
-    return upperBound.signum() == 1;
+    return upperBoundSignum() == 1;
   }
 
   /**
@@ -189,8 +352,8 @@ public class BitVectorInterval implements BitVectorType {
    * <code>false</code> otherwise.
    */
   public boolean containsZero() {
-    return upperBound.signum() >= 0
-        && lowerBound.signum() <= 0;
+    return upperBoundSignum() >= 0
+        && lowerBoundSignum() <= 0;
   }
 
   /**
@@ -199,8 +362,8 @@ public class BitVectorInterval implements BitVectorType {
    * <code>false</code> otherwise.
    */
   public boolean contains(BigInteger pValue) {
-    return upperBound.compareTo(pValue) >= 0
-        && lowerBound.compareTo(pValue) <= 0;
+    return compareUpperBoundTo(pValue) >= 0
+        && compareLowerBoundTo(pValue) <= 0;
   }
 
   /**
@@ -209,7 +372,15 @@ public class BitVectorInterval implements BitVectorType {
    * negative value, <code>false</code> otherwise.
    */
   public boolean containsNegative() {
-    return lowerBound.signum() == -1;
+    return lowerBoundSignum() == -1;
+  }
+
+  private int lowerBoundSignum() {
+    return bigLowerBound == null ? Long.signum(lowerBound) : bigLowerBound.signum();
+  }
+
+  private int upperBoundSignum() {
+    return bigUpperBound == null ? Long.signum(upperBound) : bigUpperBound.signum();
   }
 
   /**
@@ -219,7 +390,7 @@ public class BitVectorInterval implements BitVectorType {
    * @return The upper bound minus the lower bound plus one.
    */
   public BigInteger size() {
-    return upperBound.subtract(lowerBound).add(BigInteger.ONE);
+    return getUpperBound().subtract(getLowerBound()).add(BigInteger.ONE);
   }
 
   /**
@@ -231,7 +402,7 @@ public class BitVectorInterval implements BitVectorType {
    * single value, <code>false</code> otherwise.
    */
   public boolean isSingleton() {
-    return lowerBound.equals(upperBound);
+    return bigLowerBound == null ? lowerBound == upperBound : bigLowerBound.equals(bigUpperBound);
   }
 
   /**
@@ -245,8 +416,14 @@ public class BitVectorInterval implements BitVectorType {
    * @return the mathematical negation of this interval.
    */
   public BitVectorInterval negate(boolean pAllowSignedWrapAround, OverflowEventHandler pOverflowEventHandler) {
-    BigInteger newLowerBound = upperBound.negate();
-    BigInteger newUpperBound = lowerBound.negate();
+    if (hasLongBounds()
+        && lowerBound != Long.MIN_VALUE
+        && -upperBound >= info.getMinLongValue()
+        && -lowerBound <= info.getMaxLongValue()) {
+      return new BitVectorInterval(info, -upperBound, -lowerBound);
+    }
+    BigInteger newLowerBound = getUpperBound().negate();
+    BigInteger newUpperBound = getLowerBound().negate();
 
     boolean lbExceedsBelow = newLowerBound.compareTo(info.getMinValue()) < 0;
     boolean lbExceedsAbove = !lbExceedsBelow && newLowerBound.compareTo(info.getMaxValue()) > 0;
@@ -378,6 +555,23 @@ public class BitVectorInterval implements BitVectorType {
     return BitVectorInterval.of(pInfo, lowerBound, upperBound);
   }
 
+  public static BitVectorInterval cast(BitVectorInfo pInfo,
+      long pLowerBound,
+      long pUpperBound,
+      boolean pAllowSignedWrapAround,
+      OverflowEventHandler pOverflowEventHandler) {
+    // If the value fits in the range, there is no need for big integers
+    if (pLowerBound >= pInfo.getMinLongValue() && pUpperBound <= pInfo.getMaxLongValue()) {
+      return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
+    }
+    return cast(
+        pInfo,
+        BigInteger.valueOf(pLowerBound),
+        BigInteger.valueOf(pUpperBound),
+        pAllowSignedWrapAround,
+        pOverflowEventHandler);
+  }
+
   /**
    * Returns an interval from this interval's lower bound to the maximum value
    * allowed by the bit vector size.
@@ -386,10 +580,13 @@ public class BitVectorInterval implements BitVectorType {
    * allowed by the bit vector size.
    */
   public BitVectorInterval extendToMaxValue() {
-    if (upperBound.equals(info.getMaxValue())) {
+    if (compareUpperBoundTo(info.getMaxValue()) == 0) {
       return this;
     }
-    return new BitVectorInterval(info, lowerBound, info.getMaxValue());
+    if (hasLongBounds() && fitsInLong(info.getMaxValue())) {
+      return new BitVectorInterval(info, lowerBound, info.getMaxLongValue());
+    }
+    return new BitVectorInterval(info, getLowerBound(), info.getMaxValue());
   }
 
   /**
@@ -400,10 +597,13 @@ public class BitVectorInterval implements BitVectorType {
    * allowed by the bit vector size.
    */
   public BitVectorInterval extendToMinValue() {
-    if (lowerBound.equals(info.getMinValue())) {
+    if (compareLowerBoundTo(info.getMinValue()) == 0) {
       return this;
     }
-    return new BitVectorInterval(info, info.getMinValue(), upperBound);
+    if (hasLongBounds() && fitsInLong(info.getMinValue())) {
+      return new BitVectorInterval(info, info.getMinLongValue(), upperBound);
+    }
+    return new BitVectorInterval(info, info.getMinValue(), getUpperBound());
   }
 
   @Override
@@ -414,19 +614,28 @@ public class BitVectorInterval implements BitVectorType {
       return false;
     }
 
+    // The representation of the bounds is unique, see constructor
     BitVectorInterval other = (BitVectorInterval) pObj;
-    return Objects.equals(this.lowerBound, other.lowerBound)
-        && Objects.equals(this.upperBound, other.upperBound);
+    return this.lowerBound == other.lowerBound
+        && this.upperBound == other.upperBound
+        && Objects.equals(this.bigLowerBound, other.bigLowerBound)
+        && Objects.equals(this.bigUpperBound, other.bigUpperBound);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(lowerBound, upperBound);
+    if (hasLongBounds()) {
+      return 31 * Long.hashCode(lowerBound) + Long.hashCode(upperBound);
+    }
+    return Objects.hash(bigLowerBound, bigUpperBound);
   }
 
   @Override
   public String toString() {
-    return "[" + lowerBound + ", " + upperBound + "]";
+    if (hasLongBounds()) {
+      return "[" + lowerBound + ", " + upperBound + "]";
+    }
+    return "[" + bigLowerBound + ", " + bigUpperBound + "]";
   }
 
   /**
@@ -443,8 +652,8 @@ public class BitVectorInterval implements BitVectorType {
       return false;
     }
 
-    return this.lowerBound.compareTo(pOther.lowerBound) <= 0
-        && this.upperBound.compareTo(pOther.upperBound) >= 0;
+    return compareLowerBounds(this, pOther) <= 0
+        && compareUpperBounds(this, pOther) >= 0;
   }
 
   /**
@@ -460,8 +669,13 @@ public class BitVectorInterval implements BitVectorType {
   public boolean touches(BitVectorInterval pOther) {
     if (pOther == null) { return false; }
     if (intersectsWith(pOther)) { return true; }
-    return pOther.upperBound.add(BigInteger.ONE).equals(this.lowerBound)
-        || this.upperBound.add(BigInteger.ONE).equals(pOther.lowerBound);
+    if (hasLongBounds() && pOther.hasLongBounds()) {
+      // the comparisons guard the subtractions against overflows
+      return (pOther.upperBound < lowerBound && pOther.upperBound == lowerBound - 1)
+          || (upperBound < pOther.lowerBound && upperBound == pOther.lowerBound - 1);
+    }
+    return pOther.getUpperBound().add(BigInteger.ONE).equals(getLowerBound())
+        || getUpperBound().add(BigInteger.ONE).equals(pOther.getLowerBound());
   }
 
   /**
@@ -475,8 +689,8 @@ public class BitVectorInterval implements BitVectorType {
 
     // this is [a, b]; other is [c, d]
     // result is true if a <= d and b >= c
-    boolean aLessThanOrEqB = this.lowerBound.compareTo(other.upperBound) <= 0;
-    boolean bGreaterThanOrEqC = this.upperBound.compareTo(other.lowerBound) >= 0;
+    boolean aLessThanOrEqB = compareLowerToUpperBound(this, other) <= 0;
+    boolean bGreaterThanOrEqC = compareLowerToUpperBound(other, this) <= 0;
     return aLessThanOrEqB && bGreaterThanOrEqC;
   }
 
@@ -544,6 +758,10 @@ public class BitVectorInterval implements BitVectorType {
     return new BitVectorInterval(pInfo, pI, pI);
   }
 
+  public static BitVectorInterval singleton(BitVectorInfo pInfo, long pI) {
+    return new BitVectorInterval(pInfo, pI, pI);
+  }
+
   public static BitVectorInterval greaterOrEqual(BitVectorInfo pInfo, BigInteger pI) {
     return singleton(pInfo, pI).extendToMaxValue();
   }
@@ -556,31 +774,23 @@ public class BitVectorInterval implements BitVectorType {
     return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
   }
 
+  public static BitVectorInterval of(BitVectorInfo pInfo, long pLowerBound, long pUpperBound) {
+    return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
+  }
+
   /**
    * Create the smallest interval that contains two given intervals;
    */
   public static BitVectorInterval span(BitVectorInterval a, BitVectorInterval b) {
     a.checkBitVectorCompatibilityWith(b);
-    BigInteger lower;
-    if (a.lowerBound == null || b.lowerBound == null) {
-      lower = null;
-    } else {
-      lower = a.lowerBound.min(b.lowerBound);
-    }
-
-    BigInteger upper;
-    if (a.upperBound == null || b.upperBound == null) {
-      upper = null;
-    } else {
-      upper = a.upperBound.max(b.upperBound);
-    }
-
-    if (Objects.equals(lower, a.lowerBound) && Objects.equals(upper, a.upperBound)) {
-      return a;
-    } else if (Objects.equals(lower, b.lowerBound) && Objects.equals(upper, b.upperBound)) {
-      return b;
+    BitVectorInterval lower = compareLowerBounds(a, b) <= 0 ? a : b;
+    BitVectorInterval upper = compareUpperBounds(a, b) >= 0 ? a : b;
+    if (lower == upper) {
+      return lower;
+    } else if (lower.hasLongBounds() && upper.hasLongBounds()) {
+      return new BitVectorInterval(a.info, lower.lowerBound, upper.upperBound);
     } else {
-      return new BitVectorInterval(a.info, lower, upper);
+      return new BitVectorInterval(a.info, lower.getLowerBound(), upper.getUpperBound());
     }
   }
 }
@@ -199,9 +199,9 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     int start = 0;
     BitVectorInterval lastInterval = null;
     if (pOther.hasLowerBound() && hasUpperBound()) {
-      BigInteger pOtherLB = pOther.getLowerBound();
       BitVectorInterval currentLocal = this.intervals[start];
-      while (currentLocal != null && pOtherLB.compareTo(currentLocal.getUpperBound()) > 0) {
+      while (currentLocal != null
+          && BitVectorInterval.compareLowerToUpperBound(pOther, currentLocal) > 0) {
         resultIntervals.add(currentLocal);
         ++start;
         lastInterval = currentLocal;
@@ -234,7 +234,8 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
           currentInserted = true;
         } else {
           if (!pOther.hasLowerBound()
-              || (interval.hasLowerBound() && less(pOther.getLowerBound(), interval.getLowerBound()))) {
+              || (interval.hasLowerBound()
+                  && BitVectorInterval.compareLowerBounds(pOther, interval) < 0)) {
             resultIntervals.add(pOther);
             inserted = true;
           }
@@ -295,14 +296,20 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     CompoundBitVectorInterval result = bottom(info);
     final int lbIndex;
     if (pOther.hasLowerBound()) {
-      int intervalIndex = intervalIndexOf(pOther.getLowerBound());
+      int intervalIndex =
+          pOther.hasLongBounds()
+              ? intervalIndexOf(pOther.getLowerBoundAsLong())
+              : intervalIndexOf(pOther.getLowerBound());
       lbIndex = intervalIndex >= 0 ? intervalIndex : (-intervalIndex - 1);
     } else {
       lbIndex = 0;
     }
     final int ubIndex;
     if (pOther.hasUpperBound()) {
-      int intervalIndex = intervalIndexOf(pOther.getUpperBound());
+      int intervalIndex =
+          pOther.hasLongBounds()
+              ? intervalIndexOf(pOther.getUpperBoundAsLong())
+              : intervalIndexOf(pOther.getUpperBound());
       ubIndex = intervalIndex >= 0 ? intervalIndex : (-intervalIndex - 1);
     } else {
       ubIndex = this.intervals.length - 1;
@@ -379,8 +386,6 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     }
     boolean hasLowerBound = pInterval.hasLowerBound();
     boolean hasUpperBound = pInterval.hasUpperBound();
-    BigInteger lb = hasLowerBound ? pInterval.getLowerBound() : null;
-    BigInteger ub = hasUpperBound ? pInterval.getUpperBound() : null;
     int leftInclusive = 0;
     int rightExclusive = this.intervals.length;
     while (leftInclusive < rightExclusive) {
@@ -388,10 +393,12 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
       BitVectorInterval intervalAtIndex = this.intervals[index];
       boolean lbIndexLeqLb =
           !intervalAtIndex.hasLowerBound()
-              || (hasLowerBound && intervalAtIndex.getLowerBound().compareTo(lb) <= 0);
+              || (hasLowerBound
+                  && BitVectorInterval.compareLowerBounds(intervalAtIndex, pInterval) <= 0);
       boolean ubIndexGeqUb =
           !intervalAtIndex.hasUpperBound()
-              || (hasUpperBound && intervalAtIndex.getUpperBound().compareTo(ub) >= 0);
+              || (hasUpperBound
+                  && BitVectorInterval.compareUpperBounds(intervalAtIndex, pInterval) >= 0);
       if (lbIndexLeqLb) { // Interval at index starts before interval
         if (ubIndexGeqUb) { // Interval at index ends after interval
           return true;
@@ -416,8 +423,40 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     int index = rightExclusive / 2;
     while (leftInclusive < rightExclusive) {
       BitVectorInterval intervalAtIndex = this.intervals[index];
-      boolean lbIndexLeqValue = !intervalAtIndex.hasLowerBound() || intervalAtIndex.getLowerBound().compareTo(value) <= 0;
-      boolean ubIndexGeqValue = !intervalAtIndex.hasUpperBound() || intervalAtIndex.getUpperBound().compareTo(value) >= 0;
+      boolean lbIndexLeqValue = !intervalAtIndex.hasLowerBound() || intervalAtIndex.compareLowerBoundTo(value) <= 0;
+      boolean ubIndexGeqValue = !intervalAtIndex.hasUpperBound() || intervalAtIndex.compareUpperBoundTo(value) >= 0;
+      if (lbIndexLeqValue) { // Interval at index starts before the value
+        if (ubIndexGeqValue) { // Interval at index ends after the value
+          return index;
+        }
+        // Interval at index ends before the value
+        leftInclusive = index + 1;
+      } else { // Interval at index starts after the value
+        rightExclusive = index;
+      }
+      index = IntMath.mean(leftInclusive, rightExclusive);
+    }
+    return index == 0 ? -1 : -index;
+  }
+
+  /**
+   * Same as {@link #intervalIndexOf(BigInteger)}, but avoids creating a big
+   * integer for the given value.
+   */
+  private int intervalIndexOf(long value) {
+    if (isBottom()) {
+      return -1;
+    }
+    if (containsAllPossibleValues()) {
+      return 0;
+    }
+    int leftInclusive = 0;
+    int rightExclusive = this.intervals.length;
+    int index = rightExclusive / 2;
+    while (leftInclusive < rightExclusive) {
+      BitVectorInterval intervalAtIndex = this.intervals[index];
+      boolean lbIndexLeqValue = !intervalAtIndex.hasLowerBound() || intervalAtIndex.compareLowerBoundTo(value) <= 0;
+      boolean ubIndexGeqValue = !intervalAtIndex.hasUpperBound() || intervalAtIndex.compareUpperBoundTo(value) >= 0;
       if (lbIndexLeqValue) { // Interval at index starts before the value
         if (ubIndexGeqValue) { // Interval at index ends after the value
           return index;
@@ -459,8 +498,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
    */
   public boolean contains(long pValue) {
     if (isBottom()) { return false; }
-    BigInteger value = BigInteger.valueOf(pValue);
-    return intervalIndexOf(value) >= 0;
+    return intervalIndexOf(pValue) >= 0;
   }
 
   /**
@@ -1768,60 +1806,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
   private static BitVectorInterval union(BitVectorInterval pA, BitVectorInterval pB) {
     Preconditions.checkArgument(pA.getTypeInfo().equals(pB.getTypeInfo()));
     Preconditions.checkArgument(pA.touches(pB), "Cannot unite intervals that do not touch.");
-    return BitVectorInterval.of(pA.getTypeInfo(), lowestBound(pA, pB), highestBound(pA, pB));
-  }
-
-  /**
-   * Returns the lowest bound of the two given intervals.
-   *
-   * @param pA one if the intervals to get the lowest lower bound from.
-   * @param pB one if the intervals to get the lowest lower bound from.
-   *
-   * @return the lowest bound of the two given intervals.
-   */
-  private static BigInteger lowestBound(BitVectorInterval pA, BitVectorInterval pB) {
-    BigInteger aLowerBound = pA.getLowerBound();
-    BigInteger bLowerBound = pB.getLowerBound();
-    return lessOrEqual(aLowerBound, bLowerBound) ? aLowerBound : bLowerBound;
-  }
-
-  /**
-   * Returns the highest bound of the two given intervals.
-   *
-   * @param pA one if the intervals to get the highest upper bound from.
-   * @param pB one if the intervals to get the highest upper bound from.
-   *
-   * @return the highest bound of the two given intervals.
-   */
-  private static BigInteger highestBound(BitVectorInterval pA, BitVectorInterval pB) {
-    BigInteger aUpperBound = pA.getUpperBound();
-    BigInteger bUpperBound = pB.getUpperBound();
-    return lessOrEqual(bUpperBound, aUpperBound) ? aUpperBound : bUpperBound;
-  }
-
-  /**
-   * Checks if the first given big integer is less than the second given big integer,
-   * none of which may be <code>null</code>.
-   *
-   * @param pFirst the value being compared to the reference value.
-   * @param pSecond the reference value.
-   *
-   * @return <code>true</code> if <code>pFirst</code> is less than <code>pSecond</code>, <code>false</code> otherwise.
-   */
-  private static boolean less(BigInteger pFirst, BigInteger pSecond) {
-    return pFirst.compareTo(pSecond) < 0;
-  }
-
-  /**
-   * Checks if the first given big integer is less than or equal to the second given big integer, none of which may be <code>null</code>.
-   *
-   * @param pFirst the value being compared to the reference value.
-   * @param pSecond the reference value.
-   *
-   * @return <code>true</code> if <code>pFirst</code> is less than or equal to <code>pSecond</code>, <code>false</code> otherwise.
-   */
-  private static boolean lessOrEqual(BigInteger pFirst, BigInteger pSecond) {
-    return pFirst.compareTo(pSecond) <= 0;
+    return BitVectorInterval.span(pA, pB);
   }
 
   /**
@@ -1858,7 +1843,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
    * @return a compound state representing the given long value.
    */
   public static CompoundBitVectorInterval singleton(BitVectorInfo pInfo, long pValue) {
-    return singleton(pInfo, BigInteger.valueOf(pValue));
+    return CompoundBitVectorInterval.of(BitVectorInterval.singleton(pInfo, pValue));
   }
 
   /**
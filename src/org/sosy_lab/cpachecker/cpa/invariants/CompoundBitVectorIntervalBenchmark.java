@@ -0,0 +1,101 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.invariants;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmarks for the arithmetic operations of {@link CompoundBitVectorInterval}. The operands
+ * consist of several disjoint intervals, such that the operations cannot take the shortcuts for
+ * singletons.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CompoundBitVectorIntervalBenchmark {
+
+  @Param({"32", "64"})
+  public int size;
+
+  @Param({"1", "4"})
+  public int components;
+
+  private CompoundBitVectorInterval left;
+  private CompoundBitVectorInterval right;
+
+  @Setup
+  public void setUp() {
+    BitVectorInfo info = BitVectorInfo.from(size, true);
+    left = CompoundBitVectorInterval.bottom(info);
+    right = CompoundBitVectorInterval.bottom(info);
+    for (int i = 0; i < components; i++) {
+      long offset = i * 1000L;
+      left = left.unionWith(interval(info, offset - 10, offset + 10));
+      right = right.unionWith(interval(info, offset + 3, offset + 300));
+    }
+  }
+
+  private static CompoundBitVectorInterval interval(BitVectorInfo pInfo, long pLow, long pHigh) {
+    return CompoundBitVectorInterval.cast(
+        pInfo,
+        BigInteger.valueOf(pLow),
+        BigInteger.valueOf(pHigh),
+        false,
+        OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval add() {
+    return left.add(right, false, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval multiply() {
+    return left.multiply(right, false, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval divide() {
+    return left.divide(right, false, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval union() {
+    return left.unionWith(right);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval intersect() {
+    return left.intersectWith(right);
+  }
+}
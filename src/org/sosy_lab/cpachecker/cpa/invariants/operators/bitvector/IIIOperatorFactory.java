@@ -80,6 +80,23 @@ public enum IIIOperatorFactory {
          * bounds for the new upper bound. If any of the summands is not
          * finite, the resulting bound isn't finite either.
          */
+        if (pOperand1.hasLongBounds() && pOperand2.hasLongBounds()) {
+          long lb1 = pOperand1.getLowerBoundAsLong();
+          long ub1 = pOperand1.getUpperBoundAsLong();
+          long lb2 = pOperand2.getLowerBoundAsLong();
+          long ub2 = pOperand2.getUpperBoundAsLong();
+          long lowerBound = lb1 + lb2;
+          long upperBound = ub1 + ub2;
+          if (!ISIOperatorFactory.addOverflows(lb1, lb2, lowerBound)
+              && !ISIOperatorFactory.addOverflows(ub1, ub2, upperBound)) {
+            return BitVectorInterval.cast(
+                pOperand1.getTypeInfo(),
+                lowerBound,
+                upperBound,
+                pAllowSignedWrapAround,
+                pOverflowEventHandler);
+          }
+        }
         BigInteger lowerBound = pOperand1.getLowerBound();
         BigInteger upperBound = pOperand1.getUpperBound();
         BigInteger pLowerBound = pOperand2.getLowerBound();
@@ -338,6 +355,14 @@ public enum IIIOperatorFactory {
          * At most one bound of each interval can be infinite and neither
          * of the intervals is a singleton at this point.
          */
+        if (pFirstOperand.hasLongBounds() && pSecondOperand.hasLongBounds()) {
+          BitVectorInterval result =
+              multiplyLongBounds(
+                  pFirstOperand, pSecondOperand, pAllowSignedWrapAround, pOverflowEventHandler);
+          if (result != null) {
+            return result;
+          }
+        }
         BigInteger pLowerBound = pSecondOperand.getLowerBound();
         BigInteger pUpperBound = pSecondOperand.getUpperBound();
 
@@ -527,6 +552,39 @@ public enum IIIOperatorFactory {
     };
   }
 
+  /**
+   * Multiplies two intervals with bounds that fit into a long.
+   *
+   * @return the result of the multiplication, or <code>null</code> if any of
+   * the products of the bounds does not fit into a long.
+   */
+  private static @Nullable BitVectorInterval multiplyLongBounds(
+      BitVectorInterval pFirstOperand,
+      BitVectorInterval pSecondOperand,
+      boolean pAllowSignedWrapAround,
+      OverflowEventHandler pOverflowEventHandler) {
+    long lb1 = pFirstOperand.getLowerBoundAsLong();
+    long ub1 = pFirstOperand.getUpperBoundAsLong();
+    long lb2 = pSecondOperand.getLowerBoundAsLong();
+    long ub2 = pSecondOperand.getUpperBoundAsLong();
+    long lbLb = lb1 * lb2;
+    long lbUb = lb1 * ub2;
+    long ubLb = ub1 * lb2;
+    long ubUb = ub1 * ub2;
+    if (ISIOperatorFactory.multiplyOverflows(lb1, lb2, lbLb)
+        || ISIOperatorFactory.multiplyOverflows(lb1, ub2, lbUb)
+        || ISIOperatorFactory.multiplyOverflows(ub1, lb2, ubLb)
+        || ISIOperatorFactory.multiplyOverflows(ub1, ub2, ubUb)) {
+      return null;
+    }
+    return BitVectorInterval.cast(
+        pFirstOperand.getTypeInfo(),
+        Math.min(Math.min(lbLb, lbUb), Math.min(ubLb, ubUb)),
+        Math.max(Math.max(lbLb, lbUb), Math.max(ubLb, ubUb)),
+        pAllowSignedWrapAround,
+        pOverflowEventHandler);
+  }
+
   private static void checkBitVectorCompatibility(BitVectorInterval pFirstOperand, BitVectorInterval pSecondOperand) {
     Preconditions.checkArgument(
         pFirstOperand.getTypeInfo().equals(pSecondOperand.getTypeInfo()),
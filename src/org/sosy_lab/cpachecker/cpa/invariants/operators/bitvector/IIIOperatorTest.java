@@ -59,6 +59,52 @@ public class IIIOperatorTest {
     assertThat(ADD.apply(zero, one)).isEqualTo(one);
   }
 
+  @Test
+  public void testAddBeyondLong() {
+    BitVectorInfo longInfo = BitVectorInfo.from(64, true);
+    BitVectorInfo unsignedLongInfo = BitVectorInfo.from(64, false);
+    BigInteger maxLong = BigInteger.valueOf(Long.MAX_VALUE);
+    BigInteger minLong = BigInteger.valueOf(Long.MIN_VALUE);
+    BitVectorInterval oneToTwo = BitVectorInterval.of(longInfo, 1, 2);
+    BitVectorInterval twoToThree = BitVectorInterval.of(longInfo, 2, 3);
+
+    assertThat(
+            ADD.apply(
+                BitVectorInterval.of(unsignedLongInfo, Long.MAX_VALUE - 1, Long.MAX_VALUE),
+                BitVectorInterval.of(unsignedLongInfo, 1, 2)))
+        .isEqualTo(
+            BitVectorInterval.of(unsignedLongInfo, maxLong, maxLong.add(BigInteger.TWO)));
+    assertThat(
+            ADD.apply(
+                BitVectorInterval.of(longInfo, Long.MAX_VALUE - 1, Long.MAX_VALUE), twoToThree))
+        .isEqualTo(BitVectorInterval.of(longInfo, minLong, minLong.add(BigInteger.TWO)));
+    assertThat(
+            ADD.apply(
+                BitVectorInterval.of(longInfo, Long.MIN_VALUE, Long.MIN_VALUE + 1), oneToTwo))
+        .isEqualTo(BitVectorInterval.of(longInfo, Long.MIN_VALUE + 1, Long.MIN_VALUE + 3));
+  }
+
+  @Test
+  public void testMultiplyBeyondLong() {
+    BitVectorInfo unsignedLongInfo = BitVectorInfo.from(64, false);
+    BigInteger twoPow31 = BigInteger.ONE.shiftLeft(31);
+    BigInteger twoPow32 = BigInteger.ONE.shiftLeft(32);
+    BitVectorInterval negThreeToTwo = BitVectorInterval.of(INT, -3, 2);
+    BitVectorInterval fourToFive = BitVectorInterval.of(INT, 4, 5);
+
+    assertThat(MULTIPLY.apply(negThreeToTwo, fourToFive))
+        .isEqualTo(BitVectorInterval.of(INT, -15, 10));
+    assertThat(
+            MULTIPLY.apply(
+                BitVectorInterval.of(unsignedLongInfo, twoPow32, twoPow32.add(BigInteger.ONE)),
+                BitVectorInterval.of(unsignedLongInfo, twoPow31, twoPow31.add(BigInteger.ONE))))
+        .isEqualTo(
+            BitVectorInterval.of(
+                unsignedLongInfo,
+                twoPow32.multiply(twoPow31),
+                twoPow32.add(BigInteger.ONE).multiply(twoPow31.add(BigInteger.ONE))));
+  }
+
   @Test
   public void testModulo() {
     BigInteger scalarFour = BigInteger.valueOf(4);
@@ -60,6 +60,21 @@ public enum ISIOperatorFactory {
         if (pFirstOperand.isTop() || pSecondOperand.equals(BigInteger.ZERO)) {
           return pFirstOperand;
         }
+        if (pFirstOperand.hasLongBounds() && pSecondOperand.bitLength() < Long.SIZE) {
+          long value = pSecondOperand.longValue();
+          long lb = pFirstOperand.getLowerBoundAsLong();
+          long ub = pFirstOperand.getUpperBoundAsLong();
+          long lowerBound = lb + value;
+          long upperBound = ub + value;
+          if (!addOverflows(lb, value, lowerBound) && !addOverflows(ub, value, upperBound)) {
+            return BitVectorInterval.cast(
+                pFirstOperand.getTypeInfo(),
+                lowerBound,
+                upperBound,
+                pAllowSignedWrapAround,
+                pOverflowEventHandler);
+          }
+        }
         BigInteger lowerBound = pFirstOperand.getLowerBound().add(pSecondOperand);
         BigInteger upperBound = pFirstOperand.getUpperBound().add(pSecondOperand);
         return BitVectorInterval.cast(
@@ -129,6 +144,22 @@ public enum ISIOperatorFactory {
          * Infinite bounds stay infinite, finite bounds are multiplied with
          * the factor.
          */
+        if (pFirstOperand.hasLongBounds() && pSecondOperand.bitLength() < Long.SIZE) {
+          long value = pSecondOperand.longValue();
+          long lb = pFirstOperand.getLowerBoundAsLong();
+          long ub = pFirstOperand.getUpperBoundAsLong();
+          long lowerBound = lb * value;
+          long upperBound = ub * value;
+          if (!multiplyOverflows(lb, value, lowerBound)
+              && !multiplyOverflows(ub, value, upperBound)) {
+            return BitVectorInterval.cast(
+                pFirstOperand.getTypeInfo(),
+                lowerBound,
+                upperBound,
+                pAllowSignedWrapAround,
+                pOverflowEventHandler);
+          }
+        }
         BigInteger lowerBound = pFirstOperand.getLowerBound().multiply(pSecondOperand);
         BigInteger upperBound = pFirstOperand.getUpperBound().multiply(pSecondOperand);
         return BitVectorInterval.cast(
@@ -554,4 +585,18 @@ public enum ISIOperatorFactory {
     };
   }
 
+  /**
+   * Checks if the given sum of two long values overflowed.
+   */
+  static boolean addOverflows(long pSummand1, long pSummand2, long pSum) {
+    return ((pSummand1 ^ pSum) & (pSummand2 ^ pSum)) < 0;
+  }
+
+  /**
+   * Checks if the given product of two long values overflowed.
+   */
+  static boolean multiplyOverflows(long pFactor1, long pFactor2, long pProduct) {
+    return Math.multiplyHigh(pFactor1, pFactor2) != (pProduct >> (Long.SIZE - 1));
+  }
+
 }
@@ -0,0 +1,331 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Disk-backed cache for the results of abstraction computations that can be shared across
+ * several runs of CPAchecker (e.g., for re-verifying a slightly changed program).
+ *
+ * <p>The cache is content-addressed: each entry is stored in a file whose name is a hash of the
+ * SMT-LIB representation of the (instantiated) formula that was abstracted and of the
+ * (instantiated) predicates that were used. The hash also covers the solver version and all
+ * options of the predicate analysis and the solver, such that entries written with a different
+ * configuration are never used. The file contains the SMT-LIB representation of the
+ * uninstantiated abstraction result. Entries are written atomically, so several processes may use
+ * the same cache directory concurrently. If the number of entries exceeds the configured limit,
+ * the least-recently used entries (by modification time of the file, which is updated on each
+ * cache hit) are removed.
+ */
+@Options(prefix = "cpa.predicate.abs.persistentCache")
+class PersistentAbstractionCache {
+
+  @Option(
+      secure = true,
+      description =
+          "directory for storing abstraction results across several runs "
+              + "(the cache is disabled if no directory is given)")
+  @FileOption(FileOption.Type.OUTPUT_DIRECTORY)
+  private @Nullable Path directory = null;
+
+  @Option(
+      secure = true,
+      description =
+          "maximum number of abstraction results in the persistent cache, "
+              + "least-recently used entries are removed if the limit is exceeded")
+  @IntegerOption(min = 1)
+  private int maxEntries = 100000;
+
+  private static final String FILE_SUFFIX = ".smt2";
+  private static final String UNSAT_PREFIX = "unsat";
+  private static final String ABSTRACTION_PREFIX = "abs";
+
+  /** Options with these prefixes may influence the abstraction results. */
+  private static final ImmutableList<String> RELEVANT_OPTION_PREFIXES =
+      ImmutableList.of("cpa.predicate.", "solver.");
+
+  private static final String OWN_OPTION_PREFIX = "cpa.predicate.abs.persistentCache.";
+
+  private static final Splitter LINE_SPLITTER = Splitter.on('\n').omitEmptyStrings();
+
+  private final LogManager logger;
+  private final FormulaManagerView fmgr;
+  private final PredicateAbstractionManager.Stats stats;
+
+  /** Version string of the solver, part of each key because formula dumps are solver-specific. */
+  private final String solverVersion;
+
+  /** Hash of all options that may influence the abstraction results, part of each key. */
+  private final String optionsFingerprint;
+
+  /** Approximate number of entries in the cache directory. */
+  private int numEntries;
+
+  PersistentAbstractionCache(
+      Configuration pConfig,
+      LogManager pLogger,
+      FormulaManagerView pFmgr,
+      String pSolverVersion,
+      PredicateAbstractionManager.Stats pStats)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    fmgr = pFmgr;
+    solverVersion = pSolverVersion;
+    optionsFingerprint = computeOptionsFingerprint(pConfig);
+    stats = pStats;
+
+    if (directory != null) {
+      try {
+        Files.createDirectories(directory);
+        numEntries = listEntries().size();
+      } catch (IOException | UncheckedIOException e) {
+        logger.logUserException(
+            Level.WARNING, e, "Could not access persistent abstraction cache, disabling it");
+        directory = null;
+      }
+    }
+  }
+
+  boolean isEnabled() {
+    return directory != null;
+  }
+
+  private static String computeOptionsFingerprint(Configuration pConfig) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (String line : LINE_SPLITTER.split(pConfig.asPropertiesString())) {
+      if (RELEVANT_OPTION_PREFIXES.stream().anyMatch(line::startsWith)
+          && !line.startsWith(OWN_OPTION_PREFIX)) {
+        hasher.putString(line, UTF_8).putChar('\0');
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Create the representation of a formula that is used for building keys. This is expensive for
+   * large formulas, so callers that need several keys for the same formula should call this only
+   * once and pass the result to the other methods of this class.
+   */
+  String dump(BooleanFormula pFormula) {
+    return fmgr.dumpFormula(pFormula).toString();
+  }
+
+  /**
+   * Look up the abstraction of the given formula with the given predicates.
+   *
+   * @param pFormulaDump the result of {@link #dump(BooleanFormula)} for the abstracted formula
+   * @return the uninstantiated abstraction formula, or null if it is not cached
+   */
+  @Nullable BooleanFormula getAbstraction(
+      String pFormulaDump, Collection<BooleanFormula> pPredicates) {
+    return read(abstractionKey(pFormulaDump, pPredicates));
+  }
+
+  void putAbstraction(
+      String pFormulaDump, Collection<BooleanFormula> pPredicates, BooleanFormula pAbstraction) {
+    write(abstractionKey(pFormulaDump, pPredicates), pAbstraction);
+  }
+
+  /**
+   * Check whether the given formula is known to be unsatisfiable from a previous run.
+   *
+   * @param pFormulaDump the result of {@link #dump(BooleanFormula)} for the formula
+   */
+  boolean isKnownUnsat(String pFormulaDump) {
+    return read(unsatKey(pFormulaDump)) != null;
+  }
+
+  void putUnsat(String pFormulaDump) {
+    write(unsatKey(pFormulaDump), fmgr.getBooleanFormulaManager().makeFalse());
+  }
+
+  private String abstractionKey(String pFormulaDump, Collection<BooleanFormula> pPredicates) {
+    // the order of the predicates is irrelevant for the result, so sort their representations
+    List<String> predicates =
+        pPredicates.stream().map(this::dump).sorted().collect(Collectors.toList());
+    Hasher hasher = newHasher(ABSTRACTION_PREFIX).putString(pFormulaDump, UTF_8);
+    for (String predicate : predicates) {
+      hasher.putChar('\0').putString(predicate, UTF_8);
+    }
+    return ABSTRACTION_PREFIX + "-" + hasher.hash();
+  }
+
+  private String unsatKey(String pFormulaDump) {
+    return UNSAT_PREFIX + "-" + newHasher(UNSAT_PREFIX).putString(pFormulaDump, UTF_8).hash();
+  }
+
+  private Hasher newHasher(String pKind) {
+    return Hashing.sha256()
+        .newHasher()
+        .putString(solverVersion, UTF_8)
+        .putChar('\0')
+        .putString(optionsFingerprint, UTF_8)
+        .putChar('\0')
+        .putString(pKind, UTF_8)
+        .putChar('\0');
+  }
+
+  private Path getFile(String pKey) {
+    // use a two-level directory structure to keep the number of files per directory small
+    return directory.resolve(pKey.substring(pKey.length() - 2)).resolve(pKey + FILE_SUFFIX);
+  }
+
+  private @Nullable BooleanFormula read(String pKey) {
+    if (directory == null) {
+      return null;
+    }
+    stats.persistentCacheTime.start();
+    try {
+      Path file = getFile(pKey);
+      String content;
+      try {
+        content = Files.readString(file, UTF_8);
+      } catch (NoSuchFileException e) {
+        stats.numPersistentCacheMisses++;
+        return null;
+      }
+
+      BooleanFormula result = fmgr.parse(content);
+      stats.numPersistentCacheHits++;
+
+      // mark entry as recently used for LRU eviction
+      try {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      } catch (IOException e) {
+        // entry might have been evicted concurrently, this is not a problem
+        logger.logDebugException(e);
+      }
+      return result;
+
+    } catch (IOException | IllegalArgumentException e) {
+      logger.logDebugException(e, "Could not read entry " + pKey + " of abstraction cache");
+      stats.numPersistentCacheMisses++;
+      return null;
+    } finally {
+      stats.persistentCacheTime.stop();
+    }
+  }
+
+  private void write(String pKey, BooleanFormula pValue) {
+    if (directory == null) {
+      return;
+    }
+    stats.persistentCacheTime.start();
+    try {
+      Path file = getFile(pKey);
+      Files.createDirectories(file.getParent());
+      // write to a temporary file first such that other processes never see partial entries
+      Path tmpFile = Files.createTempFile(file.getParent(), pKey, ".tmp");
+      try {
+        Files.writeString(tmpFile, dump(pValue), UTF_8);
+        try {
+          Files.move(
+              tmpFile,
+              file,
+              StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tmpFile);
+      }
+      stats.numPersistentCacheWrites++;
+
+      if (++numEntries > maxEntries) {
+        evict();
+      }
+    } catch (IOException | UncheckedIOException e) {
+      logger.logDebugException(e, "Could not write entry " + pKey + " of abstraction cache");
+    } finally {
+      stats.persistentCacheTime.stop();
+    }
+  }
+
+  /**
+   * Remove the least-recently used entries until only 90% of the maximum number of entries is
+   * left, such that eviction does not need to be done for every new entry.
+   */
+  private void evict() throws IOException {
+    List<Path> entries = listEntries();
+    int toRemove = entries.size() - (int) (maxEntries * 0.9);
+    if (toRemove > 0) {
+      entries.sort(Comparator.comparing(PersistentAbstractionCache::getLastModifiedTime));
+      for (Path entry : entries.subList(0, toRemove)) {
+        Files.deleteIfExists(entry);
+        stats.numPersistentCacheEvictions++;
+      }
+    }
+    numEntries = entries.size() - Math.max(toRemove, 0);
+  }
+
+  private List<Path> listEntries() throws IOException {
+    try (Stream<Path> files = Files.walk(directory, 2)) {
+      return files
+          .filter(f -> f.getFileName().toString().endsWith(FILE_SUFFIX))
+          .collect(Collectors.toCollection(ArrayList::new));
+    }
+  }
+
+  private static FileTime getLastModifiedTime(Path pFile) {
+    try {
+      return Files.getLastModifiedTime(pFile);
+    } catch (IOException e) {
+      // file was removed concurrently, treat it as oldest entry
+      return FileTime.fromMillis(0);
+    }
+  }
+}
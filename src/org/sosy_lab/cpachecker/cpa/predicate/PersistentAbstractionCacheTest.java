@@ -0,0 +1,135 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+public class PersistentAbstractionCacheTest extends SolverViewBasedTest0 {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private BooleanFormula formula;
+  private BooleanFormula predicate1;
+  private BooleanFormula predicate2;
+  private BooleanFormula abstraction;
+
+  @Before
+  public void setUp() {
+    IntegerFormula x = imgrv.makeVariable("x");
+    IntegerFormula y = imgrv.makeVariable("y");
+    formula = bmgrv.and(imgrv.equal(x, imgrv.makeNumber(1)), imgrv.lessThan(x, y));
+    predicate1 = imgrv.greaterThan(y, imgrv.makeNumber(0));
+    predicate2 = imgrv.equal(x, imgrv.makeNumber(2));
+    abstraction = predicate1;
+  }
+
+  private PersistentAbstractionCache createCache() throws InvalidConfigurationException {
+    return createCache(ImmutableMap.of());
+  }
+
+  private PersistentAbstractionCache createCache(Map<String, String> pOptions)
+      throws InvalidConfigurationException {
+    Configuration cacheConfig =
+        TestDataTools.configurationForTest()
+            .setOption(
+                "cpa.predicate.abs.persistentCache.directory",
+                tempFolder.getRoot().getAbsolutePath())
+            .setOptions(pOptions)
+            .build();
+    PersistentAbstractionCache cache =
+        new PersistentAbstractionCache(
+            cacheConfig,
+            logger,
+            mgrv,
+            solver.getVersion(),
+            new PredicateAbstractionManager.Stats());
+    assertThat(cache.isEnabled()).isTrue();
+    return cache;
+  }
+
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    PersistentAbstractionCache writer = createCache();
+    writer.putAbstraction(
+        writer.dump(formula), ImmutableList.of(predicate1, predicate2), abstraction);
+
+    // a new instance (as in a later run) sees the entry, independently of the predicate order
+    PersistentAbstractionCache reader = createCache();
+    BooleanFormula loaded =
+        reader.getAbstraction(reader.dump(formula), ImmutableList.of(predicate2, predicate1));
+    assertThat(loaded).isNotNull();
+    assertThatFormula(loaded).isEquivalentTo(abstraction);
+  }
+
+  @Test
+  public void testDifferentPredicates() throws Exception {
+    PersistentAbstractionCache cache = createCache();
+    cache.putAbstraction(cache.dump(formula), ImmutableList.of(predicate1), abstraction);
+
+    assertThat(cache.getAbstraction(cache.dump(formula), ImmutableList.of(predicate2))).isNull();
+    assertThat(cache.getAbstraction(cache.dump(predicate2), ImmutableList.of(predicate1)))
+        .isNull();
+  }
+
+  @Test
+  public void testUnsat() throws Exception {
+    PersistentAbstractionCache cache = createCache();
+    assertThat(cache.isKnownUnsat(cache.dump(formula))).isFalse();
+    cache.putUnsat(cache.dump(formula));
+    assertThat(createCache().isKnownUnsat(cache.dump(formula))).isTrue();
+  }
+
+  @Test
+  public void testDifferentOptions() throws Exception {
+    PersistentAbstractionCache writer = createCache();
+    writer.putAbstraction(writer.dump(formula), ImmutableList.of(predicate1), abstraction);
+    writer.putUnsat(writer.dump(predicate2));
+
+    PersistentAbstractionCache reader =
+        createCache(ImmutableMap.of("cpa.predicate.abstraction.cartesian", "true"));
+    assertThat(reader.getAbstraction(reader.dump(formula), ImmutableList.of(predicate1)))
+        .isNull();
+    assertThat(reader.isKnownUnsat(reader.dump(predicate2))).isFalse();
+
+    // options of the cache itself are irrelevant for the key
+    PersistentAbstractionCache otherLimit =
+        createCache(ImmutableMap.of("cpa.predicate.abs.persistentCache.maxEntries", "10"));
+    assertThat(otherLimit.getAbstraction(otherLimit.dump(formula), ImmutableList.of(predicate1)))
+        .isNotNull();
+  }
+}
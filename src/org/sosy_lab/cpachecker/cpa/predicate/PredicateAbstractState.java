@@ -35,6 +35,7 @@ import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithCoverageSignature;
 import org.sosy_lab.cpachecker.core.interfaces.FormulaReportingState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.core.interfaces.NonMergeableAbstractState;
@@ -50,7 +51,8 @@ import org.sosy_lab.java_smt.api.BooleanFormula;
  * AbstractState for Symbolic Predicate Abstraction CPA
  */
 public abstract class PredicateAbstractState
-    implements AbstractState, Partitionable, Serializable, Splitable {
+    implements AbstractState, Partitionable, Serializable, Splitable,
+        AbstractStateWithCoverageSignature {
 
   private static final long serialVersionUID = -265763837277453447L;
 
@@ -271,6 +273,16 @@ public abstract class PredicateAbstractState
     return pathFormula;
   }
 
+  /**
+   * Cheap pre-check for the coverage check of {@link PredicateAbstractDomain}: an abstraction state
+   * is never covered by a non-abstraction state. All other combinations are left to the domain,
+   * whose check of two non-abstraction states is already cheap.
+   */
+  @Override
+  public boolean mayBeLessOrEqual(AbstractState pOther) {
+    return !isAbstractionState() || ((PredicateAbstractState) pOther).isAbstractionState();
+  }
+
   protected Object readResolve() {
     if (this instanceof AbstractionState) {
       // consistency check
@@ -0,0 +1,140 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.cpachecker.util.predicates.AbstractionFormula;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+public class PredicateAbstractStateTest {
+
+  private final BooleanFormula formula = mock(BooleanFormula.class);
+  private final AbstractionFormula abstraction = mock(AbstractionFormula.class);
+
+  private PredicateAbstractionManager mgr;
+
+  private PredicateAbstractState abstractionState1;
+  private PredicateAbstractState abstractionState2;
+  private PredicateAbstractState length1;
+  private PredicateAbstractState equalToLength1;
+  private PredicateAbstractState length2;
+  private PredicateAbstractState mergedIntoLength2;
+
+  @Before
+  public void setUp() throws Exception {
+    // the most permissive domain: all checks with the solver succeed
+    mgr = mock(PredicateAbstractionManager.class);
+    when(mgr.checkCoverage(any(), any())).thenReturn(true);
+    when(mgr.checkCoverage(any(), any(), any())).thenReturn(true);
+
+    abstractionState1 = mkAbstractionState();
+    abstractionState2 = mkAbstractionState();
+    length1 = mkNonAbstractionState(1);
+    equalToLength1 = mkNonAbstractionState(1);
+    length2 = mkNonAbstractionState(2);
+    mergedIntoLength2 = mkNonAbstractionState(1);
+    mergedIntoLength2.setMergedInto(length2);
+  }
+
+  private PathFormula mkPathFormula(int pLength) {
+    return new PathFormula(
+        formula, SSAMap.emptySSAMap(), PointerTargetSet.emptyPointerTargetSet(), pLength);
+  }
+
+  private PredicateAbstractState mkAbstractionState() {
+    return PredicateAbstractState.mkAbstractionState(
+        mkPathFormula(0), abstraction, PathCopyingPersistentTreeMap.of());
+  }
+
+  private PredicateAbstractState mkNonAbstractionState(int pLength) {
+    return PredicateAbstractState.mkNonAbstractionState(
+        mkPathFormula(pLength), abstraction, PathCopyingPersistentTreeMap.of());
+  }
+
+  private void checkSignatureIsNecessaryCondition(boolean pSymbolicCoverageCheck)
+      throws Exception {
+    PredicateAbstractDomain domain =
+        new PredicateAbstractDomain(mgr, pSymbolicCoverageCheck, new PredicateStatistics());
+    ImmutableList<PredicateAbstractState> states =
+        ImmutableList.of(
+            abstractionState1,
+            abstractionState2,
+            length1,
+            equalToLength1,
+            length2,
+            mergedIntoLength2);
+
+    for (PredicateAbstractState state1 : states) {
+      for (PredicateAbstractState state2 : states) {
+        if (domain.isLessOrEqual(state1, state2)) {
+          assertWithMessage("signature of %s pruned covering state %s", state1, state2)
+              .that(state1.mayBeLessOrEqual(state2))
+              .isTrue();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSignatureIsNecessaryCondition() throws Exception {
+    checkSignatureIsNecessaryCondition(false);
+  }
+
+  @Test
+  public void testSignatureIsNecessaryConditionWithSymbolicCoverageCheck() throws Exception {
+    checkSignatureIsNecessaryCondition(true);
+  }
+
+  @Test
+  public void testDifferentPathFormulaLengths() throws Exception {
+    PredicateAbstractDomain domain =
+        new PredicateAbstractDomain(mgr, false, new PredicateStatistics());
+
+    // a state is covered by the state it was merged into, regardless of the length
+    assertThat(domain.isLessOrEqual(mergedIntoLength2, length2)).isTrue();
+    assertThat(mergedIntoLength2.mayBeLessOrEqual(length2)).isTrue();
+
+    assertThat(domain.isLessOrEqual(length1, equalToLength1)).isTrue();
+    assertThat(domain.isLessOrEqual(length1, length2)).isFalse();
+  }
+
+  @Test
+  public void testAbstractionStateIsPruned() throws Exception {
+    assertThat(abstractionState1.mayBeLessOrEqual(length1)).isFalse();
+    assertThat(abstractionState1.mayBeLessOrEqual(abstractionState2)).isTrue();
+    assertThat(length1.mayBeLessOrEqual(abstractionState1)).isTrue();
+  }
+}
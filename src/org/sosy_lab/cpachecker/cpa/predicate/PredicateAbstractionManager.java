@@ -127,6 +127,12 @@ public class PredicateAbstractionManager {
 
     public long allSatCount = 0;
     public int maxAllSatCount = 0;
+
+    public int numPersistentCacheHits = 0;
+    public int numPersistentCacheMisses = 0;
+    public int numPersistentCacheWrites = 0;
+    public int numPersistentCacheEvictions = 0;
+    public final Timer persistentCacheTime = new Timer();
   }
 
   final Stats stats = new Stats();
@@ -204,6 +210,9 @@ public class PredicateAbstractionManager {
   // 1: predicate is true
   private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
 
+  // cache for abstractions and unsatisfiable formulas that is shared across runs
+  private final PersistentAbstractionCache persistentCache;
+
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
       PathFormulaManager pPfmgr,
@@ -254,6 +263,8 @@ public class PredicateAbstractionManager {
     }
 
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
+    persistentCache =
+        new PersistentAbstractionCache(pConfig, logger, fmgr, solver.getVersion(), stats);
   }
 
   /**
@@ -363,6 +374,7 @@ public class PredicateAbstractionManager {
 
     // caching
     Pair<BooleanFormula, ImmutableSet<BooleanFormula>> absKey = null;
+    String persistentCacheDump = null;
     if (useCache) {
       ImmutableSet<BooleanFormula> instantiatedPreds =
           Collections3.transformedImmutableSetCopy(
@@ -395,6 +407,33 @@ public class PredicateAbstractionManager {
             bfmgr.makeFalse(), bfmgr.makeFalse(),
             pathFormula, noAbstractionReuse);
       }
+
+      if (persistentCache.isEnabled()) {
+        persistentCacheDump = persistentCache.dump(f);
+        if (persistentCache.isKnownUnsat(persistentCacheDump)
+            || (!symbFormula.equals(f)
+                && persistentCache.isKnownUnsat(persistentCache.dump(symbFormula)))) {
+          logger.log(Level.FINEST, "Block feasibility of abstraction", stats.numCallsAbstraction, "was cached persistently and is false.");
+          unsatisfiabilityCache.add(f);
+          stats.numCallsAbstractionCached++;
+          return new AbstractionFormula(fmgr, rmgr.makeFalse(),
+              bfmgr.makeFalse(), bfmgr.makeFalse(),
+              pathFormula, noAbstractionReuse);
+        }
+
+        BooleanFormula cachedAbstraction =
+            persistentCache.getAbstraction(persistentCacheDump, absKey.getSecond());
+        if (cachedAbstraction != null) {
+          result =
+              makeAbstractionFormula(
+                  amgr.convertFormulaToRegion(cachedAbstraction), ssa, pathFormula);
+          abstractionCache.put(absKey, result);
+          logger.log(Level.FINEST, "Abstraction", stats.numCallsAbstraction, "was cached persistently");
+          logger.log(Level.ALL, "Abstraction result is", result.asFormula());
+          stats.numCallsAbstractionCached++;
+          return result;
+        }
+      }
     }
 
 
@@ -444,6 +483,15 @@ public class PredicateAbstractionManager {
       if (result.isFalse()) {
         unsatisfiabilityCache.add(f);
       }
+
+      if (persistentCacheDump != null) {
+        if (result.isFalse()) {
+          persistentCache.putUnsat(persistentCacheDump);
+        } else {
+          persistentCache.putAbstraction(
+              persistentCacheDump, absKey.getSecond(), result.asFormula());
+        }
+      }
     }
 
     long abstractionTime = TimeSpan.sum(stats.abstractionSolveTime.getLengthOfLastInterval(),
@@ -24,8 +24,10 @@
 package org.sosy_lab.cpachecker.cpa.predicate;
 
 import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import org.sosy_lab.common.ShutdownNotifier;
@@ -58,6 +60,7 @@ import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.blocking.BlockedCFAReducer;
 import org.sosy_lab.cpachecker.util.blocking.interfaces.BlockComputer;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionManager;
@@ -134,6 +137,9 @@ public class PredicateCPA
   // path formulas for PCC
   private final Map<PredicateAbstractState, PathFormula> computedPathFormulaePcc = new HashMap<>();
 
+  // components created for this CPA that hold resources, e.g., refiners with own solvers
+  private final List<AutoCloseable> dependentResources = new ArrayList<>();
+
   protected PredicateCPA(
       Configuration config,
       LogManager logger,
@@ -164,7 +170,7 @@ public class PredicateCPA
 
     PathFormulaManager pfMgr = new PathFormulaManagerImpl(formulaManager, config, logger, shutdownNotifier, cfa, direction);
     if (useCache) {
-      pfMgr = new CachingPathFormulaManager(pfMgr);
+      pfMgr = new CachingPathFormulaManager(pfMgr, config);
     }
     pathFormulaManager = pfMgr;
 
@@ -329,8 +335,17 @@ public class PredicateCPA
     invariantsManager.collectStatistics(pStatsCollection);
   }
 
+  /** Register a component that uses this CPA and should be closed together with it. */
+  void closeTogether(AutoCloseable pResource) {
+    dependentResources.add(pResource);
+  }
+
   @Override
   public void close() {
+    for (AutoCloseable resource : dependentResources) {
+      CPAs.closeIfPossible(resource, logger);
+    }
+    dependentResources.clear();
     solver.close();
   }
 
@@ -23,13 +23,18 @@
  */
 package org.sosy_lab.cpachecker.cpa.predicate;
 
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Collections.unmodifiableList;
 import static org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractState.getPredicateState;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsWriter.writingStatisticsTo;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.PrintStream;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -39,7 +44,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -60,6 +73,8 @@ import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -74,7 +89,7 @@ import org.sosy_lab.java_smt.api.SolverException;
  * abstraction, this is left to an instance of {@link GlobalRefinementStrategy}.
  */
 @Options(prefix="cpa.predicate.refinement.global")
-public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
+public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider, AutoCloseable {
 
   @Option(secure = true,
           description = "Instead of updating precision and arg we say that the refinement was not successful"
@@ -83,16 +98,38 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
   @IntegerOption(min = 0)
   private int stopAfterNRefinements = 0;
 
+  @Option(
+      secure = true,
+      description =
+          "Number of separate solver instances used to compute interpolants for the infeasible"
+              + " paths of one global refinement concurrently. With 1, interpolants are computed"
+              + " on the prover that detected the infeasibility, one path after another.")
+  @IntegerOption(min = 1)
+  private int interpolationThreads = 1;
+
   // statistics
   private final StatTimer totalTime = new StatTimer("Time for refinement");
   private final StatTimer interpolationTime = new StatTimer("Time for interpolation");
   private final StatTimer satCheckTime = new StatTimer("Time for sat-checks");
+  private final StatTimer parallelInterpolationTime =
+      new StatTimer("Time for parallel interpolation");
+  private final StatInt parallelInterpolatedPaths =
+      new StatInt(StatKind.SUM, "Number of paths interpolated in parallel");
 
   private final LogManager logger;
   private final GlobalRefinementStrategy strategy;
   private final Solver solver;
   private final BooleanFormulaManager bfmgr;
   private final ARGCPA argCPA;
+  private final FormulaManagerView fmgr;
+
+  /** Infeasible paths whose interpolants are computed after the traversal of the ARG. */
+  private final List<PendingPath> pendingPaths = new ArrayList<>();
+
+  /** The separate solver instances for parallel interpolation, one per thread. */
+  private final List<Solver> interpolationSolvers;
+
+  private final @Nullable ExecutorService executor;
 
   public PredicateCPAGlobalRefiner(
       final LogManager pLogger,
@@ -100,15 +137,42 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
       final GlobalRefinementStrategy pStrategy,
       final Solver pSolver,
       final ARGCPA pArgcpa,
-      final Configuration pConfig) throws InvalidConfigurationException {
+      final Configuration pConfig,
+      final ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
     pConfig.inject(this);
 
     logger = pLogger;
+    fmgr = pFmgr;
     bfmgr = pFmgr.getBooleanFormulaManager();
     solver = pSolver;
     strategy = pStrategy;
     argCPA = pArgcpa;
 
+    if (interpolationThreads > 1) {
+      List<Solver> solvers = new ArrayList<>(interpolationThreads);
+      try {
+        for (int i = 0; i < interpolationThreads; i++) {
+          solvers.add(Solver.create(pConfig, pLogger, pShutdownNotifier));
+        }
+      } catch (InvalidConfigurationException | RuntimeException e) {
+        solvers.forEach(Solver::close);
+        throw e;
+      }
+      interpolationSolvers = ImmutableList.copyOf(solvers);
+      // daemon threads, such that an analysis that does not close the refiner can still terminate
+      executor =
+          Executors.newFixedThreadPool(
+              interpolationThreads,
+              new ThreadFactoryBuilder()
+                  .setNameFormat("GlobalRefinement-interpolation-%d")
+                  .setDaemon(true)
+                  .build());
+    } else {
+      interpolationSolvers = ImmutableList.of();
+      executor = null;
+    }
+
     logger.log(
         Level.INFO,
         "Using refinement for predicate analysis with "
@@ -128,7 +192,12 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
 
       ARGReachedSet argReachedSet = new ARGReachedSet(pReached, argCPA);
       strategy.initializeGlobalRefinement();
+      pendingPaths.clear();
       Optional<ARGState> errorState = doPathWiseRefinement(argReachedSet, targets);
+      if (!errorState.isPresent() && !pendingPaths.isEmpty()) {
+        refinePendingPathsInParallel(argReachedSet);
+      }
+      pendingPaths.clear();
 
       // TODO fix handling of counterexamples
       // + 1 for update count as the current interval is not finished
@@ -152,7 +221,7 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
    *
    * The strategy is to first build the predecessor/successor relations for all
    * abstraction states on the paths to the target states, and then call
-   * {@link #performRefinementOnPath(List, ARGState, List, ARGReachedSet, InterpolatingProverEnvironment)}
+   * {@link #performRefinementOnPath(List, List, ARGReachedSet)}
    * on the root state of the ARG.
    */
   private Optional<ARGState> doPathWiseRefinement(
@@ -225,7 +294,7 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
    * (so we do refinement as soon as possible) or a target state is reached
    * (then we found a feasible counterexample).
    * When an infeasible state was found, we call
-   * {@link #performRefinementOnPath(List, ARGState, List, ARGReachedSet, InterpolatingProverEnvironment)}
+   * {@link #performRefinementOnPath(List, List, ARGReachedSet)}
    * to do the actual refinement.
    *
    * Note that the successor and predecessor relation contains only states
@@ -277,8 +346,20 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
           }
           assert cur.isTarget() : "Last state in path has to be a target state";
 
-          performRefinementOnPath(
-              unmodifiableList(itpStack), succ, abstractionStatesTrace, pReached, itpProver);
+          if (interpolationThreads > 1) {
+            pendingPaths.add(
+                new PendingPath(getBlockFormulas(currentPath), abstractionStatesTrace));
+          } else {
+            assert bfmgr.isFalse(itpProver.getInterpolant(itpStack)); // last interpolant is False
+            interpolationTime.start();
+            List<BooleanFormula> interpolants;
+            try {
+              interpolants = getInterpolants(unmodifiableList(itpStack), itpProver);
+            } finally {
+              interpolationTime.stop();
+            }
+            performRefinementOnPath(interpolants, abstractionStatesTrace, pReached);
+          }
 
         } else if (targets.contains(succ)) {
           // We have found a reachable target state, immediately abort refinement.
@@ -306,51 +387,216 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
   }
 
   /**
-   * Actually perform refinement on one path. We compute the interpolants from
-   * the first state to the unreachable one.
+   * Compute the interpolants for all prefixes of the given interpolation groups, except for the
+   * complete list (whose interpolant is always false).
    *
-   * @param itpStack The list with the interpolation groups.
-   * @param unreachableState The first state in the path which is infeasible (this identifies the path).
-   * @param pAbstractionStatesTrace The complete trace of abstraction states including the unreachable state
-   * @param reached The reached set.
+   * @param itpStack The list with the interpolation groups, the last one being unsatisfiable.
    */
-  private <T> void performRefinementOnPath(
-      List<T> itpStack,
-      final ARGState unreachableState,
-      List<ARGState> pAbstractionStatesTrace,
-      ARGReachedSet reached,
-      InterpolatingProverEnvironment<T> itpProver)
-      throws CPAException, SolverException, InterruptedException {
+  private static <T> List<BooleanFormula> getInterpolants(
+      List<T> itpStack, InterpolatingProverEnvironment<T> itpProver)
+      throws SolverException, InterruptedException {
     assert !itpStack.isEmpty();
-    assert bfmgr.isFalse(itpProver.getInterpolant(itpStack)); // last interpolant is False
+    List<BooleanFormula> interpolants = new ArrayList<>(itpStack.size() - 1);
+    for (int i = 1; i < itpStack.size(); i++) {
+      interpolants.add(itpProver.getInterpolant(itpStack.subList(0, i)));
+    }
+    return interpolants;
+  }
 
+  /** Get the block formulas of all states of the given path except for the root state. */
+  private static List<BooleanFormula> getBlockFormulas(Collection<ARGState> pPath) {
+    return FluentIterable.from(pPath)
+        .skip(1)
+        .transform(s -> getPredicateState(s).getAbstractionFormula().getBlockFormula().getFormula())
+        .toList();
+  }
+
+  /**
+   * Actually perform refinement on one path. The given interpolants belong to the states from the
+   * first state after the root up to the last state before the unreachable one, all states from
+   * the unreachable one on get the interpolant false.
+   *
+   * @param pInterpolants The interpolants for the reachable states of the path.
+   * @param pAbstractionStatesTrace The complete trace of abstraction states including the root
+   *     state and the unreachable state.
+   * @param reached The reached set.
+   */
+  private void performRefinementOnPath(
+      List<BooleanFormula> pInterpolants,
+      List<ARGState> pAbstractionStatesTrace,
+      ARGReachedSet reached)
+      throws CPAException, InterruptedException {
     pAbstractionStatesTrace = FluentIterable.from(pAbstractionStatesTrace).skip(1).toList();
-    List<BooleanFormula> interpolants = new ArrayList<>();
-
-    boolean visitedUnreachable = false;
-    int sublistCounter = 1;
-    for (ARGState state : pAbstractionStatesTrace) {
-      interpolationTime.start();
-      visitedUnreachable = visitedUnreachable || state.equals(unreachableState);
-
-      if (visitedUnreachable) {
-        // fill up interpolants with false as the states are unreachable.
-        interpolants.add(bfmgr.makeFalse());
-      } else {
-        interpolants.add(itpProver.getInterpolant(itpStack.subList(0, sublistCounter)));
-        sublistCounter++;
-      }
-      interpolationTime.stop();
+    assert pInterpolants.size() < pAbstractionStatesTrace.size();
+
+    List<BooleanFormula> interpolants = new ArrayList<>(pInterpolants);
+    // fill up interpolants with false as the states are unreachable,
+    // the last interpolant will always be false and therefore it is not required
+    // for having proper arguments to call performRefinement
+    while (interpolants.size() < pAbstractionStatesTrace.size() - 1) {
+      interpolants.add(bfmgr.makeFalse());
     }
 
-    // last interpolant will always be false and therefore it is required
-    // to remove it, for having proper arguments to call performRefinement
-    interpolants.remove(interpolants.size() - 1);
-
     // TODO repeated counterexample is always false currently, we also ignore the return value
     strategy.performRefinement(reached, pAbstractionStatesTrace, interpolants, false);
   }
 
+  /**
+   * Compute the interpolants for all infeasible paths that were collected during the traversal of
+   * the ARG concurrently. Each thread uses its own solver instance, the formulas are translated
+   * between the solver instances in the calling thread while no thread is running. The refinement
+   * strategy is called for each path in the order in which the paths were found.
+   */
+  private void refinePendingPathsInParallel(ARGReachedSet pReached)
+      throws CPAException, InterruptedException, SolverException {
+    List<List<BooleanFormula>> interpolants;
+    parallelInterpolationTime.start();
+    try {
+      interpolants = interpolatePendingPaths();
+    } finally {
+      parallelInterpolationTime.stop();
+    }
+    parallelInterpolatedPaths.setNextValue(pendingPaths.size());
+
+    for (int i = 0; i < pendingPaths.size(); i++) {
+      performRefinementOnPath(interpolants.get(i), pendingPaths.get(i).trace, pReached);
+    }
+  }
+
+  private List<List<BooleanFormula>> interpolatePendingPaths()
+      throws CPAException, InterruptedException, SolverException {
+    checkState(executor != null, "parallel interpolation is disabled");
+    int numberOfSolvers = Math.min(interpolationSolvers.size(), pendingPaths.size());
+    List<Solver> solvers = interpolationSolvers.subList(0, numberOfSolvers);
+    List<Future<List<List<BooleanFormula>>>> futures = new ArrayList<>(numberOfSolvers);
+    try {
+      // distribute the paths round-robin over the solvers and translate their formulas
+      List<List<List<BooleanFormula>>> tasks = new ArrayList<>(numberOfSolvers);
+      for (int i = 0; i < numberOfSolvers; i++) {
+        tasks.add(new ArrayList<>());
+      }
+      for (int i = 0; i < pendingPaths.size(); i++) {
+        FormulaManagerView targetFmgr = solvers.get(i % numberOfSolvers).getFormulaManager();
+        List<BooleanFormula> translated = new ArrayList<>();
+        for (BooleanFormula f : pendingPaths.get(i).blockFormulas) {
+          translated.add(targetFmgr.translateFrom(f, fmgr));
+        }
+        tasks.get(i % numberOfSolvers).add(translated);
+      }
+
+      for (int i = 0; i < numberOfSolvers; i++) {
+        Solver taskSolver = solvers.get(i);
+        List<List<BooleanFormula>> taskPaths = tasks.get(i);
+        futures.add(executor.submit(() -> interpolatePaths(taskSolver, taskPaths)));
+      }
+      List<List<List<BooleanFormula>>> results = new ArrayList<>(numberOfSolvers);
+      for (Future<List<List<BooleanFormula>>> future : futures) {
+        results.add(getResult(future));
+      }
+
+      // translate the interpolants back, in the order of the pending paths
+      List<List<BooleanFormula>> interpolants = new ArrayList<>(pendingPaths.size());
+      for (int i = 0; i < pendingPaths.size(); i++) {
+        FormulaManagerView sourceFmgr = solvers.get(i % numberOfSolvers).getFormulaManager();
+        List<BooleanFormula> translated = new ArrayList<>();
+        for (BooleanFormula itp : results.get(i % numberOfSolvers).get(i / numberOfSolvers)) {
+          translated.add(fmgr.translateFrom(itp, sourceFmgr));
+        }
+        interpolants.add(translated);
+      }
+      return interpolants;
+
+    } finally {
+      // the solvers must not be used by the next refinement while a thread still uses them
+      for (Future<?> future : futures) {
+        try {
+          Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+          // already handled or superseded by another exception
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops the threads for parallel interpolation and closes their solver instances. The solver
+   * given to the constructor is not closed.
+   */
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+      try {
+        // the solvers must not be closed while a thread still uses them
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+          logger.log(Level.WARNING, "Interpolation threads did not terminate, not closing solvers");
+          return;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    interpolationSolvers.forEach(Solver::close);
+  }
+
+  private static <T> T getResult(Future<T> pFuture)
+      throws CPAException, InterruptedException, SolverException {
+    try {
+      return pFuture.get();
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, CPAException.class, InterruptedException.class);
+      Throwables.throwIfInstanceOf(t, SolverException.class);
+      throw new UnexpectedCheckedException("interpolation", t);
+    }
+  }
+
+  /**
+   * Compute the interpolants for the given infeasible paths on the given solver instance. This is
+   * executed in a separate thread, so only the given solver may be accessed.
+   */
+  private static List<List<BooleanFormula>> interpolatePaths(
+      Solver pSolver, List<List<BooleanFormula>> pPaths)
+      throws SolverException, InterruptedException {
+    List<List<BooleanFormula>> result = new ArrayList<>(pPaths.size());
+    for (List<BooleanFormula> blockFormulas : pPaths) {
+      try (InterpolatingProverEnvironment<?> itpProver =
+          pSolver.newProverEnvironmentWithInterpolation()) {
+        result.add(interpolatePath(blockFormulas, itpProver));
+      }
+    }
+    return result;
+  }
+
+  // This is just a separate method to get the generics right.
+  private static <T> List<BooleanFormula> interpolatePath(
+      List<BooleanFormula> pBlockFormulas, InterpolatingProverEnvironment<T> itpProver)
+      throws SolverException, InterruptedException {
+    List<T> itpStack = new ArrayList<>(pBlockFormulas.size());
+    for (BooleanFormula f : pBlockFormulas) {
+      itpStack.add(itpProver.push(f));
+    }
+    boolean isUnsat = itpProver.isUnsat();
+    assert isUnsat : "Path was infeasible on the main solver, but not on another instance";
+    return getInterpolants(itpStack, itpProver);
+  }
+
+  /** An infeasible path whose interpolants still need to be computed. */
+  private static final class PendingPath {
+
+    /** The block formulas up to (including) the unreachable state. */
+    private final List<BooleanFormula> blockFormulas;
+
+    /** The complete trace of abstraction states including the root state. */
+    private final List<ARGState> trace;
+
+    private PendingPath(List<BooleanFormula> pBlockFormulas, List<ARGState> pTrace) {
+      blockFormulas = pBlockFormulas;
+      trace = pTrace;
+    }
+  }
+
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     pStatsCollection.add(new Stats());
@@ -365,6 +611,9 @@ public class PredicateCPAGlobalRefiner implements Refiner, StatisticsProvider {
       w0.put("Number of predicate refinements", numberOfRefinements);
       if (numberOfRefinements > 0) {
         w0.put(totalTime).put(interpolationTime).put(satCheckTime);
+        if (parallelInterpolationTime.getUpdateCount() > 0) {
+          w0.put(parallelInterpolationTime).put(parallelInterpolatedPaths);
+        }
       }
     }
 
@@ -0,0 +1,95 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+/** Tests for the global refinement of predicate analysis with parallel interpolation. */
+public class PredicateCPAGlobalRefinerTest {
+
+  private static Map<String, String> options(int pInterpolationThreads) {
+    return ImmutableMap.<String, String>builder()
+        .put("cpa", "cpa.arg.ARGCPA")
+        .put("ARGCPA.cpa", "cpa.composite.CompositeCPA")
+        .put(
+            "CompositeCPA.cpas",
+            "cpa.location.LocationCPA, cpa.callstack.CallstackCPA, cpa.predicate.PredicateCPA")
+        .put("specification", "config/specification/default.spc")
+        .put("analysis.algorithm.CEGAR", "true")
+        .put("cegar.refiner", "cpa.predicate.PredicateGlobalRefiner")
+        .put("cegar.globalRefinement", "true")
+        .put("cpa.automaton.breakOnTargetState", "0")
+        .put("solver.solver", "SMTINTERPOL")
+        .put(
+            "cpa.predicate.refinement.global.interpolationThreads",
+            Integer.toString(pInterpolationThreads))
+        .build();
+  }
+
+  /** Extract the value of a statistic with the given name from the statistics output. */
+  private static long getStatistic(TestResults pResults, String pName) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+      pResults.getCheckerResult().printStatistics(out);
+    }
+    String statistics = output.toString(StandardCharsets.UTF_8);
+    Matcher matcher = Pattern.compile(Pattern.quote(pName) + ":\\s+(\\d+)").matcher(statistics);
+    assertWithMessage("statistic '%s' in output:%n%s", pName, statistics)
+        .that(matcher.find())
+        .isTrue();
+    return Long.parseLong(matcher.group(1));
+  }
+
+  private static void check(String pProgram) throws Exception {
+    TestResults sequential = CPATestRunner.run(options(1), pProgram);
+    sequential.assertIsSafe();
+
+    // the second refiner interpolates on separate solver instances in two threads
+    TestResults parallel = CPATestRunner.run(options(2), pProgram);
+    parallel.assertIsSafe();
+    assertThat(getStatistic(parallel, "Number of paths interpolated in parallel")).isGreaterThan(0);
+  }
+
+  @Test
+  public void testSingleLoop() throws Exception {
+    check("test/programs/simple/goto-loop1.c");
+  }
+
+  @Test
+  public void testNestedLoops() throws Exception {
+    check("test/programs/simple/goto-loop2.c");
+  }
+}
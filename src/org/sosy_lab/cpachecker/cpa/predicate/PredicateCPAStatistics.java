@@ -35,6 +35,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
@@ -43,6 +44,7 @@ import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -57,6 +59,7 @@ import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.CFAFunctionFingerprints;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.LoopInvariantsWriter;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsWriter;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateMapWriter;
@@ -68,6 +71,7 @@ import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.MetricsCollector;
 
 @Options(prefix = "cpa.predicate")
 class PredicateCPAStatistics implements Statistics {
@@ -84,6 +88,17 @@ class PredicateCPAStatistics implements Statistics {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path predmapFile = Paths.get("predmap.txt");
 
+  @Option(
+      secure = true,
+      description =
+          "file for exporting fingerprints of all functions together with the predicate map,"
+              + " such that the predicate map can be reused for the unchanged functions"
+              + " of a later program revision"
+              + " (cf. cpa.predicate.abstraction.initialPredicates.previousFingerprints)",
+      name = "predmap.fingerprints")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private @Nullable Path fingerprintsFile = null;
+
   @Option(secure=true, description="export final loop invariants",
           name="invariants.export")
   private boolean exportInvariants = true;
@@ -111,6 +126,7 @@ class PredicateCPAStatistics implements Statistics {
   private Path abstractionsFile = Paths.get("abstractions.txt");
 
   private final LogManager logger;
+  private final CFA cfa;
 
   private final Solver solver;
   private final PathFormulaManager pfmgr;
@@ -139,6 +155,7 @@ class PredicateCPAStatistics implements Statistics {
     pConfig.inject(this, PredicateCPAStatistics.class);
 
     logger = pLogger;
+    cfa = pCfa;
     solver = pSolver;
     pfmgr = pPfmgr;
     blk = pBlk;
@@ -163,6 +180,11 @@ class PredicateCPAStatistics implements Statistics {
     return "PredicateCPA";
   }
 
+  @Override
+  public void collectMetrics(MetricsCollector pMetrics) {
+    pMetrics.time("predicate_solver_seconds", "Time for SMT solver (w/o itp)", solver.solverTime);
+  }
+
   /**
    * TreeMap to sort output for the user and sets for no duplication.
    */
@@ -203,6 +225,14 @@ class PredicateCPAStatistics implements Statistics {
     }
   }
 
+  private void exportFingerprintsToFile(Path targetFile) {
+    // same charset as in CFAFunctionFingerprints.read()
+    try (Writer w = IO.openOutputFile(targetFile, StandardCharsets.US_ASCII)) {
+      CFAFunctionFingerprints.of(cfa).write(w);
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write function fingerprints to file");
+    }
+  }
 
   @Override
   public void printStatistics(PrintStream out, Result result, UnmodifiableReachedSet reached) {
@@ -229,6 +259,9 @@ class PredicateCPAStatistics implements Statistics {
       // check if/where to dump the predicate map
       if (exportPredmap && predmapFile != null) {
         exportPredmapToFile(predmapFile, predicates);
+        if (fingerprintsFile != null) {
+          exportFingerprintsToFile(fingerprintsFile);
+        }
       }
 
       maxPredsPerLocation = 0;
@@ -277,6 +310,14 @@ class PredicateCPAStatistics implements Statistics {
             "  Times inductive cache was used:  "
                 + valueWithPercentage(as.numInductivePathFormulaCacheUsed, as.numCallsAbstraction));
       }
+      if (as.persistentCacheTime.getNumberOfIntervals() > 0) {
+        int lookups = as.numPersistentCacheHits + as.numPersistentCacheMisses;
+        out.println("  Persistent cache hits:           " + valueWithPercentage(as.numPersistentCacheHits, lookups));
+        out.println("  Persistent cache misses:         " + valueWithPercentage(as.numPersistentCacheMisses, lookups));
+        out.println("  Persistent cache writes:         " + as.numPersistentCacheWrites);
+        out.println("  Persistent cache evictions:      " + as.numPersistentCacheEvictions);
+        out.println("  Time for persistent cache:       " + as.persistentCacheTime);
+      }
     }
 
     if (statistics.satCheckTimer.getNumberOfIntervals() > 0) {
@@ -292,9 +333,9 @@ class PredicateCPAStatistics implements Statistics {
     if (statistics.symbolicCoverageCheckTimer.getNumberOfIntervals() > 0) {
       out.println("  Symbolic coverage check:         " + statistics.symbolicCoverageCheckTimer.getNumberOfIntervals());
     }
-    out.println("Number of SMT sat checks:          " + solver.satChecks);
-    out.println("  trivial:                         " + solver.trivialSatChecks);
-    out.println("  cached:                          " + solver.cachedSatChecks);
+    out.println("Number of SMT sat checks:          " + solver.satChecks.getValue());
+    out.println("  trivial:                         " + solver.trivialSatChecks.getValue());
+    out.println("  cached:                          " + solver.cachedSatChecks.getValue());
     out.println();
     out.println("Max ABE block size:                       " + statistics.blockSize.getMaxValue());
     put(out, 0, statistics.blockSize);
@@ -50,12 +50,17 @@ public abstract class PredicateGlobalRefiner implements Refiner {
         new PredicateAbstractionGlobalRefinementStrategy(
             config, logger, predicateCpa.getPredicateManager(), solver);
 
-    return new PredicateCPAGlobalRefiner(
-        logger,
-        fmgr,
-        strategy,
-        solver,
-        CPAs.retrieveCPAOrFail(pCpa, ARGCPA.class, PredicateGlobalRefiner.class),
-        config);
+    PredicateCPAGlobalRefiner refiner =
+        new PredicateCPAGlobalRefiner(
+            logger,
+            fmgr,
+            strategy,
+            solver,
+            CPAs.retrieveCPAOrFail(pCpa, ARGCPA.class, PredicateGlobalRefiner.class),
+            config,
+            predicateCpa.getShutdownNotifier());
+    // the refiner holds own solver instances and threads for parallel interpolation
+    predicateCpa.closeTogether(refiner);
+    return refiner;
   }
 }
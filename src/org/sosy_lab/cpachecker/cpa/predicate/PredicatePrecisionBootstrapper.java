@@ -35,6 +35,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -50,6 +51,7 @@ import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.Expression
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.CFAFunctionFingerprints;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateMapParser;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.PredicateParsingFailedException;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -69,6 +71,17 @@ public class PredicatePrecisionBootstrapper implements StatisticsProvider {
   @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
   private List<Path> predicatesFiles = ImmutableList.of();
 
+  @Option(
+      secure = true,
+      name = "abstraction.initialPredicates.previousFingerprints",
+      description =
+          "fingerprints of the previous program revision for which the initial predicates were"
+              + " exported (cf. cpa.predicate.predmap.fingerprints). If given, only predicates of"
+              + " functions that did not change are reused, and their location-specific"
+              + " predicates are mapped to the corresponding locations of the current program.")
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path previousFingerprintsFile = null;
+
   @Option(secure=true, description="always check satisfiability at end of block, even if precision is empty")
   private boolean checkBlockFeasibility = false;
 
@@ -165,8 +178,13 @@ public class PredicatePrecisionBootstrapper implements StatisticsProvider {
     }
 
     if (!predicatesFiles.isEmpty()) {
+      CFAFunctionFingerprints.Matching previousRevision = null;
+      if (previousFingerprintsFile != null) {
+        previousRevision = matchWithPreviousRevision(previousFingerprintsFile);
+      }
       PredicateMapParser parser =
-          new PredicateMapParser(cfa, logger, formulaManagerView, abstractionManager, options);
+          new PredicateMapParser(
+              cfa, logger, formulaManagerView, abstractionManager, options, previousRevision);
 
       for (Path predicatesFile : predicatesFiles) {
         try {
@@ -193,11 +211,41 @@ public class PredicatePrecisionBootstrapper implements StatisticsProvider {
           logger.logUserException(Level.WARNING, e, "Could not read predicate map");
         }
       }
+
+      if (previousRevision != null) {
+        statistics.addKeyValueStatistic(
+            "Init. predicate sections dropped", parser.getNumberOfDroppedSections());
+      }
     }
 
     return result;
   }
 
+  private CFAFunctionFingerprints.Matching matchWithPreviousRevision(Path pFingerprintsFile) {
+    CFAFunctionFingerprints current = CFAFunctionFingerprints.of(cfa);
+    CFAFunctionFingerprints.Matching matching;
+    try {
+      IO.checkReadableFile(pFingerprintsFile);
+      matching = current.matchWithPrevious(CFAFunctionFingerprints.read(pFingerprintsFile), cfa);
+    } catch (IOException | PredicateParsingFailedException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not read fingerprints of previous program revision");
+      // without fingerprints, node ids and functions of the predicate map cannot be trusted
+      matching = CFAFunctionFingerprints.Matching.noneUnchanged(cfa.getNumberOfFunctions());
+    }
+
+    statistics.addKeyValueStatistic("Unchanged functions", matching.getUnchangedFunctions().size());
+    statistics.addKeyValueStatistic("Changed functions", matching.getNumberOfChangedFunctions());
+    logger.log(
+        Level.INFO,
+        "Reusing predicates for",
+        matching.getUnchangedFunctions().size(),
+        "unchanged functions,",
+        matching.getNumberOfChangedFunctions(),
+        "functions changed since the previous revision.");
+    return matching;
+  }
+
   private PredicatePrecision parseInvariantsFromCorrectnessWitnessAsPredicates(Path pWitnessFile) {
     PredicatePrecision result = PredicatePrecision.empty();
     try {
@@ -0,0 +1,286 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate.persistence;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.PredicateParsingFailedException;
+
+/**
+ * Fingerprints of the functions of a CFA, used for reusing a predicate map from a previous
+ * revision of the analyzed program.
+ *
+ * <p>The fingerprint of a function is a hash over the structure and the edge labels of its
+ * intra-procedural CFA, but not over the node numbers or line numbers, which change whenever some
+ * other part of the program is modified. Together with the hash, the node numbers of the function
+ * are stored in a canonical order, such that for an unchanged function each node of the previous
+ * CFA can be mapped to the corresponding node of the current CFA.
+ *
+ * <p>The file format has one line per function: "&lt;FUNC&gt; &lt;HASH&gt; &lt;ID&gt;,&lt;ID&gt;,..."
+ * Lines starting with "//" are comments.
+ */
+public final class CFAFunctionFingerprints {
+
+  private static final Splitter FIELD_SPLITTER = Splitter.on(' ').omitEmptyStrings();
+  private static final Splitter ID_SPLITTER = Splitter.on(',');
+  private static final Joiner ID_JOINER = Joiner.on(',');
+
+  private static final class Fingerprint {
+    private final String hash;
+    private final ImmutableList<Integer> nodeIds;
+
+    private Fingerprint(String pHash, ImmutableList<Integer> pNodeIds) {
+      hash = checkNotNull(pHash);
+      nodeIds = checkNotNull(pNodeIds);
+    }
+
+    private boolean matches(Fingerprint pOther) {
+      return hash.equals(pOther.hash) && nodeIds.size() == pOther.nodeIds.size();
+    }
+  }
+
+  private final ImmutableMap<String, Fingerprint> functions;
+
+  private CFAFunctionFingerprints(ImmutableMap<String, Fingerprint> pFunctions) {
+    functions = pFunctions;
+  }
+
+  /** Compute the fingerprints of all functions of the given CFA. */
+  public static CFAFunctionFingerprints of(CFA pCfa) {
+    ImmutableMap.Builder<String, Fingerprint> result = ImmutableMap.builder();
+    for (Entry<String, FunctionEntryNode> function : pCfa.getAllFunctions().entrySet()) {
+      result.put(function.getKey(), computeFingerprint(function.getValue()));
+    }
+    return new CFAFunctionFingerprints(result.build());
+  }
+
+  /**
+   * Traverse the function in breadth-first order, following the leaving edges in their order and
+   * summary edges instead of function calls. Each node is identified by its position in this
+   * traversal, which is independent of the node numbering.
+   */
+  private static Fingerprint computeFingerprint(FunctionEntryNode pEntry) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    Map<CFANode, Integer> positions = new LinkedHashMap<>();
+    Queue<CFANode> waitlist = new ArrayDeque<>();
+    positions.put(pEntry, 0);
+    waitlist.add(pEntry);
+
+    while (!waitlist.isEmpty()) {
+      CFANode node = waitlist.remove();
+      hasher.putInt(positions.get(node)).putBoolean(node.isLoopStart());
+
+      for (int i = 0; i < node.getNumLeavingEdges(); i++) {
+        CFAEdge edge = node.getLeavingEdge(i);
+        if (edge.getEdgeType() == CFAEdgeType.FunctionReturnEdge) {
+          // leaves the function
+          continue;
+        }
+        hasher.putUnencodedChars(edge.getEdgeType().name());
+        hasher.putUnencodedChars(edge.getDescription());
+        if (edge.getEdgeType() == CFAEdgeType.FunctionCallEdge) {
+          // the callee has its own fingerprint
+          continue;
+        }
+        hasher.putInt(visit(edge.getSuccessor(), positions, waitlist));
+      }
+
+      FunctionSummaryEdge summaryEdge = node.getLeavingSummaryEdge();
+      if (summaryEdge != null) {
+        hasher.putUnencodedChars(summaryEdge.getDescription());
+        hasher.putInt(visit(summaryEdge.getSuccessor(), positions, waitlist));
+      }
+    }
+
+    ImmutableList.Builder<Integer> nodeIds = ImmutableList.builder();
+    for (CFANode node : positions.keySet()) {
+      nodeIds.add(node.getNodeNumber());
+    }
+    return new Fingerprint(hasher.hash().toString(), nodeIds.build());
+  }
+
+  private static int visit(
+      CFANode pNode, Map<CFANode, Integer> pPositions, Queue<CFANode> pWaitlist) {
+    Integer position = pPositions.get(pNode);
+    if (position == null) {
+      position = pPositions.size();
+      pPositions.put(pNode, position);
+      pWaitlist.add(pNode);
+    }
+    return position;
+  }
+
+  /** Write the fingerprints in the format described above. */
+  public void write(Appendable pOut) throws IOException {
+    pOut.append("// fingerprints of functions for cpa.predicate.abstraction.initialPredicates\n");
+    for (Entry<String, Fingerprint> function : functions.entrySet()) {
+      pOut.append(function.getKey())
+          .append(' ')
+          .append(function.getValue().hash)
+          .append(' ')
+          .append(ID_JOINER.join(function.getValue().nodeIds))
+          .append('\n');
+    }
+  }
+
+  /**
+   * Read fingerprints from a file in the format described above.
+   *
+   * @throws IOException If the file cannot be read.
+   * @throws PredicateParsingFailedException If there is a syntax error in the file.
+   */
+  public static CFAFunctionFingerprints read(Path pFile)
+      throws IOException, PredicateParsingFailedException {
+    String source = pFile.getFileName().toString();
+    ImmutableMap.Builder<String, Fingerprint> result = ImmutableMap.builder();
+    try (BufferedReader reader = Files.newBufferedReader(pFile, StandardCharsets.US_ASCII)) {
+      String line;
+      int lineNo = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNo++;
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("//")) {
+          continue;
+        }
+        List<String> fields = FIELD_SPLITTER.splitToList(line);
+        if (fields.size() != 3) {
+          throw new PredicateParsingFailedException(
+              line + " is not a valid function fingerprint", source, lineNo);
+        }
+        ImmutableList.Builder<Integer> nodeIds = ImmutableList.builder();
+        try {
+          for (String id : ID_SPLITTER.split(fields.get(2))) {
+            nodeIds.add(Integer.parseInt(id));
+          }
+        } catch (NumberFormatException e) {
+          throw new PredicateParsingFailedException(e, source, lineNo);
+        }
+        result.put(fields.get(0), new Fingerprint(fields.get(1), nodeIds.build()));
+      }
+    }
+    try {
+      return new CFAFunctionFingerprints(result.build());
+    } catch (IllegalArgumentException e) {
+      throw new PredicateParsingFailedException(e, source, 0);
+    }
+  }
+
+  /**
+   * Compare the given fingerprints of a previous program revision with the current CFA, which
+   * needs to be the CFA from which this instance was computed.
+   */
+  public Matching matchWithPrevious(CFAFunctionFingerprints pPrevious, CFA pCfa) {
+    Map<Integer, CFANode> currentNodes = new HashMap<>();
+    for (CFANode node : pCfa.getAllNodes()) {
+      currentNodes.put(node.getNodeNumber(), node);
+    }
+
+    ImmutableSet.Builder<String> unchanged = ImmutableSet.builder();
+    ImmutableMap.Builder<Integer, CFANode> nodeMapping = ImmutableMap.builder();
+    for (Entry<String, Fingerprint> function : functions.entrySet()) {
+      Fingerprint current = function.getValue();
+      Fingerprint previous = pPrevious.functions.get(function.getKey());
+      if (previous != null && previous.matches(current)) {
+        unchanged.add(function.getKey());
+        for (int i = 0; i < current.nodeIds.size(); i++) {
+          CFANode node = currentNodes.get(current.nodeIds.get(i));
+          if (node != null) {
+            nodeMapping.put(previous.nodeIds.get(i), node);
+          }
+        }
+      }
+    }
+    return new Matching(unchanged.build(), functions.size(), nodeMapping.build());
+  }
+
+  /**
+   * The result of comparing two program revisions: the set of unchanged functions, and a mapping
+   * from the node numbers of the previous revision to the nodes of the current CFA for all nodes in
+   * unchanged functions.
+   */
+  public static final class Matching {
+
+    private final ImmutableSet<String> unchangedFunctions;
+    private final int numberOfFunctions;
+    private final ImmutableMap<Integer, CFANode> nodeMapping;
+
+    private Matching(
+        ImmutableSet<String> pUnchangedFunctions,
+        int pNumberOfFunctions,
+        ImmutableMap<Integer, CFANode> pNodeMapping) {
+      unchangedFunctions = pUnchangedFunctions;
+      numberOfFunctions = pNumberOfFunctions;
+      nodeMapping = pNodeMapping;
+    }
+
+    /** A matching for the case that nothing is known about the previous revision. */
+    public static Matching noneUnchanged(int pNumberOfFunctions) {
+      return new Matching(ImmutableSet.of(), pNumberOfFunctions, ImmutableMap.of());
+    }
+
+    public Set<String> getUnchangedFunctions() {
+      return unchangedFunctions;
+    }
+
+    public int getNumberOfChangedFunctions() {
+      return numberOfFunctions - unchangedFunctions.size();
+    }
+
+    public boolean isUnchanged(String pFunction) {
+      return unchangedFunctions.contains(pFunction);
+    }
+
+    /** Return the current node for a node number of the previous revision, or null. */
+    public @Nullable CFANode getCurrentNode(int pPreviousNodeId) {
+      return nodeMapping.get(pPreviousNodeId);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate.persistence;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.PredicateParsingFailedException;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CFAFunctionFingerprintsTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final String F = "int f(int x) { if (x > 0) { return x; } return -x; }";
+  private static final String G_OLD = "int g(int y) { return y + 1; }";
+  private static final String G_NEW = "int g(int y) { return y + 2; }";
+  private static final String H = "int h(int z) { int a = z; while (a > 0) { a--; } return a; }";
+  private static final String MAIN = "int main() { int r = f(1); r = g(r); return r; }";
+
+  private CFAFunctionFingerprints roundTrip(CFAFunctionFingerprints pFingerprints)
+      throws IOException, PredicateParsingFailedException {
+    Path file = tempFolder.newFile("fingerprints.txt").toPath();
+    try (Writer w = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+      pFingerprints.write(w);
+    }
+    return CFAFunctionFingerprints.read(file);
+  }
+
+  @Test
+  public void testIdenticalProgram() throws Exception {
+    CFA cfa1 = TestDataTools.makeCFA(F, G_OLD, MAIN);
+    CFA cfa2 = TestDataTools.makeCFA(F, G_OLD, MAIN);
+
+    CFAFunctionFingerprints.Matching matching =
+        CFAFunctionFingerprints.of(cfa2)
+            .matchWithPrevious(roundTrip(CFAFunctionFingerprints.of(cfa1)), cfa2);
+
+    assertThat(matching.getUnchangedFunctions()).containsExactly("f", "g", "main");
+    assertThat(matching.getNumberOfChangedFunctions()).isEqualTo(0);
+  }
+
+  @Test
+  public void testChangedFunction() throws Exception {
+    CFA cfa1 = TestDataTools.makeCFA(F, G_OLD, MAIN);
+    // the new function h shifts the node numbers of all following functions
+    CFA cfa2 = TestDataTools.makeCFA(H, F, G_NEW, MAIN);
+
+    CFAFunctionFingerprints.Matching matching =
+        CFAFunctionFingerprints.of(cfa2)
+            .matchWithPrevious(roundTrip(CFAFunctionFingerprints.of(cfa1)), cfa2);
+
+    // main contains the global declarations, which include the new function h
+    assertThat(matching.isUnchanged("f")).isTrue();
+    assertThat(matching.isUnchanged("g")).isFalse();
+    assertThat(matching.isUnchanged("h")).isFalse();
+
+    int oldEntryOfF = cfa1.getFunctionHead("f").getNodeNumber();
+    int oldExitOfF = cfa1.getFunctionHead("f").getExitNode().getNodeNumber();
+    CFANode newEntryOfF = cfa2.getFunctionHead("f");
+    assertThat(matching.getCurrentNode(oldEntryOfF)).isSameInstanceAs(newEntryOfF);
+    assertThat(matching.getCurrentNode(oldExitOfF)).isSameInstanceAs(newEntryOfF.getExitNode());
+
+    int oldEntryOfG = cfa1.getFunctionHead("g").getNodeNumber();
+    assertThat(matching.getCurrentNode(oldEntryOfG)).isNull();
+  }
+
+  @Test(expected = PredicateParsingFailedException.class)
+  public void testInvalidFile() throws IOException, PredicateParsingFailedException {
+    Path file = tempFolder.newFile("invalid.txt").toPath();
+    Files.write(file, "main 1234\n".getBytes(StandardCharsets.US_ASCII));
+    CFAFunctionFingerprints.read(file);
+  }
+}
@@ -99,17 +99,41 @@ public class PredicateMapParser {
 
   private final PredicatePrecisionBootstrapper.InitialPredicatesOptions options;
 
+  private final CFAFunctionFingerprints.@Nullable Matching previousRevision;
+  private int droppedSections = 0;
+
   public PredicateMapParser(
       CFA pCfa,
       LogManager pLogger,
       FormulaManagerView pFmgr,
       AbstractionManager pAmgr,
       PredicatePrecisionBootstrapper.InitialPredicatesOptions pOptions) {
+    this(pCfa, pLogger, pFmgr, pAmgr, pOptions, null);
+  }
+
+  /**
+   * Create a parser for predicate maps that were exported for a previous revision of the program.
+   * Sections for functions that changed since then are ignored, and the CFA nodes in the
+   * remaining sections are mapped to the corresponding nodes of the current CFA.
+   */
+  public PredicateMapParser(
+      CFA pCfa,
+      LogManager pLogger,
+      FormulaManagerView pFmgr,
+      AbstractionManager pAmgr,
+      PredicatePrecisionBootstrapper.InitialPredicatesOptions pOptions,
+      CFAFunctionFingerprints.@Nullable Matching pPreviousRevision) {
     cfa = pCfa;
     logger = new LogManagerWithoutDuplicates(pLogger);
     fmgr = pFmgr;
     amgr = pAmgr;
     options = pOptions;
+    previousRevision = pPreviousRevision;
+  }
+
+  /** The number of sections that were ignored because their function has changed. */
+  public int getNumberOfDroppedSections() {
+    return droppedSections;
   }
 
   /**
@@ -192,7 +216,11 @@ public class PredicateMapParser {
         } else if (FUNCTION_NAME_PATTERN.matcher(currentLine).matches()) {
           // a section with a function name
 
-          if (!cfa.getAllFunctionNames().contains(currentLine)) {
+          if (isChangedFunction(currentLine)) {
+            droppedSections++;
+            currentSet = new ArrayList<>(); // temporary list which will be thrown away and ignored
+
+          } else if (!cfa.getAllFunctionNames().contains(currentLine)) {
             logger.log(Level.WARNING, "Cannot use predicates for function", currentLine + ", this function does not exist.");
             currentSet = new ArrayList<>(); // temporary list which will be thrown away and ignored
 
@@ -208,7 +236,11 @@ public class PredicateMapParser {
             String function = matcher.group(1);
             int nodeId = Integer.parseInt(matcher.group(2)); // does not fail, we checked with regexp
 
-            if (options.applyFunctionWide()) {
+            if (isChangedFunction(function)) {
+              droppedSections++;
+              currentSet = new ArrayList<>(); // temporary list which will be thrown away and ignored
+
+            } else if (options.applyFunctionWide()) {
               if (!cfa.getAllFunctionNames().contains(function)) {
                 logger.log(Level.WARNING, "Cannot use predicates for function", function + ", this function does not exist.");
                 currentSet = new ArrayList<>(); // temporary list which will be thrown away and ignored
@@ -268,7 +300,15 @@ public class PredicateMapParser {
     return FormulaParser.convertFormula(checkNotNull(converter), line, logger);
   }
 
+  private boolean isChangedFunction(String function) {
+    return previousRevision != null && !previousRevision.isUnchanged(function);
+  }
+
   private CFANode getCFANodeWithId(int id) {
+    if (previousRevision != null) {
+      // node ids refer to the previous revision
+      return previousRevision.getCurrentNode(id);
+    }
     if (idToNodeMap.isEmpty()) {
       for (CFANode n : cfa.getAllNodes()) {
         idToNodeMap.put(n.getNodeNumber(), n);
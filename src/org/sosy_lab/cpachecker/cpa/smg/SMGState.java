@@ -26,7 +26,6 @@ package org.sosy_lab.cpachecker.cpa.smg;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -42,6 +41,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -89,6 +89,7 @@ import org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGJoin;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGJoinStatus;
 import org.sosy_lab.cpachecker.cpa.smg.refiner.SMGMemoryPath;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentBiMap;
 import org.sosy_lab.cpachecker.cpa.smg.util.PersistentSet;
 import org.sosy_lab.cpachecker.exceptions.InvalidQueryException;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
@@ -110,7 +111,10 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
   private final int predecessorId;
   private final int id;
 
-  private final BiMap<SMGKnownSymbolicValue, SMGKnownExpValue> explicitValues = HashBiMap.create();
+  /** statistics: number of state copies that share the explicit values of their original. */
+  static final LongAdder sharedExplicitValuesOnCopy = new LongAdder();
+
+  private PersistentBiMap<SMGKnownSymbolicValue, SMGKnownExpValue> explicitValues;
   private final CLangSMG heap;
 
   private final boolean blockEnded;
@@ -171,16 +175,33 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
       CLangSMG pHeap,
       int pPredId,
       Map<SMGKnownSymbolicValue, SMGKnownExpValue> pMergedExplicitValues) {
-    this(pLogger, pOptions, pHeap, pPredId, pMergedExplicitValues, SMGErrorInfo.of(), false);
+    this(
+        pLogger,
+        pOptions,
+        pHeap,
+        pPredId,
+        toPersistentBiMap(pMergedExplicitValues),
+        SMGErrorInfo.of(),
+        false);
+  }
+
+  private static PersistentBiMap<SMGKnownSymbolicValue, SMGKnownExpValue> toPersistentBiMap(
+      Map<SMGKnownSymbolicValue, SMGKnownExpValue> pExplicitValues) {
+    Preconditions.checkArgument(!pExplicitValues.containsKey(null));
+    Preconditions.checkArgument(!pExplicitValues.containsValue(null));
+    return PersistentBiMap.copyOf(pExplicitValues);
   }
 
-  /** Copy constructor. */
+  /**
+   * Copy constructor. The explicit values are persistent and thus shared with the original state
+   * instead of being copied.
+   */
   private SMGState(
       LogManager pLogger,
       SMGOptions pOptions,
       CLangSMG pHeap,
       int pPredId,
-      Map<SMGKnownSymbolicValue, SMGKnownExpValue> pExplicitValues,
+      PersistentBiMap<SMGKnownSymbolicValue, SMGKnownExpValue> pExplicitValues,
       SMGErrorInfo pErrorInfo,
       boolean pBlockEnded) {
     options = pOptions;
@@ -188,9 +209,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     logger = pLogger;
     predecessorId = pPredId;
     id = ID_COUNTER.getFreshId();
-    Preconditions.checkArgument(!pExplicitValues.containsKey(null));
-    Preconditions.checkArgument(!pExplicitValues.containsValue(null));
-    explicitValues.putAll(pExplicitValues);
+    explicitValues = pExplicitValues;
     errorInfo = pErrorInfo;
     blockEnded = pBlockEnded;
     sizeOfVoidPointerInBits =
@@ -203,7 +222,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     options = pOriginalState.options;
     predecessorId = pOriginalState.getId();
     id = ID_COUNTER.getFreshId();
-    explicitValues.putAll(pOriginalState.explicitValues);
+    explicitValues = pOriginalState.explicitValues;
     blockEnded = pOriginalState.blockEnded;
     errorInfo = pOriginalState.errorInfo.withProperty(pProperty);
     sizeOfVoidPointerInBits = pOriginalState.sizeOfVoidPointerInBits;
@@ -211,25 +230,42 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
 
   @Override
   public SMGState copyOf() {
+    countSharedExplicitValues();
     return new SMGState(logger, options, heap.copyOf(), id, explicitValues, errorInfo, blockEnded);
   }
 
   @Override
   public SMGState copyWith(CLangSMG pSmg, BiMap<SMGKnownSymbolicValue, SMGKnownExpValue> pValues) {
-    return new SMGState(logger, options, pSmg, id, pValues, errorInfo, blockEnded);
+    return new SMGState(
+        logger, options, pSmg, id, toPersistentBiMap(pValues), errorInfo, blockEnded);
   }
 
   @Override
   public SMGState copyWithBlockEnd(boolean isBlockEnd) {
+    countSharedExplicitValues();
     return new SMGState(logger, options, heap.copyOf(), id, explicitValues, errorInfo, isBlockEnd);
   }
 
+  private void countSharedExplicitValues() {
+    if (!explicitValues.isEmpty()) {
+      sharedExplicitValuesOnCopy.increment();
+    }
+  }
+
   @Override
   public SMGState withViolationsOf(SMGState pOther) {
     if (errorInfo.equals(pOther.errorInfo)) {
       return this;
     }
-    SMGState result = new SMGState(logger, options, heap, ID_COUNTER.getFreshId(), explicitValues);
+    SMGState result =
+        new SMGState(
+            logger,
+            options,
+            heap,
+            ID_COUNTER.getFreshId(),
+            explicitValues,
+            SMGErrorInfo.of(),
+            false);
     result.errorInfo = result.errorInfo.mergeWith(pOther.errorInfo);
     return result;
   }
@@ -403,7 +439,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
   @Override
   public String toDot(String pName, String pLocation) {
     SMGPlotter plotter = new SMGPlotter();
-    return plotter.smgAsDot(heap, pName, pLocation, explicitValues);
+    return plotter.smgAsDot(heap, pName, pLocation, explicitValues.asMap());
   }
 
   /**
@@ -1354,7 +1390,8 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
 
     // join explicit values
     Map<SMGKnownSymbolicValue, SMGKnownExpValue> mergedExplicitValues = new HashMap<>();
-    for (Entry<SMGKnownSymbolicValue, SMGKnownExpValue> entry : explicitValues.entrySet()) {
+    for (Entry<SMGKnownSymbolicValue, SMGKnownExpValue> entry :
+        explicitValues.asMap().entrySet()) {
       if (destHeap.getValues().contains(entry.getKey())) {
         mergedExplicitValues.put(entry.getKey(), entry.getValue());
       }
@@ -1787,9 +1824,10 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     }
 
     heap.replaceValue(pKnownVal1, pKnownVal2);
-    SMGKnownExpValue expVal = explicitValues.remove(pKnownVal2);
+    SMGKnownExpValue expVal = explicitValues.get(pKnownVal2);
+    explicitValues = explicitValues.removeAndCopy(pKnownVal2);
     if (expVal != null) {
-      explicitValues.put(pKnownVal1, expVal);
+      explicitValues = explicitValues.putAndCopy(pKnownVal1, expVal);
     }
   }
 
@@ -1872,30 +1910,30 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     Preconditions.checkNotNull(pKey);
     Preconditions.checkNotNull(pValue);
 
-    if (explicitValues.inverse().containsKey(pValue)) {
-      SMGKnownSymbolicValue symValue = explicitValues.inverse().get(pValue);
+    if (explicitValues.containsValue(pValue)) {
+      SMGKnownSymbolicValue symValue = explicitValues.getKeyForValue(pValue);
 
       if (!pKey.equals(symValue)) {
-        explicitValues.remove(symValue);
+        explicitValues = explicitValues.removeAndCopy(symValue);
         if (symValue.isZero()) { // swap values, we prefer ZERO in the SMG.
           heap.replaceValue(symValue, pKey);
         } else {
           heap.replaceValue(pKey, symValue);
         }
-        explicitValues.put(pKey, pValue);
+        explicitValues = explicitValues.putAndCopy(pKey, pValue);
         return symValue;
       }
 
       return null;
     }
 
-    explicitValues.put(pKey, pValue);
+    explicitValues = explicitValues.putAndCopy(pKey, pValue);
     return null;
   }
 
   @Deprecated // unused
   public void clearExplicit(SMGKnownSymbolicValue pKey) {
-    explicitValues.remove(pKey);
+    explicitValues = explicitValues.removeAndCopy(pKey);
   }
 
   @Override
@@ -2148,6 +2186,6 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
 
   @Override
   public Set<Entry<SMGKnownSymbolicValue, SMGKnownExpValue>> getExplicitValues() {
-    return Collections.unmodifiableSet(explicitValues.entrySet());
+    return Collections.unmodifiableSet(explicitValues.asMap().entrySet());
   }
 }
@@ -28,6 +28,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.PredRelation;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
@@ -45,6 +46,13 @@ public class SMGStatistics implements Statistics {
     put(pOut, 1, SMGIsLessOrEqual.heapTimer);
     put(pOut, 0, abstractions);
     put(pOut, 0, totalAbstraction);
+    put(
+        pOut,
+        0,
+        "Number of state copies sharing explicit values",
+        SMGState.sharedExplicitValuesOnCopy);
+    put(pOut, 0, "Number of shared predicate relations", PredRelation.sharedOnPutAll);
+    put(pOut, 0, "Number of merged predicate relations", PredRelation.mergedOnPutAll);
   }
 
   @Override
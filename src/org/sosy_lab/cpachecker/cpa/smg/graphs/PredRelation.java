@@ -23,38 +23,75 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGExplicitValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownAddressValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGSymbolicValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
 import org.sosy_lab.cpachecker.util.Pair;
 
+/**
+ * Relations between symbolic values and between symbolic and explicit values. All data is kept in
+ * persistent structures, such that copying a relation via {@link #putAll} into an empty instance
+ * (as done when copying an SMG) only shares the structures instead of copying their content.
+ */
 public final class PredRelation {
-  /** The Multimap is used as Bi-Map, i.e. each pair (K,V) is also inserted as pair (V,K). */
-  private final SetMultimap<Pair<SMGValue, SMGValue>, SymbolicRelation> smgValuesRelation =
-      HashMultimap.create();
 
-  private final SetMultimap<SMGValue, SMGValue> smgValuesDependency = HashMultimap.create();
-  private final SetMultimap<SMGValue, ExplicitRelation> smgExplicitValueRelation =
-      HashMultimap.create();
-  private final Map<SMGValue, Integer> smgValueSizeInBits = new HashMap<>();
+  /** statistics: how often {@link #putAll} could share the data instead of merging it. */
+  public static final LongAdder sharedOnPutAll = new LongAdder();
+
+  public static final LongAdder mergedOnPutAll = new LongAdder();
+
+  /**
+   * The nested map is used as Bi-Map, i.e. each relation for (K,V) is also inserted for (V,K).
+   * Inner maps are never empty.
+   */
+  private PersistentMap<SMGValue, PersistentMultimap<SMGValue, SymbolicRelation>>
+      smgValuesRelation = PathCopyingPersistentTreeMap.of();
+
+  private PersistentMultimap<SMGValue, SMGValue> smgValuesDependency = PersistentMultimap.of();
+  private PersistentMultimap<SMGValue, ExplicitRelation> smgExplicitValueRelation =
+      PersistentMultimap.of();
+  private PersistentMap<SMGValue, Integer> smgValueSizeInBits = PathCopyingPersistentTreeMap.of();
 
   /** Copy PredRelation */
   public void putAll(PredRelation pPred) {
-    smgValuesRelation.putAll(pPred.smgValuesRelation);
-    smgValuesDependency.putAll(pPred.smgValuesDependency);
-    smgExplicitValueRelation.putAll(pPred.smgExplicitValueRelation);
-    smgValueSizeInBits.putAll(pPred.smgValueSizeInBits);
+    if (isEmpty() && smgValuesDependency.size() == 0 && smgValueSizeInBits.isEmpty()) {
+      sharedOnPutAll.increment();
+      smgValuesRelation = pPred.smgValuesRelation;
+      smgValuesDependency = pPred.smgValuesDependency;
+      smgExplicitValueRelation = pPred.smgExplicitValueRelation;
+      smgValueSizeInBits = pPred.smgValueSizeInBits;
+      return;
+    }
+
+    mergedOnPutAll.increment();
+    for (Entry<SMGValue, PersistentMultimap<SMGValue, SymbolicRelation>> entry :
+        pPred.smgValuesRelation.entrySet()) {
+      PersistentMultimap<SMGValue, SymbolicRelation> relations =
+          smgValuesRelation.get(entry.getKey());
+      smgValuesRelation =
+          smgValuesRelation.putAndCopy(
+              entry.getKey(),
+              relations == null ? entry.getValue() : relations.putAllAndCopy(entry.getValue()));
+    }
+    smgValuesDependency = smgValuesDependency.putAllAndCopy(pPred.smgValuesDependency);
+    smgExplicitValueRelation =
+        smgExplicitValueRelation.putAllAndCopy(pPred.smgExplicitValueRelation);
+    for (Entry<SMGValue, Integer> entry : pPred.smgValueSizeInBits.entrySet()) {
+      smgValueSizeInBits = smgValueSizeInBits.putAndCopy(entry.getKey(), entry.getValue());
+    }
   }
 
   public void addRelation(SMGSymbolicValue pOne, int pCType1,
@@ -73,21 +110,44 @@ public final class PredRelation {
 
   private void addValueSize(SMGValue pValue, Integer pCType2) {
     if (!smgValueSizeInBits.containsKey(pValue)) {
-      smgValueSizeInBits.put(pValue, pCType2);
+      smgValueSizeInBits = smgValueSizeInBits.putAndCopy(pValue, pCType2);
+    }
+  }
+
+  private boolean containsRelation(SMGValue pOne, SMGValue pTwo, SymbolicRelation pRelation) {
+    PersistentMultimap<SMGValue, SymbolicRelation> relations = smgValuesRelation.get(pOne);
+    return relations != null && relations.contains(pTwo, pRelation);
+  }
+
+  private void putRelation(SMGValue pOne, SMGValue pTwo, SymbolicRelation pRelation) {
+    PersistentMultimap<SMGValue, SymbolicRelation> relations = smgValuesRelation.get(pOne);
+    if (relations == null) {
+      relations = PersistentMultimap.of();
+    }
+    smgValuesRelation = smgValuesRelation.putAndCopy(pOne, relations.putAndCopy(pTwo, pRelation));
+  }
+
+  private void removeRelations(SMGValue pOne, SMGValue pTwo) {
+    PersistentMultimap<SMGValue, SymbolicRelation> relations = smgValuesRelation.get(pOne);
+    if (relations != null) {
+      relations = relations.removeAndCopy(pTwo);
+      smgValuesRelation =
+          relations.size() == 0
+              ? smgValuesRelation.removeAndCopy(pOne)
+              : smgValuesRelation.putAndCopy(pOne, relations);
     }
   }
 
   public void addRelation(SMGValue pOne, SMGValue pTwo, BinaryOperator pOperator) {
     SymbolicRelation relation = new SymbolicRelation(pOne, pTwo, pOperator);
-    if (!smgValuesDependency.containsEntry(pOne, pTwo)) {
-      smgValuesRelation.put(Pair.of(pOne, pTwo), relation);
-      smgValuesRelation.put(Pair.of(pTwo, pOne), relation);
-      smgValuesDependency.put(pOne, pTwo);
-      smgValuesDependency.put(pTwo, pOne);
+    if (!smgValuesDependency.contains(pOne, pTwo)) {
+      putRelation(pOne, pTwo, relation);
+      putRelation(pTwo, pOne, relation);
+      smgValuesDependency = smgValuesDependency.putAndCopy(pOne, pTwo).putAndCopy(pTwo, pOne);
     } else {
-      if (!smgValuesRelation.containsEntry(Pair.of(pOne, pTwo), relation)) {
-        smgValuesRelation.put(Pair.of(pOne, pTwo), relation);
-        smgValuesRelation.put(Pair.of(pTwo, pOne), relation);
+      if (!containsRelation(pOne, pTwo, relation)) {
+        putRelation(pOne, pTwo, relation);
+        putRelation(pTwo, pOne, relation);
       }
     }
   }
@@ -103,36 +163,41 @@ public final class PredRelation {
   public void addExplicitRelation(
       SMGValue pSymbolicValue, SMGExplicitValue pExplicitValue, BinaryOperator pOp) {
     ExplicitRelation relation = new ExplicitRelation(pSymbolicValue, pExplicitValue, pOp);
-    if (!smgExplicitValueRelation.containsEntry(pSymbolicValue, relation)) {
-      smgExplicitValueRelation.put(pSymbolicValue, relation);
+    if (!smgExplicitValueRelation.contains(pSymbolicValue, relation)) {
+      smgExplicitValueRelation = smgExplicitValueRelation.putAndCopy(pSymbolicValue, relation);
     }
   }
 
-  public void removeValue(SMGValue pValue) {
-    for (SMGValue pOposit : smgValuesDependency.removeAll(pValue)) {
+  /** remove all dependencies of the value and all relations between the value and others. */
+  private void removeDependencies(SMGValue pValue) {
+    ImmutableSet<SMGValue> opposites = smgValuesDependency.get(pValue);
+    smgValuesDependency = smgValuesDependency.removeAndCopy(pValue);
+    for (SMGValue pOposit : opposites) {
 
-      smgValuesDependency.remove(pOposit, pValue);
+      smgValuesDependency = smgValuesDependency.removeAndCopy(pOposit, pValue);
 
-      smgValuesRelation.removeAll(Pair.of(pOposit, pValue));
-      smgValuesRelation.removeAll(Pair.of(pValue, pOposit));
+      removeRelations(pOposit, pValue);
+      removeRelations(pValue, pOposit);
     }
-    smgExplicitValueRelation.removeAll(pValue);
-    smgValueSizeInBits.remove(pValue);
+  }
+
+  public void removeValue(SMGValue pValue) {
+    removeDependencies(pValue);
+    smgExplicitValueRelation = smgExplicitValueRelation.removeAndCopy(pValue);
+    smgValueSizeInBits = smgValueSizeInBits.removeAndCopy(pValue);
   }
 
   /** replace the old value with a fresh value. */
   public void replace(SMGValue fresh, SMGValue old) {
-    for (SMGValue relatedValue : smgValuesDependency.removeAll(old)) {
-      smgValuesDependency.remove(relatedValue, old);
-      smgValuesRelation.removeAll(Pair.of(old, relatedValue));
-        //TODO: modify predicates on merge values
-      smgValuesRelation.removeAll(Pair.of(relatedValue, old));
-    }
-    for (ExplicitRelation explicitRelation: smgExplicitValueRelation.removeAll(old)) {
+    //TODO: modify predicates on merge values
+    removeDependencies(old);
+    ImmutableSet<ExplicitRelation> explicitRelations = smgExplicitValueRelation.get(old);
+    smgExplicitValueRelation = smgExplicitValueRelation.removeAndCopy(old);
+    for (ExplicitRelation explicitRelation: explicitRelations) {
       addExplicitRelation(fresh, explicitRelation.explicitValue, explicitRelation.getOperator());
       addValueSize(fresh, getSymbolicSize(old));
     }
-    smgValueSizeInBits.remove(old);
+    smgValueSizeInBits = smgValueSizeInBits.removeAndCopy(old);
   }
 
   public Integer getSymbolicSize(SMGValue pSymbolic) {
@@ -142,12 +207,13 @@ public final class PredRelation {
   /** Returns closure list of symbolic values which affects pRelation */
   public Set<SMGValue> closureDependencyFor(PredRelation pRelation) {
     Set<SMGValue> toAdd = new HashSet<>();
-    for (Entry<SMGValue, SMGValue> entry : pRelation.smgValuesDependency.entries()) {
+    for (Entry<SMGValue, ImmutableSet<SMGValue>> entry : pRelation.smgValuesDependency.entries()) {
       SMGValue key = entry.getKey();
-      SMGValue value = entry.getValue();
-      if (key.compareTo(value) > 0) {
-        toAdd.add(key);
-        toAdd.add(value);
+      for (SMGValue value : entry.getValue()) {
+        if (key.compareTo(value) > 0) {
+          toAdd.add(key);
+          toAdd.add(value);
+        }
       }
     }
     Set<SMGValue> result = new HashSet<>();
@@ -164,7 +230,7 @@ public final class PredRelation {
   }
 
   public boolean isEmpty() {
-    return smgExplicitValueRelation.isEmpty() && smgValuesRelation.isEmpty();
+    return smgExplicitValueRelation.size() == 0 && smgValuesRelation.isEmpty();
   }
 
   @Override
@@ -196,27 +262,51 @@ public final class PredRelation {
   }
 
   public Set<Entry<Pair<SMGValue, SMGValue>, SymbolicRelation>> getValuesRelations() {
-    return smgValuesRelation.entries();
+    ImmutableSet.Builder<Entry<Pair<SMGValue, SMGValue>, SymbolicRelation>> result =
+        ImmutableSet.builder();
+    for (Entry<SMGValue, PersistentMultimap<SMGValue, SymbolicRelation>> entry :
+        smgValuesRelation.entrySet()) {
+      for (Entry<SMGValue, ImmutableSet<SymbolicRelation>> relations : entry.getValue().entries()) {
+        Pair<SMGValue, SMGValue> values = Pair.of(entry.getKey(), relations.getKey());
+        for (SymbolicRelation relation : relations.getValue()) {
+          result.add(Maps.immutableEntry(values, relation));
+        }
+      }
+    }
+    return result.build();
   }
 
-  public boolean isLessOrEqual(PredRelation pPathPredicateRelation) {
-    if (smgValuesDependency.size() > pPathPredicateRelation.smgValuesDependency.size()) {
-      return false;
-    }
-    if (smgExplicitValueRelation.size() > pPathPredicateRelation.smgExplicitValueRelation.size()) {
+  /** Returns whether all entries of the first multimap are also contained in the second one. */
+  private static <K, V> boolean isSubsetOf(
+      PersistentMultimap<K, V> pSubset, PersistentMultimap<K, V> pSuperset) {
+    if (pSubset.size() > pSuperset.size()) {
       return false;
     }
-    if (smgValuesRelation.size() > pPathPredicateRelation.smgValuesDependency.size()) {
-      return false;
+    for (Entry<K, ImmutableSet<V>> entry : pSubset.entries()) {
+      if (!pSuperset.get(entry.getKey()).containsAll(entry.getValue())) {
+        return false;
+      }
     }
-    if (!pPathPredicateRelation.smgValuesDependency.entries().containsAll(smgValuesDependency.entries())) {
+    return true;
+  }
+
+  public boolean isLessOrEqual(PredRelation pPathPredicateRelation) {
+    // There is no separate size check for the symbolic relations: the number of relations
+    // may exceed the number of dependencies if a pair of values has several operators,
+    // so comparing it against the dependencies of the other relation would be wrong.
+    if (!isSubsetOf(smgValuesDependency, pPathPredicateRelation.smgValuesDependency)) {
       return false;
     }
-    if (!pPathPredicateRelation.smgExplicitValueRelation.entries().containsAll(smgExplicitValueRelation.entries())) {
+    if (!isSubsetOf(smgExplicitValueRelation, pPathPredicateRelation.smgExplicitValueRelation)) {
       return false;
     }
-    if (!pPathPredicateRelation.smgValuesRelation.entries().containsAll(smgValuesRelation.entries())) {
-      return false;
+    for (Entry<SMGValue, PersistentMultimap<SMGValue, SymbolicRelation>> entry :
+        smgValuesRelation.entrySet()) {
+      PersistentMultimap<SMGValue, SymbolicRelation> otherRelations =
+          pPathPredicateRelation.smgValuesRelation.get(entry.getKey());
+      if (otherRelations == null || !isSubsetOf(entry.getValue(), otherRelations)) {
+        return false;
+      }
     }
     return true;
   }
@@ -330,8 +420,8 @@ public final class PredRelation {
   }
 
   public void clear() {
-    smgExplicitValueRelation.clear();
-    smgValuesDependency.clear();
-    smgValuesRelation.clear();
+    smgExplicitValueRelation = PersistentMultimap.of();
+    smgValuesDependency = PersistentMultimap.of();
+    smgValuesRelation = PathCopyingPersistentTreeMap.of();
   }
 }
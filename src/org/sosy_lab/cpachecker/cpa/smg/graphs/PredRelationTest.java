@@ -0,0 +1,98 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownExpValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymbolicValue;
+
+public class PredRelationTest {
+
+  private final SMGKnownSymbolicValue sym1 = SMGKnownSymValue.of();
+  private final SMGKnownSymbolicValue sym2 = SMGKnownSymValue.of();
+  private final SMGKnownSymbolicValue sym3 = SMGKnownSymValue.of();
+
+  @Test
+  public void testCopyIsIndependent() {
+    PredRelation original = new PredRelation();
+    original.addRelation(sym1, 32, sym2, 32, BinaryOperator.LESS_THAN);
+
+    PredRelation copy = new PredRelation();
+    copy.putAll(original);
+    assertThat(copy).isEqualTo(original);
+
+    copy.addRelation(sym2, 32, sym3, 32, BinaryOperator.NOT_EQUALS);
+    copy.removeValue(sym1);
+
+    assertThat(original.getValuesRelations()).hasSize(2);
+    assertThat(original.getSymbolicSize(sym1)).isEqualTo(32);
+    assertThat(original.closureDependencyFor(original)).containsExactly(sym1, sym2);
+    assertThat(copy.getValuesRelations()).hasSize(2);
+    assertThat(copy.getSymbolicSize(sym1)).isNull();
+    assertThat(copy.closureDependencyFor(copy)).containsExactly(sym2, sym3);
+  }
+
+  @Test
+  public void testIsLessOrEqual() {
+    PredRelation smaller = new PredRelation();
+    smaller.addRelation(sym1, 32, sym2, 32, BinaryOperator.LESS_THAN);
+
+    PredRelation bigger = new PredRelation();
+    bigger.putAll(smaller);
+    bigger.addRelation(sym2, 32, sym3, 32, BinaryOperator.NOT_EQUALS);
+    bigger.addExplicitRelation(sym3, 32, SMGKnownExpValue.valueOf(5), 32, BinaryOperator.EQUALS);
+
+    assertThat(smaller.isLessOrEqual(bigger)).isTrue();
+    assertThat(bigger.isLessOrEqual(smaller)).isFalse();
+    assertThat(bigger.getExplicitRelations()).hasSize(1);
+
+    PredRelation merged = new PredRelation();
+    merged.addRelation(sym2, 32, sym3, 32, BinaryOperator.NOT_EQUALS);
+    merged.putAll(smaller);
+    assertThat(merged.isLessOrEqual(bigger)).isTrue();
+    assertThat(bigger.isLessOrEqual(merged)).isFalse();
+  }
+
+  @Test
+  public void testIsLessOrEqualWithSeveralOperators() {
+    PredRelation relation = new PredRelation();
+    relation.addRelation(sym1, 32, sym2, 32, BinaryOperator.LESS_THAN);
+    relation.addRelation(sym1, 32, sym2, 32, BinaryOperator.NOT_EQUALS);
+
+    PredRelation copy = new PredRelation();
+    copy.putAll(relation);
+
+    assertThat(relation.isLessOrEqual(relation)).isTrue();
+    assertThat(relation.isLessOrEqual(copy)).isTrue();
+
+    PredRelation weaker = new PredRelation();
+    weaker.addRelation(sym1, 32, sym2, 32, BinaryOperator.NOT_EQUALS);
+    assertThat(weaker.isLessOrEqual(relation)).isTrue();
+    assertThat(relation.isLessOrEqual(weaker)).isFalse();
+  }
+}
@@ -24,41 +24,88 @@
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGZeroValue;
 import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
 
+/**
+ * An immutable set of has-value-edges, indexed by object. Additional persistent indices from
+ * values and from object and offset to the edges allow to answer the corresponding queries without
+ * iterating over all edges. The indices are derived data and thus not part of equality.
+ *
+ * <p>Edges with the value {@link SMGZeroValue} are not part of the value index. Zeroed memory is so
+ * common that its bucket would contain a large part of all edges, and each update would copy it.
+ * Queries for this value iterate over all edges instead.
+ */
 public class SMGHasValueEdgeSet implements SMGHasValueEdges {
 
   private final PersistentMultimap<SMGObject, SMGEdgeHasValue> map;
+  private final PersistentMultimap<SMGValue, SMGEdgeHasValue> valueIndex;
+  private final PersistentMap<SMGObject, PersistentMultimap<Long, SMGEdgeHasValue>> offsetIndex;
 
   public SMGHasValueEdgeSet() {
     map = PersistentMultimap.of();
+    valueIndex = PersistentMultimap.of();
+    offsetIndex = PathCopyingPersistentTreeMap.of();
   }
 
-  private SMGHasValueEdgeSet(PersistentMultimap<SMGObject, SMGEdgeHasValue> pMap) {
+  private SMGHasValueEdgeSet(
+      PersistentMultimap<SMGObject, SMGEdgeHasValue> pMap,
+      PersistentMultimap<SMGValue, SMGEdgeHasValue> pValueIndex,
+      PersistentMap<SMGObject, PersistentMultimap<Long, SMGEdgeHasValue>> pOffsetIndex) {
     map = pMap;
+    valueIndex = pValueIndex;
+    offsetIndex = pOffsetIndex;
   }
 
   @Override
   public SMGHasValueEdgeSet removeAllEdgesOfObjectAndCopy(SMGObject obj) {
-    return new SMGHasValueEdgeSet(map.removeAndCopy(obj));
+    PersistentMultimap<SMGValue, SMGEdgeHasValue> updatedValueIndex = valueIndex;
+    for (SMGEdgeHasValue edge : map.get(obj)) {
+      if (!edge.getValue().isZero()) {
+        updatedValueIndex = updatedValueIndex.removeAndCopy(edge.getValue(), edge);
+      }
+    }
+    return new SMGHasValueEdgeSet(
+        map.removeAndCopy(obj), updatedValueIndex, offsetIndex.removeAndCopy(obj));
   }
 
   @Override
   public SMGHasValueEdgeSet addEdgeAndCopy(SMGEdgeHasValue pEdge) {
-    return new SMGHasValueEdgeSet(map.putAndCopy(pEdge.getObject(), pEdge));
+    SMGObject object = pEdge.getObject();
+    PersistentMultimap<Long, SMGEdgeHasValue> offsets = offsetIndex.get(object);
+    if (offsets == null) {
+      offsets = PersistentMultimap.of();
+    }
+    return new SMGHasValueEdgeSet(
+        map.putAndCopy(object, pEdge),
+        pEdge.getValue().isZero() ? valueIndex : valueIndex.putAndCopy(pEdge.getValue(), pEdge),
+        offsetIndex.putAndCopy(object, offsets.putAndCopy(pEdge.getOffset(), pEdge)));
   }
 
   @Override
   public SMGHasValueEdgeSet removeEdgeAndCopy(SMGEdgeHasValue pEdge) {
-    PersistentMultimap<SMGObject, SMGEdgeHasValue> updated =
-        map.removeAndCopy(pEdge.getObject(), pEdge);
+    SMGObject object = pEdge.getObject();
+    PersistentMultimap<SMGObject, SMGEdgeHasValue> updated = map.removeAndCopy(object, pEdge);
     if (map == updated) {
       return this;
     } else {
-      return new SMGHasValueEdgeSet(updated);
+      PersistentMultimap<Long, SMGEdgeHasValue> offsets =
+          offsetIndex.get(object).removeAndCopy(pEdge.getOffset(), pEdge);
+      return new SMGHasValueEdgeSet(
+          updated,
+          pEdge.getValue().isZero()
+              ? valueIndex
+              : valueIndex.removeAndCopy(pEdge.getValue(), pEdge),
+          offsets.size() == 0
+              ? offsetIndex.removeAndCopy(object)
+              : offsetIndex.putAndCopy(object, offsets));
     }
   }
 
@@ -73,6 +120,20 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
     return edges == null ? ImmutableSet.of() : edges;
   }
 
+  @Override
+  public ImmutableSet<SMGEdgeHasValue> getEdgesForValue(SMGValue pValue) {
+    if (pValue.isZero()) {
+      return ImmutableSet.copyOf(Iterables.filter(getHvEdges(), e -> e.getValue().isZero()));
+    }
+    return valueIndex.get(pValue);
+  }
+
+  @Override
+  public ImmutableSet<SMGEdgeHasValue> getEdgesForObjectAndOffset(SMGObject pObject, long pOffset) {
+    @Nullable PersistentMultimap<Long, SMGEdgeHasValue> offsets = offsetIndex.get(pObject);
+    return offsets == null ? ImmutableSet.of() : offsets.get(pOffset);
+  }
+
   @Override
   public int hashCode() {
     return map.hashCode();
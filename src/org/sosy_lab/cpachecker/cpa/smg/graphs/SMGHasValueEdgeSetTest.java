@@ -0,0 +1,137 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValueFilter;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownExpValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGZeroValue;
+
+public class SMGHasValueEdgeSetTest {
+
+  private static final int mockTypeSize = 32;
+
+  private final SMGObject object1 = new SMGRegion(64, "object1");
+  private final SMGObject object2 = new SMGRegion(64, "object2");
+  private final SMGValue value1 = SMGKnownExpValue.valueOf(1);
+  private final SMGValue value2 = SMGKnownExpValue.valueOf(2);
+
+  private final SMGEdgeHasValue hv11at0 = new SMGEdgeHasValue(mockTypeSize, 0, object1, value1);
+  private final SMGEdgeHasValue hv12at32 = new SMGEdgeHasValue(mockTypeSize, 32, object1, value2);
+  private final SMGEdgeHasValue hv21at0 = new SMGEdgeHasValue(mockTypeSize, 0, object2, value1);
+  private final SMGEdgeHasValue hv1ZeroAt64 =
+      new SMGEdgeHasValue(mockTypeSize, 64, object1, SMGZeroValue.INSTANCE);
+  private final SMGEdgeHasValue hv2ZeroAt32 =
+      new SMGEdgeHasValue(mockTypeSize, 32, object2, SMGZeroValue.INSTANCE);
+
+  private SMGHasValueEdgeSet createEdges() {
+    return new SMGHasValueEdgeSet()
+        .addEdgeAndCopy(hv11at0)
+        .addEdgeAndCopy(hv12at32)
+        .addEdgeAndCopy(hv21at0);
+  }
+
+  @Test
+  public void testIndices() {
+    SMGHasValueEdgeSet edges = createEdges();
+
+    assertThat(edges.getEdgesForValue(value1)).containsExactly(hv11at0, hv21at0);
+    assertThat(edges.getEdgesForValue(value2)).containsExactly(hv12at32);
+    assertThat(edges.getEdgesForValue(SMGKnownExpValue.valueOf(3))).isEmpty();
+    assertThat(edges.getEdgesForObjectAndOffset(object1, 0)).containsExactly(hv11at0);
+    assertThat(edges.getEdgesForObjectAndOffset(object1, 32)).containsExactly(hv12at32);
+    assertThat(edges.getEdgesForObjectAndOffset(object2, 32)).isEmpty();
+  }
+
+  @Test
+  public void testIndicesAfterRemoval() {
+    SMGHasValueEdgeSet edges = createEdges();
+
+    SMGHasValueEdgeSet withoutEdge = edges.removeEdgeAndCopy(hv11at0);
+    assertThat(withoutEdge.getEdgesForValue(value1)).containsExactly(hv21at0);
+    assertThat(withoutEdge.getEdgesForObjectAndOffset(object1, 0)).isEmpty();
+    assertThat(withoutEdge.removeEdgeAndCopy(hv11at0)).isSameInstanceAs(withoutEdge);
+
+    SMGHasValueEdgeSet withoutObject = edges.removeAllEdgesOfObjectAndCopy(object1);
+    assertThat(withoutObject.getEdgesForValue(value1)).containsExactly(hv21at0);
+    assertThat(withoutObject.getEdgesForValue(value2)).isEmpty();
+    assertThat(withoutObject.getEdgesForObjectAndOffset(object1, 32)).isEmpty();
+
+    // the original set is not modified
+    assertThat(edges.getEdgesForValue(value1)).containsExactly(hv11at0, hv21at0);
+    assertThat(withoutObject).isEqualTo(new SMGHasValueEdgeSet().addEdgeAndCopy(hv21at0));
+  }
+
+  @Test
+  public void testFilterUsesIndices() {
+    SMGHasValueEdgeSet edges = createEdges();
+
+    assertThat(ImmutableSet.copyOf(SMGEdgeHasValueFilter.valueFilter(value1).filter(edges)))
+        .containsExactly(hv11at0, hv21at0);
+    assertThat(
+            ImmutableSet.copyOf(
+                SMGEdgeHasValueFilter.objectFilter(object1).filterAtOffset(32).filter(edges)))
+        .containsExactly(hv12at32);
+    assertThat(
+            ImmutableSet.copyOf(
+                SMGEdgeHasValueFilter.objectFilter(object1)
+                    .filterHavingValue(value1)
+                    .filter(edges)))
+        .containsExactly(hv11at0);
+    assertThat(
+            ImmutableSet.copyOf(
+                new SMGEdgeHasValueFilter().filterNotHavingValue(value1).filter(edges)))
+        .containsExactly(hv12at32);
+  }
+
+  @Test
+  public void testZeroValue() {
+    SMGHasValueEdgeSet edges =
+        createEdges().addEdgeAndCopy(hv1ZeroAt64).addEdgeAndCopy(hv2ZeroAt32);
+
+    assertThat(edges.getEdgesForValue(SMGZeroValue.INSTANCE))
+        .containsExactly(hv1ZeroAt64, hv2ZeroAt32);
+    assertThat(edges.getEdgesForObjectAndOffset(object1, 64)).containsExactly(hv1ZeroAt64);
+    assertThat(
+            ImmutableSet.copyOf(
+                SMGEdgeHasValueFilter.objectFilter(object2)
+                    .filterHavingValue(SMGZeroValue.INSTANCE)
+                    .filter(edges)))
+        .containsExactly(hv2ZeroAt32);
+
+    SMGHasValueEdgeSet withoutEdge = edges.removeEdgeAndCopy(hv1ZeroAt64);
+    assertThat(withoutEdge.getEdgesForValue(SMGZeroValue.INSTANCE))
+        .containsExactly(hv2ZeroAt32);
+    SMGHasValueEdgeSet withoutObject = withoutEdge.removeAllEdgesOfObjectAndCopy(object2);
+    assertThat(withoutObject.getEdgesForValue(SMGZeroValue.INSTANCE)).isEmpty();
+    assertThat(withoutEdge.getEdgesForValue(value1)).containsExactly(hv11at0, hv21at0);
+  }
+}
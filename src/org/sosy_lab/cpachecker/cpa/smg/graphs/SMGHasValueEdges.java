@@ -26,6 +26,7 @@ package org.sosy_lab.cpachecker.cpa.smg.graphs;
 import com.google.common.collect.ImmutableSet;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
 
 /** An immutable collection of has-value-edges. */
 public interface SMGHasValueEdges {
@@ -45,4 +46,13 @@ public interface SMGHasValueEdges {
 
   /** get all outgoing edges of an {@link SMGObject}, e.g., all values of this object. */
   ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject);
+
+  /**
+   * get all edges pointing to the given {@link SMGValue}, e.g., all fields having this value. For
+   * the value zero, this may need to iterate over all edges.
+   */
+  ImmutableSet<SMGEdgeHasValue> getEdgesForValue(SMGValue pValue);
+
+  /** get all outgoing edges of an {@link SMGObject} that start at the given offset. */
+  ImmutableSet<SMGEdgeHasValue> getEdgesForObjectAndOffset(SMGObject pObject, long pOffset);
 }
\ No newline at end of file
@@ -97,16 +97,31 @@ public class SMGEdgeHasValueFilter {
   }
 
   public Iterable<SMGEdgeHasValue> filter(SMGHasValueEdges pEdges) {
-    Set<SMGEdgeHasValue> filtered;
+    // use the smallest set of candidates available from the indices of the edges
+    Set<SMGEdgeHasValue> filtered = null;
     if (object != null) {
-      filtered = pEdges.getEdgesForObject(object);
-    } else {
+      filtered =
+          offset != null
+              ? pEdges.getEdgesForObjectAndOffset(object, offset)
+              : pEdges.getEdgesForObject(object);
+    }
+    // edges with value zero are not indexed by value, so only query them if nothing better exists
+    if (value != null && !valueComplement && (filtered == null || !value.isZero())) {
+      Set<SMGEdgeHasValue> edgesWithValue = pEdges.getEdgesForValue(value);
+      if (filtered == null || edgesWithValue.size() < filtered.size()) {
+        filtered = edgesWithValue;
+      }
+    }
+    if (filtered == null) {
       filtered = pEdges.getHvEdges();
     }
     return filter(filtered);
   }
 
-  /** Info: Please use SMG.getHVEdges(filter) for better performance when filtering for objects. */
+  /**
+   * Info: Please use SMG.getHVEdges(filter) for better performance when filtering for objects or
+   * values.
+   */
   @VisibleForTesting
   public Iterable<SMGEdgeHasValue> filter(Iterable<SMGEdgeHasValue> pEdges) {
     return Iterables.filter(pEdges, this::holdsFor);
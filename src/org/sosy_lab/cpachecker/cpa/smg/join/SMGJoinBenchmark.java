@@ -0,0 +1,103 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.join;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cpa.smg.SMGInconsistentException;
+import org.sosy_lab.cpachecker.cpa.smg.SMGOptions;
+import org.sosy_lab.cpachecker.cpa.smg.SMGState;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMG;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsTo;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownExpValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
+
+/**
+ * JMH benchmark for {@link SMGJoin}. Both SMGs contain the same global pointers to heap regions,
+ * the values stored in every fourth heap region differ between the two SMGs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SMGJoinBenchmark {
+
+  private static final int SIZE = 64;
+
+  @Param({"10", "100"})
+  public int objects;
+
+  private SMGState dummyState;
+  private CLangSMG smg1;
+  private CLangSMG smg2;
+
+  @Setup
+  public void setUp() throws InvalidConfigurationException {
+    dummyState =
+        new SMGState(
+            LogManager.createNullLogManager(),
+            MachineModel.LINUX64,
+            new SMGOptions(Configuration.defaultConfiguration()));
+    smg1 = new CLangSMG(MachineModel.LINUX64);
+    smg2 = new CLangSMG(MachineModel.LINUX64);
+    for (int i = 0; i < objects; i++) {
+      addObject(smg1, i, i);
+      addObject(smg2, i, i % 4 == 0 ? -i - 1 : i);
+    }
+  }
+
+  private void addObject(CLangSMG pSmg, int pIndex, int pHeapValue) {
+    SMGRegion global = new SMGRegion(SIZE, "global" + pIndex);
+    SMGRegion heap = new SMGRegion(SIZE, "heap" + pIndex);
+    pSmg.addGlobalObject(global);
+    pSmg.addHeapObject(heap);
+
+    // value ranges of pointers and heap contents are kept disjoint
+    SMGValue pointer = SMGKnownExpValue.valueOf(objects + 1 + pIndex);
+    pSmg.addValue(pointer);
+    pSmg.addPointsToEdge(new SMGEdgePointsTo(pointer, heap, 0));
+    pSmg.addHasValueEdge(new SMGEdgeHasValue(SIZE, 0, global, pointer));
+
+    SMGValue content = SMGKnownExpValue.valueOf(pHeapValue);
+    pSmg.addValue(content);
+    pSmg.addHasValueEdge(new SMGEdgeHasValue(SIZE, 0, heap, content));
+  }
+
+  @Benchmark
+  public SMGJoin join() throws SMGInconsistentException {
+    return new SMGJoin(smg1, smg2, dummyState, dummyState);
+  }
+}
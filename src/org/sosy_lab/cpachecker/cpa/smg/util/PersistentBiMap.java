@@ -0,0 +1,132 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.util;
+
+import com.google.common.base.Preconditions;
+import com.google.errorprone.annotations.Immutable;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
+
+/**
+ * A bidirectional map based on two {@link PathCopyingPersistentTreeMap}s, one for each direction.
+ * As in a {@link com.google.common.collect.BiMap}, each value is mapped from at most one key.
+ */
+@Immutable(containerOf = {"K", "V"})
+public class PersistentBiMap<K, V> {
+
+  private final PersistentMap<K, V> delegate;
+  private final PersistentMap<V, K> inverse;
+
+  private PersistentBiMap(PersistentMap<K, V> pDelegate, PersistentMap<V, K> pInverse) {
+    delegate = pDelegate;
+    inverse = pInverse;
+  }
+
+  public static <K extends Comparable<? super K>, V extends Comparable<? super V>>
+      PersistentBiMap<K, V> of() {
+    return new PersistentBiMap<>(
+        PathCopyingPersistentTreeMap.of(), PathCopyingPersistentTreeMap.of());
+  }
+
+  public static <K extends Comparable<? super K>, V extends Comparable<? super V>>
+      PersistentBiMap<K, V> copyOf(Map<K, V> pMap) {
+    PersistentBiMap<K, V> result = of();
+    for (Map.Entry<K, V> entry : pMap.entrySet()) {
+      result = result.putAndCopy(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  /**
+   * Maps the key to the value and removes a previous value of the key.
+   *
+   * @throws IllegalArgumentException if the value is already mapped from another key.
+   */
+  public PersistentBiMap<K, V> putAndCopy(K pKey, V pValue) {
+    K previousKey = inverse.get(pValue);
+    if (previousKey != null) {
+      Preconditions.checkArgument(
+          previousKey.equals(pKey), "value %s is already bound to key %s", pValue, previousKey);
+      return this;
+    }
+    PersistentMap<V, K> newInverse = inverse;
+    V previousValue = delegate.get(pKey);
+    if (previousValue != null) {
+      newInverse = newInverse.removeAndCopy(previousValue);
+    }
+    return new PersistentBiMap<>(
+        delegate.putAndCopy(pKey, pValue), newInverse.putAndCopy(pValue, pKey));
+  }
+
+  public PersistentBiMap<K, V> removeAndCopy(K pKey) {
+    V value = delegate.get(pKey);
+    if (value == null) {
+      return this;
+    }
+    return new PersistentBiMap<>(delegate.removeAndCopy(pKey), inverse.removeAndCopy(value));
+  }
+
+  public @Nullable V get(K pKey) {
+    return delegate.get(pKey);
+  }
+
+  public boolean containsKey(K pKey) {
+    return delegate.containsKey(pKey);
+  }
+
+  public @Nullable K getKeyForValue(V pValue) {
+    return inverse.get(pValue);
+  }
+
+  public boolean containsValue(V pValue) {
+    return inverse.containsKey(pValue);
+  }
+
+  public boolean isEmpty() {
+    return delegate.isEmpty();
+  }
+
+  /** Returns an unmodifiable view on the mapping from keys to values. */
+  public Map<K, V> asMap() {
+    return delegate;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof PersistentBiMap
+        && delegate.equals(((PersistentBiMap<?, ?>) o).delegate);
+  }
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+}
@@ -28,6 +28,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -51,6 +53,8 @@ import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.core.defaults.LatticeAbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractQueryableState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithCoverageSignature;
 import org.sosy_lab.cpachecker.core.interfaces.FormulaReportingState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
@@ -77,7 +81,8 @@ import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
 public final class ValueAnalysisState
     implements AbstractQueryableState, FormulaReportingState,
         ForgetfulState<ValueAnalysisInformation>, Serializable, Graphable,
-        LatticeAbstractState<ValueAnalysisState>, PseudoPartitionable {
+        LatticeAbstractState<ValueAnalysisState>, PseudoPartitionable,
+        AbstractStateWithCoverageSignature {
 
   private static final long serialVersionUID = -3152134511524554358L;
 
@@ -100,6 +105,13 @@ public final class ValueAnalysisState
    */
   private int hashCode = 0;
 
+  /**
+   * Bit set with one (hashed) bit for each memory location in {@link #constantsMap}, used for
+   * cheaply ruling out coverage. It is computed lazily and needs to be reset with every change of
+   * {@link #constantsMap}, the value 0 means that it was not yet computed.
+   */
+  private transient long locationSignature = 0;
+
   private final @Nullable MachineModel machineModel;
 
   public ValueAnalysisState(MachineModel pMachineModel) {
@@ -126,6 +138,7 @@ public final class ValueAnalysisState
     machineModel = state.machineModel;
     constantsMap = checkNotNull(state.constantsMap);
     hashCode = state.hashCode;
+    locationSignature = state.locationSignature;
     assert hashCode == constantsMap.hashCode();
   }
 
@@ -157,12 +170,13 @@ public final class ValueAnalysisState
       valueToAdd = ((SymbolicValue) valueToAdd).copyForLocation(pMemLoc);
     }
 
-    ValueAndType valueAndType = new ValueAndType(checkNotNull(valueToAdd), pType);
+    ValueAndType valueAndType = ValueAndType.of(checkNotNull(valueToAdd), pType);
     ValueAndType oldValueAndType = constantsMap.get(pMemLoc);
     if (oldValueAndType != null) {
       hashCode -= (pMemLoc.hashCode() ^ oldValueAndType.hashCode());
     }
     constantsMap = constantsMap.putAndCopy(pMemLoc, valueAndType);
+    locationSignature = 0;
     hashCode += (pMemLoc.hashCode() ^ valueAndType.hashCode());
   }
 
@@ -232,6 +246,7 @@ public final class ValueAnalysisState
 
     ValueAndType value = constantsMap.get(pMemoryLocation);
     constantsMap = constantsMap.removeAndCopy(pMemoryLocation);
+    locationSignature = 0;
     hashCode -= (pMemoryLocation.hashCode() ^ value.hashCode());
 
     PersistentMap<MemoryLocation, ValueAndType> valueAssignment = PathCopyingPersistentTreeMap.of();
@@ -385,6 +400,12 @@ public final class ValueAnalysisState
   @Override
   public boolean isLessOrEqual(ValueAnalysisState other) {
 
+    // states share their maps after copyOf(), and equal entries are usually identical
+    // because memory locations and values are interned
+    if (constantsMap == other.constantsMap) {
+      return true;
+    }
+
     // also, this element is not less or equal than the other element, if it contains less elements
     if (constantsMap.size() < other.constantsMap.size()) {
       return false;
@@ -402,9 +423,13 @@ public final class ValueAnalysisState
     // the tolerant way: ignore all type information. TODO really correct?
     for (Entry<MemoryLocation, ValueAndType> otherEntry : other.constantsMap.entrySet()) {
       MemoryLocation key = otherEntry.getKey();
-      Value otherValue = otherEntry.getValue().getValue();
+      ValueAndType otherValueAndType = otherEntry.getValue();
       ValueAndType thisValueAndType = constantsMap.get(key);
-      if (thisValueAndType == null || !otherValue.equals(thisValueAndType.getValue())) {
+      if (thisValueAndType == otherValueAndType) {
+        continue;
+      }
+      if (thisValueAndType == null
+          || !otherValueAndType.getValue().equals(thisValueAndType.getValue())) {
         return false;
       }
     }
@@ -412,6 +437,27 @@ public final class ValueAnalysisState
     return true;
   }
 
+  @Override
+  public boolean mayBeLessOrEqual(AbstractState pOther) {
+    ValueAnalysisState other = (ValueAnalysisState) pOther;
+    if (constantsMap.size() < other.constantsMap.size()) {
+      return false;
+    }
+    // each memory location of the other state has to be tracked in this state, too
+    return (other.getLocationSignature() & ~getLocationSignature()) == 0;
+  }
+
+  private long getLocationSignature() {
+    long signature = locationSignature;
+    if (signature == 0) {
+      for (MemoryLocation memoryLocation : constantsMap.keySet()) {
+        signature |= 1L << (memoryLocation.hashCode() & 63);
+      }
+      locationSignature = signature;
+    }
+    return signature;
+  }
+
   @Override
   public boolean equals(Object other) {
     if (this == other) {
@@ -754,12 +800,29 @@ public final class ValueAnalysisState
 
   public static class ValueAndType implements Serializable {
     private static final long serialVersionUID = 1L;
+
+    private static final Interner<ValueAndType> INTERNER = Interners.newWeakInterner();
+
     private final Value value;
     private final Type type;
+    private final transient int hashCode;
 
     public ValueAndType(Value pValue, Type pType) {
       value = checkNotNull(pValue);
       type = pType;
+      hashCode = Objects.hash(value, type);
+    }
+
+    /**
+     * Returns an interned instance for the given value and type, such that equal assignments in
+     * different states can share the same object and are compared by identity.
+     */
+    public static ValueAndType of(Value pValue, @Nullable Type pType) {
+      return INTERNER.intern(new ValueAndType(pValue, pType));
+    }
+
+    private Object readResolve() {
+      return of(value, type);
     }
 
     public Value getValue() {
@@ -780,12 +843,14 @@ public final class ValueAnalysisState
       }
 
       ValueAndType other = (ValueAndType) o;
-      return Objects.equals(value, other.value) && Objects.equals(type, other.type);
+      return hashCode == other.hashCode
+          && Objects.equals(value, other.value)
+          && Objects.equals(type, other.type);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(value, type);
+      return hashCode;
     }
 
     @Override
@@ -0,0 +1,85 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * JMH benchmarks for the lattice operations of {@link ValueAnalysisState}. The two states share
+ * most of their variables, only every tenth variable has a different value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ValueAnalysisStateBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int variables;
+
+  private ValueAnalysisState state1;
+  private ValueAnalysisState state2;
+  private ValueAnalysisState subset;
+
+  @Setup
+  public void setUp() {
+    state1 = new ValueAnalysisState(MachineModel.LINUX64);
+    state2 = new ValueAnalysisState(MachineModel.LINUX64);
+    subset = new ValueAnalysisState(MachineModel.LINUX64);
+    for (int i = 0; i < variables; i++) {
+      MemoryLocation loc = MemoryLocation.valueOf("main", "var" + i);
+      state1.assignConstant(loc, new NumericValue(i), CNumericTypes.INT);
+      state2.assignConstant(loc, new NumericValue(i % 10 == 0 ? -i : i), CNumericTypes.INT);
+      if (i % 2 == 0) {
+        subset.assignConstant(loc, new NumericValue(i), CNumericTypes.INT);
+      }
+    }
+  }
+
+  @Benchmark
+  public ValueAnalysisState join() {
+    return state1.join(state2);
+  }
+
+  @Benchmark
+  public boolean isLessOrEqualSubset() {
+    return state1.isLessOrEqual(subset);
+  }
+
+  @Benchmark
+  public boolean isLessOrEqualDifferent() {
+    return state1.isLessOrEqual(state2);
+  }
+}
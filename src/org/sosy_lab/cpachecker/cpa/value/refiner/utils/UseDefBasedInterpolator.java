@@ -164,7 +164,7 @@ public class UseDefBasedInterpolator {
     for (ASimpleDeclaration use : uses) {
 
       for (MemoryLocation memoryLocation : obtainMemoryLocationsForType(use)) {
-        useDefInterpolant.put(memoryLocation, new ValueAndType(UnknownValue.getInstance(), null));
+        useDefInterpolant.put(memoryLocation, ValueAndType.of(UnknownValue.getInstance(), null));
       }
     }
 
@@ -27,9 +27,13 @@ import static org.sosy_lab.common.collect.Collections3.transformedImmutableListC
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
@@ -44,6 +48,7 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
@@ -56,6 +61,9 @@ import java.util.Set;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -345,6 +353,54 @@ public class AutomatonGraphmlCommon {
     return BaseEncoding.base16().lowerCase().encode(hash.asBytes());
   }
 
+  /** Returns the data elements that describe the witness graph itself, in the order of output. */
+  private static List<Map.Entry<KeyDef, String>> getGraphData(
+      WitnessType pGraphType, CFA pCfa, VerificationTaskMetaData pVerificationTaskMetaData)
+      throws IOException {
+    ImmutableList.Builder<Map.Entry<KeyDef, String>> result = ImmutableList.builder();
+    result.add(Maps.immutableEntry(KeyDef.WITNESS_TYPE, pGraphType.toString()));
+    result.add(Maps.immutableEntry(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
+    result.add(
+        Maps.immutableEntry(KeyDef.PRODUCER, pVerificationTaskMetaData.getProducerString()));
+
+    int nSpecs = 0;
+    for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
+      result.add(Maps.immutableEntry(KeyDef.SPECIFICATION, property.toString()));
+      ++nSpecs;
+    }
+
+    for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
+      result.add(
+          Maps.immutableEntry(
+              KeyDef.SPECIFICATION,
+              MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
+      ++nSpecs;
+    }
+
+    if (nSpecs == 0) {
+      result.add(Maps.immutableEntry(KeyDef.SPECIFICATION, "TRUE"));
+    }
+
+    for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
+      result.add(Maps.immutableEntry(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
+    }
+
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Maps.immutableEntry(KeyDef.PROGRAMFILE, programFile.toString()));
+    }
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Maps.immutableEntry(KeyDef.PROGRAMHASH, computeHash(programFile)));
+    }
+
+    result.add(
+        Maps.immutableEntry(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
+    ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault()).withNano(0);
+    result.add(
+        Maps.immutableEntry(
+            KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+    return result.build();
+  }
+
   public static class GraphMlBuilder {
 
     private final Document doc;
@@ -377,47 +433,10 @@ public class AutomatonGraphmlCommon {
       graph = doc.createElement("graph");
       root.appendChild(graph);
       graph.setAttribute("edgedefault", "directed");
-      graph.appendChild(createDataElement(KeyDef.WITNESS_TYPE, pGraphType.toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.PRODUCER, pVerificationTaskMetaData.getProducerString()));
-
-      int nSpecs = 0;
-      for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, property.toString()));
-        ++nSpecs;
-      }
-
-      for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
-        graph.appendChild(
-            createDataElement(
-                KeyDef.SPECIFICATION,
-                MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
-        ++nSpecs;
-      }
-
-      if (nSpecs == 0) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, "TRUE"));
-      }
-
-      for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
-        graph.appendChild(createDataElement(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
-      }
-
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMFILE, programFile.toString()));
+      for (Map.Entry<KeyDef, String> data :
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData)) {
+        graph.appendChild(createDataElement(data.getKey(), data.getValue()));
       }
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMHASH, computeHash(programFile)));
-      }
-
-      graph.appendChild(
-          createDataElement(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
-      ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault()).withNano(0);
-      graph.appendChild(
-          createDataElement(
-              KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
     }
 
     private void defineKey(KeyDef pKeyDef) {
@@ -522,6 +541,155 @@ public class AutomatonGraphmlCommon {
 
   }
 
+  /**
+   * Writes a GraphML document element by element, in contrast to {@link GraphMlBuilder} which
+   * keeps the whole document in memory until it is written. The keys used for nodes and edges have
+   * to be known in advance, because their definitions precede the graph in the document.
+   */
+  public static class GraphMlWriter {
+
+    private static final String INDENT = " ";
+
+    private final XMLStreamWriter writer;
+    private final Set<KeyDef> definedKeys = EnumSet.noneOf(KeyDef.class);
+
+    public GraphMlWriter(
+        Appendable pTarget,
+        Set<KeyDef> pUsedKeys,
+        WitnessType pGraphType,
+        @Nullable String pDefaultSourceFileName,
+        CFA pCfa,
+        VerificationTaskMetaData pVerificationTaskMetaData)
+        throws IOException {
+      pTarget.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+      try {
+        writer = XMLOutputFactory.newInstance().createXMLStreamWriter(CharStreams.asWriter(pTarget));
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+
+      definedKeys.add(KeyDef.ORIGINFILE);
+      for (KeyDef keyDef : KeyDef.values()) {
+        if (keyDef.keyFor == ElementType.GRAPH) {
+          definedKeys.add(keyDef);
+        }
+      }
+      definedKeys.addAll(pUsedKeys);
+
+      try {
+        writer.writeStartElement("graphml");
+        writer.writeAttribute("xmlns", "http://graphml.graphdrawing.org/xmlns");
+        writer.writeAttribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
+        for (KeyDef keyDef : definedKeys) {
+          String defaultValue =
+              keyDef == KeyDef.ORIGINFILE && pDefaultSourceFileName != null
+                  ? pDefaultSourceFileName
+                  : keyDef.defaultValue;
+          writeKeyDef(keyDef, defaultValue);
+        }
+        newLine(1);
+        writer.writeStartElement(GraphMLTag.GRAPH.toString());
+        writer.writeAttribute("edgedefault", "directed");
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+      writeData(2, getGraphData(pGraphType, pCfa, pVerificationTaskMetaData));
+    }
+
+    private void writeKeyDef(KeyDef pKeyDef, @Nullable String pDefaultValue)
+        throws XMLStreamException {
+      newLine(1);
+      if (pDefaultValue == null) {
+        writer.writeEmptyElement(GraphMLTag.KEY.toString());
+      } else {
+        writer.writeStartElement(GraphMLTag.KEY.toString());
+      }
+      writer.writeAttribute("attr.name", pKeyDef.attrName);
+      writer.writeAttribute("attr.type", pKeyDef.attrType);
+      writer.writeAttribute("for", pKeyDef.keyFor.toString());
+      writer.writeAttribute("id", pKeyDef.id);
+      if (pDefaultValue != null) {
+        newLine(2);
+        writer.writeStartElement(GraphMLTag.DEFAULT.toString());
+        writer.writeCharacters(pDefaultValue);
+        writer.writeEndElement();
+        newLine(1);
+        writer.writeEndElement();
+      }
+    }
+
+    private void newLine(int pDepth) throws XMLStreamException {
+      writer.writeCharacters("\n" + Strings.repeat(INDENT, pDepth));
+    }
+
+    private void writeData(int pDepth, Iterable<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      try {
+        for (Map.Entry<KeyDef, String> data : pData) {
+          Preconditions.checkArgument(
+              definedKeys.contains(data.getKey()), "key %s was not defined", data.getKey());
+          newLine(pDepth);
+          writer.writeStartElement(GraphMLTag.DATA.toString());
+          writer.writeAttribute("key", data.getKey().id);
+          writer.writeCharacters(data.getValue());
+          writer.writeEndElement();
+        }
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+
+    private void writeElement(
+        GraphMLTag pTag,
+        Map<String, String> pAttributes,
+        Collection<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      try {
+        newLine(2);
+        if (pData.isEmpty()) {
+          writer.writeEmptyElement(pTag.toString());
+        } else {
+          writer.writeStartElement(pTag.toString());
+        }
+        for (Map.Entry<String, String> attribute : pAttributes.entrySet()) {
+          writer.writeAttribute(attribute.getKey(), attribute.getValue());
+        }
+        if (!pData.isEmpty()) {
+          writeData(3, pData);
+          newLine(2);
+          writer.writeEndElement();
+        }
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+
+    public void writeNode(String pNodeId, Collection<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      writeElement(GraphMLTag.NODE, ImmutableMap.of("id", pNodeId), pData);
+    }
+
+    public void writeEdge(
+        String pSource, String pTarget, Collection<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      writeElement(GraphMLTag.EDGE, ImmutableMap.of("source", pSource, "target", pTarget), pData);
+    }
+
+    /** Closes the graph and the document. The writer must not be used afterwards. */
+    public void finish() throws IOException {
+      try {
+        newLine(1);
+        writer.writeEndElement(); // graph
+        newLine(0);
+        writer.writeEndElement(); // graphml
+        writer.writeEndDocument();
+        writer.flush();
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
   public static boolean handleAsEpsilonEdge(CFAEdge pEdge, CFAEdgeWithAdditionalInfo
       pAdditionalInfo) {
     if (pAdditionalInfo != null && !pAdditionalInfo.getInfos().isEmpty()) {
@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.util.predicates.bdd;
 
+import java.util.logging.Level;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
@@ -58,7 +59,12 @@ public class BDDManagerFactory {
   // documentation of the packages can be found at source of BDDFactory.init()
   private String bddPackage = "JAVA";
 
-  @Option(secure = true, description = "sequentialize all accesses to the BDD library.")
+  @Option(
+      secure = true,
+      description =
+          "sequentialize all accesses to the BDD library. "
+              + "PJBDD is thread-safe on its own and is only sequentialized "
+              + "if accesses to it are measured or counted.")
   private boolean synchronizeLibraryAccess = false;
 
   @Option(
@@ -100,7 +106,15 @@ public class BDDManagerFactory {
       rmgr = new CountingRegionManager(rmgr);
     }
     if (synchronizeLibraryAccess) {
-      rmgr = new SynchronizedRegionManager(rmgr);
+      if (rmgr instanceof PJBDDRegionManager) {
+        // PJBDD uses a concurrent unique table and its own operation caches,
+        // a global lock would only serialize the worker threads.
+        // The wrappers for measuring and counting are not thread-safe, so they still need it.
+        logger.log(
+            Level.INFO, "Not sequentializing accesses to PJBDD, the library is thread-safe.");
+      } else {
+        rmgr = new SynchronizedRegionManager(rmgr);
+      }
     }
     return rmgr;
   }
@@ -0,0 +1,75 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.bdd;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
+import org.sosy_lab.cpachecker.util.predicates.regions.SynchronizedRegionManager;
+
+public class BDDManagerFactoryTest {
+
+  private final LogManager logger = LogManager.createTestLogManager();
+
+  private RegionManager createSynchronizedRegionManager(
+      String pBddPackage, boolean pMeasure, boolean pCount) throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("bdd.package", pBddPackage)
+            .setOption("bdd.synchronizeLibraryAccess", "true")
+            .setOption("bdd.measureLibraryAccess", Boolean.toString(pMeasure))
+            .setOption("bdd.countLibraryAccess", Boolean.toString(pCount))
+            .build();
+    return new BDDManagerFactory(config, logger).createRegionManager();
+  }
+
+  @Test
+  public void testJavaBDDIsSynchronized() throws InvalidConfigurationException {
+    assertThat(createSynchronizedRegionManager("JAVA", false, false))
+        .isInstanceOf(SynchronizedRegionManager.class);
+  }
+
+  @Test
+  public void testPJBDDIsNotSynchronized() throws InvalidConfigurationException {
+    assertThat(createSynchronizedRegionManager("PJBDD", false, false))
+        .isInstanceOf(PJBDDRegionManager.class);
+  }
+
+  @Test
+  public void testMeasuredPJBDDIsSynchronized() throws InvalidConfigurationException {
+    // the timers for measuring do not support concurrent accesses
+    assertThat(createSynchronizedRegionManager("PJBDD", true, false))
+        .isInstanceOf(SynchronizedRegionManager.class);
+  }
+
+  @Test
+  public void testCountedPJBDDIsSynchronized() throws InvalidConfigurationException {
+    assertThat(createSynchronizedRegionManager("PJBDD", false, true))
+        .isInstanceOf(SynchronizedRegionManager.class);
+  }
+}
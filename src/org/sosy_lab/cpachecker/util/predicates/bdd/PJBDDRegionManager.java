@@ -215,8 +215,8 @@ public class PJBDDRegionManager implements RegionManager {
 
     @Override
     public void close() {
+      // the creator is shared with concurrent users and must not be shut down here
       cache.clear();
-      PJBDDRegionManager.this.bddCreator.shutDown();
     }
 
     @Override
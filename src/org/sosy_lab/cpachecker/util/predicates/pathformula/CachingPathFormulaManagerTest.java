@@ -0,0 +1,94 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+public class CachingPathFormulaManagerTest {
+
+  private PathFormulaManager delegate;
+  private CachingPathFormulaManager pfmgr;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    delegate = mock(PathFormulaManager.class);
+    pfmgr = new CachingPathFormulaManager(delegate, Configuration.defaultConfiguration());
+  }
+
+  private static PathFormula makePathFormula(int pLength) {
+    return new PathFormula(
+        mock(BooleanFormula.class),
+        SSAMap.emptySSAMap(),
+        PointerTargetSet.emptyPointerTargetSet(),
+        pLength);
+  }
+
+  @Test
+  public void testMakeOrIsCachedSymmetrically() throws InterruptedException {
+    PathFormula pf1 = makePathFormula(1);
+    PathFormula pf2 = makePathFormula(2);
+    PathFormula disjunction = makePathFormula(3);
+    when(delegate.makeOr(pf1, pf2)).thenReturn(disjunction);
+    when(delegate.makeOr(pf2, pf1)).thenReturn(disjunction);
+
+    assertThat(pfmgr.makeOr(pf1, pf2)).isSameInstanceAs(disjunction);
+    assertThat(pfmgr.makeOr(pf2, pf1)).isSameInstanceAs(disjunction);
+    assertThat(pfmgr.makeOr(pf1, pf2)).isSameInstanceAs(disjunction);
+
+    // only the first call reaches the delegate, no matter in which order it got the arguments
+    verify(delegate).makeOr(pf1, pf2);
+    assertThat(pfmgr.pathFormulaCacheHits).isEqualTo(2);
+  }
+
+  @Test
+  public void testMakeOrCountsEachLookupOnce() throws InterruptedException {
+    PathFormula pf1 = makePathFormula(1);
+    PathFormula pf2 = makePathFormula(2);
+    when(delegate.makeOr(pf1, pf2)).thenReturn(makePathFormula(3));
+
+    pfmgr.makeOr(pf1, pf2); // miss
+    pfmgr.makeOr(pf2, pf1); // hit
+    pfmgr.makeOr(pf1, pf2); // hit
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+      pfmgr.printStatistics(out);
+    }
+    assertThat(output.toString(StandardCharsets.UTF_8))
+        .contains("Cache for makeOr:                     2 hits (67%), 1 entries, 0 evictions");
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sosy_lab.common.collect.MapsDifference;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
+
+/** JMH benchmarks for building, querying, and merging {@link SSAMap}s. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SSAMapBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int variables;
+
+  private String[] names;
+  private SSAMap ssa1;
+  private SSAMap ssa2;
+
+  @Setup
+  public void setUp() {
+    names = new String[variables];
+    for (int i = 0; i < variables; i++) {
+      names[i] = "main::var" + i;
+    }
+
+    SSAMapBuilder builder1 = SSAMap.emptySSAMap().builder();
+    SSAMapBuilder builder2 = SSAMap.emptySSAMap().builder();
+    for (int i = 0; i < variables; i++) {
+      builder1.setIndex(names[i], CNumericTypes.INT, 1 + (i % 3));
+      builder2.setIndex(names[i], CNumericTypes.INT, 1 + (i % 5));
+    }
+    ssa1 = builder1.build();
+    ssa2 = builder2.build();
+  }
+
+  @Benchmark
+  public SSAMap buildFromEmpty() {
+    SSAMapBuilder builder = SSAMap.emptySSAMap().builder();
+    for (String name : names) {
+      builder.setIndex(name, CNumericTypes.INT, 1);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public SSAMap incrementAll() {
+    SSAMapBuilder builder = ssa1.builder();
+    for (String name : names) {
+      builder.setIndex(name, CNumericTypes.INT, builder.getFreshIndex(name));
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public int getIndex() {
+    int sum = 0;
+    for (String name : names) {
+      sum += ssa1.getIndex(name);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public SSAMap merge() {
+    return SSAMap.merge(ssa1, ssa2, MapsDifference.ignoreMapsDifference());
+  }
+}
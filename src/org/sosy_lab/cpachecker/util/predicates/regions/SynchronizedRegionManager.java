@@ -23,159 +23,321 @@
  */
 package org.sosy_lab.cpachecker.util.predicates.regions;
 
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsWriter.writingStatisticsTo;
+
 import com.google.common.primitives.ImmutableIntArray;
 import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.util.Triple;
 import org.sosy_lab.cpachecker.util.predicates.PredicateOrderingStrategy;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.SolverException;
 
 /**
  * RegionManager that synchronizes and sequentializes all accesses to the delegating {@link
- * RegionManager}.
+ * RegionManager}, including the accesses through its {@link RegionBuilder}s.
+ *
+ * <p>The lock is first acquired without blocking, such that the statistics can tell how often and
+ * how long threads had to wait for each other.
  */
 public class SynchronizedRegionManager implements RegionManager {
 
   private final RegionManager delegate;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final StatCounter acquisitions = new StatCounter("Number of lock acquisitions");
+  private final StatCounter contendedAcquisitions =
+      new StatCounter("Number of contended lock acquisitions");
+  private final LongAdder waitNanos = new LongAdder();
 
   public SynchronizedRegionManager(RegionManager pDelegate) {
     delegate = pDelegate;
   }
 
+  private void lock() {
+    acquisitions.inc();
+    if (!lock.tryLock()) {
+      contendedAcquisitions.inc();
+      long start = System.nanoTime();
+      lock.lock();
+      waitNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  private void unlock() {
+    lock.unlock();
+  }
+
   @Override
   public RegionBuilder builder(ShutdownNotifier pShutdownNotifier) {
-    synchronized (delegate) {
-      return delegate.builder(pShutdownNotifier);
+    lock();
+    try {
+      return new SynchronizedRegionBuilder(delegate.builder(pShutdownNotifier));
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region makeTrue() {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.makeTrue();
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region makeFalse() {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.makeFalse();
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region makeNot(Region pF) {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.makeNot(pF);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region makeAnd(Region pF1, Region pF2) {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.makeAnd(pF1, pF2);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region makeOr(Region pF1, Region pF2) {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.makeOr(pF1, pF2);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region makeEqual(Region pF1, Region pF2) {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.makeEqual(pF1, pF2);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region makeUnequal(Region pF1, Region pF2) {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.makeUnequal(pF1, pF2);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region makeIte(Region pF1, Region pF2, Region pF3) {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.makeIte(pF1, pF2, pF3);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region makeExists(Region pF1, Region... pF2) {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.makeExists(pF1, pF2);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public boolean entails(Region pF1, Region pF2) throws SolverException, InterruptedException {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.entails(pF1, pF2);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region createPredicate() {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.createPredicate();
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region fromFormula(
       BooleanFormula pF, FormulaManagerView pFmgr, Function<BooleanFormula, Region> pAtomToRegion) {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.fromFormula(pF, pFmgr, pAtomToRegion);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Triple<Region, Region, Region> getIfThenElse(Region pF) {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.getIfThenElse(pF);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public void printStatistics(PrintStream pOut) {
-    synchronized (delegate) {
+    writingStatisticsTo(pOut)
+        .put(acquisitions)
+        .put(contendedAcquisitions)
+        .put(
+            "Time waiting for lock",
+            TimeSpan.ofNanos(waitNanos.sum()).formatAs(TimeUnit.SECONDS));
+    lock();
+    try {
       delegate.printStatistics(pOut);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public String getVersion() {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.getVersion();
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public void setVarOrder(ImmutableIntArray pOrder) {
-    synchronized (delegate) {
+    lock();
+    try {
       delegate.setVarOrder(pOrder);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public void reorder(PredicateOrderingStrategy pStrategy) {
-    synchronized (delegate) {
+    lock();
+    try {
       delegate.reorder(pStrategy);
+    } finally {
+      unlock();
     }
   }
 
   @Override
   public Region replace(Region pRegion, Region[] pOldPredicates, Region[] pNewPredicates) {
-    synchronized (delegate) {
+    lock();
+    try {
       return delegate.replace(pRegion, pOldPredicates, pNewPredicates);
+    } finally {
+      unlock();
+    }
+  }
+
+  private class SynchronizedRegionBuilder implements RegionBuilder {
+
+    private final RegionBuilder delegateBuilder;
+
+    private SynchronizedRegionBuilder(RegionBuilder pDelegateBuilder) {
+      delegateBuilder = pDelegateBuilder;
+    }
+
+    @Override
+    public void startNewConjunction() {
+      lock();
+      try {
+        delegateBuilder.startNewConjunction();
+      } finally {
+        unlock();
+      }
+    }
+
+    @Override
+    public void addPositiveRegion(Region pR) {
+      lock();
+      try {
+        delegateBuilder.addPositiveRegion(pR);
+      } finally {
+        unlock();
+      }
+    }
+
+    @Override
+    public void addNegativeRegion(Region pR) {
+      lock();
+      try {
+        delegateBuilder.addNegativeRegion(pR);
+      } finally {
+        unlock();
+      }
+    }
+
+    @Override
+    public void finishConjunction() {
+      lock();
+      try {
+        delegateBuilder.finishConjunction();
+      } finally {
+        unlock();
+      }
+    }
+
+    @Override
+    public Region getResult() throws InterruptedException {
+      lock();
+      try {
+        return delegateBuilder.getResult();
+      } finally {
+        unlock();
+      }
+    }
+
+    @Override
+    public void close() {
+      lock();
+      try {
+        delegateBuilder.close();
+      } finally {
+        unlock();
+      }
     }
   }
 }
@@ -0,0 +1,125 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.regions;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.util.predicates.regions.RegionCreator.RegionBuilder;
+
+public class SynchronizedRegionManagerTest {
+
+  private RegionManager delegate;
+  private RegionBuilder delegateBuilder;
+  private SynchronizedRegionManager rmgr;
+
+  @Before
+  public void setUp() {
+    delegate = mock(RegionManager.class);
+    delegateBuilder = mock(RegionBuilder.class);
+    when(delegate.builder(any())).thenReturn(delegateBuilder);
+    rmgr = new SynchronizedRegionManager(delegate);
+  }
+
+  private String printStatistics() {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+      rmgr.printStatistics(out);
+    }
+    return output.toString(StandardCharsets.UTF_8);
+  }
+
+  private static long getStatistic(String pStatistics, String pName) {
+    Matcher matcher = Pattern.compile(Pattern.quote(pName) + ":\\s+(\\d+)").matcher(pStatistics);
+    assertThat(matcher.find()).isTrue();
+    return Long.parseLong(matcher.group(1));
+  }
+
+  @Test
+  public void testUncontendedStatistics() throws InterruptedException {
+    rmgr.makeTrue();
+    rmgr.makeFalse();
+    try (RegionBuilder builder = rmgr.builder(ShutdownNotifier.createDummy())) {
+      builder.startNewConjunction();
+      builder.finishConjunction();
+      builder.getResult();
+    }
+
+    // makeTrue, makeFalse, builder, and the four calls to the builder including close
+    String statistics = printStatistics();
+    assertThat(getStatistic(statistics, "Number of lock acquisitions")).isEqualTo(7);
+    assertThat(getStatistic(statistics, "Number of contended lock acquisitions")).isEqualTo(0);
+    verify(delegateBuilder).close();
+  }
+
+  @Test(timeout = 10000)
+  public void testBuilderHoldsLock() throws InterruptedException {
+    CountDownLatch builderEntered = new CountDownLatch(1);
+    CountDownLatch builderReleased = new CountDownLatch(1);
+    Region region = mock(Region.class);
+    doAnswer(
+            invocation -> {
+              builderEntered.countDown();
+              builderReleased.await();
+              return null;
+            })
+        .when(delegateBuilder)
+        .addPositiveRegion(region);
+
+    RegionBuilder builder = rmgr.builder(ShutdownNotifier.createDummy());
+    Thread builderThread = new Thread(() -> builder.addPositiveRegion(region));
+    builderThread.start();
+    builderEntered.await();
+
+    // while the builder is inside the library, other accesses have to wait
+    Thread managerThread = new Thread(() -> rmgr.makeTrue());
+    managerThread.start();
+    while (managerThread.getState() != Thread.State.WAITING) {
+      Thread.yield();
+    }
+    verify(delegate, never()).makeTrue();
+
+    builderReleased.countDown();
+    builderThread.join();
+    managerThread.join();
+
+    verify(delegate).makeTrue();
+    assertThat(getStatistic(printStatistics(), "Number of contended lock acquisitions"))
+        .isEqualTo(1);
+  }
+}
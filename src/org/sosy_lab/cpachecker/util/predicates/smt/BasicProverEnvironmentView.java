@@ -29,6 +29,8 @@ import com.google.common.collect.ImmutableList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverQueryRecorder.QueryResult;
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Model;
@@ -40,35 +42,74 @@ public class BasicProverEnvironmentView<E> implements BasicProverEnvironment<E>
   private final BasicProverEnvironment<E> delegate;
   private final FormulaWrappingHandler wrappingHandler;
 
+  /** Records all queries for {@link SolverQueryReplay}, if enabled. */
+  final @Nullable SolverQueryRecorder.Session recording;
+
   public BasicProverEnvironmentView(
       BasicProverEnvironment<E> pDelegate, FormulaWrappingHandler pWrappingHandler) {
+    this(pDelegate, pWrappingHandler, null);
+  }
+
+  BasicProverEnvironmentView(
+      BasicProverEnvironment<E> pDelegate,
+      FormulaWrappingHandler pWrappingHandler,
+      SolverQueryRecorder.@Nullable Session pRecording) {
     delegate = pDelegate;
     wrappingHandler = pWrappingHandler;
+    recording = pRecording;
   }
 
   @Override
   public E push(BooleanFormula f) throws InterruptedException {
-    return delegate.push(f);
+    E handle = delegate.push(f);
+    if (recording != null) {
+      recording.push(f, handle);
+    }
+    return handle;
   }
 
   @Override
   public void pop() {
     delegate.pop();
+    if (recording != null) {
+      recording.pop();
+    }
   }
 
   @Override
   public E addConstraint(BooleanFormula constraint) throws InterruptedException {
-    return delegate.addConstraint(constraint);
+    E handle = delegate.addConstraint(constraint);
+    if (recording != null) {
+      recording.addConstraint(constraint, handle);
+    }
+    return handle;
   }
 
   @Override
   public void push() {
     delegate.push();
+    if (recording != null) {
+      recording.push();
+    }
   }
 
   @Override
   public boolean isUnsat() throws SolverException, InterruptedException {
-    return delegate.isUnsat();
+    if (recording == null) {
+      return delegate.isUnsat();
+    }
+    QueryResult result = QueryResult.ERROR;
+    long start = System.nanoTime();
+    try {
+      boolean unsat = delegate.isUnsat();
+      result = QueryResult.of(unsat);
+      return unsat;
+    } catch (InterruptedException e) {
+      result = QueryResult.INTERRUPTED;
+      throw e;
+    } finally {
+      recording.isUnsat(result, System.nanoTime() - start);
+    }
   }
 
   @Override
@@ -93,12 +134,29 @@ public class BasicProverEnvironmentView<E> implements BasicProverEnvironment<E>
   @Override
   public void close() {
     delegate.close();
+    if (recording != null) {
+      recording.close();
+    }
   }
 
   @Override
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
       throws SolverException, InterruptedException {
-    return delegate.isUnsatWithAssumptions(assumptions);
+    if (recording == null) {
+      return delegate.isUnsatWithAssumptions(assumptions);
+    }
+    QueryResult result = QueryResult.ERROR;
+    long start = System.nanoTime();
+    try {
+      boolean unsat = delegate.isUnsatWithAssumptions(assumptions);
+      result = QueryResult.of(unsat);
+      return unsat;
+    } catch (InterruptedException e) {
+      result = QueryResult.INTERRUPTED;
+      throw e;
+    } finally {
+      recording.isUnsatWithAssumptions(assumptions, result, System.nanoTime() - start);
+    }
   }
 
   @Override
@@ -1116,6 +1116,12 @@ public class FormulaManagerView {
   // cache for uninstantiating terms (see uninstantiate() below)
   private final Map<Formula, Formula> uninstantiateCache = new HashMap<>();
 
+  /** Clear the cache of {@link #uninstantiate(Formula)}, for measuring its actual cost. */
+  @VisibleForTesting
+  void clearUninstantiateCache() {
+    uninstantiateCache.clear();
+  }
+
   /**
    * Only use inside this package and for solver-specific classes
    * when creating a {@link Model}. Do not use in client code!
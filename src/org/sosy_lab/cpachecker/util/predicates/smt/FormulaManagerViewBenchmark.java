@@ -0,0 +1,119 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+/**
+ * JMH benchmarks for {@link FormulaManagerView#instantiate(org.sosy_lab.java_smt.api.Formula,
+ * SSAMap)} and {@link FormulaManagerView#uninstantiate(org.sosy_lab.java_smt.api.Formula)}. The
+ * benchmark uses SMTInterpol, because it is available on all platforms.
+ *
+ * <p>{@link FormulaManagerView#uninstantiate(org.sosy_lab.java_smt.api.Formula)} memoizes its
+ * results, so its cache is cleared before each invocation. Otherwise all but the first invocation
+ * would only measure a cache hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FormulaManagerViewBenchmark {
+
+  @Param({"10", "100"})
+  public int variables;
+
+  private Solver solver;
+  private FormulaManagerView fmgr;
+  private BooleanFormula uninstantiated;
+  private BooleanFormula instantiated;
+  private SSAMap ssa;
+
+  @Setup
+  public void setUp() throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("solver.solver", "SMTINTERPOL")
+            .setOption("cpa.predicate.encodeBitvectorAs", "INTEGER")
+            .setOption("cpa.predicate.encodeFloatAs", "RATIONAL")
+            .build();
+    solver =
+        Solver.create(config, LogManager.createNullLogManager(), ShutdownNotifier.createDummy());
+    fmgr = solver.getFormulaManager();
+    IntegerFormulaManagerView imgr = fmgr.getIntegerFormulaManager();
+    BooleanFormulaManagerView bmgr = fmgr.getBooleanFormulaManager();
+
+    SSAMapBuilder ssaBuilder = SSAMap.emptySSAMap().builder();
+    List<BooleanFormula> atoms = new ArrayList<>(variables);
+    for (int i = 0; i < variables; i++) {
+      String name = "main::x" + i;
+      ssaBuilder.setIndex(name, CNumericTypes.INT, 1 + i % 7);
+      IntegerFormula var = imgr.makeVariable(name);
+      IntegerFormula next = imgr.makeVariable("main::x" + ((i + 1) % variables));
+      atoms.add(imgr.lessOrEquals(imgr.add(var, imgr.makeNumber(i)), next));
+    }
+    ssa = ssaBuilder.build();
+    uninstantiated = bmgr.and(atoms);
+    instantiated = fmgr.instantiate(uninstantiated, ssa);
+  }
+
+  @Setup(Level.Invocation)
+  public void clearCaches() {
+    fmgr.clearUninstantiateCache();
+  }
+
+  @TearDown
+  public void tearDown() {
+    solver.close();
+  }
+
+  @Benchmark
+  public BooleanFormula instantiate() {
+    return fmgr.instantiate(uninstantiated, ssa);
+  }
+
+  @Benchmark
+  public BooleanFormula uninstantiate() {
+    return fmgr.uninstantiate(instantiated);
+  }
+}
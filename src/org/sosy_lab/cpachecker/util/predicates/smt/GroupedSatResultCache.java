@@ -0,0 +1,174 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Striped;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Thread-safe cache for satisfiability results of sets of constraints, grouped by an arbitrary
+ * key (usually a CFA node).
+ *
+ * <p>If a set of constraints is satisfiable, any subset of it is also satisfiable. If a set of
+ * constraints is unsatisfiable, any superset of it is also unsatisfiable. Lookups use these facts,
+ * and to avoid a linear scan over all cached sets of a group, the sets are indexed by their
+ * elements: a query only looks at cached sets that share at least one element with it.
+ *
+ * <p>Groups are protected by striped read-write locks, such that lookups can happen in parallel
+ * and updates only block lookups of groups that share the same lock stripe.
+ *
+ * @param <T> the type of constraints
+ */
+final class GroupedSatResultCache<T> {
+
+  private static final int LOCK_STRIPES = 64;
+
+  private final Striped<ReadWriteLock> locks = Striped.readWriteLock(LOCK_STRIPES);
+  private final ConcurrentMap<Object, Group<T>> groups = new ConcurrentHashMap<>();
+
+  /** The cached results of one group, not thread-safe. */
+  private static final class Group<T> {
+
+    private final Set<ImmutableSet<T>> known = new HashSet<>();
+
+    /** Sets that are known to be unsatisfiable, and for each element the sets containing it. */
+    private final List<ImmutableSet<T>> unsatSets = new ArrayList<>();
+    private final Map<T, List<Integer>> unsatIndex = new HashMap<>();
+
+    /** Sets that are known to be satisfiable, and for each element the sets containing it. */
+    private final List<ImmutableSet<T>> satSets = new ArrayList<>();
+    private final Map<T, List<Integer>> satIndex = new HashMap<>();
+
+    private boolean hasEmptyUnsatSet = false;
+
+    private @Nullable Boolean lookup(Set<T> pConstraints) {
+      if (hasUnsatSubset(pConstraints)) {
+        return true;
+      } else if (hasSatSuperset(pConstraints)) {
+        return false;
+      }
+      return null;
+    }
+
+    private boolean hasUnsatSubset(Set<T> pConstraints) {
+      if (hasEmptyUnsatSet) {
+        return true;
+      }
+      // An unsat set is a subset of the query iff all its elements are hit.
+      Map<Integer, Integer> hits = new HashMap<>();
+      for (T constraint : pConstraints) {
+        for (Integer id : unsatIndex.getOrDefault(constraint, List.of())) {
+          int count = hits.merge(id, 1, Integer::sum);
+          if (count == unsatSets.get(id).size()) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    private boolean hasSatSuperset(Set<T> pConstraints) {
+      if (pConstraints.isEmpty()) {
+        return !satSets.isEmpty();
+      }
+      // A sat superset has to contain every constraint, so the smallest posting list suffices.
+      List<Integer> candidates = null;
+      for (T constraint : pConstraints) {
+        List<Integer> containing = satIndex.get(constraint);
+        if (containing == null) {
+          return false;
+        }
+        if (candidates == null || containing.size() < candidates.size()) {
+          candidates = containing;
+        }
+      }
+      for (Integer id : candidates) {
+        if (satSets.get(id).containsAll(pConstraints)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void put(ImmutableSet<T> pConstraints, boolean pUnsat) {
+      if (!known.add(pConstraints)) {
+        return;
+      }
+      if (pUnsat && pConstraints.isEmpty()) {
+        hasEmptyUnsatSet = true;
+        return;
+      }
+      List<ImmutableSet<T>> sets = pUnsat ? unsatSets : satSets;
+      Map<T, List<Integer>> index = pUnsat ? unsatIndex : satIndex;
+      Integer id = sets.size();
+      sets.add(pConstraints);
+      for (T constraint : pConstraints) {
+        index.computeIfAbsent(constraint, k -> new ArrayList<>(2)).add(id);
+      }
+    }
+  }
+
+  /**
+   * Look up whether the given set of constraints is known to be unsatisfiable.
+   *
+   * @return true if it is unsatisfiable, false if it is satisfiable, and null if unknown
+   */
+  @Nullable Boolean lookup(Object pGroup, Set<T> pConstraints) {
+    Group<T> group = groups.get(pGroup);
+    if (group == null) {
+      return null;
+    }
+    Lock lock = locks.get(pGroup).readLock();
+    lock.lock();
+    try {
+      return group.lookup(pConstraints);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Store whether the given set of constraints is unsatisfiable. */
+  void put(Object pGroup, Set<T> pConstraints, boolean pUnsat) {
+    ImmutableSet<T> constraints = ImmutableSet.copyOf(pConstraints);
+    Group<T> group = groups.computeIfAbsent(pGroup, k -> new Group<>());
+    Lock lock = locks.get(pGroup).writeLock();
+    lock.lock();
+    try {
+      group.put(constraints, pUnsat);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+public class GroupedSatResultCacheTest {
+
+  private final GroupedSatResultCache<String> cache = new GroupedSatResultCache<>();
+
+  @Test
+  public void testEmpty() {
+    assertThat(cache.lookup("N1", ImmutableSet.of("a"))).isNull();
+  }
+
+  @Test
+  public void testUnsatSuperset() {
+    cache.put("N1", ImmutableSet.of("a", "b"), true);
+
+    assertThat(cache.lookup("N1", ImmutableSet.of("a", "b"))).isTrue();
+    assertThat(cache.lookup("N1", ImmutableSet.of("c", "b", "a"))).isTrue();
+    assertThat(cache.lookup("N1", ImmutableSet.of("a", "c"))).isNull();
+    assertThat(cache.lookup("N1", ImmutableSet.of("a"))).isNull();
+  }
+
+  @Test
+  public void testSatSubset() {
+    cache.put("N1", ImmutableSet.of("a", "b", "c"), false);
+
+    assertThat(cache.lookup("N1", ImmutableSet.of("a", "c"))).isFalse();
+    assertThat(cache.lookup("N1", ImmutableSet.of())).isFalse();
+    assertThat(cache.lookup("N1", ImmutableSet.of("a", "d"))).isNull();
+  }
+
+  @Test
+  public void testGroupsAreSeparate() {
+    cache.put("N1", ImmutableSet.of("a"), true);
+    cache.put("N2", ImmutableSet.of("a", "b"), false);
+
+    assertThat(cache.lookup("N1", ImmutableSet.of("a", "b"))).isTrue();
+    assertThat(cache.lookup("N2", ImmutableSet.of("a", "b"))).isFalse();
+    assertThat(cache.lookup("N3", ImmutableSet.of("a", "b"))).isNull();
+  }
+
+  @Test
+  public void testSeveralEntries() {
+    cache.put("N1", ImmutableSet.of("a", "b"), true);
+    cache.put("N1", ImmutableSet.of("c", "d"), true);
+    cache.put("N1", ImmutableSet.of("a", "c", "e"), false);
+    cache.put("N1", ImmutableSet.of("b", "d", "e"), false);
+
+    assertThat(cache.lookup("N1", ImmutableSet.of("c", "d", "x"))).isTrue();
+    assertThat(cache.lookup("N1", ImmutableSet.of("d", "e"))).isFalse();
+    assertThat(cache.lookup("N1", ImmutableSet.of("a", "d"))).isNull();
+  }
+}
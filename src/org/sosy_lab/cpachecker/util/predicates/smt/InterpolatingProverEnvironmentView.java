@@ -25,6 +25,8 @@ package org.sosy_lab.cpachecker.util.predicates.smt;
 
 import java.util.Collection;
 import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverQueryRecorder.QueryResult;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverException;
@@ -36,21 +38,51 @@ class InterpolatingProverEnvironmentView<E> extends BasicProverEnvironmentView<E
   private final InterpolatingProverEnvironment<E> delegate;
 
   InterpolatingProverEnvironmentView(
-      InterpolatingProverEnvironment<E> pDelegate, FormulaWrappingHandler pWrappingHandler) {
-    super(pDelegate, pWrappingHandler);
+      InterpolatingProverEnvironment<E> pDelegate,
+      FormulaWrappingHandler pWrappingHandler,
+      SolverQueryRecorder.@Nullable Session pRecording) {
+    super(pDelegate, pWrappingHandler, pRecording);
     delegate = pDelegate;
   }
 
   @Override
   public BooleanFormula getInterpolant(Collection<E> formulasOfA)
       throws SolverException, InterruptedException {
-    return delegate.getInterpolant(formulasOfA);
+    if (recording == null) {
+      return delegate.getInterpolant(formulasOfA);
+    }
+    QueryResult result = QueryResult.ERROR;
+    long start = System.nanoTime();
+    try {
+      BooleanFormula interpolant = delegate.getInterpolant(formulasOfA);
+      result = QueryResult.OK;
+      return interpolant;
+    } catch (InterruptedException e) {
+      result = QueryResult.INTERRUPTED;
+      throw e;
+    } finally {
+      recording.getInterpolant(formulasOfA, result, System.nanoTime() - start);
+    }
   }
 
   @Override
   public List<BooleanFormula> getSeqInterpolants(List<? extends Collection<E>> partitionedFormulas)
       throws SolverException, InterruptedException {
-    return delegate.getSeqInterpolants(partitionedFormulas);
+    if (recording == null) {
+      return delegate.getSeqInterpolants(partitionedFormulas);
+    }
+    QueryResult result = QueryResult.ERROR;
+    long start = System.nanoTime();
+    try {
+      List<BooleanFormula> interpolants = delegate.getSeqInterpolants(partitionedFormulas);
+      result = QueryResult.OK;
+      return interpolants;
+    } catch (InterruptedException e) {
+      result = QueryResult.INTERRUPTED;
+      throw e;
+    } finally {
+      recording.getSeqInterpolants(partitionedFormulas, result, System.nanoTime() - start);
+    }
   }
 
   @Override
@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.util.predicates.smt;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 
 /** Wrapping handler for ProverEnvironment. */
@@ -32,4 +33,11 @@ class ProverEnvironmentView extends BasicProverEnvironmentView<Void> implements
       FormulaWrappingHandler pWrappingHandler) {
     super(pDelegate, pWrappingHandler);
   }
+
+  ProverEnvironmentView(
+      ProverEnvironment pDelegate,
+      FormulaWrappingHandler pWrappingHandler,
+      SolverQueryRecorder.@Nullable Session pRecording) {
+    super(pDelegate, pWrappingHandler, pRecording);
+  }
 }
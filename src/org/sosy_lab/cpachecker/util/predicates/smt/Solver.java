@@ -28,26 +28,30 @@ import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNS
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Verify;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import java.util.HashMap;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.io.PathCounterTemplate;
 import org.sosy_lab.common.log.LogManager;
-import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.SeparateInterpolatingProverEnvironment;
 import org.sosy_lab.cpachecker.util.predicates.ufCheckingProver.UFCheckingBasicProverEnvironment.UFCheckingProverOptions;
 import org.sosy_lab.cpachecker.util.predicates.ufCheckingProver.UFCheckingInterpolatingProverEnvironment;
 import org.sosy_lab.cpachecker.util.predicates.ufCheckingProver.UFCheckingProverEnvironment;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 import org.sosy_lab.java_smt.SolverContextFactory;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -102,36 +106,49 @@ public final class Solver implements AutoCloseable {
               + "otherwise nothing is logged from the solver.")
   private boolean enableLoggingInSolver = false;
 
+  @Option(
+      secure = true,
+      name = "recordQueries",
+      description =
+          "write all queries to prover environments of this solver (formulas, checks, results,"
+              + " and times) into a trace file that can be re-executed with SolverQueryReplay,"
+              + " e.g., for comparing solvers and solver options offline"
+              + " (one file per solver instance, %d is replaced by a counter)")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private @Nullable PathCounterTemplate queryTraceFile = null;
+
   private final @Nullable UFCheckingProverOptions ufCheckingProverOptions;
 
+  private final @Nullable SolverQueryRecorder queryRecorder;
+
   private final FormulaManagerView fmgr;
   private final BooleanFormulaManagerView bfmgr;
 
   private final SolverContext solvingContext;
   private final SolverContext interpolatingContext;
 
-  private final Map<BooleanFormula, Boolean> unsatCache = new HashMap<>();
-
   /**
-   * More complex unsat cache, grouped by an arbitrary key.
-   *
-   * <p>For each node, map a set of constraints to whether it is unsatisfiable
-   * or satisfiable (maps to |true| <=> |UNSAT|).
-   * If a set of constraints is satisfiable, any subset of it is also
-   * satisfiable.
-   * If a set of constraints is unsatisfiable, any superset of it is also
-   * unsatisfiable.
+   * Cache for unsatisfiability of single formulas (maps to |true| <=> |UNSAT|). Thread-safe, such
+   * that analyses that share this solver instance can run in parallel and share the results.
    */
-  private final Map<Object, Map<Set<BooleanFormula>, Boolean>>
-      groupedUnsatCache = new HashMap<>();
+  private final Map<BooleanFormula, Boolean> unsatCache = new ConcurrentHashMap<>();
+
+  /** More complex unsat cache for sets of constraints, grouped by an arbitrary key. */
+  private final GroupedSatResultCache<BooleanFormula> groupedUnsatCache =
+      new GroupedSatResultCache<>();
 
   private final LogManager logger;
 
-  // stats
-  public final Timer solverTime = new Timer();
-  public int satChecks = 0;
-  public int trivialSatChecks = 0;
-  public int cachedSatChecks = 0;
+  // stats, thread-safe like the caches above
+  public final ThreadSafeTimerContainer solverTime =
+      new ThreadSafeTimerContainer("Time for SMT solver");
+  public final StatCounter satChecks = new StatCounter("Number of SMT sat checks");
+  public final StatCounter trivialSatChecks = new StatCounter("Number of trivial SMT sat checks");
+  public final StatCounter cachedSatChecks = new StatCounter("Number of cached SMT sat checks");
+
+  /** Each thread measures with its own timer, the container sums up all of them. */
+  private final ThreadLocal<TimerWrapper> solverTimer =
+      ThreadLocal.withInitial(solverTime::getNewTimer);
 
   private Solver(
       Configuration config,
@@ -175,6 +192,7 @@ public final class Solver implements AutoCloseable {
     } else {
       ufCheckingProverOptions = null;
     }
+    queryRecorder = createQueryRecorder(pLogger);
   }
 
   /**
@@ -220,6 +238,19 @@ public final class Solver implements AutoCloseable {
     } else {
       ufCheckingProverOptions = null;
     }
+    queryRecorder = createQueryRecorder(pLogger);
+  }
+
+  private @Nullable SolverQueryRecorder createQueryRecorder(LogManager pLogger) {
+    if (queryTraceFile == null) {
+      return null;
+    }
+    try {
+      return SolverQueryRecorder.create(queryTraceFile.getFreshPath(), fmgr, pLogger);
+    } catch (IOException e) {
+      pLogger.logUserException(Level.WARNING, e, "Could not write solver query trace");
+      return null;
+    }
   }
 
   /**
@@ -298,7 +329,11 @@ public final class Solver implements AutoCloseable {
       pe = new UFCheckingProverEnvironment(logger, pe, fmgr, ufCheckingProverOptions);
     }
 
-    pe = new ProverEnvironmentView(pe, fmgr.getFormulaWrappingHandler());
+    pe =
+        new ProverEnvironmentView(
+            pe,
+            fmgr.getFormulaWrappingHandler(),
+            queryRecorder == null ? null : queryRecorder.newSession(false, options));
 
     return pe;
   }
@@ -330,7 +365,11 @@ public final class Solver implements AutoCloseable {
               logger, ipe, fmgr, ufCheckingProverOptions);
     }
 
-    ipe = new InterpolatingProverEnvironmentView<>(ipe, fmgr.getFormulaWrappingHandler());
+    ipe =
+        new InterpolatingProverEnvironmentView<>(
+            ipe,
+            fmgr.getFormulaWrappingHandler(),
+            queryRecorder == null ? null : queryRecorder.newSession(true, options));
 
     return ipe;
   }
@@ -359,23 +398,24 @@ public final class Solver implements AutoCloseable {
    * Checks whether a formula is unsat.
    */
   public boolean isUnsat(BooleanFormula f) throws SolverException, InterruptedException {
-    satChecks++;
+    satChecks.inc();
 
     if (bfmgr.isTrue(f)) {
-      trivialSatChecks++;
+      trivialSatChecks.inc();
       return false;
     }
     if (bfmgr.isFalse(f)) {
-      trivialSatChecks++;
+      trivialSatChecks.inc();
       return true;
     }
     Boolean result = unsatCache.get(f);
     if (result != null) {
-      cachedSatChecks++;
+      cachedSatChecks.inc();
       return result;
     }
 
-    solverTime.start();
+    TimerWrapper timer = solverTimer.get();
+    timer.start();
     try {
       result = isUnsatUncached(f);
 
@@ -383,7 +423,7 @@ public final class Solver implements AutoCloseable {
       return result;
 
     } finally {
-      solverTime.stop();
+      timer.stop();
     }
   }
 
@@ -398,44 +438,23 @@ public final class Solver implements AutoCloseable {
    */
   public boolean isUnsat(Set<BooleanFormula> constraints, Object cacheKey)
       throws InterruptedException, SolverException {
-    solverTime.start();
+    TimerWrapper timer = solverTimer.get();
+    timer.start();
     try {
       return isUnsat0(constraints, cacheKey);
     } finally {
-      solverTime.stop();
+      timer.stop();
     }
   }
 
   private boolean isUnsat0(Set<BooleanFormula> lemmas, Object cacheKey)
       throws InterruptedException, SolverException {
-    satChecks++;
-
-    Map<Set<BooleanFormula>, Boolean> stored = groupedUnsatCache.get(cacheKey);
-    if (stored != null) {
-      for (Entry<Set<BooleanFormula>, Boolean> isUnsatResults : stored
-          .entrySet()) {
-        Set<BooleanFormula> cachedConstraints = isUnsatResults.getKey();
-        boolean cachedIsUnsat = isUnsatResults.getValue();
-
-        if (cachedIsUnsat && lemmas.containsAll(cachedConstraints)) {
-
-          // Any superset of unreachable constraints is unreachable.
-          cachedSatChecks++;
-          return true;
-        } else if (!cachedIsUnsat &&
-            cachedConstraints.containsAll(lemmas)) {
-
-          // Any subset of reachable constraints is reachable.
-          cachedSatChecks++;
-          return false;
-        }
-      }
-    }
+    satChecks.inc();
 
-    if (stored == null) {
-      stored = new HashMap<>();
-    } else {
-      stored = new HashMap<>(stored);
+    Boolean cached = groupedUnsatCache.lookup(cacheKey, lemmas);
+    if (cached != null) {
+      cachedSatChecks.inc();
+      return cached;
     }
 
     ProverOptions[] opts;
@@ -452,17 +471,15 @@ public final class Solver implements AutoCloseable {
       }
       if (pe.isUnsat()) {
         if (cacheUnsatCores) {
-          stored.put(ImmutableSet.copyOf(pe.getUnsatCore()), true);
+          groupedUnsatCache.put(cacheKey, ImmutableSet.copyOf(pe.getUnsatCore()), true);
         } else {
-          stored.put(ImmutableSet.copyOf(lemmas), true);
+          groupedUnsatCache.put(cacheKey, lemmas, true);
         }
         return true;
       } else {
-        stored.put(lemmas, false);
+        groupedUnsatCache.put(cacheKey, lemmas, false);
         return false;
       }
-    } finally {
-      groupedUnsatCache.put(cacheKey, ImmutableMap.copyOf(stored));
     }
   }
 
@@ -505,13 +522,13 @@ public final class Solver implements AutoCloseable {
    */
   public boolean implies(BooleanFormula a, BooleanFormula b) throws SolverException, InterruptedException {
     if (bfmgr.isFalse(a) || bfmgr.isTrue(b)) {
-      satChecks++;
-      trivialSatChecks++;
+      satChecks.inc();
+      trivialSatChecks.inc();
       return true;
     }
     if (a.equals(b)) {
-      satChecks++;
-      trivialSatChecks++;
+      satChecks.inc();
+      trivialSatChecks.inc();
       return true;
     }
 
@@ -527,6 +544,10 @@ public final class Solver implements AutoCloseable {
    */
   @Override
   public void close() {
+    if (queryRecorder != null) {
+      queryRecorder.close();
+    }
+
     // Reliably close both formula managers and re-throw exceptions,
     // such that no exception gets lost and both managers get closed.
     // Taken from https://stackoverflow.com/questions/24705055/wrapping-multiple-autocloseables
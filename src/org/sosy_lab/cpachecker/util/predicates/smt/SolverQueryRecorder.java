@@ -0,0 +1,279 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.io.IO;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+
+/**
+ * Writes all queries that are sent to the prover environments of a {@link Solver} into a trace
+ * file, such that they can be re-executed later by {@link SolverQueryReplay} without running the
+ * analysis.
+ *
+ * <p>The trace is a line-based text file. Each distinct formula is written only once in SMT-LIB2
+ * format and referenced by its number afterwards, and all commands reference the prover
+ * environment they belong to:
+ *
+ * <pre>
+ * formula ID LINES                      followed by LINES lines of SMT-LIB2
+ * new ENV plain|interpolating OPTIONS   OPTIONS is a comma-separated list or "-"
+ * push ENV [ID]
+ * add ENV ID
+ * pop ENV
+ * check ENV RESULT NANOS
+ * check-assumptions ENV RESULT NANOS ID...
+ * interpolant ENV RESULT NANOS INDEX...
+ * seq-interpolants ENV RESULT NANOS INDEX,INDEX... INDEX,INDEX...   "-" for an empty partition
+ * close ENV
+ * </pre>
+ *
+ * RESULT is one of the values of {@link QueryResult} in lower case, and INDEX is the position
+ * (starting with 0) of a formula among all formulas that were pushed to or added to the
+ * environment. The computed interpolants are not recorded. All methods of this class are
+ * thread-safe.
+ */
+final class SolverQueryRecorder implements AutoCloseable {
+
+  static final String HEADER = "; CPAchecker solver query trace, version 2";
+
+  /** The outcome of a recorded query. */
+  enum QueryResult {
+    SAT,
+    UNSAT,
+    /** An interpolation query that returned interpolants. */
+    OK,
+    /** The solver failed with an exception. */
+    ERROR,
+    /** The query was interrupted, e.g., by a timeout of the analysis. */
+    INTERRUPTED;
+
+    static QueryResult of(boolean pUnsat) {
+      return pUnsat ? UNSAT : SAT;
+    }
+
+    static QueryResult parse(String pResult) {
+      return valueOf(pResult.toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public String toString() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  static final Joiner SPACE_JOINER = Joiner.on(' ');
+  static final Splitter SPACE_SPLITTER = Splitter.on(' ').omitEmptyStrings();
+  static final Joiner COMMA_JOINER = Joiner.on(',');
+  static final Splitter COMMA_SPLITTER = Splitter.on(',').omitEmptyStrings();
+  static final Splitter LINE_SPLITTER = Splitter.on('\n');
+
+  private final FormulaManagerView fmgr;
+  private final LogManager logger;
+  private @Nullable Writer out;
+
+  private final Map<BooleanFormula, Integer> formulaIds = new HashMap<>();
+  private int nextEnvironmentId = 0;
+
+  private SolverQueryRecorder(FormulaManagerView pFmgr, LogManager pLogger, Writer pOut) {
+    fmgr = pFmgr;
+    logger = pLogger;
+    out = pOut;
+  }
+
+  static SolverQueryRecorder create(Path pFile, FormulaManagerView pFmgr, LogManager pLogger)
+      throws IOException {
+    Writer out = IO.openOutputFile(pFile, StandardCharsets.UTF_8);
+    out.write(HEADER + "\n");
+    return new SolverQueryRecorder(pFmgr, pLogger, out);
+  }
+
+  /** Start recording the queries of a new prover environment. */
+  synchronized Session newSession(boolean pInterpolating, ProverOptions... pOptions) {
+    int id = nextEnvironmentId++;
+    String options = pOptions.length == 0 ? "-" : COMMA_JOINER.join(pOptions);
+    write("new", id, pInterpolating ? "interpolating" : "plain", options);
+    return new Session(id);
+  }
+
+  private synchronized void write(Object... pParts) {
+    if (out == null) {
+      return;
+    }
+    try {
+      out.write(SPACE_JOINER.join(pParts));
+      out.write('\n');
+    } catch (IOException e) {
+      disable(e);
+    }
+  }
+
+  /** Returns the number of the given formula, and writes it to the trace if it is new. */
+  private synchronized int getFormulaId(BooleanFormula pFormula) {
+    Integer id = formulaIds.get(pFormula);
+    if (id == null) {
+      id = formulaIds.size();
+      formulaIds.put(pFormula, id);
+      if (out != null) {
+        List<String> lines = LINE_SPLITTER.splitToList(fmgr.dumpFormula(pFormula).toString());
+        try {
+          out.write("formula " + id + " " + lines.size() + "\n");
+          for (String line : lines) {
+            out.write(line);
+            out.write('\n');
+          }
+        } catch (IOException e) {
+          disable(e);
+        }
+      }
+    }
+    return id;
+  }
+
+  private void disable(IOException e) {
+    logger.logUserException(
+        Level.WARNING, e, "Could not write solver query trace, recording is disabled");
+    try {
+      out.close();
+    } catch (IOException e2) {
+      e.addSuppressed(e2);
+    }
+    out = null;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (out != null) {
+      try {
+        out.close();
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not write solver query trace");
+      }
+      out = null;
+    }
+  }
+
+  /** The queries of a single prover environment. */
+  final class Session {
+
+    private final int id;
+
+    /** Maps the handles returned by the prover to the index of the formula they belong to. */
+    private final Map<Object, Integer> handles = new HashMap<>();
+
+    private int constraints = 0;
+
+    private Session(int pId) {
+      id = pId;
+    }
+
+    void push() {
+      write("push", id);
+    }
+
+    void push(BooleanFormula pFormula, @Nullable Object pHandle) {
+      int formula = getFormulaId(pFormula);
+      write("push", id, formula);
+      addHandle(pHandle);
+    }
+
+    void addConstraint(BooleanFormula pFormula, @Nullable Object pHandle) {
+      int formula = getFormulaId(pFormula);
+      write("add", id, formula);
+      addHandle(pHandle);
+    }
+
+    private synchronized void addHandle(@Nullable Object pHandle) {
+      if (pHandle != null) {
+        handles.put(pHandle, constraints);
+      }
+      constraints++;
+    }
+
+    void pop() {
+      write("pop", id);
+    }
+
+    void isUnsat(QueryResult pResult, long pNanos) {
+      write("check", id, pResult, pNanos);
+    }
+
+    void isUnsatWithAssumptions(
+        Collection<BooleanFormula> pAssumptions, QueryResult pResult, long pNanos) {
+      List<Object> parts = new ArrayList<>();
+      parts.add("check-assumptions");
+      parts.add(id);
+      parts.add(pResult);
+      parts.add(pNanos);
+      for (BooleanFormula assumption : pAssumptions) {
+        parts.add(getFormulaId(assumption));
+      }
+      write(parts.toArray());
+    }
+
+    void getInterpolant(Collection<?> pFormulasOfA, QueryResult pResult, long pNanos) {
+      write("interpolant", id, pResult, pNanos, SPACE_JOINER.join(toIndices(pFormulasOfA)));
+    }
+
+    void getSeqInterpolants(
+        List<? extends Collection<?>> pPartitions, QueryResult pResult, long pNanos) {
+      List<String> partitions = new ArrayList<>(pPartitions.size());
+      for (Collection<?> partition : pPartitions) {
+        List<Integer> indices = toIndices(partition);
+        partitions.add(indices.isEmpty() ? "-" : COMMA_JOINER.join(indices));
+      }
+      write("seq-interpolants", id, pResult, pNanos, SPACE_JOINER.join(partitions));
+    }
+
+    private synchronized List<Integer> toIndices(Collection<?> pHandles) {
+      List<Integer> result = new ArrayList<>(pHandles.size());
+      for (Object handle : pHandles) {
+        Integer index = handles.get(handle);
+        if (index != null) {
+          result.add(index);
+        }
+      }
+      return result;
+    }
+
+    void close() {
+      write("close", id);
+    }
+  }
+}
@@ -0,0 +1,384 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Joiner;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.BasicLogManager;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverQueryRecorder.QueryResult;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Re-executes a trace of solver queries that was written by {@link SolverQueryRecorder} (option
+ * <code>solver.recordQueries</code>) and compares results and times with the recorded ones. This
+ * allows to benchmark different solvers and solver options offline, without running the analysis.
+ *
+ * <p>Usage: <code>SolverQueryReplay TRACE [OPTION=VALUE]...</code>, where the options are
+ * CPAchecker configuration options like <code>solver.solver=Z3</code>.
+ *
+ * <p>For interpolation queries, only whether the solver succeeded is compared, not the computed
+ * interpolants: interpolants are not unique, and different solvers or solver options usually
+ * compute different interpolants that are equally valid. Queries that were interrupted during
+ * recording are not replayed, because their result and time are not meaningful.
+ */
+public final class SolverQueryReplay {
+
+  private final Solver solver;
+  private final FormulaManagerView fmgr;
+  private final LogManager logger;
+
+  /** The formulas of the trace, null if parsing failed. */
+  private final List<@Nullable BooleanFormula> formulas = new ArrayList<>();
+
+  private final Map<Integer, BasicProverEnvironment<?>> provers = new HashMap<>();
+
+  /** The handles for all formulas that were pushed or added to each prover environment. */
+  private final Map<Integer, List<Object>> handles = new HashMap<>();
+
+  private int satChecks = 0;
+  private int interpolationQueries = 0;
+  private int differentResults = 0;
+  private int skippedQueries = 0;
+  private int interruptedQueries = 0;
+  private long recordedTime = 0;
+  private long replayTime = 0;
+
+  public SolverQueryReplay(Solver pSolver, LogManager pLogger) {
+    solver = pSolver;
+    fmgr = pSolver.getFormulaManager();
+    logger = pLogger;
+  }
+
+  public static void main(String[] args)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    if (args.length < 1) {
+      System.err.println("Usage: SolverQueryReplay TRACE [OPTION=VALUE]...");
+      System.exit(1);
+    }
+    ConfigurationBuilder configBuilder = Configuration.builder();
+    for (int i = 1; i < args.length; i++) {
+      int separator = args[i].indexOf('=');
+      checkArgument(separator > 0, "Invalid option %s, expected OPTION=VALUE", args[i]);
+      configBuilder.setOption(args[i].substring(0, separator), args[i].substring(separator + 1));
+    }
+    Configuration config = configBuilder.build();
+    LogManager logger = BasicLogManager.create(config);
+
+    try (Solver solver = Solver.create(config, logger, ShutdownNotifier.createDummy())) {
+      SolverQueryReplay replay = new SolverQueryReplay(solver, logger);
+      replay.replay(Paths.get(args[0]));
+      replay.printStatistics(System.out);
+    }
+  }
+
+  /** Execute all queries of the given trace file. */
+  public void replay(Path pTrace) throws IOException, InterruptedException {
+    try (BufferedReader in = Files.newBufferedReader(pTrace, StandardCharsets.UTF_8)) {
+      String header = in.readLine();
+      if (!SolverQueryRecorder.HEADER.equals(header)) {
+        throw new IOException("File " + pTrace + " is not a solver query trace");
+      }
+      String line;
+      while ((line = in.readLine()) != null) {
+        List<String> parts = SolverQueryRecorder.SPACE_SPLITTER.splitToList(line);
+        if (parts.isEmpty()) {
+          continue;
+        }
+        if (parts.get(0).equals("formula")) {
+          readFormula(in, Integer.parseInt(parts.get(1)), Integer.parseInt(parts.get(2)));
+        } else {
+          try {
+            execute(parts);
+          } catch (RuntimeException e) {
+            // e.g., a parse error or a query that the solver does not support
+            logger.logUserException(Level.WARNING, e, "Could not replay query: " + line);
+            skippedQueries++;
+          }
+        }
+      }
+    } finally {
+      for (BasicProverEnvironment<?> prover : provers.values()) {
+        prover.close();
+      }
+      provers.clear();
+    }
+  }
+
+  private void readFormula(BufferedReader pIn, int pId, int pLines) throws IOException {
+    List<String> lines = new ArrayList<>(pLines);
+    for (int i = 0; i < pLines; i++) {
+      String line = pIn.readLine();
+      if (line == null) {
+        throw new IOException("Unexpected end of solver query trace");
+      }
+      lines.add(line);
+    }
+    checkArgument(pId == formulas.size(), "Formulas in trace are out of order");
+    BooleanFormula formula = null;
+    try {
+      formula = fmgr.parse(Joiner.on('\n').join(lines));
+    } catch (IllegalArgumentException e) {
+      logger.logUserException(Level.WARNING, e, "Could not parse formula " + pId);
+    }
+    formulas.add(formula);
+  }
+
+  private BooleanFormula getFormula(String pId) {
+    BooleanFormula formula = formulas.get(Integer.parseInt(pId));
+    if (formula == null) {
+      throw new IllegalArgumentException("Formula " + pId + " could not be parsed");
+    }
+    return formula;
+  }
+
+  private void execute(List<String> pParts) throws InterruptedException {
+    String command = pParts.get(0);
+    int id = Integer.parseInt(pParts.get(1));
+    if (command.equals("new")) {
+      createProver(id, pParts.get(2).equals("interpolating"), pParts.get(3));
+      return;
+    }
+
+    BasicProverEnvironment<?> prover = provers.get(id);
+    if (prover == null) {
+      // creating the prover failed
+      skippedQueries++;
+      return;
+    }
+    List<Object> proverHandles = handles.get(id);
+
+    switch (command) {
+      case "push":
+        if (pParts.size() > 2) {
+          proverHandles.add(prover.push(getFormula(pParts.get(2))));
+        } else {
+          prover.push();
+        }
+        break;
+      case "add":
+        proverHandles.add(prover.addConstraint(getFormula(pParts.get(2))));
+        break;
+      case "pop":
+        prover.pop();
+        break;
+      case "check":
+        checkSat(prover, QueryResult.parse(pParts.get(2)), Long.parseLong(pParts.get(3)), null);
+        break;
+      case "check-assumptions":
+        List<BooleanFormula> assumptions = new ArrayList<>();
+        for (String formula : pParts.subList(4, pParts.size())) {
+          assumptions.add(getFormula(formula));
+        }
+        checkSat(
+            prover,
+            QueryResult.parse(pParts.get(2)),
+            Long.parseLong(pParts.get(3)),
+            assumptions);
+        break;
+      case "interpolant":
+        interpolate(
+            (InterpolatingProverEnvironment<?>) prover,
+            proverHandles,
+            QueryResult.parse(pParts.get(2)),
+            Long.parseLong(pParts.get(3)),
+            pParts.subList(4, pParts.size()),
+            false);
+        break;
+      case "seq-interpolants":
+        interpolate(
+            (InterpolatingProverEnvironment<?>) prover,
+            proverHandles,
+            QueryResult.parse(pParts.get(2)),
+            Long.parseLong(pParts.get(3)),
+            pParts.subList(4, pParts.size()),
+            true);
+        break;
+      case "close":
+        prover.close();
+        provers.remove(id);
+        handles.remove(id);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown command " + command);
+    }
+  }
+
+  private void createProver(int pId, boolean pInterpolating, String pOptions) {
+    List<ProverOptions> options = new ArrayList<>();
+    if (!pOptions.equals("-")) {
+      for (String option : SolverQueryRecorder.COMMA_SPLITTER.split(pOptions)) {
+        options.add(ProverOptions.valueOf(option));
+      }
+    }
+    ProverOptions[] optionArray = options.toArray(new ProverOptions[0]);
+    provers.put(
+        pId,
+        pInterpolating
+            ? solver.newProverEnvironmentWithInterpolation(optionArray)
+            : solver.newProverEnvironment(optionArray));
+    handles.put(pId, new ArrayList<>());
+  }
+
+  private void checkSat(
+      BasicProverEnvironment<?> pProver,
+      QueryResult pRecordedResult,
+      long pRecordedTime,
+      @Nullable List<BooleanFormula> pAssumptions)
+      throws InterruptedException {
+    if (pRecordedResult == QueryResult.INTERRUPTED) {
+      interruptedQueries++;
+      return;
+    }
+    QueryResult result;
+    long start = System.nanoTime();
+    try {
+      boolean unsat =
+          pAssumptions == null ? pProver.isUnsat() : pProver.isUnsatWithAssumptions(pAssumptions);
+      result = QueryResult.of(unsat);
+    } catch (SolverException e) {
+      logger.logDebugException(e);
+      result = QueryResult.ERROR;
+    }
+    replayTime += System.nanoTime() - start;
+    recordedTime += pRecordedTime;
+    satChecks++;
+    compareResults(pRecordedResult, result);
+  }
+
+  private void compareResults(QueryResult pRecordedResult, QueryResult pResult) {
+    if (pResult != pRecordedResult) {
+      differentResults++;
+      logger.logf(
+          Level.INFO, "Query result differs: recorded %s, replayed %s", pRecordedResult, pResult);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <E> void interpolate(
+      InterpolatingProverEnvironment<E> pProver,
+      List<Object> pHandles,
+      QueryResult pRecordedResult,
+      long pRecordedTime,
+      List<String> pPartitions,
+      boolean pSequence)
+      throws InterruptedException {
+    if (pRecordedResult == QueryResult.INTERRUPTED) {
+      interruptedQueries++;
+      return;
+    }
+    List<List<E>> partitions = new ArrayList<>();
+    for (String partition : pPartitions) {
+      List<E> partitionHandles = new ArrayList<>();
+      for (String index : SolverQueryRecorder.COMMA_SPLITTER.split(partition)) {
+        if (!index.equals("-")) {
+          partitionHandles.add((E) pHandles.get(Integer.parseInt(index)));
+        }
+      }
+      partitions.add(partitionHandles);
+    }
+    if (!pSequence) {
+      // all indices of the formulas of A are separated by spaces
+      List<E> formulasOfA = new ArrayList<>();
+      partitions.forEach(formulasOfA::addAll);
+      partitions.clear();
+      partitions.add(formulasOfA);
+    }
+
+    // the interpolants themselves are not compared, see class documentation
+    QueryResult result = QueryResult.OK;
+    long start = System.nanoTime();
+    try {
+      if (pSequence) {
+        pProver.getSeqInterpolants(partitions);
+      } else {
+        pProver.getInterpolant(partitions.get(0));
+      }
+    } catch (SolverException e) {
+      logger.logDebugException(e);
+      result = QueryResult.ERROR;
+    }
+    replayTime += System.nanoTime() - start;
+    recordedTime += pRecordedTime;
+    interpolationQueries++;
+    compareResults(pRecordedResult, result);
+  }
+
+  int getSatChecks() {
+    return satChecks;
+  }
+
+  int getInterpolationQueries() {
+    return interpolationQueries;
+  }
+
+  int getDifferentResults() {
+    return differentResults;
+  }
+
+  int getSkippedQueries() {
+    return skippedQueries;
+  }
+
+  int getInterruptedQueries() {
+    return interruptedQueries;
+  }
+
+  public void printStatistics(PrintStream pOut) {
+    StatisticsWriter.writingStatisticsTo(pOut)
+        .put("Solver", solver.getVersion())
+        .put("Number of satisfiability checks", satChecks)
+        .put("Number of interpolation queries", interpolationQueries)
+        .put("Number of skipped queries", skippedQueries)
+        .put("Number of queries interrupted during recording", interruptedQueries)
+        .put("Number of queries with different result", differentResults)
+        .put("Recorded solver time", TimeSpan.ofNanos(recordedTime).formatAs(TimeUnit.SECONDS))
+        .put("Replayed solver time", TimeSpan.ofNanos(replayTime).formatAs(TimeUnit.SECONDS));
+  }
+}
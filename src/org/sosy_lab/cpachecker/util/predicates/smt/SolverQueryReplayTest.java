@@ -0,0 +1,158 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/** Tests that queries recorded by {@link SolverQueryRecorder} can be replayed. */
+public class SolverQueryReplayTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final LogManager logger = LogManager.createTestLogManager();
+
+  private Configuration createConfig(boolean pRecord) throws Exception {
+    ConfigurationBuilder config =
+        TestDataTools.configurationForTest().setOption("solver.solver", "SMTINTERPOL");
+    if (pRecord) {
+      config.setOption("solver.recordQueries", tempFolder.getRoot() + "/trace.%d.txt");
+    }
+    return config.build();
+  }
+
+  private Path getTrace() {
+    return tempFolder.getRoot().toPath().resolve("trace.0.txt");
+  }
+
+  @Test
+  public void testRecordAndReplay() throws Exception {
+    try (Solver solver =
+        Solver.create(createConfig(true), logger, ShutdownNotifier.createDummy())) {
+      recordQueries(solver);
+    }
+
+    try (Solver solver =
+        Solver.create(createConfig(false), logger, ShutdownNotifier.createDummy())) {
+      SolverQueryReplay replay = new SolverQueryReplay(solver, logger);
+      replay.replay(getTrace());
+
+      assertThat(replay.getSatChecks()).isEqualTo(5);
+      assertThat(replay.getInterpolationQueries()).isEqualTo(2);
+      assertThat(replay.getDifferentResults()).isEqualTo(0);
+      assertThat(replay.getSkippedQueries()).isEqualTo(0);
+      assertThat(replay.getInterruptedQueries()).isEqualTo(0);
+    }
+  }
+
+  private static void recordQueries(Solver pSolver) throws Exception {
+    FormulaManagerView fmgr = pSolver.getFormulaManager();
+    IntegerFormulaManagerView imgr = fmgr.getIntegerFormulaManager();
+    IntegerFormula x = imgr.makeVariable("x");
+    BooleanFormula positive = imgr.greaterThan(x, imgr.makeNumber(0));
+    BooleanFormula negative = imgr.lessThan(x, imgr.makeNumber(0));
+
+    try (ProverEnvironment prover = pSolver.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(positive);
+      assertThat(prover.isUnsat()).isFalse();
+      prover.push(negative);
+      assertThat(prover.isUnsat()).isTrue();
+      prover.pop();
+      assertThat(prover.isUnsat()).isFalse();
+      assertThat(prover.isUnsatWithAssumptions(ImmutableList.of(negative))).isTrue();
+    }
+
+    try (InterpolatingProverEnvironment<?> prover =
+        pSolver.newProverEnvironmentWithInterpolation()) {
+      recordInterpolation(prover, positive, negative);
+    }
+  }
+
+  private static <T> void recordInterpolation(
+      InterpolatingProverEnvironment<T> pProver, BooleanFormula pA, BooleanFormula pB)
+      throws Exception {
+    T a = pProver.push(pA);
+    T b = pProver.push(pB);
+    assertThat(pProver.isUnsat()).isTrue();
+    pProver.getInterpolant(ImmutableList.of(a));
+    pProver.getSeqInterpolants(ImmutableList.of(ImmutableList.of(a), ImmutableList.of(b)));
+  }
+
+  @Test
+  public void testRecordInterruptedAndFailedQueries() throws Exception {
+    Path trace = tempFolder.getRoot().toPath().resolve("interrupted.txt");
+    ProverEnvironment delegate = mock(ProverEnvironment.class);
+    when(delegate.isUnsat())
+        .thenThrow(new InterruptedException())
+        .thenThrow(new SolverException("failure"));
+
+    try (SolverQueryRecorder recorder =
+        SolverQueryRecorder.create(trace, mock(FormulaManagerView.class), logger)) {
+      // the wrapping handler is only needed for models
+      try (ProverEnvironment prover =
+          new ProverEnvironmentView(delegate, null, recorder.newSession(false))) {
+        assertThrows(InterruptedException.class, prover::isUnsat);
+        assertThrows(SolverException.class, prover::isUnsat);
+      }
+    }
+
+    List<String> lines = Files.readAllLines(trace, StandardCharsets.UTF_8);
+    assertThat(lines.get(0)).isEqualTo(SolverQueryRecorder.HEADER);
+    assertThat(lines.get(2)).startsWith("check 0 interrupted ");
+    assertThat(lines.get(3)).startsWith("check 0 error ");
+
+    try (Solver solver =
+        Solver.create(createConfig(false), logger, ShutdownNotifier.createDummy())) {
+      SolverQueryReplay replay = new SolverQueryReplay(solver, logger);
+      replay.replay(trace);
+
+      // the interrupted query is not replayed, the failed one succeeds on the real solver
+      assertThat(replay.getInterruptedQueries()).isEqualTo(1);
+      assertThat(replay.getSatChecks()).isEqualTo(1);
+      assertThat(replay.getDifferentResults()).isEqualTo(1);
+    }
+  }
+}
@@ -28,6 +28,8 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Ordering;
 import java.io.Serializable;
 import java.util.List;
@@ -39,14 +41,24 @@ import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
 
 /**
-* This class describes a location in the memory.
-*/
+ * This class describes a location in the memory.
+ *
+ * <p>All instances created by the static factory methods are interned, i.e., equal memory
+ * locations are usually represented by the same object, such that maps and sets of memory
+ * locations in abstract states can share their keys and are mostly compared by identity. The
+ * interning is weak, so unused memory locations can still be garbage collected.
+ */
 public class MemoryLocation implements Comparable<MemoryLocation>, Serializable {
 
-  private static final long serialVersionUID = -8910967707373729034L;
+  private static final long serialVersionUID = -3417265294218301652L;
+
+  private static final Interner<MemoryLocation> INTERNER = Interners.newWeakInterner();
+
   private final String functionName;
   private final String identifier;
   private final @Nullable Long offset;
+  // not transient, such that deserialized instances of subclasses have a valid hash code, too
+  private final int hashCode;
 
   private MemoryLocation(String pFunctionName, String pIdentifier, @Nullable Long pOffset) {
     checkNotNull(pFunctionName);
@@ -55,6 +67,7 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
     functionName = pFunctionName;
     identifier = pIdentifier;
     offset = pOffset;
+    hashCode = Objects.hash(functionName, identifier, offset);
   }
 
   protected MemoryLocation(String pIdentifier, @Nullable Long pOffset) {
@@ -69,6 +82,16 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
       identifier = pIdentifier;
     }
     offset = pOffset;
+    hashCode = Objects.hash(functionName, identifier, offset);
+  }
+
+  private static MemoryLocation intern(MemoryLocation pLocation) {
+    return INTERNER.intern(pLocation);
+  }
+
+  /** Keep deserialized instances interned. Subclasses are not affected. */
+  private Object readResolve() {
+    return intern(this);
   }
 
   @Override
@@ -84,30 +107,32 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
 
     MemoryLocation otherLocation = (MemoryLocation) other;
 
-    return Objects.equals(functionName, otherLocation.functionName)
+    return hashCode == otherLocation.hashCode
+        && Objects.equals(functionName, otherLocation.functionName)
         && Objects.equals(identifier, otherLocation.identifier)
         && Objects.equals(offset, otherLocation.offset);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(functionName, identifier, offset);
+    return hashCode;
   }
 
   public static MemoryLocation valueOf(String pFunctionName, String pIdentifier) {
-    return new MemoryLocation(pFunctionName, pIdentifier, null);
+    return intern(new MemoryLocation(pFunctionName, pIdentifier, null));
   }
 
   public static MemoryLocation valueOf(String pFunctionName, String pIdentifier, long pOffset) {
-    return new MemoryLocation(pFunctionName, pIdentifier, pOffset);
+    return intern(new MemoryLocation(pFunctionName, pIdentifier, pOffset));
   }
 
   public static MemoryLocation valueOf(String pIdentifier, long pOffset) {
-    return new MemoryLocation(pIdentifier, pOffset);
+    return intern(new MemoryLocation(pIdentifier, pOffset));
   }
 
   public static MemoryLocation valueOf(String pIdentifier, OptionalLong pOffset) {
-    return new MemoryLocation(pIdentifier, pOffset.isPresent() ? pOffset.orElseThrow() : null);
+    return intern(
+        new MemoryLocation(pIdentifier, pOffset.isPresent() ? pOffset.orElseThrow() : null));
   }
 
   public static MemoryLocation valueOf(String pVariableName) {
@@ -126,14 +151,14 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
       if (hasOffset) {
         varName = varName.replace("/" + offset, "");
       }
-      return new MemoryLocation(functionName, varName, offset);
+      return intern(new MemoryLocation(functionName, varName, offset));
 
     } else {
       String varName = nameParts.get(0);
       if (hasOffset) {
         varName = varName.replace("/" + offset, "");
       }
-      return new MemoryLocation(varName.replace("/" + offset, ""), offset);
+      return intern(new MemoryLocation(varName.replace("/" + offset, ""), offset));
     }
   }
 
@@ -183,9 +208,9 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
   public MemoryLocation getReferenceStart() {
     checkState(isReference(), "Memory location is no reference: %s", this);
     if (functionName != null) {
-      return new MemoryLocation(functionName, identifier, null);
+      return intern(new MemoryLocation(functionName, identifier, null));
     } else {
-      return new MemoryLocation(identifier, null);
+      return intern(new MemoryLocation(identifier, null));
     }
   }
 
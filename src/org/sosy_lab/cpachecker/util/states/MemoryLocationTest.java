@@ -0,0 +1,91 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.states;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.junit.Test;
+
+public class MemoryLocationTest {
+
+  @Test
+  public void testInterning() {
+    MemoryLocation scoped = MemoryLocation.valueOf("main", "x");
+    assertThat(MemoryLocation.valueOf("main", "x")).isSameInstanceAs(scoped);
+    assertThat(MemoryLocation.valueOf("main::x")).isSameInstanceAs(scoped);
+
+    MemoryLocation withOffset = MemoryLocation.valueOf("main", "x", 8);
+    assertThat(MemoryLocation.valueOf("main::x/8")).isSameInstanceAs(withOffset);
+    assertThat(withOffset.getReferenceStart()).isSameInstanceAs(scoped);
+
+    MemoryLocation global = MemoryLocation.valueOf("g");
+    assertThat(MemoryLocation.valueOf("g")).isSameInstanceAs(global);
+    assertThat(global).isNotEqualTo(scoped);
+  }
+
+  @Test
+  public void testPointerToMemoryLocationNotInterned() {
+    MemoryLocation location = MemoryLocation.valueOf("p");
+    PointerToMemoryLocation pointer = PointerToMemoryLocation.valueOf("p");
+
+    assertThat(pointer).isEqualTo(location);
+    assertThat(pointer).isNotSameInstanceAs(location);
+    assertThat(MemoryLocation.valueOf("p")).isSameInstanceAs(location);
+  }
+
+  private static Object serializeAndDeserialize(Object pObject)
+      throws IOException, ClassNotFoundException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(pObject);
+    }
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return in.readObject();
+    }
+  }
+
+  @Test
+  public void testSerializationKeepsInterning() throws Exception {
+    MemoryLocation location = MemoryLocation.valueOf("main", "x", 8);
+
+    assertThat(serializeAndDeserialize(location)).isSameInstanceAs(location);
+  }
+
+  @Test
+  public void testSerializationOfPointerToMemoryLocation() throws Exception {
+    PointerToMemoryLocation pointer = PointerToMemoryLocation.valueOf("main::p");
+
+    Object copy = serializeAndDeserialize(pointer);
+    assertThat(copy).isInstanceOf(PointerToMemoryLocation.class);
+    assertThat(copy.hashCode()).isEqualTo(pointer.hashCode());
+    assertThat(copy).isEqualTo(pointer);
+    assertThat(copy).isEqualTo(MemoryLocation.valueOf("main", "p"));
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.common.time.Timer;
+
+/**
+ * Collects a snapshot of numeric metrics of a running analysis and writes them in the text format
+ * of OpenMetrics (which is also understood by Prometheus).
+ *
+ * <p>Metrics that are reported several times under the same name (e.g., by several instances of
+ * the same component) are summed up, except for gauges reported with {@link #maxGauge}, of which
+ * the maximum is taken. All names get the prefix <code>cpachecker_</code>.
+ */
+public final class MetricsCollector {
+
+  private static final String PREFIX = "cpachecker_";
+  private static final Pattern VALID_NAME = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+  private enum Type {
+    COUNTER,
+    GAUGE
+  }
+
+  private static final class Metric {
+    private final Type type;
+    private final boolean max;
+    private final String help;
+    private double value;
+
+    private Metric(Type pType, boolean pMax, String pHelp, double pValue) {
+      type = pType;
+      max = pMax;
+      help = pHelp;
+      value = pValue;
+    }
+  }
+
+  private final Map<String, Metric> metrics = new LinkedHashMap<>();
+
+  /**
+   * Report a value that only increases during the analysis, e.g., the number of iterations.
+   *
+   * @param pName the name of the metric, without prefix and without the suffix <code>_total
+   *     </code>
+   * @param pHelp a short description of the metric
+   */
+  public MetricsCollector counter(String pName, String pHelp, double pValue) {
+    return add(Type.COUNTER, false, pName, pHelp, pValue);
+  }
+
+  /** Report a value that may increase and decrease during the analysis, e.g., a size. */
+  public MetricsCollector gauge(String pName, String pHelp, double pValue) {
+    return add(Type.GAUGE, false, pName, pHelp, pValue);
+  }
+
+  /**
+   * Report a value that may increase and decrease during the analysis and that is combined with
+   * other reports under the same name by taking the maximum, e.g., a maximal size.
+   */
+  public MetricsCollector maxGauge(String pName, String pHelp, double pValue) {
+    return add(Type.GAUGE, true, pName, pHelp, pValue);
+  }
+
+  /** Report the total time measured by a timer (including a currently running interval). */
+  public MetricsCollector time(String pName, String pHelp, Timer pTimer) {
+    return time(pName, pHelp, pTimer.getSumTime());
+  }
+
+  /** Report the total time measured by all timers of a container. */
+  public MetricsCollector time(String pName, String pHelp, ThreadSafeTimerContainer pTimer) {
+    return time(pName, pHelp, pTimer.getSumTime());
+  }
+
+  private MetricsCollector time(String pName, String pHelp, TimeSpan pTime) {
+    double seconds = pTime.asNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+    return counter(pName, pHelp, seconds);
+  }
+
+  private MetricsCollector add(
+      Type pType, boolean pMax, String pName, String pHelp, double pValue) {
+    checkArgument(VALID_NAME.matcher(pName).matches(), "Invalid metric name %s", pName);
+    Metric existing = metrics.get(pName);
+    if (existing == null) {
+      metrics.put(pName, new Metric(pType, pMax, pHelp, pValue));
+    } else {
+      checkArgument(
+          existing.type == pType && existing.max == pMax,
+          "Metric %s reported with different types",
+          pName);
+      existing.value = pMax ? Math.max(existing.value, pValue) : existing.value + pValue;
+    }
+    return this;
+  }
+
+  /** Return the value collected so far for the given metric name, if any. */
+  public OptionalDouble getValue(String pName) {
+    Metric metric = metrics.get(pName);
+    return metric == null ? OptionalDouble.empty() : OptionalDouble.of(metric.value);
+  }
+
+  /** Write all collected metrics in the OpenMetrics text format. */
+  public void appendTo(Appendable pOut) throws IOException {
+    for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+      String name = PREFIX + entry.getKey();
+      Metric metric = entry.getValue();
+      String type = metric.type == Type.COUNTER ? "counter" : "gauge";
+      pOut.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+      pOut.append("# HELP ").append(name).append(' ').append(escape(metric.help)).append('\n');
+      pOut.append(name);
+      if (metric.type == Type.COUNTER) {
+        pOut.append("_total");
+      }
+      pOut.append(' ').append(formatValue(metric.value)).append('\n');
+    }
+    pOut.append("# EOF\n");
+  }
+
+  private static String escape(String pHelp) {
+    return pHelp.replace("\\", "\\\\").replace("\n", "\\n").replace("\"", "\\\"");
+  }
+
+  private static String formatValue(double pValue) {
+    if (pValue == Math.rint(pValue) && !Double.isInfinite(pValue)) {
+      return Long.toString((long) pValue);
+    }
+    return Double.toString(pValue);
+  }
+}
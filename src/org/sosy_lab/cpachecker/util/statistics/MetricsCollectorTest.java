@@ -0,0 +1,98 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.statistics;
+
+import static com.google.common.truth.Truth.assert_;
+
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsCollectorTest {
+
+  private MetricsCollector metrics;
+
+  @Before
+  public void init() {
+    metrics = new MetricsCollector();
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    metrics.appendTo(sb);
+    assert_().that(sb.toString()).isEqualTo("# EOF\n");
+  }
+
+  @Test
+  public void testFormat() throws IOException {
+    metrics.counter("iterations", "Number of iterations", 42);
+    metrics.gauge("heap_bytes", "Used heap", 1.5);
+    StringBuilder sb = new StringBuilder();
+    metrics.appendTo(sb);
+    assert_()
+        .that(sb.toString())
+        .isEqualTo(
+            "# TYPE cpachecker_iterations counter\n"
+                + "# HELP cpachecker_iterations Number of iterations\n"
+                + "cpachecker_iterations_total 42\n"
+                + "# TYPE cpachecker_heap_bytes gauge\n"
+                + "# HELP cpachecker_heap_bytes Used heap\n"
+                + "cpachecker_heap_bytes 1.5\n"
+                + "# EOF\n");
+  }
+
+  @Test
+  public void testSumOfSameName() {
+    metrics.counter("iterations", "Number of iterations", 2);
+    metrics.counter("iterations", "Number of iterations", 3);
+    assert_().that(metrics.getValue("iterations").getAsDouble()).isEqualTo(5.0);
+    assert_().that(metrics.getValue("refinements").isPresent()).isFalse();
+  }
+
+  @Test
+  public void testMaxOfSameName() {
+    metrics.maxGauge("max_size", "Max size", 7);
+    metrics.maxGauge("max_size", "Max size", 3);
+    metrics.maxGauge("max_size", "Max size", 5);
+    assert_().that(metrics.getValue("max_size").getAsDouble()).isEqualTo(7.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidName() {
+    metrics.gauge("reached-set", "Invalid", 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDifferentTypes() {
+    metrics.gauge("size", "Size", 0);
+    metrics.counter("size", "Size", 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSumAndMaxOfSameName() {
+    metrics.gauge("size", "Size", 0);
+    metrics.maxGauge("size", "Size", 0);
+  }
+}